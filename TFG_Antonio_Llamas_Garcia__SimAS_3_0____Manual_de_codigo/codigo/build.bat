@@ -56,6 +56,7 @@ javac -cp "!JAVAFX_PATH!\lib\*;!JAVAFX_PATH!\lib\itextpdf-5.5.13.3.jar" ^
       src\simulador\*.java ^
       src\utils\*.java ^
       src\gramatica\*.java ^
+      src\informe\*.java ^
       src\centroayuda\*.java
 
 if errorlevel 1 (
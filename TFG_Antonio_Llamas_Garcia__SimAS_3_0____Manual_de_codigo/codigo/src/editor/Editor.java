@@ -27,6 +27,7 @@ import java.util.Optional;
 import java.util.ResourceBundle;
 import utils.TabManager;
 import utils.ActualizableTextos;
+import utils.TareaInforme;
 
 public class Editor extends VBox implements ActualizableTextos {
 
@@ -505,31 +506,13 @@ public class Editor extends VBox implements ActualizableTextos {
             return; // Usuario canceló
         }
 
-        try {
-            // Generar el informe usando el método de la clase Gramatica
-            boolean exito = this.gramatica.generarInforme(archivo.getAbsolutePath(), bundle);
-            
-            if (exito) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle(bundle.getString("editor.informe.exito.titulo"));
-                alert.setHeaderText(null);
-                alert.setContentText(bundle.getString("editor.informe.exito.mensaje") + "\n" + archivo.getAbsolutePath());
-                alert.showAndWait();
-            } else {
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle(bundle.getString("editor.informe.error.titulo"));
-                alert.setHeaderText(null);
-                alert.setContentText(bundle.getString("editor.informe.error.gramatica.no.validada"));
-                alert.showAndWait();
-            }
-        } catch (Exception e) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle(bundle.getString("editor.informe.error.titulo"));
-            alert.setHeaderText(null);
-            alert.setContentText(bundle.getString("editor.informe.error.generacion") + "\n" + e.getMessage());
-            alert.showAndWait();
-            e.printStackTrace();
-        }
+        // El informe se genera en segundo plano sobre una copia de la gramática,
+        // así que se puede seguir editando mientras se escribe
+        Gramatica copia = new Gramatica(this.gramatica);
+        ResourceBundle bundleInforme = bundle;
+        TareaInforme.lanzar(rootPane.getScene().getWindow(), archivo, bundleInforme,
+            bundleInforme.getString("editor.informe.error.gramatica.no.validada"),
+            progreso -> copia.generarInforme(archivo.getAbsolutePath(), bundleInforme, progreso));
     }
 
     public void actualizarTextos(ResourceBundle nuevoBundle) {
@@ -1,13 +1,12 @@
 package gramatica;
 
 import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.BaseFont;
-import com.itextpdf.text.pdf.PdfWriter;
-import com.itextpdf.text.pdf.PdfPageEventHelper;
-import com.itextpdf.text.pdf.ColumnText;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.draw.LineSeparator;
+import informe.ContextoInforme;
+import informe.FormatoInforme;
+import informe.GeneradorInforme;
+import informe.ProgresoInforme;
+import informe.TablaInforme;
+import informe.TipoInforme;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -29,6 +28,8 @@ import java.util.List;
 import java.util.*;
 import java.util.logging.Level;
 import simulador.SimulacionFinal.HistorialPaso;
+import simulador.ArbolSintactico;
+import simulador.TablaLL1;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.Enumeration;
@@ -55,19 +56,13 @@ public class Gramatica {
     private ObservableList<String> term = FXCollections.observableArrayList();
     private final ObservableList<String> producciones = FXCollections.observableArrayList();
 
+    // Patrones léxicos de los terminales por nombre. Se guardan aparte porque los
+    // objetos Terminal se vuelven a crear cada vez que cambia el modelo de nombres
+    private final Map<String, String> patronesTerminales = new HashMap<>();
+
     private TablaPredictiva tpredictiva = new TablaPredictiva();
     //private NuevaDerivacionDescGenerada derivacionGeneradaDesc;
 
-    // Clase interna para representar nodos del árbol sintáctico
-    private static class NodoArbol {
-        String valor;
-        List<NodoArbol> hijos = new ArrayList<>();
-
-        NodoArbol(String valor) {
-            this.valor = valor;
-        }
-    }
-
     // Constructor con parámetros
     public Gramatica(String nombre, String descripcion) {
         this.nombre.set(nombre);
@@ -83,6 +78,7 @@ public class Gramatica {
         this.estado.set(gramatica.getEstado());
         this.noTerm.setAll(gramatica.getNoTerminalesModel());
         this.term.setAll(gramatica.getTerminalesModel());
+        this.patronesTerminales.putAll(gramatica.patronesTerminales);
         this.producciones.setAll(gramatica.getProduccionesModel());
         this.simbInicial.set(gramatica.getSimbInicial());
         this.noTerminales.setAll(gramatica.getNoTerminales());
@@ -234,7 +230,7 @@ public class Gramatica {
         // Actualizar la lista de Terminales a partir de la lista de cadenas 'term'
         if (term != null) {
             for (String s : term) {
-                Terminal terminal = new Terminal(s, s);
+                Terminal terminal = new Terminal(s, s, patronesTerminales.get(s));
                 this.terminales.add(terminal);
             }
             // También se guarda la lista de strings para la UI
@@ -264,6 +260,15 @@ public class Gramatica {
     }
 
     public void setTerminales(ObservableList<Terminal> terminales) {
+        // Los patrones se rehacen con los terminales nuevos: el de cada terminal o,
+        // si no trae ninguno, el que ya tenía ese nombre
+        Map<String, String> patrones = new HashMap<>();
+        for (Terminal t : terminales) {
+            String patron = t.tienePatron() ? t.getPatron() : patronesTerminales.get(t.getNombre());
+            if (patron != null) patrones.put(t.getNombre(), patron);
+        }
+        patronesTerminales.clear();
+        patronesTerminales.putAll(patrones);
         if (!this.terminales.equals(terminales)) {
             this.terminales.setAll(terminales);
         }
@@ -275,8 +280,46 @@ public class Gramatica {
     }
 
     public void setTerminalesModel(ObservableList<String> term) {
+        // Los patrones de terminales borrados o renombrados se descartan
+        patronesTerminales.keySet().retainAll(term);
         this.term.setAll(term);
-        this.terminales.setAll(term.stream().map(s -> new Terminal(s, s)).collect(Collectors.toList()));
+        this.terminales.setAll(term.stream().map(s -> new Terminal(s, s, patronesTerminales.get(s))).collect(Collectors.toList()));
+    }
+
+    /**
+     * Patrón léxico del terminal indicado, o null si se reconoce por su nombre.
+     */
+    public String getPatronTerminal(String nombre) {
+        return patronesTerminales.get(nombre);
+    }
+
+    /**
+     * Asigna al terminal una expresión regular para sus lexemas (por ejemplo
+     * "[0-9]+" para "num"), o la quita si es null o vacía.
+     */
+    public void setPatronTerminal(String nombre, String patron) {
+        // El mapa y el terminal guardan el mismo valor normalizado
+        String normalizado = patron == null || patron.trim().isEmpty() ? null : patron.trim();
+        if (normalizado == null) {
+            patronesTerminales.remove(nombre);
+        } else {
+            patronesTerminales.put(nombre, normalizado);
+        }
+        for (Terminal t : terminales) {
+            if (t.getNombre().equals(nombre)) t.setPatron(normalizado);
+        }
+    }
+
+    /**
+     * Indica si algún terminal actual de la gramática tiene patrón léxico.
+     * Se comprueba sobre la lista de terminales porque la interfaz la puede
+     * modificar directamente, sin pasar por los métodos que ajustan los patrones.
+     */
+    public boolean tienePatronesTerminales() {
+        for (String t : term) {
+            if (patronesTerminales.containsKey(t)) return true;
+        }
+        return false;
     }
 
     // Métodos para no terminales
@@ -423,6 +466,10 @@ public class Gramatica {
         for (String t : termModel) {
             sb.append("\t\t<terminal>\n");
             sb.append("\t\t\t<value>").append(t).append("</value>\n");
+            if (getPatronTerminal(t) != null) {
+                // Los patrones contienen con frecuencia caracteres reservados de XML
+                sb.append("\t\t\t<pattern>").append(escaparXml(getPatronTerminal(t))).append("</pattern>\n");
+            }
             sb.append("\t\t</terminal>\n");
         }
         sb.append("\t</terminal-symbols>\n");
@@ -471,6 +518,10 @@ public class Gramatica {
     }
 
 
+    private static String escaparXml(String texto) {
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
     public Gramatica cargarGramatica(Window ownerWindow) {
         // Crear y configurar el FileChooser
         FileChooser fileChooser = new FileChooser();
@@ -482,7 +533,15 @@ public class Gramatica {
             // El usuario canceló la operación
             return null;
         }
+        return cargarDesdeArchivo(file);
+    }
 
+    /**
+     * Lee una gramática de un archivo XML de SimAS, sin diálogos, por ejemplo
+     * para procesar por lotes.
+     * @return La gramática, o null si el archivo no se puede leer
+     */
+    public static Gramatica cargarDesdeArchivo(File file) {
         // Extraer el nombre del archivo sin extensión
         String nombreArchivo = file.getName();
         if (nombreArchivo.contains(".")) {
@@ -537,7 +596,8 @@ public class Gramatica {
 
             gramatica.setNoTerminalesModel(NT);
 
-            // Extraer símbolos terminales
+            // Extraer símbolos terminales y sus patrones léxicos opcionales
+            Map<String, String> patrones = new HashMap<>();
             NodeList nodeTerminalSymbols = doc.getElementsByTagName("terminal");
             for (int i = 0; i < nodeTerminalSymbols.getLength(); i++) {
                 Node nodo = nodeTerminalSymbols.item(i);
@@ -547,9 +607,15 @@ public class Gramatica {
                     if (valueNode.getLength() > 0) {
                         String tValue = valueNode.item(0).getTextContent();
                         termModel.add(tValue);
+                        NodeList patternNode = elemento.getElementsByTagName("pattern");
+                        if (patternNode.getLength() > 0) {
+                            patrones.put(tValue, patternNode.item(0).getTextContent());
+                        }
                     }
                 }
             }
+            // Los patrones se asignan antes de crear los terminales para que los conserven
+            patrones.forEach(gramatica::setPatronTerminal);
             // Asumimos que gramatica tiene un método setTerminales que acepta ObservableList<String>
             gramatica.setTerminalesModel(termModel);
 
@@ -777,16 +843,27 @@ public class Gramatica {
 
     public Boolean generarInforme(String fichero) throws DocumentException {
         // Método original para compatibilidad - usa español por defecto
+        ResourceBundle bundle;
         try {
-            ResourceBundle bundle = ResourceBundle.getBundle("utils.messages", new java.util.Locale("es"));
-            return generarInforme(fichero, bundle);
-        } catch (Exception e) {
+            bundle = ResourceBundle.getBundle("utils.messages", new java.util.Locale("es"));
+        } catch (java.util.MissingResourceException e) {
             // Si no se puede cargar el bundle, usar valores por defecto
-            return generarInforme(fichero, null);
+            bundle = null;
         }
+        return generarInforme(fichero, bundle);
     }
     
     public Boolean generarInforme(String fichero, ResourceBundle bundle) throws DocumentException {
+        return generarInforme(fichero, bundle, ProgresoInforme.NINGUNO);
+    }
+
+    /**
+     * Genera el informe de la gramática avisando del comienzo de cada sección.
+     * @throws java.util.concurrent.CancellationException Si el progreso se cancela;
+     *         el archivo a medias se borra
+     * @throws DocumentException Si no se puede escribir el informe; el archivo a medias se borra
+     */
+    public Boolean generarInforme(String fichero, ResourceBundle bundle, ProgresoInforme progreso) throws DocumentException {
         // Solo genera el informe si la gramática está validada (estado==1)
         if (this.getEstado() == 1) {
             // Si no hay bundle, usar valores por defecto en español
@@ -831,125 +908,10 @@ public class Gramatica {
                 };
             }
             try {
-                // Configuración inicial del documento - ESTILOS PROFESIONALES IDÉNTICOS
-                String fontPath = "fonts/arial.ttf";
-                Document document = new Document(PageSize.A4, 50, 50, 80, 50);
-
-                // Crear el PdfWriter con gestión avanzada de páginas
-                PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(fichero));
-
-                // Configurar esquema de colores profesional - IDÉNTICOS a los métodos profesionales
-                BaseColor colorPrimario = new BaseColor(41, 128, 185);     // Azul profesional
-                BaseColor colorSecundario = new BaseColor(52, 152, 219);   // Azul claro
-                BaseColor colorAcento = new BaseColor(230, 126, 34);       // Naranja
-                BaseColor colorNeutro = new BaseColor(149, 165, 166);      // Gris neutro
-
-                // Fuentes tipográficas profesionales - IDÉNTICAS
-                BaseFont bf = BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-                BaseFont bfMono = BaseFont.createFont(BaseFont.COURIER, BaseFont.CP1252, BaseFont.EMBEDDED);
-
-                Font tituloPortada = new Font(bf, 32, Font.BOLD);
-                Font subtituloPortada = new Font(bf, 20, Font.BOLD);
-                Font tituloSeccion = new Font(bf, 18, Font.BOLD);
-                Font subtituloSeccion = new Font(bf, 14, Font.BOLD);
-                Font contenidoNormal = new Font(bf, 11);
-                Font contenidoMono = new Font(bfMono, 10);
-                Font piePagina = new Font(bf, 9, Font.ITALIC);
-
-                tituloPortada.setColor(colorPrimario);
-                subtituloPortada.setColor(colorSecundario);
-                tituloSeccion.setColor(colorPrimario);
-                subtituloSeccion.setColor(colorAcento);
-                contenidoNormal.setColor(BaseColor.BLACK);
-                piePagina.setColor(colorNeutro);
-
-                // Configurar separadores visuales - IDÉNTICOS
-                LineSeparator separadorPrincipal = new LineSeparator();
-                separadorPrincipal.setLineWidth(3);
-                separadorPrincipal.setLineColor(colorPrimario);
-
-                LineSeparator separadorSecundario = new LineSeparator();
-                separadorSecundario.setLineWidth(1);
-                separadorSecundario.setLineColor(colorNeutro);
-
-                // Event handler para encabezados y pies de página - IDÉNTICO
-                final ResourceBundle finalBundle = bundle;
-                final BaseFont finalBf = bf;
-                final BaseColor finalColorNeutro = colorNeutro;
-
-                writer.setPageEvent(new PdfPageEventHelper() {
-                    @Override
-                    public void onEndPage(PdfWriter writer, Document document) {
-                        try {
-                            // Pie de página con numeración
-                            Font fontPie = new Font(finalBf, 9, Font.ITALIC);
-                            fontPie.setColor(finalColorNeutro);
-
-                            ColumnText.showTextAligned(writer.getDirectContent(),
-                                Paragraph.ALIGN_CENTER,
-                                new Phrase(String.format("%s %d", finalBundle.getString("informe.pagina"), writer.getPageNumber()), fontPie),
-                                (document.right() - document.left()) / 2 + document.leftMargin(),
-                                document.bottom() - 15, 0);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
-
-                    @Override
-                    public void onStartPage(PdfWriter writer, Document document) {
-                        // Encabezado eliminado - no mostrar título en cada página
-                    }
-                });
-
-                document.open();
-
-                // ========================================
-                // PÁGINA 1: PORTADA PROFESIONAL - IDÉNTICA
-                // ========================================
-                crearPortadaProfesional(document, bf, tituloPortada, subtituloPortada, separadorPrincipal, bundle, colorPrimario, colorSecundario);
-
-                // ========================================
-                // PÁGINA 2: CONTENIDO - SOLO GRAMÁTICA ORIGINAL
-                // ========================================
-                document.newPage();
-
-                // ========================================
-                // SECCIÓN ÚNICA: GRAMÁTICA ORIGINAL
-                // ========================================
-                Paragraph tituloGramaticaOriginal = new Paragraph(bundle.getString("informe.editor.gramatica.original"), tituloSeccion);
-                document.add(tituloGramaticaOriginal);
-                document.add(new Chunk(separadorSecundario));
-                document.add(new Paragraph(" ", new Font(bf, 10)));
-
-                // Información básica de la gramática usando el método profesional
-                agregarInformacionGramatica(document, bf, subtituloSeccion, contenidoNormal, contenidoMono,
-                                          bundle, this, "original", colorPrimario, colorSecundario);
-
-                // ========================================
-                // INFORMACIÓN FINAL - IDÉNTICA AL INFORME DE SIMULACIÓN
-                // ========================================
-                document.add(new Paragraph(" ", new Font(bf, 25)));
-
-                // Información adicional
-                Font infoFont = new Font(bf, 10);
-                infoFont.setColor(BaseColor.GRAY);
-                Paragraph infoAdicional = new Paragraph(bundle.getString("informe.profesional.conclusion.creditos"), infoFont);
-                infoAdicional.setAlignment(Paragraph.ALIGN_CENTER);
-                document.add(infoAdicional);
-
-                Paragraph fechaConclusion = new Paragraph(bundle.getString("informe.profesional.fecha") + " " +
-                    java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")), infoFont);
-                fechaConclusion.setAlignment(Paragraph.ALIGN_CENTER);
-                document.add(fechaConclusion);
-
-                document.close();
-
-            } catch (BadElementException ex) {
-                Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de elemento en PDF", ex);
+                ContextoInforme contexto = new ContextoInforme(this);
+                GeneradorInforme.generar(fichero, TipoInforme.GRAMATICA.secciones(contexto), contexto, bundle, progreso);
             } catch (IOException ex) {
-                Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de E/S en PDF", ex);
-            } catch (Exception ex) { // Para capturar cualquier otra excepción
-                Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error general en generación de PDF", ex);
+                throw errorInforme(ex);
             }
         } else {
             return false;
@@ -960,1369 +922,109 @@ public class Gramatica {
     /**
      * Genera un informe PDF completo del simulador siguiendo el mismo formato profesional
      * pero sin las secciones: resumen ejecutivo, información de simulación, historial de pasos,
-     * derivación, árbol sintáctico y conclusión.
+     * derivación, árbol sintáctico y conclusión. Lee la tabla predictiva, así
+     * que se llama en el hilo de la interfaz.
+     * @throws DocumentException Si no se puede escribir el informe; el archivo a medias se borra
      */
     public Boolean generarInformeSimulador(String fichero, Gramatica gramaticaOriginal, TablaPredictiva tablaPredictiva, 
                                          List<FuncionError> funcionesError, ResourceBundle bundle) throws DocumentException {
         try {
-            // Configuración inicial del documento
-            String fontPath = "fonts/arial.ttf";
-            Document document = new Document(PageSize.A4, 50, 50, 80, 50);
-            
-            // Crear el PdfWriter con gestión avanzada de páginas
-            PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(fichero));
-            
-            // Configurar esquema de colores profesional
-            BaseColor colorPrimario = new BaseColor(41, 128, 185);     // Azul profesional
-            BaseColor colorSecundario = new BaseColor(52, 152, 219);   // Azul claro
-            BaseColor colorAcento = new BaseColor(230, 126, 34);       // Naranja
-            BaseColor colorNeutro = new BaseColor(149, 165, 166);      // Gris neutro
-            BaseColor colorFondoCabecera = new BaseColor(236, 240, 241); // Gris muy claro
-
-            // Fuentes tipográficas profesionales
-            BaseFont bf = BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            BaseFont bfMono = BaseFont.createFont(BaseFont.COURIER, BaseFont.CP1252, BaseFont.EMBEDDED);
-
-            Font tituloPortada = new Font(bf, 32, Font.BOLD);
-            Font subtituloPortada = new Font(bf, 20, Font.BOLD);
-            Font tituloSeccion = new Font(bf, 18, Font.BOLD);
-            Font subtituloSeccion = new Font(bf, 14, Font.BOLD);
-            Font contenidoNormal = new Font(bf, 11);
-            Font contenidoMono = new Font(bfMono, 10);
-            Font piePagina = new Font(bf, 9, Font.ITALIC);
-
-            tituloPortada.setColor(colorPrimario);
-            subtituloPortada.setColor(colorSecundario);
-            tituloSeccion.setColor(colorPrimario);
-            subtituloSeccion.setColor(colorAcento);
-            contenidoNormal.setColor(BaseColor.BLACK);
-            piePagina.setColor(colorNeutro);
-
-            // Configurar separadores visuales
-            LineSeparator separadorPrincipal = new LineSeparator();
-            separadorPrincipal.setLineWidth(3);
-            separadorPrincipal.setLineColor(colorPrimario);
-
-            LineSeparator separadorSecundario = new LineSeparator();
-            separadorSecundario.setLineWidth(1);
-            separadorSecundario.setLineColor(colorNeutro);
-
-            // Event handler para encabezados y pies de página
-            final ResourceBundle finalBundle = bundle;
-            final BaseFont finalBf = bf;
-            final BaseColor finalColorNeutro = colorNeutro;
-
-            writer.setPageEvent(new PdfPageEventHelper() {
-                @Override
-                public void onEndPage(PdfWriter writer, Document document) {
-                    try {
-                        // Pie de página con numeración
-                        Font fontPie = new Font(finalBf, 9, Font.ITALIC);
-                        fontPie.setColor(finalColorNeutro);
-
-                        ColumnText.showTextAligned(writer.getDirectContent(), 
-                            Paragraph.ALIGN_CENTER, 
-                            new Phrase(String.format("%s %d", finalBundle.getString("informe.pagina"), writer.getPageNumber()), fontPie),
-                            (document.right() - document.left()) / 2 + document.leftMargin(), 
-                            document.bottom() - 15, 0);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-
-                @Override
-                public void onStartPage(PdfWriter writer, Document document) {
-                    // Encabezado eliminado - no mostrar título en cada página
-                }
-            });
-
-            document.open();
-            
-            // Determinar qué secciones estarán presentes
-            boolean hasFuncionesError = funcionesError != null && !funcionesError.isEmpty();
-            boolean hasTablaPredictiva = tablaPredictiva != null;
-
-            // ========================================
-            // PÁGINA 1: PORTADA PROFESIONAL
-            // ========================================
-            crearPortadaProfesional(document, bf, tituloPortada, subtituloPortada, separadorPrincipal, bundle, colorPrimario, colorSecundario);
-
-            // ========================================
-            // PÁGINA 2: ÍNDICE AUTOMÁTICO
-            // ========================================
-            document.newPage();
-            crearIndiceSimulador(document, bf, tituloSeccion, contenidoNormal, separadorSecundario, bundle, hasFuncionesError, hasTablaPredictiva);
-
-            // ========================================
-            // CONTENIDO DETALLADO (SIN SECCIONES EXCLUIDAS)
-            // ========================================
-            document.newPage();
-
-            // ========================================
-            // SECCIÓN 1: GRAMÁTICA ORIGINAL
-            // ========================================
-            Paragraph tituloGramaticaOriginal = new Paragraph("1. " + bundle.getString("informe.simulador.gramatica.original").toUpperCase(), tituloSeccion);
-            document.add(tituloGramaticaOriginal);
-            document.add(new Chunk(separadorSecundario));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            // Información básica
-            agregarInformacionGramatica(document, bf, subtituloSeccion, contenidoNormal, contenidoMono,
-                                      bundle, gramaticaOriginal, "original", colorPrimario, colorSecundario);
-
-            // ========================================
-            // SECCIÓN 2: GRAMÁTICA MODIFICADA
-            // ========================================
-            document.newPage();
-            Paragraph tituloGramaticaModificada = new Paragraph("2. " + bundle.getString("informe.simulador.gramatica.modificada").toUpperCase(), tituloSeccion);
-            document.add(tituloGramaticaModificada);
-            document.add(new Chunk(separadorSecundario));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            agregarInformacionGramatica(document, bf, subtituloSeccion, contenidoNormal, contenidoMono,
-                                      bundle, this, "modificada", colorPrimario, colorSecundario);
-
-            // ========================================
-            // SECCIÓN 3: FUNCIONES DE ERROR
-            // ========================================
-            int seccionNumero = 3;
-            if (funcionesError != null && !funcionesError.isEmpty()) {
-                document.newPage();
-                Paragraph tituloFuncionesError = new Paragraph(seccionNumero + ". " + bundle.getString("informe.simulador.funciones.error").toUpperCase(), tituloSeccion);
-                document.add(tituloFuncionesError);
-                document.add(new Chunk(separadorSecundario));
-                document.add(new Paragraph(" ", new Font(bf, 10)));
-
-                agregarFuncionesError(document, bf, contenidoNormal, bundle, funcionesError,
-                                    colorPrimario, colorSecundario, colorFondoCabecera, colorAcento);
-                seccionNumero++;
-            }
-
-            // ========================================
-            // SECCIÓN 4: TABLA PREDICTIVA
-            // ========================================
-            if (tablaPredictiva != null) {
-            document.newPage();
-                Paragraph tituloTablaPredictiva = new Paragraph(seccionNumero + ". " + bundle.getString("informe.simulador.tabla.predictiva").toUpperCase(), tituloSeccion);
-                document.add(tituloTablaPredictiva);
-                document.add(new Chunk(separadorSecundario));
-                document.add(new Paragraph(" ", new Font(bf, 10)));
-
-                agregarTablaPredictivaMejorada(document, tablaPredictiva, bundle, bf, contenidoNormal,
-                                             colorPrimario, colorSecundario, colorFondoCabecera);
-                seccionNumero++;
-            }
-
-            // ========================================
-            // INFORMACIÓN FINAL - IDÉNTICA AL INFORME DE SIMULACIÓN
-            // ========================================
-            document.add(new Paragraph(" ", new Font(bf, 25)));
-
-            // Información adicional
-            Font infoFont = new Font(bf, 10);
-            infoFont.setColor(BaseColor.GRAY);
-            Paragraph infoAdicional = new Paragraph(bundle.getString("informe.profesional.conclusion.creditos"), infoFont);
-            infoAdicional.setAlignment(Paragraph.ALIGN_CENTER);
-            document.add(infoAdicional);
-
-            Paragraph fechaConclusion = new Paragraph(bundle.getString("informe.profesional.fecha") + " " +
-                java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")), infoFont);
-            fechaConclusion.setAlignment(Paragraph.ALIGN_CENTER);
-            document.add(fechaConclusion);
-            
-            document.close();
-            
-        } catch (BadElementException ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de elemento en PDF", ex);
+            TablaInforme tabla = tablaPredictiva != null && tablaPredictiva.getFilas() != null
+                ? new TablaInforme(TablaLL1.desdeFilas(this, tablaPredictiva.getFilas()), this) : null;
+            ContextoInforme contexto = new ContextoInforme(this, gramaticaOriginal, tabla, funcionesError);
+            GeneradorInforme.generar(fichero, TipoInforme.SIMULADOR.secciones(contexto), contexto, bundle,
+                                     ProgresoInforme.NINGUNO);
         } catch (IOException ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de E/S en PDF", ex);
-        } catch (Exception ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error general en generación de PDF", ex);
+            throw errorInforme(ex);
         }
         return true;
     }
 
-        /**
-     * Verifica si un símbolo es terminal
-     */
-    private boolean esTerminal(String simbolo) {
-        return !this.getNoTerminalesModel().contains(simbolo);
-    }
-
     /**
-     * Construye el árbol sintáctico desde el historial de simulación
-     */
-    private NodoArbol construirArbolDesdeHistorial(List<HistorialPaso> historial) {
-        // Creamos la raíz con el símbolo inicial
-        NodoArbol raiz = new NodoArbol(this.getSimbInicial());
-
-        // Crear una copia del historial para no modificar el original
-        List<HistorialPaso> historialCopia = new ArrayList<>(historial);
-        construirRecursivo(raiz, historialCopia);
-
-        return raiz;
-    }
-
-    /**
-     * Función recursiva para construir el árbol
-     */
-    private void construirRecursivo(NodoArbol nodo, List<HistorialPaso> pasos) {
-        if (pasos.isEmpty()) {
-            return;
-        }
-
-        // Buscar la producción que expande este nodo
-        for (int i = 0; i < pasos.size(); i++) {
-            HistorialPaso paso = pasos.get(i);
-            String accion = paso.getAccion();
-
-            // Si es una producción (contiene una flecha)
-            if (accion.contains("→")) {
-                // Eliminar el número de producción si existe
-                String accionLimpia = accion.replaceAll("^\\d+\\.\\s*", "").trim();
-                String[] partes = accionLimpia.split("→");
-                String izquierda = partes[0].trim();
-                String derecha = partes[1].trim();
-
-                // Si esta producción corresponde al nodo actual
-                if (izquierda.equals(nodo.valor)) {
-                    // Dividir la parte derecha en símbolos
-                    String[] simbolos = derecha.split("\\s+");
-
-                    // Crear nodos hijos para cada símbolo
-                    for (String simbolo : simbolos) {
-                        if (!simbolo.isEmpty()) {
-                            NodoArbol hijo = new NodoArbol(simbolo);
-                            nodo.hijos.add(hijo);
-
-                            // Si el hijo es no terminal, procesarlo recursivamente
-                            if (!esTerminal(simbolo)) {
-                                // Crear una nueva lista con los pasos restantes
-                                List<HistorialPaso> pasosRestantes = new ArrayList<>(pasos.subList(i + 1, pasos.size()));
-                                construirRecursivo(hijo, pasosRestantes);
-                            }
-                        }
-                    }
-                    break; // Solo procesar la primera producción que coincida
-                }
-            }
-        }
-    }
-
-    /**
-     * Genera código DOT desde el árbol sintáctico
-     */
-    private String generarDotDesdeArbol(NodoArbol raiz) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("digraph G {\n");
-        sb.append("  node [shape=box, style=rounded, fontname=\"Arial\"];\n");
-        sb.append("  edge [arrowhead=none];\n");
-
-        // Usar un contador para generar IDs únicos de nodos
-        int[] idCounter = {0};
-        generarDotRec(raiz, sb, idCounter, null);
-
-        sb.append("}\n");
-        return sb.toString();
-    }
-
-    /**
-     * Función recursiva para generar código DOT
-     */
-    private void generarDotRec(NodoArbol nodo, StringBuilder sb, int[] id, String parentId) {
-        String myId = "n" + id[0]++;
-        sb.append(myId + " [label=\"" + nodo.valor.replace("\"", "\\\"") + "\"];\n");
-        if (parentId != null) {
-            sb.append(parentId + " -> " + myId + ";\n");
-        }
-        for (NodoArbol hijo : nodo.hijos) {
-            generarDotRec(hijo, sb, id, myId);
-        }
-    }
-
-    /**
-     * Genera la imagen del árbol sintáctico y la añade al PDF
+     * Genera un informe PDF profesional y visualmente atractivo de la simulación
+     * Incluye portada, índice, resumen ejecutivo, y contenido formateado con colores y estilos.
+     * El árbol sintáctico es el que ha construido el motor durante la simulación.
      */
-    private void agregarImagenArbolAlPDF(Document document, List<HistorialPaso> historialPasos) {
-        try {
-            // Verificar si hay historial disponible
-            if (historialPasos == null || historialPasos.isEmpty()) {
-                return;
-            }
-
-            // Construir el árbol desde el historial
-            NodoArbol raiz = construirArbolDesdeHistorial(historialPasos);
-
-            // Generar código DOT
-            String dotCode = generarDotDesdeArbol(raiz);
-
-            // Crear archivos temporales
-            java.nio.file.Path dotFile = java.nio.file.Files.createTempFile("arbol_pdf_", ".dot");
-            java.nio.file.Path imgFile = java.nio.file.Files.createTempFile("arbol_pdf_", ".png");
-
-            try {
-                // Escribir código DOT al archivo
-                java.nio.file.Files.write(dotFile, dotCode.getBytes());
-
-                // Ejecutar Graphviz para generar la imagen
-                ProcessBuilder pb = new ProcessBuilder("dot", "-Tpng", dotFile.toString(), "-o", imgFile.toString());
-                Process process = pb.start();
-                int exitCode = process.waitFor();
-
-                if (exitCode == 0 && java.nio.file.Files.exists(imgFile)) {
-                    // Crear imagen para el PDF usando iText
-                    com.itextpdf.text.Image imagenArbol = com.itextpdf.text.Image.getInstance(imgFile.toString());
-
-                    // Configurar la imagen para que quepa en el PDF
-                    float maxWidth = document.getPageSize().getWidth() - document.leftMargin() - document.rightMargin();
-                    float maxHeight = 300; // Altura máxima fija
-
-                    // Calcular escala para ajustar la imagen
-                    float scaleX = maxWidth / imagenArbol.getWidth();
-                    float scaleY = maxHeight / imagenArbol.getHeight();
-                    float scale = Math.min(scaleX, scaleY);
-
-                    imagenArbol.scalePercent(scale * 100);
-
-                    // Centrar la imagen
-                    imagenArbol.setAlignment(com.itextpdf.text.Image.ALIGN_CENTER);
-
-                    // Añadir la imagen al documento
-                    document.add(imagenArbol);
-                }
-            } finally {
-                // Limpiar archivos temporales
-                try {
-                    java.nio.file.Files.deleteIfExists(dotFile);
-                    java.nio.file.Files.deleteIfExists(imgFile);
-                } catch (Exception e) {
-                    // Ignorar errores al limpiar archivos temporales
-                }
-            }
-        } catch (Exception e) {
-            // Si hay algún error (GraphViz no disponible, etc.), simplemente no añadir la imagen
-            // Esto es mejor que fallar toda la generación del PDF
-            Logger.getLogger(getClass().getName()).log(Level.WARNING,
-                "No se pudo generar la imagen del árbol sintáctico: " + e.getMessage());
-        }
+    public Boolean generarInformeSimulacionFinalProfesional(String fichero, Gramatica gramaticaOriginal, TablaInforme tablaPredictiva,
+                                         List<FuncionError> funcionesError, ResourceBundle bundle, String cadenaEntrada,
+                                         String estadoSimulacion, List<HistorialPaso> historialPasos,
+                                         ArbolSintactico arbol) throws DocumentException {
+        return generarInformeSimulacionFinalProfesional(fichero, gramaticaOriginal, tablaPredictiva, funcionesError,
+                                                        bundle, cadenaEntrada, estadoSimulacion, historialPasos, arbol,
+                                                        ProgresoInforme.NINGUNO);
     }
 
     /**
-     * Genera un informe PDF profesional y visualmente atractivo de la simulación
-     * Incluye portada, índice, resumen ejecutivo, y contenido formateado con colores y estilos
+     * Genera el informe PDF de la simulación avisando del comienzo de cada sección.
+     * @throws java.util.concurrent.CancellationException Si el progreso se cancela;
+     *         el archivo a medias se borra
+     * @throws DocumentException Si no se puede escribir el informe; el archivo a medias se borra
      */
-    public Boolean generarInformeSimulacionFinalProfesional(String fichero, Gramatica gramaticaOriginal, TablaPredictiva tablaPredictiva,
+    public Boolean generarInformeSimulacionFinalProfesional(String fichero, Gramatica gramaticaOriginal, TablaInforme tablaPredictiva,
                                          List<FuncionError> funcionesError, ResourceBundle bundle, String cadenaEntrada,
-                                         String estadoSimulacion, List<HistorialPaso> historialPasos) throws DocumentException {
+                                         String estadoSimulacion, List<HistorialPaso> historialPasos,
+                                         ArbolSintactico arbol, ProgresoInforme progreso) throws DocumentException {
         try {
-            // Configuración inicial del documento
-            String fontPath = "fonts/arial.ttf";
-            Document document = new Document(PageSize.A4, 50, 50, 80, 50);
-
-            // Crear el PdfWriter con gestión avanzada de páginas
-            PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(fichero));
-
-            // Configurar esquema de colores profesional
-            BaseColor colorPrimario = new BaseColor(41, 128, 185);     // Azul profesional
-            BaseColor colorSecundario = new BaseColor(52, 152, 219);   // Azul claro
-            BaseColor colorAcento = new BaseColor(230, 126, 34);       // Naranja
-            BaseColor colorExito = new BaseColor(46, 204, 113);        // Verde éxito
-            BaseColor colorError = new BaseColor(231, 76, 60);         // Rojo error
-            BaseColor colorNeutro = new BaseColor(149, 165, 166);      // Gris neutro
-            BaseColor colorFondoCabecera = new BaseColor(236, 240, 241); // Gris muy claro
-
-            // Fuentes tipográficas profesionales
-            BaseFont bf = BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
-            BaseFont bfMono = BaseFont.createFont(BaseFont.COURIER, BaseFont.CP1252, BaseFont.EMBEDDED);
-
-            Font tituloPortada = new Font(bf, 32, Font.BOLD);
-            Font subtituloPortada = new Font(bf, 20, Font.BOLD);
-            Font tituloSeccion = new Font(bf, 18, Font.BOLD);
-            Font subtituloSeccion = new Font(bf, 14, Font.BOLD);
-            Font contenidoNormal = new Font(bf, 11);
-            Font contenidoMono = new Font(bfMono, 10);
-            Font piePagina = new Font(bf, 9, Font.ITALIC);
-
-            tituloPortada.setColor(colorPrimario);
-            subtituloPortada.setColor(colorSecundario);
-            tituloSeccion.setColor(colorPrimario);
-            subtituloSeccion.setColor(colorAcento);
-            contenidoNormal.setColor(BaseColor.BLACK);
-            piePagina.setColor(colorNeutro);
-
-            // Configurar separadores visuales
-            LineSeparator separadorPrincipal = new LineSeparator();
-            separadorPrincipal.setLineWidth(3);
-            separadorPrincipal.setLineColor(colorPrimario);
-
-            LineSeparator separadorSecundario = new LineSeparator();
-            separadorSecundario.setLineWidth(1);
-            separadorSecundario.setLineColor(colorNeutro);
-
-            // Event handler para encabezados y pies de página
-            final ResourceBundle finalBundle = bundle;
-            final BaseFont finalBf = bf;
-            final BaseColor finalColorNeutro = colorNeutro;
-
-            writer.setPageEvent(new PdfPageEventHelper() {
-                @Override
-                public void onEndPage(PdfWriter writer, Document document) {
-                    try {
-                        // Pie de página con numeración
-                        Font fontPie = new Font(finalBf, 9, Font.ITALIC);
-                        fontPie.setColor(finalColorNeutro);
-
-                        ColumnText.showTextAligned(writer.getDirectContent(),
-                            Paragraph.ALIGN_CENTER,
-                            new Phrase(String.format("%s %d", finalBundle.getString("informe.pagina"), writer.getPageNumber()), fontPie),
-                            (document.right() - document.left()) / 2 + document.leftMargin(),
-                            document.bottom() - 15, 0);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-
-                @Override
-                public void onStartPage(PdfWriter writer, Document document) {
-                    // Encabezado eliminado - no mostrar título en cada página
-                }
-            });
-
-            document.open();
-
-            // ========================================
-            // PÁGINA 1: PORTADA PROFESIONAL
-            // ========================================
-            crearPortadaProfesional(document, bf, tituloPortada, subtituloPortada, separadorPrincipal, bundle, colorPrimario, colorSecundario);
-
-            // ========================================
-            // PÁGINA 2: ÍNDICE AUTOMÁTICO
-            // ========================================
-            document.newPage();
-            crearIndiceAutomatico(document, bf, tituloSeccion, contenidoNormal, separadorSecundario, bundle);
-
-            // ========================================
-            // PÁGINA 3: RESUMEN EJECUTIVO
-            // ========================================
-            document.newPage();
-            crearResumenEjecutivo(document, bf, tituloSeccion, subtituloSeccion, contenidoNormal,
-                                separadorSecundario, bundle, cadenaEntrada, estadoSimulacion, historialPasos, colorExito, colorError, colorPrimario);
-
-            // ========================================
-            // CONTENIDO DETALLADO
-            // ========================================
-            document.newPage();
-            crearContenidoDetallado(document, bf, bfMono, tituloSeccion, subtituloSeccion, contenidoNormal,
-                                  contenidoMono, separadorSecundario, bundle, gramaticaOriginal,
-                                  tablaPredictiva, funcionesError, cadenaEntrada, estadoSimulacion,
-                                  historialPasos, colorPrimario, colorSecundario, colorAcento,
-                                  colorExito, colorError, colorFondoCabecera);
-
-            // ========================================
-            // CONCLUSIÓN AUTOMÁTICA
-            // ========================================
-            document.newPage();
-            crearConclusionAutomatica(document, bf, tituloSeccion, contenidoNormal,
-                                    separadorPrincipal, bundle, estadoSimulacion, colorExito, colorError);
-
-            document.close();
-
-        } catch (BadElementException ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de elemento en PDF", ex);
+            ContextoInforme contexto = new ContextoInforme(this, gramaticaOriginal, tablaPredictiva, funcionesError,
+                cadenaEntrada, ContextoInforme.claveEstado(bundle, estadoSimulacion), historialPasos, arbol, false);
+            GeneradorInforme.generar(fichero, TipoInforme.SIMULACION.secciones(contexto), contexto, bundle, progreso);
         } catch (IOException ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error de E/S en PDF", ex);
-        } catch (Exception ex) {
-            Logger.getLogger(getClass().getName()).log(Level.SEVERE, "Error general en generación de PDF", ex);
+            throw errorInforme(ex);
         }
         return true;
     }
 
     /**
-     * Crea la portada profesional del informe
-     */
-    private void crearPortadaProfesional(Document document, BaseFont bf, Font tituloPortada, Font subtituloPortada,
-                                       LineSeparator separador, ResourceBundle bundle, BaseColor colorPrimario, BaseColor colorSecundario)
-                                       throws DocumentException, IOException {
-
-        // Logo de la aplicación
-        try {
-            Image logo = Image.getInstance(Objects.requireNonNull(getClass().getResource("/resources/logo2Antes.png")).toExternalForm());
-            logo.setAlignment(Image.ALIGN_CENTER);
-            logo.scalePercent(40);
-            document.add(logo);
-        } catch (Exception e) {
-            // Si no hay logo, continuar sin él
-        }
-
-        // Espacios
-        document.add(new Paragraph(" ", new Font(bf, 30)));
-        document.add(new Paragraph(" ", new Font(bf, 20)));
-
-        // Título principal grande
-        Paragraph tituloPrincipal = new Paragraph(bundle.getString("informe.profesional.portada.titulo"), tituloPortada);
-        tituloPrincipal.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(tituloPrincipal);
-
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        // Subtítulo con nombre de la gramática
-        Font subtituloGramatica = new Font(bf, 22, Font.BOLD);
-        subtituloGramatica.setColor(colorSecundario);
-        Paragraph subtitulo = new Paragraph(this.getNombre(), subtituloGramatica);
-        subtitulo.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(subtitulo);
-
-        document.add(new Paragraph(" ", new Font(bf, 25)));
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 20)));
-
-        // Información adicional
-        Font infoFont = new Font(bf, 14);
-        infoFont.setColor(colorPrimario);
-
-        Paragraph appInfo = new Paragraph(bundle.getString("informe.profesional.portada.app.nombre"), infoFont);
-        appInfo.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(appInfo);
-
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        // Fecha de generación
-        Font fechaFont = new Font(bf, 12);
-        fechaFont.setColor(BaseColor.GRAY);
-        Paragraph fecha = new Paragraph(bundle.getString("informe.profesional.generado") + " " +
-            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")), fechaFont);
-        fecha.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(fecha);
-    }
-
-    /**
-     * Crea el índice automático del informe
-     */
-    private void crearIndiceAutomatico(Document document, BaseFont bf, Font tituloSeccion, Font contenidoNormal,
-                                     LineSeparator separador, ResourceBundle bundle) throws DocumentException {
-
-        Paragraph tituloIndice = new Paragraph(bundle.getString("informe.profesional.indice.titulo"), tituloSeccion);
-        tituloIndice.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(tituloIndice);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        // Estructura del índice
-        String[] secciones = {
-            bundle.getString("informe.profesional.indice.resumen"),
-            bundle.getString("informe.profesional.indice.gramatica.original"),
-            bundle.getString("informe.profesional.indice.gramatica.modificada"),
-            bundle.getString("informe.profesional.indice.funciones.error"),
-            bundle.getString("informe.profesional.indice.tabla.predictiva"),
-            bundle.getString("informe.profesional.indice.simulacion"),
-            bundle.getString("informe.profesional.indice.historial"),
-            bundle.getString("informe.profesional.indice.derivacion"),
-            bundle.getString("informe.profesional.indice.arbol"),
-            bundle.getString("informe.profesional.indice.conclusion")
-        };
-
-        for (int i = 0; i < secciones.length; i++) {
-            String entrada = String.format("%d. %s", i + 1, secciones[i]);
-            Paragraph itemIndice = new Paragraph(entrada, contenidoNormal);
-            itemIndice.setIndentationLeft(50);
-            document.add(itemIndice);
-            document.add(new Paragraph(" ", new Font(bf, 5)));
-        }
-    }
-
-    /**
-     * Crea el índice automático específico para el informe del simulador
-     */
-    private void crearIndiceSimulador(Document document, BaseFont bf, Font tituloSeccion, Font contenidoNormal,
-                                    LineSeparator separador, ResourceBundle bundle, boolean hasFuncionesError, boolean hasTablaPredictiva) throws DocumentException {
-
-        Paragraph tituloIndice = new Paragraph(bundle.getString("informe.profesional.indice.titulo"), tituloSeccion);
-        tituloIndice.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(tituloIndice);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        int seccionNumero = 1;
-
-        // Sección 1: Gramática Original (siempre presente)
-        String entrada1 = String.format("%d. %s", seccionNumero++, bundle.getString("informe.profesional.indice.gramatica.original"));
-        Paragraph itemIndice1 = new Paragraph(entrada1, contenidoNormal);
-        itemIndice1.setIndentationLeft(50);
-        document.add(itemIndice1);
-        document.add(new Paragraph(" ", new Font(bf, 5)));
-
-        // Sección 2: Gramática Modificada (siempre presente)
-        String entrada2 = String.format("%d. %s", seccionNumero++, bundle.getString("informe.profesional.indice.gramatica.modificada"));
-        Paragraph itemIndice2 = new Paragraph(entrada2, contenidoNormal);
-        itemIndice2.setIndentationLeft(50);
-        document.add(itemIndice2);
-        document.add(new Paragraph(" ", new Font(bf, 5)));
-
-        // Sección 3: Funciones de Error (solo si existen)
-        if (hasFuncionesError) {
-            String entrada3 = String.format("%d. %s", seccionNumero++, bundle.getString("informe.profesional.indice.funciones.error"));
-            Paragraph itemIndice3 = new Paragraph(entrada3, contenidoNormal);
-            itemIndice3.setIndentationLeft(50);
-            document.add(itemIndice3);
-            document.add(new Paragraph(" ", new Font(bf, 5)));
-        }
-
-        // Sección 4: Tabla Predictiva (última sección si existe)
-        if (hasTablaPredictiva) {
-            String entrada4 = String.format("%d. %s", seccionNumero++, bundle.getString("informe.profesional.indice.tabla.predictiva"));
-            Paragraph itemIndice4 = new Paragraph(entrada4, contenidoNormal);
-            itemIndice4.setIndentationLeft(50);
-            document.add(itemIndice4);
-            document.add(new Paragraph(" ", new Font(bf, 5)));
-        }
-    }
-
-    /**
-     * Crea el resumen ejecutivo del informe
-     */
-    private void crearResumenEjecutivo(Document document, BaseFont bf, Font tituloSeccion, Font subtituloSeccion,
-                                     Font contenidoNormal, LineSeparator separador, ResourceBundle bundle,
-                                     String cadenaEntrada, String estadoSimulacion, List<HistorialPaso> historialPasos,
-                                     BaseColor colorExito, BaseColor colorError, BaseColor colorPrimario)
-                                     throws DocumentException {
-
-        Paragraph tituloResumen = new Paragraph(bundle.getString("informe.profesional.seccion.resumen.ejecutivo"), tituloSeccion);
-        tituloResumen.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(tituloResumen);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        // Información clave
-        Font labelFont = new Font(bf, 12, Font.BOLD);
-        labelFont.setColor(colorPrimario);
-
-        // Cadena de entrada
-        Paragraph labelCadena = new Paragraph(bundle.getString("informe.profesional.cadena.entrada"), labelFont);
-        document.add(labelCadena);
-
-        Font valorFont = new Font(bf, 12);
-        Paragraph valorCadena = new Paragraph("    " + (cadenaEntrada != null ? cadenaEntrada : bundle.getString("informe.profesional.no.especificada")), valorFont);
-        valorCadena.setIndentationLeft(20);
-        document.add(valorCadena);
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        // Resultado final con recuadro destacado
-        Paragraph labelResultado = new Paragraph(bundle.getString("informe.profesional.resultado.final"), labelFont);
-        document.add(labelResultado);
-        document.add(new Paragraph(" ", new Font(bf, 5)));
-
-        BaseColor colorEstado = estadoSimulacion != null && estadoSimulacion.equals(bundle.getString("informe.simulador.estado.aceptada")) ?
-                               colorExito : colorError;
-        String textoEstado = estadoSimulacion != null ? estadoSimulacion : bundle.getString("informe.profesional.no.especificado");
-
-        // Crear tabla para resaltar el resultado
-        PdfPTable tablaResultado = new PdfPTable(1);
-        tablaResultado.setWidthPercentage(80);
-        tablaResultado.setSpacingBefore(5);
-        tablaResultado.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-
-        Font estadoFont = new Font(bf, 16, Font.BOLD);
-        estadoFont.setColor(colorEstado);
-
-        PdfPCell cellResultado = new PdfPCell(new Phrase(textoEstado, estadoFont));
-        cellResultado.setBackgroundColor(new BaseColor(250, 250, 250)); // Fondo gris muy claro
-        cellResultado.setBorderColor(colorEstado);
-        cellResultado.setBorderWidth(2);
-        cellResultado.setPadding(15);
-        cellResultado.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-        cellResultado.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
-
-        tablaResultado.addCell(cellResultado);
-        document.add(tablaResultado);
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        // Número de pasos
-        int numPasos = historialPasos != null ? historialPasos.size() : 0;
-        Paragraph labelPasos = new Paragraph(bundle.getString("informe.profesional.numero.pasos"), labelFont);
-        document.add(labelPasos);
-
-        Paragraph valorPasos = new Paragraph("    " + numPasos + " " + bundle.getString("informe.profesional.unidad.pasos"), valorFont);
-        valorPasos.setIndentationLeft(20);
-        document.add(valorPasos);
-    }
-
-    /**
-     * Crea el contenido detallado del informe
-     */
-    private void crearContenidoDetallado(Document document, BaseFont bf, BaseFont bfMono, Font tituloSeccion,
-                                       Font subtituloSeccion, Font contenidoNormal, Font contenidoMono,
-                                       LineSeparator separador, ResourceBundle bundle, Gramatica gramaticaOriginal,
-                                       TablaPredictiva tablaPredictiva, List<FuncionError> funcionesError,
-                                       String cadenaEntrada, String estadoSimulacion, List<HistorialPaso> historialPasos,
-                                       BaseColor colorPrimario, BaseColor colorSecundario, BaseColor colorAcento,
-                                       BaseColor colorExito, BaseColor colorError, BaseColor colorFondoCabecera)
-                                       throws DocumentException {
-
-        // ========================================
-        // SECCIÓN 1: GRAMÁTICA ORIGINAL
-        // ========================================
-        Paragraph tituloGramaticaOriginal = new Paragraph(bundle.getString("informe.profesional.seccion.gramatica.original"), tituloSeccion);
-        document.add(tituloGramaticaOriginal);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        // Información básica
-        agregarInformacionGramatica(document, bf, subtituloSeccion, contenidoNormal, contenidoMono,
-                                  bundle, gramaticaOriginal, "original", colorPrimario, colorSecundario);
-
-        // ========================================
-        // SECCIÓN 2: GRAMÁTICA MODIFICADA
-        // ========================================
-        document.newPage();
-        Paragraph tituloGramaticaModificada = new Paragraph(bundle.getString("informe.profesional.seccion.gramatica.modificada"), tituloSeccion);
-        document.add(tituloGramaticaModificada);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        agregarInformacionGramatica(document, bf, subtituloSeccion, contenidoNormal, contenidoMono,
-                                  bundle, this, "modificada", colorPrimario, colorSecundario);
-
-        // ========================================
-        // SECCIÓN 3: FUNCIONES DE ERROR
-        // ========================================
-        if (funcionesError != null && !funcionesError.isEmpty()) {
-            document.newPage();
-            Paragraph tituloFuncionesError = new Paragraph(bundle.getString("informe.profesional.seccion.funciones.error"), tituloSeccion);
-            document.add(tituloFuncionesError);
-            document.add(new Chunk(separador));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            agregarFuncionesError(document, bf, contenidoNormal, bundle, funcionesError,
-                                colorPrimario, colorSecundario, colorFondoCabecera, colorAcento);
-        }
-
-        // ========================================
-        // SECCIÓN 4: TABLA PREDICTIVA
-        // ========================================
-        if (tablaPredictiva != null) {
-            document.newPage();
-            Paragraph tituloTablaPredictiva = new Paragraph(bundle.getString("informe.profesional.seccion.tabla.predictiva"), tituloSeccion);
-            document.add(tituloTablaPredictiva);
-            document.add(new Chunk(separador));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            agregarTablaPredictivaMejorada(document, tablaPredictiva, bundle, bf, contenidoNormal,
-                                         colorPrimario, colorSecundario, colorFondoCabecera);
-        }
-
-        // ========================================
-        // SECCIÓN 5: INFORMACIÓN DE SIMULACIÓN
-        // ========================================
-        document.newPage();
-        Paragraph tituloSimulacion = new Paragraph(bundle.getString("informe.profesional.seccion.simulacion"), tituloSeccion);
-        document.add(tituloSimulacion);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        agregarInformacionSimulacion(document, bf, subtituloSeccion, contenidoNormal, bundle,
-                                   cadenaEntrada, estadoSimulacion, colorExito, colorError);
-
-        // ========================================
-        // SECCIÓN 6: HISTORIAL DE PASOS
-        // ========================================
-        if (historialPasos != null && !historialPasos.isEmpty()) {
-            document.newPage();
-            Paragraph tituloHistorial = new Paragraph(bundle.getString("informe.profesional.seccion.historial"), tituloSeccion);
-            document.add(tituloHistorial);
-            document.add(new Chunk(separador));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            agregarHistorialMejorado(document, bf, contenidoNormal, bundle, historialPasos,
-                                   colorPrimario, colorSecundario, colorFondoCabecera, colorAcento);
-        }
-
-        // ========================================
-        // SECCIÓN 7: DERIVACIÓN
-        // ========================================
-        if (historialPasos != null && !historialPasos.isEmpty()) {
-            document.newPage();
-            Paragraph tituloDerivacion = new Paragraph(bundle.getString("informe.profesional.seccion.derivacion"), tituloSeccion);
-            document.add(tituloDerivacion);
-            document.add(new Chunk(separador));
-            document.add(new Paragraph(" ", new Font(bf, 10)));
-
-            agregarDerivacionMejorada(document, bfMono, contenidoMono, bundle, historialPasos, colorPrimario);
-        }
-
-        // ========================================
-        // SECCIÓN 8: ÁRBOL SINTÁCTICO
-        // ========================================
-        document.newPage();
-        Paragraph tituloArbol = new Paragraph(bundle.getString("informe.profesional.seccion.arbol"), tituloSeccion);
-        document.add(tituloArbol);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        agregarArbolSintacticoMejorado(document, bf, contenidoNormal, bundle, historialPasos, colorPrimario);
-    }
-
-    /**
-     * Agrega información detallada de una gramática con formato mejorado
-     */
-    private void agregarInformacionGramatica(Document document, BaseFont bf, Font subtituloSeccion, Font contenidoNormal,
-                                           Font contenidoMono, ResourceBundle bundle, Gramatica gramatica,
-                                           String tipo, BaseColor colorPrimario, BaseColor colorSecundario)
-                                           throws DocumentException {
-
-        // Descripción
-        Paragraph subDesc = new Paragraph(bundle.getString("informe.profesional.descripcion"), subtituloSeccion);
-        document.add(subDesc);
-        Paragraph desc = new Paragraph("    " + gramatica.getDescripcion(), contenidoNormal);
-        desc.setIndentationLeft(20);
-        document.add(desc);
-        document.add(new Paragraph(" ", new Font(bf, 8)));
-
-        // Símbolo inicial
-        Paragraph subSimbolo = new Paragraph(bundle.getString("informe.profesional.simbolo.inicial"), subtituloSeccion);
-        document.add(subSimbolo);
-        Font simboloFont = new Font(bf, 11);
-        simboloFont.setColor(BaseColor.BLACK);
-        Paragraph simbolo = new Paragraph("    " + gramatica.getSimbInicial(), simboloFont);
-        simbolo.setIndentationLeft(20);
-        document.add(simbolo);
-        document.add(new Paragraph(" ", new Font(bf, 8)));
-
-        // Símbolos no terminales
-        Paragraph subNoTerm = new Paragraph(bundle.getString("informe.profesional.simbolos.no.terminales"), subtituloSeccion);
-        document.add(subNoTerm);
-
-        ObservableList<String> noTerm = gramatica.getNoTerminalesModel();
-        for (String nt : noTerm) {
-            Font ntFont = new Font(bf, 11);
-            ntFont.setColor(BaseColor.BLACK);
-            Paragraph ntPara = new Paragraph("    • " + nt, ntFont);
-            ntPara.setIndentationLeft(20);
-            document.add(ntPara);
-        }
-        document.add(new Paragraph(" ", new Font(bf, 8)));
-
-        // Símbolos terminales
-        Paragraph subTerm = new Paragraph(bundle.getString("informe.profesional.simbolos.terminales"), subtituloSeccion);
-        document.add(subTerm);
-
-        ObservableList<String> term = gramatica.getTerminalesModel();
-        for (String t : term) {
-            Font termFont = new Font(bf, 11);
-            termFont.setColor(BaseColor.BLACK);
-            Paragraph termPara = new Paragraph("    • " + t, termFont);
-            termPara.setIndentationLeft(20);
-            document.add(termPara);
-        }
-        document.add(new Paragraph(" ", new Font(bf, 8)));
-
-        // Producciones
-        Paragraph subProd = new Paragraph(bundle.getString("informe.profesional.producciones"), subtituloSeccion);
-        document.add(subProd);
-        document.add(new Paragraph(" ", new Font(bf, 5)));
-
-        ObservableList<String> prod = gramatica.getProduccionesModel();
-        int index = 1;
-        for (String produccion : prod) {
-            // Crear tabla para producción con formato simplificado
-            PdfPTable tablaProd = new PdfPTable(2);
-            tablaProd.setWidthPercentage(95);
-            tablaProd.setWidths(new float[]{0.15f, 0.85f}); // Proporciones: número, producción completa
-
-            Font numeroFont = new Font(bf, 10, Font.BOLD);
-            numeroFont.setColor(colorPrimario);
-            Font prodFont = new Font(contenidoMono);
-            prodFont.setColor(BaseColor.BLACK);
-
-            // Convertir la flecha Unicode a ASCII solo para el PDF
-            String produccionFormateada = produccion.replace("→", " -> ");
-
-            // Celda del número
-            PdfPCell cellNumero = new PdfPCell(new Phrase(String.valueOf(index), numeroFont));
-            cellNumero.setBackgroundColor(new BaseColor(240, 248, 255)); // Azul muy claro
-            cellNumero.setBorderColor(colorPrimario);
-            cellNumero.setBorderWidth(1);
-            cellNumero.setPadding(8);
-            cellNumero.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellNumero.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
-            tablaProd.addCell(cellNumero);
-
-            // Celda de la producción completa
-            PdfPCell cellProd = new PdfPCell(new Phrase(produccionFormateada, prodFont));
-            cellProd.setBackgroundColor(new BaseColor(248, 249, 250)); // Gris muy claro
-            cellProd.setBorderColor(colorSecundario);
-            cellProd.setBorderWidth(1);
-            cellProd.setPadding(8);
-            cellProd.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellProd.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
-            tablaProd.addCell(cellProd);
-
-            document.add(tablaProd);
-            document.add(new Paragraph(" ", new Font(bf, 5)));
-            index++;
-        }
-    }
-
-    /**
-     * Agrega sección de funciones de error con formato tabular mejorado
-     */
-    private void agregarFuncionesError(Document document, BaseFont bf, Font contenidoNormal, ResourceBundle bundle,
-                                     List<FuncionError> funcionesError, BaseColor colorPrimario,
-                                     BaseColor colorSecundario, BaseColor colorFondo, BaseColor colorAcento)
-                                     throws DocumentException {
-
-        PdfPTable tablaFunciones = new PdfPTable(4);
-        tablaFunciones.setWidthPercentage(100);
-        tablaFunciones.setSpacingBefore(5);
-        tablaFunciones.setWidths(new float[]{1, 2, 2, 4});
-
-        // Fuentes
-        Font headerFont = new Font(bf, 9, Font.BOLD);
-        headerFont.setColor(BaseColor.WHITE);
-        Font dataFont = new Font(bf, 8);
-
-        // Encabezados
-        String[] headers = {"ID", "Acción", "Símbolo", "Descripción"};
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-            cell.setBackgroundColor(colorPrimario);
-            cell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cell.setPadding(8);
-            cell.setBorderColor(colorSecundario);
-            cell.setBorderWidth(1);
-            tablaFunciones.addCell(cell);
-        }
-
-        // Datos
-        boolean filaAlterna = false;
-        for (FuncionError funcion : funcionesError) {
-            BaseColor colorFondoFila = filaAlterna ? colorFondo : BaseColor.WHITE;
-
-            // ID
-            PdfPCell cellId = new PdfPCell(new Phrase(String.valueOf(funcion.getIdentificador()), dataFont));
-            cellId.setBackgroundColor(colorFondoFila);
-            cellId.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellId.setPadding(6);
-            cellId.setBorderColor(colorSecundario);
-            cellId.setBorderWidth(0.5f);
-            tablaFunciones.addCell(cellId);
-
-            // Acción
-            String nombreAccion = bundle.getString(funcion.getNombreAccion());
-            Font accionFont = new Font(bf, 8);
-            accionFont.setColor(colorAcento);
-            PdfPCell cellAccion = new PdfPCell(new Phrase(nombreAccion, accionFont));
-            cellAccion.setBackgroundColor(colorFondoFila);
-            cellAccion.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellAccion.setPadding(6);
-            cellAccion.setBorderColor(colorSecundario);
-            cellAccion.setBorderWidth(0.5f);
-            tablaFunciones.addCell(cellAccion);
-
-            // Símbolo
-            String simbolo = funcion.getSimbolo() != null ? funcion.getSimbolo().getNombre() : "-";
-            Font simboloFont = new Font(bf, 8, Font.BOLD);
-            simboloFont.setColor(funcion.getSimbolo() != null ? BaseColor.BLACK : BaseColor.GRAY);
-            PdfPCell cellSimbolo = new PdfPCell(new Phrase(simbolo, simboloFont));
-            cellSimbolo.setBackgroundColor(colorFondoFila);
-            cellSimbolo.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellSimbolo.setPadding(6);
-            cellSimbolo.setBorderColor(colorSecundario);
-            cellSimbolo.setBorderWidth(0.5f);
-            tablaFunciones.addCell(cellSimbolo);
-
-            // Descripción completa
-            String descripcion = getDescripcionFuncionError(funcion, bundle);
-            if (funcion.getMensaje() != null && !funcion.getMensaje().isEmpty()) {
-                descripcion += " (" + funcion.getMensaje() + ")";
-            }
-            PdfPCell cellDescripcion = new PdfPCell(new Phrase(descripcion, dataFont));
-            cellDescripcion.setBackgroundColor(colorFondoFila);
-            cellDescripcion.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellDescripcion.setPadding(6);
-            cellDescripcion.setBorderColor(colorSecundario);
-            cellDescripcion.setBorderWidth(0.5f);
-            tablaFunciones.addCell(cellDescripcion);
-
-            filaAlterna = !filaAlterna;
-        }
-
-        document.add(tablaFunciones);
-    }
-
-    /**
-     * Agrega tabla predictiva con mejor formato visual
-     */
-    private void agregarTablaPredictivaMejorada(Document document, TablaPredictiva tablaPredictiva,
-                                              ResourceBundle bundle, BaseFont bf, Font contenido,
-                                              BaseColor colorPrimario, BaseColor colorSecundario, BaseColor colorFondo)
-                                              throws DocumentException {
-
-        List<FilaTablaPredictiva> filas = tablaPredictiva.getFilas();
-        if (filas == null || filas.isEmpty()) return;
-
-        List<Terminal> terminales = this.getTerminales();
-        if (terminales.isEmpty()) return;
-
-        int numColumnas = terminales.size() + 1;
-        PdfPTable tabla = new PdfPTable(numColumnas);
-        tabla.setWidthPercentage(100);
-        tabla.setSpacingBefore(5);
-
-        // Fuentes para la tabla
-        Font headerFont = new Font(bf, 9, Font.BOLD);
-        headerFont.setColor(BaseColor.WHITE);
-
-        // Encabezado de símbolo
-        PdfPCell cellSimbolo = new PdfPCell(new Phrase(bundle.getString("informe.profesional.tabla.simbolo"), headerFont));
-        cellSimbolo.setBackgroundColor(colorPrimario);
-        cellSimbolo.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-        cellSimbolo.setPadding(8);
-        cellSimbolo.setBorderColor(colorSecundario);
-        cellSimbolo.setBorderWidth(1);
-        tabla.addCell(cellSimbolo);
-
-        // Encabezados de terminales
-        for (Terminal terminal : terminales) {
-            PdfPCell cellTerm = new PdfPCell(new Phrase(terminal.getNombre(), headerFont));
-            cellTerm.setBackgroundColor(colorPrimario);
-            cellTerm.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellTerm.setPadding(8);
-            cellTerm.setBorderColor(colorSecundario);
-            cellTerm.setBorderWidth(1);
-            tabla.addCell(cellTerm);
-        }
-
-        // Filas de datos
-        boolean filaAlterna = false;
-        for (FilaTablaPredictiva fila : filas) {
-            BaseColor colorFondoFila = filaAlterna ? colorFondo : BaseColor.WHITE;
-
-            // Celda del símbolo
-            String simbolo = fila.getSimbolo();
-            Font simboloFont = new Font(bf, 8, fila.getEsTerminal() ? Font.NORMAL : Font.BOLD);
-            simboloFont.setColor(fila.getEsTerminal() ? BaseColor.BLACK : colorPrimario);
-
-            PdfPCell cellSim = new PdfPCell(new Phrase(simbolo, simboloFont));
-            cellSim.setBackgroundColor(colorFondoFila);
-            cellSim.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellSim.setPadding(6);
-            cellSim.setBorderColor(colorSecundario);
-            cellSim.setBorderWidth(0.5f);
-            tabla.addCell(cellSim);
-
-            // Celdas de valores
-            for (Terminal terminal : terminales) {
-                String valor = fila.getValor(terminal.getNombre()).get();
-                String textoCelda = (valor != null && !valor.isEmpty()) ? valor : "";
-
-                Font valorFont = new Font(bf, 8);
-                BaseColor colorFondoValor = colorFondoFila;
-
-                // Colores específicos según tipo de contenido
-                if (textoCelda.contains("→")) {
-                    valorFont.setColor(new BaseColor(0, 100, 0)); // Verde para producciones
-                    colorFondoValor = new BaseColor(240, 255, 240); // Verde muy claro
-                } else if (textoCelda.startsWith("ε")) {
-                    valorFont.setColor(new BaseColor(255, 140, 0)); // Naranja para épsilon
-                    colorFondoValor = new BaseColor(255, 248, 240); // Naranja muy claro
-                } else if (textoCelda.matches("\\d+")) {
-                    valorFont.setColor(new BaseColor(100, 100, 255)); // Azul para funciones error
-                    colorFondoValor = new BaseColor(240, 240, 255); // Azul muy claro
-                }
-
-                PdfPCell cellValor = new PdfPCell(new Phrase(textoCelda, valorFont));
-                cellValor.setBackgroundColor(colorFondoValor);
-                cellValor.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                cellValor.setPadding(6);
-                cellValor.setBorderColor(colorSecundario);
-                cellValor.setBorderWidth(0.5f);
-                tabla.addCell(cellValor);
-            }
-
-            filaAlterna = !filaAlterna;
-        }
-
-        document.add(tabla);
-    }
-
-    /**
-     * Agrega información de simulación mejorada
+     * Error de E/S de un informe PDF como el {@link DocumentException} que
+     * declaran sus métodos. El archivo a medias ya se ha borrado; quien lanza el
+     * informe avisa del error en lugar de darlo por generado.
      */
-    private void agregarInformacionSimulacion(Document document, BaseFont bf, Font subtituloSeccion, Font contenidoNormal,
-                                            ResourceBundle bundle, String cadenaEntrada, String estadoSimulacion,
-                                            BaseColor colorExito, BaseColor colorError) throws DocumentException {
-
-        // Cadena de entrada
-        Paragraph subCadena = new Paragraph(bundle.getString("informe.profesional.cadena.entrada"), subtituloSeccion);
-        document.add(subCadena);
-
-        Font cadenaFont = new Font(bf, 12, Font.BOLD);
-        cadenaFont.setColor(BaseColor.BLACK);
-        Paragraph cadena = new Paragraph("    " + (cadenaEntrada != null ? cadenaEntrada : bundle.getString("informe.profesional.no.especificada")), cadenaFont);
-        cadena.setIndentationLeft(20);
-        document.add(cadena);
-        document.add(new Paragraph(" ", new Font(bf, 10)));
-
-        // Estado final destacado
-        Paragraph subEstado = new Paragraph(bundle.getString("informe.profesional.resultado.final"), subtituloSeccion);
-        document.add(subEstado);
-
-        BaseColor colorEstado = estadoSimulacion != null && estadoSimulacion.equals(bundle.getString("informe.simulador.estado.aceptada")) ?
-                               colorExito : colorError;
-        Font estadoFont = new Font(bf, 16, Font.BOLD);
-        estadoFont.setColor(colorEstado);
-
-        Paragraph estado = new Paragraph("    " + (estadoSimulacion != null ? estadoSimulacion : bundle.getString("informe.profesional.no.especificado")), estadoFont);
-        estado.setAlignment(Paragraph.ALIGN_CENTER);
-        estado.setIndentationLeft(20);
-        document.add(estado);
+    private static DocumentException errorInforme(IOException ex) {
+        return new DocumentException(ex);
     }
 
     /**
-     * Agrega historial de pasos mejorado con colores
-     */
-    private void agregarHistorialMejorado(Document document, BaseFont bf, Font contenidoNormal, ResourceBundle bundle,
-                                        List<HistorialPaso> historialPasos, BaseColor colorPrimario,
-                                        BaseColor colorSecundario, BaseColor colorFondo, BaseColor colorAcento)
-                                        throws DocumentException {
-
-        PdfPTable tablaHistorial = new PdfPTable(4);
-        tablaHistorial.setWidthPercentage(100);
-        tablaHistorial.setSpacingBefore(5);
-        tablaHistorial.setWidths(new float[]{1, 2, 2, 3});
-
-        // Fuentes
-        Font headerFont = new Font(bf, 9, Font.BOLD);
-        headerFont.setColor(BaseColor.WHITE);
-        Font dataFont = new Font(bf, 8);
-
-        // Encabezados usando las claves correctas del bundle
-        String[] headerKeys = {"paso", "pila", "entrada", "accion"};
-        for (String key : headerKeys) {
-            PdfPCell cell = new PdfPCell(new Phrase(bundle.getString("informe.simulador.historial." + key), headerFont));
-            cell.setBackgroundColor(colorPrimario);
-            cell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cell.setPadding(8);
-            cell.setBorderColor(colorSecundario);
-            cell.setBorderWidth(1);
-            tablaHistorial.addCell(cell);
-        }
-
-        // Datos con colores diferenciados
-        boolean filaAlterna = false;
-        for (HistorialPaso paso : historialPasos) {
-            BaseColor colorFondoFila = filaAlterna ? colorFondo : BaseColor.WHITE;
-
-            // Paso
-            PdfPCell cellPaso = new PdfPCell(new Phrase(paso.getPaso(), dataFont));
-            cellPaso.setBackgroundColor(colorFondoFila);
-            cellPaso.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-            cellPaso.setPadding(6);
-            cellPaso.setBorderColor(colorSecundario);
-            cellPaso.setBorderWidth(0.5f);
-            tablaHistorial.addCell(cellPaso);
-
-            // Pila
-            PdfPCell cellPila = new PdfPCell(new Phrase(paso.getPila(), dataFont));
-            cellPila.setBackgroundColor(colorFondoFila);
-            cellPila.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellPila.setPadding(6);
-            cellPila.setBorderColor(colorSecundario);
-            cellPila.setBorderWidth(0.5f);
-            tablaHistorial.addCell(cellPila);
-
-            // Entrada
-            PdfPCell cellEntrada = new PdfPCell(new Phrase(paso.getEntrada(), dataFont));
-            cellEntrada.setBackgroundColor(colorFondoFila);
-            cellEntrada.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellEntrada.setPadding(6);
-            cellEntrada.setBorderColor(colorSecundario);
-            cellEntrada.setBorderWidth(0.5f);
-            tablaHistorial.addCell(cellEntrada);
-
-            // Acción con colores diferenciados
-            String accionOriginal = paso.getAccion();
-            // Convertir flechas Unicode a ASCII para mostrar en el PDF
-            String accion = accionOriginal.replace("→", " -> ");
-            Font accionFont = new Font(bf, 8);
-            BaseColor colorFondoAccion = colorFondoFila;
-
-            if (accion.equals("Emparejar")) {
-                accionFont.setColor(new BaseColor(52, 152, 219)); // Azul para emparejar
-                colorFondoAccion = new BaseColor(240, 248, 255);
-            } else if (accion.contains(" -> ")) {
-                accionFont.setColor(new BaseColor(46, 204, 113)); // Verde para derivaciones
-                colorFondoAccion = new BaseColor(240, 255, 240);
-            } else if (accion.equals("Error")) {
-                accionFont.setColor(new BaseColor(231, 76, 60)); // Rojo para errores
-                colorFondoAccion = new BaseColor(255, 240, 240);
-            } else if (accion.equals("Aceptar")) {
-                accionFont.setColor(new BaseColor(230, 126, 34)); // Naranja para aceptar
-                accionFont.setStyle(Font.BOLD);
-                colorFondoAccion = new BaseColor(255, 248, 240);
-            }
-
-            PdfPCell cellAccion = new PdfPCell(new Phrase(accion, accionFont));
-            cellAccion.setBackgroundColor(colorFondoAccion);
-            cellAccion.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-            cellAccion.setPadding(6);
-            cellAccion.setBorderColor(colorSecundario);
-            cellAccion.setBorderWidth(0.5f);
-            tablaHistorial.addCell(cellAccion);
-
-            filaAlterna = !filaAlterna;
-        }
-
-        document.add(tablaHistorial);
-    }
-
-    /**
-     * Agrega derivación con formato de código
-     */
-    private void agregarDerivacionMejorada(Document document, BaseFont bfMono, Font contenidoMono,
-                                         ResourceBundle bundle, List<HistorialPaso> historialPasos,
-                                         BaseColor colorPrimario) throws DocumentException {
-
-        Font tituloFont = new Font(bfMono, 11, Font.BOLD);
-        tituloFont.setColor(colorPrimario);
-
-        for (int i = 0; i < historialPasos.size(); i++) {
-            HistorialPaso paso = historialPasos.get(i);
-            // Convertir flechas Unicode a ASCII para mostrar en el PDF
-            String accionFormateada = paso.getAccion().replace("→", " -> ");
-            String derivacionLine = bundle.getString("informe.profesional.derivacion.paso") + " " + (i + 1) + ": " + accionFormateada;
-
-            // Crear bloque para cada paso
-            PdfPTable tablaPaso = new PdfPTable(1);
-            tablaPaso.setWidthPercentage(95);
-
-            PdfPCell cellPaso = new PdfPCell(new Phrase(derivacionLine, contenidoMono));
-            cellPaso.setBackgroundColor(new BaseColor(248, 249, 250));
-            cellPaso.setPadding(8);
-            cellPaso.setBorderColor(colorPrimario);
-            cellPaso.setBorderWidth(1);
-
-            tablaPaso.addCell(cellPaso);
-            document.add(tablaPaso);
-            document.add(new Paragraph(" ", new Font(bfMono, 3)));
-        }
-    }
-
-    /**
-     * Agrega árbol sintáctico con colores diferenciados
+     * Genera el informe PDF de la simulación en varios idiomas a la vez.
+     *
+     * El contexto que no depende del idioma (árbol y su disposición, tabla
+     * predictiva, huellas de las secciones, pila y entrada de cada paso) se
+     * prepara una sola vez y los documentos se escriben en paralelo; entre ellos
+     * solo cambian los textos de messages_*.properties.
+     * @param ficheros Archivo de cada idioma, en el orden en que se avisa el progreso
+     * @param claveEstado Clave del estado final, por ejemplo "informe.simulador.estado.aceptada",
+     *        que se traduce en cada idioma
+     * @return true si se han generado todos los documentos
+     * @throws java.util.concurrent.CancellationException Si el progreso se cancela;
+     *         los archivos a medias se borran
      */
-    private void agregarArbolSintacticoMejorado(Document document, BaseFont bf, Font contenidoNormal,
-                                               ResourceBundle bundle, List<HistorialPaso> historialPasos,
-                                               BaseColor colorPrimario) throws DocumentException {
-
-        try {
-            agregarImagenArbolAlPDF(document, historialPasos);
-        } catch (Exception e) {
-            // Si no se puede generar la imagen, mostrar información textual con colores
-            Paragraph notaArbol = new Paragraph("Árbol Sintáctico (Vista Textual):", contenidoNormal);
-            document.add(notaArbol);
-            document.add(new Paragraph(" ", new Font(bf, 8)));
-
-            // Crear representación textual coloreada
-            if (historialPasos != null && !historialPasos.isEmpty()) {
-                NodoArbol raiz = construirArbolDesdeHistorial(historialPasos);
-                agregarRepresentacionArbolTextual(document, bf, raiz, "", colorPrimario);
-            }
-        }
+    public Boolean generarInformesSimulacionMultiidioma(Map<Locale, String> ficheros, Gramatica gramaticaOriginal,
+                                         TablaInforme tablaPredictiva, List<FuncionError> funcionesError,
+                                         String cadenaEntrada, String claveEstado, List<HistorialPaso> historialPasos,
+                                         ArbolSintactico arbol, ProgresoInforme progreso) throws DocumentException {
+        ContextoInforme contexto = new ContextoInforme(this, gramaticaOriginal, tablaPredictiva, funcionesError,
+            cadenaEntrada, claveEstado, historialPasos, arbol, ficheros.size() > 1);
+        return GeneradorInforme.generarMultiidioma(ficheros, TipoInforme.SIMULACION.secciones(contexto), contexto, progreso);
     }
 
     /**
-     * Agrega representación textual del árbol con colores
+     * Exporta el informe de la simulación en un formato de texto (HTML, Markdown,
+     * JSON o CSV). Tiene las mismas secciones, identificadores y celdas que el
+     * informe PDF, más los conjuntos PRIMERO y SIGUIENTE, y no tiene portada,
+     * índice ni conclusión. Cada dato se escribe según se recorre, sin montar
+     * un documento en memoria.
+     * @throws java.util.concurrent.CancellationException Si el progreso se cancela;
+     *         los archivos a medias se borran
      */
-    private void agregarRepresentacionArbolTextual(Document document, BaseFont bf, NodoArbol nodo,
-                                                 String prefijo, BaseColor colorPrimario) throws DocumentException {
-
-        Font nodoFont = new Font(bf, 10);
-        if (esTerminal(nodo.valor)) {
-            nodoFont.setColor(BaseColor.BLACK); // Terminales en negro
-        } else {
-            nodoFont.setColor(colorPrimario); // No terminales en azul
-        }
-
-        String simboloEspecial = "";
-        if (nodo.valor.equals("$") || nodo.valor.equals("ε") || nodo.valor.equals(";")) {
-            nodoFont.setColor(BaseColor.GRAY); // Símbolos especiales en gris
-            simboloEspecial = " (" + nodo.valor + ")";
-        }
-
-        Paragraph nodoPara = new Paragraph(prefijo + "├── " + nodo.valor + simboloEspecial, nodoFont);
-        nodoPara.setIndentationLeft(20 + prefijo.length() * 10);
-        document.add(nodoPara);
-
-        // Procesar hijos recursivamente
-        for (int i = 0; i < nodo.hijos.size(); i++) {
-            NodoArbol hijo = nodo.hijos.get(i);
-            String nuevoPrefijo = prefijo + (i < nodo.hijos.size() - 1 ? "│   " : "    ");
-            agregarRepresentacionArbolTextual(document, bf, hijo, nuevoPrefijo, colorPrimario);
-        }
-    }
-
-    /**
-     * Crea la conclusión automática del informe
-     */
-    private void crearConclusionAutomatica(Document document, BaseFont bf, Font tituloSeccion, Font contenidoNormal,
-                                         LineSeparator separador, ResourceBundle bundle, String estadoSimulacion,
-                                         BaseColor colorExito, BaseColor colorError) throws DocumentException {
-
-        Paragraph tituloConclusion = new Paragraph(bundle.getString("informe.profesional.conclusion.titulo"), tituloSeccion);
-        tituloConclusion.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(tituloConclusion);
-        document.add(new Chunk(separador));
-        document.add(new Paragraph(" ", new Font(bf, 15)));
-
-        // Conclusión automática basada en el estado
-        String conclusion;
-        BaseColor colorConclusion;
-        Font conclusionFont = new Font(bf, 14, Font.BOLD);
-
-        if (estadoSimulacion != null && estadoSimulacion.equals(bundle.getString("informe.simulador.estado.aceptada"))) {
-            conclusion = bundle.getString("informe.profesional.conclusion.aceptada");
-            colorConclusion = colorExito;
-        } else if (estadoSimulacion != null && estadoSimulacion.equals(bundle.getString("informe.simulador.estado.rechazada"))) {
-            conclusion = bundle.getString("informe.profesional.conclusion.rechazada");
-            colorConclusion = colorError;
-        } else {
-            conclusion = bundle.getString("informe.profesional.conclusion.no.determinado");
-            colorConclusion = BaseColor.GRAY;
-        }
-
-        conclusionFont.setColor(colorConclusion);
-
-        // Crear tabla para resaltar la conclusión
-        PdfPTable tablaConclusion = new PdfPTable(1);
-        tablaConclusion.setWidthPercentage(85);
-        tablaConclusion.setSpacingBefore(5);
-        tablaConclusion.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-
-        PdfPCell cellConclusion = new PdfPCell(new Phrase(conclusion, conclusionFont));
-        cellConclusion.setBackgroundColor(new BaseColor(250, 250, 250)); // Fondo gris muy claro
-        cellConclusion.setBorderColor(colorConclusion);
-        cellConclusion.setBorderWidth(2);
-        cellConclusion.setPadding(20);
-        cellConclusion.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-        cellConclusion.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
-
-        tablaConclusion.addCell(cellConclusion);
-        document.add(tablaConclusion);
-
-        document.add(new Paragraph(" ", new Font(bf, 25)));
-
-        // Información adicional
-        Font infoFont = new Font(bf, 10);
-        infoFont.setColor(BaseColor.GRAY);
-        Paragraph infoAdicional = new Paragraph(bundle.getString("informe.profesional.conclusion.creditos"), infoFont);
-        infoAdicional.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(infoAdicional);
-
-        Paragraph fechaConclusion = new Paragraph(bundle.getString("informe.profesional.fecha") + " " +
-            java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")), infoFont);
-        fechaConclusion.setAlignment(Paragraph.ALIGN_CENTER);
-        document.add(fechaConclusion);
+    public Boolean exportarInformeSimulacion(String fichero, FormatoInforme formato, Gramatica gramaticaOriginal,
+                                             TablaInforme tablaPredictiva, List<FuncionError> funcionesError,
+                                             ResourceBundle bundle, String cadenaEntrada, String estadoSimulacion,
+                                             List<HistorialPaso> historialPasos, ArbolSintactico arbol,
+                                             ProgresoInforme progreso) throws IOException {
+        ContextoInforme contexto = new ContextoInforme(this, gramaticaOriginal, tablaPredictiva, funcionesError,
+            cadenaEntrada, ContextoInforme.claveEstado(bundle, estadoSimulacion), historialPasos, arbol, false);
+        GeneradorInforme.exportar(fichero, formato, TipoInforme.SIMULACION.seccionesExportadas(contexto), contexto,
+                                  bundle, progreso);
+        return true;
     }
 
     public boolean isNoTerminal(String nombre) {
@@ -2893,50 +1595,5 @@ public class Gramatica {
         }
         return Collections.emptySet(); // Devuelve un conjunto vacío si no se encuentra el no terminal
     }
-    
-    /**
-     * Obtiene la descripción de una función de error en el idioma correspondiente.
-     */
-    private String getDescripcionFuncionError(FuncionError fe, ResourceBundle bundle) {
-        if (fe == null) return "";
-        
-        int accion = fe.getAccion();
-        Terminal simbolo = fe.getSimbolo();
-        
-        switch (accion) {
-            case FuncionError.TERMINAR_ANALISIS:
-                return bundle.getString("funcion.error.terminar");
-            case FuncionError.BORRAR_ENTRADA:
-                return bundle.getString("funcion.error.borrar.entrada");
-            case FuncionError.INSERTAR_ENTRADA:
-                if (simbolo != null) {
-                    return bundle.getString("funcion.error.insertar.entrada") + ": " + simbolo.getNombre();
-                } else {
-                    return bundle.getString("funcion.error.insertar.entrada");
-                }
-            case FuncionError.MODIFICAR_ENTRADA:
-                if (simbolo != null) {
-                    return bundle.getString("funcion.error.modificar.entrada") + ": " + simbolo.getNombre();
-                } else {
-                    return bundle.getString("funcion.error.modificar.entrada");
-                }
-            case FuncionError.INSERTAR_PILA:
-                if (simbolo != null) {
-                    return bundle.getString("funcion.error.insertar.pila") + ": " + simbolo.getNombre();
-                } else {
-                    return bundle.getString("funcion.error.insertar.pila");
-                }
-            case FuncionError.BORRAR_PILA:
-                return bundle.getString("funcion.error.borrar.pila");
-            case FuncionError.MODIFICAR_PILA:
-                if (simbolo != null) {
-                    return bundle.getString("funcion.error.modificar.pila") + ": " + simbolo.getNombre();
-                } else {
-                    return bundle.getString("funcion.error.modificar.pila");
-                }
-            default:
-                return fe.toString();
-        }
-    }
 
 }
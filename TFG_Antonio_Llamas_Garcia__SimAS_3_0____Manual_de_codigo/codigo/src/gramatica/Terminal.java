@@ -1,14 +1,43 @@
 package gramatica;
 
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
 /**
  * Representa un símbolo terminal de la gramática.
  */
 public class Terminal extends Simbolo {
 
+    // Expresión regular de los lexemas del terminal (por ejemplo "[a-z][a-z0-9]*").
+    // Si es null, el terminal se reconoce literalmente por su nombre
+    private final StringProperty patron = new SimpleStringProperty();
+
     public Terminal(String nombre, String valor) {
         super(nombre, valor);
     }
 
+    public Terminal(String nombre, String valor, String patron) {
+        super(nombre, valor);
+        setPatron(patron);
+    }
+
+    // Getter y setter para 'patron'
+    public String getPatron() {
+        return patron.get();
+    }
+
+    public void setPatron(String patron) {
+        this.patron.set(patron == null || patron.trim().isEmpty() ? null : patron.trim());
+    }
+
+    public StringProperty patronProperty() {
+        return patron;
+    }
+
+    public boolean tienePatron() {
+        return getPatron() != null;
+    }
+
     @Override
     public String toString() {
         return getNombre(); // Usa el método de la clase padre
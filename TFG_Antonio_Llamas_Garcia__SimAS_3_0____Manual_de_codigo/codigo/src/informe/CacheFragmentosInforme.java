@@ -0,0 +1,162 @@
+package informe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import utils.Resumen;
+
+/**
+ * Caché en disco de las secciones ya generadas de los informes PDF.
+ *
+ * Cada sección se guarda como un PDF independiente cuyo nombre es el resumen
+ * SHA-256 del contenido del que depende (textos, gramática, tabla, idioma...).
+ * Un informe posterior con los mismos datos en esa sección reutiliza el
+ * fragmento sin volver a generarlo. Se conservan los fragmentos usados más
+ * recientemente hasta la capacidad configurada.
+ *
+ * Los fragmentos que devuelven {@link #buscar} y {@link #guardar} quedan en uso
+ * hasta que el informe que los une llama a {@link #liberar}; la poda no borra
+ * los que están en uso, aunque se supere la capacidad mientras tanto.
+ */
+public final class CacheFragmentosInforme {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheFragmentosInforme.class.getName());
+
+    private static final int CAPACIDAD_POR_DEFECTO = 64;
+    private static final String EXTENSION = ".pdf";
+
+    private static final CacheFragmentosInforme INSTANCIA =
+        new CacheFragmentosInforme(new File(System.getProperty("java.io.tmpdir"), "simas-informes"));
+
+    private final File directorio;
+    private volatile int capacidad = CAPACIDAD_POR_DEFECTO;
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    // Fragmentos que se están uniendo y número de informes que los usan
+    private final Map<File, Integer> enUso = new HashMap<>();
+
+    public CacheFragmentosInforme(File directorio) {
+        this.directorio = directorio;
+    }
+
+    public static CacheFragmentosInforme getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Número máximo de fragmentos que se conservan en disco.
+     */
+    public void setCapacidad(int capacidad) {
+        this.capacidad = Math.max(1, capacidad);
+        podar();
+    }
+
+    /**
+     * Fragmento generado antes con la misma huella, que queda en uso hasta {@link #liberar}.
+     * @return El archivo PDF del fragmento, o null si no está en la caché
+     */
+    public synchronized File buscar(String huella) {
+        File archivo = archivo(huella);
+        if (archivo.isFile()) {
+            // La fecha de modificación marca el último uso para la poda
+            archivo.setLastModified(System.currentTimeMillis());
+            enUso.merge(archivo, 1, Integer::sum);
+            aciertos.incrementAndGet();
+            return archivo;
+        }
+        fallos.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Archivo temporal dentro del directorio de la caché donde escribir un
+     * fragmento antes de guardarlo.
+     */
+    public File nuevoTemporal() throws IOException {
+        Files.createDirectories(directorio.toPath());
+        return File.createTempFile("seccion", ".tmp", directorio);
+    }
+
+    /**
+     * Guarda un fragmento ya escrito en un archivo temporal de {@link #nuevoTemporal()}.
+     * @return El archivo definitivo del fragmento, que queda en uso hasta {@link #liberar}
+     */
+    public File guardar(String huella, File temporal) throws IOException {
+        File destino = archivo(huella);
+        synchronized (this) {
+            if (enUso.containsKey(destino) && destino.isFile()) {
+                // Otro informe está leyendo el mismo fragmento: se conserva el suyo, que es igual
+                Files.delete(temporal.toPath());
+            } else {
+                try {
+                    Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            enUso.merge(destino, 1, Integer::sum);
+        }
+        podar();
+        return destino;
+    }
+
+    /**
+     * Indica que un informe ya ha unido un fragmento de {@link #buscar} o
+     * {@link #guardar}; cuando ningún informe lo usa, la poda lo puede borrar.
+     */
+    public synchronized void liberar(File fragmento) {
+        enUso.computeIfPresent(fragmento, (archivo, usos) -> usos > 1 ? usos - 1 : null);
+    }
+
+    /**
+     * Borra todos los fragmentos guardados que no están en uso.
+     */
+    public synchronized void limpiar() {
+        for (File archivo : fragmentos()) {
+            if (enUso.containsKey(archivo)) continue;
+            if (!archivo.delete()) {
+                LOGGER.log(Level.FINE, "No se pudo borrar el fragmento {0}", archivo);
+            }
+        }
+    }
+
+    /**
+     * Resumen de uso para depuración, por ejemplo "aciertos=5 fallos=7".
+     */
+    public String getEstadisticas() {
+        return "aciertos=" + aciertos.get() + " fallos=" + fallos.get() + " fragmentos=" + fragmentos().length;
+    }
+
+    private synchronized void podar() {
+        File[] archivos = fragmentos();
+        if (archivos.length <= capacidad) return;
+        Arrays.sort(archivos, Comparator.comparingLong(File::lastModified));
+        int sobrantes = archivos.length - capacidad;
+        for (int i = 0; i < archivos.length && sobrantes > 0; i++) {
+            if (enUso.containsKey(archivos[i])) continue;
+            sobrantes--;
+            if (!archivos[i].delete()) {
+                LOGGER.log(Level.FINE, "No se pudo borrar el fragmento {0}", archivos[i]);
+            }
+        }
+    }
+
+    private File[] fragmentos() {
+        File[] archivos = directorio.listFiles((dir, nombre) -> nombre.endsWith(EXTENSION));
+        return archivos != null ? archivos : new File[0];
+    }
+
+    private File archivo(String huella) {
+        return new File(directorio, Resumen.sha256(huella) + EXTENSION);
+    }
+}
@@ -0,0 +1,230 @@
+package informe;
+
+import com.itextpdf.text.DocumentException;
+import gramatica.FuncionError;
+import gramatica.Gramatica;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+import simulador.AccionSimulacion;
+import simulador.ArbolSintactico;
+import simulador.SimulacionFinal.HistorialPaso;
+
+/**
+ * Datos de un informe, preparados una vez y compartidos por todas sus secciones.
+ *
+ * Al crearlo se calcula lo que las secciones necesitan: el conjunto de no
+ * terminales, las columnas de pila y entrada del historial y las huellas de
+ * las secciones para la caché; la tabla predictiva es la compilada del motor.
+ * Nada depende del idioma, así que el mismo contexto sirve para los documentos
+ * de todos los idiomas, y una vez creado solo se lee: las secciones se
+ * escriben a la vez en varios hilos.
+ */
+public final class ContextoInforme {
+
+    /**
+     * Pasos hasta los que las columnas de pila y entrada se guardan ya
+     * formateadas. En historiales más largos cada documento las formatea al
+     * escribir cada bloque, para no retener todo el historial en memoria.
+     */
+    static final int MAX_PASOS_COLUMNAS_COMPARTIDAS = 20_000;
+
+    // Tipos de celda de la tabla predictiva según su contenido; cada uno tiene su color
+    static final byte CELDA_NORMAL = 0;
+    static final byte CELDA_PRODUCCION = 1;
+    static final byte CELDA_EPSILON = 2;
+    static final byte CELDA_FUNCION_ERROR = 3;
+
+    private static final String[] CLAVES_ESTADO = {
+        "informe.simulador.estado.aceptada",
+        "informe.simulador.estado.rechazada",
+        "informe.simulador.no.especificado"
+    };
+
+    private final Gramatica gramatica;
+    private final Gramatica gramaticaOriginal;
+    private final List<FuncionError> funcionesError;
+    private final String cadenaEntrada;
+    private final String claveEstado;
+    private final List<HistorialPaso> historial;
+    private final ArbolSintactico arbol;
+    private final Set<String> noTerminales;
+    private final String fecha;
+    private final String huellaGramatica;
+    private final String huellaOriginal;
+
+    // Tabla predictiva: una fila por símbolo y una columna por terminal
+    private final TablaInforme tabla;
+    private final int celdasOcupadas;
+    private final String huellaTabla;
+
+    private final String[] pilas;
+    private final String[] entradas;
+    private volatile DibujoArbolInforme dibujoArbol;
+
+    /**
+     * Contexto del informe de una gramática, sin simulación.
+     */
+    public ContextoInforme(Gramatica gramatica) {
+        this(gramatica, null, null, null, null, null, null, null, false);
+    }
+
+    /**
+     * Contexto del informe del simulador: gramáticas, funciones de error y tabla predictiva.
+     * @param tablaPredictiva Tabla compilada que usa el motor, o null
+     */
+    public ContextoInforme(Gramatica gramatica, Gramatica gramaticaOriginal, TablaInforme tablaPredictiva,
+                           List<FuncionError> funcionesError) {
+        this(gramatica, gramaticaOriginal, tablaPredictiva, funcionesError, null, null, null, null, false);
+    }
+
+    /**
+     * Contexto del informe de una simulación.
+     * @param gramatica Gramática con la que se ha simulado (la modificada)
+     * @param claveEstado Clave del estado final en messages_*.properties, por
+     *        ejemplo "informe.simulador.estado.aceptada", o null si no se conoce
+     * @param arbol Árbol que ha construido el motor durante la simulación, o null si no hay
+     * @param compartirColumnas Si se guardan ya formateadas la pila y la entrada
+     *        de cada paso, para varios documentos
+     */
+    public ContextoInforme(Gramatica gramatica, Gramatica gramaticaOriginal, TablaInforme tablaPredictiva,
+                           List<FuncionError> funcionesError, String cadenaEntrada, String claveEstado,
+                           List<HistorialPaso> historial, ArbolSintactico arbol, boolean compartirColumnas) {
+        this.gramatica = gramatica;
+        this.gramaticaOriginal = gramaticaOriginal;
+        this.funcionesError = funcionesError != null ? funcionesError : Collections.emptyList();
+        this.cadenaEntrada = cadenaEntrada;
+        this.claveEstado = claveEstado;
+        this.historial = historial != null ? historial : Collections.emptyList();
+        this.noTerminales = new HashSet<>(gramatica.getNoTerminalesModel());
+        this.fecha = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        this.huellaGramatica = huellaGramatica(gramatica);
+        this.huellaOriginal = gramaticaOriginal != null ? huellaGramatica(gramaticaOriginal) : null;
+        this.arbol = arbol;
+
+        // Celdas ocupadas y huella de la tabla, una vez para todas las bandas y formatos
+        tabla = tablaPredictiva;
+        int numFilas = tabla != null ? tabla.getNumFilas() : 0;
+        int numTerminales = tabla != null ? tabla.getNumTerminales() : 0;
+        StringBuilder huella = new StringBuilder();
+        for (int t = 0; t < numTerminales; t++) {
+            huella.append(tabla.getTerminal(t)).append('\u0001');
+        }
+        int ocupadas = 0;
+        for (int f = 0; f < numFilas; f++) {
+            huella.append('\n').append(tabla.getSimbolo(f));
+            for (int t = 0; t < numTerminales; t++) {
+                String celda = tabla.getCelda(f, t);
+                if (!celda.isEmpty()) ocupadas++;
+                huella.append('\u0001').append(celda);
+            }
+        }
+        celdasOcupadas = ocupadas;
+        huellaTabla = tabla != null ? huella.toString() : null;
+
+        if (compartirColumnas && this.historial.size() <= MAX_PASOS_COLUMNAS_COMPARTIDAS) {
+            pilas = new String[this.historial.size()];
+            entradas = new String[this.historial.size()];
+            for (int i = 0; i < pilas.length; i++) {
+                pilas[i] = this.historial.get(i).getPila();
+                entradas[i] = this.historial.get(i).getEntrada();
+            }
+        } else {
+            pilas = null;
+            entradas = null;
+        }
+    }
+
+    /**
+     * Clave del estado final que corresponde a su texto en un idioma.
+     * @return La clave, o null si el texto no es ninguno de los estados conocidos
+     */
+    public static String claveEstado(ResourceBundle bundle, String estado) {
+        if (estado == null || bundle == null) return null;
+        for (String clave : CLAVES_ESTADO) {
+            if (bundle.containsKey(clave) && estado.equals(bundle.getString(clave))) return clave;
+        }
+        return null;
+    }
+
+    /**
+     * Huella de los datos de una sección para {@link CacheFragmentosInforme}.
+     */
+    static String huella(Object... datos) {
+        StringBuilder sb = new StringBuilder();
+        for (Object dato : datos) {
+            sb.append(dato).append('\u0001');
+        }
+        return sb.toString();
+    }
+
+    private static String huellaGramatica(Gramatica gramatica) {
+        return huella(gramatica.getDescripcion(), gramatica.getSimbInicial(), gramatica.getNoTerminalesModel(),
+                      gramatica.getTerminalesModel(), gramatica.getProduccionesModel());
+    }
+
+    public Gramatica getGramatica() { return gramatica; }
+    public Gramatica getGramaticaOriginal() { return gramaticaOriginal; }
+    public List<FuncionError> getFuncionesError() { return funcionesError; }
+    public String getCadenaEntrada() { return cadenaEntrada; }
+    public ArbolSintactico getArbol() { return arbol; }
+    public String getFecha() { return fecha; }
+    public String getHuellaGramatica() { return huellaGramatica; }
+    public String getHuellaOriginal() { return huellaOriginal; }
+
+    public boolean hayFuncionesError() { return !funcionesError.isEmpty(); }
+    public boolean hayTablaPredictiva() { return tabla != null; }
+
+    /** Verifica si un símbolo es terminal, es decir, si no es no terminal de la gramática. */
+    public boolean esTerminal(String simbolo) { return !noTerminales.contains(simbolo); }
+
+    public String getClaveEstado() { return claveEstado; }
+    public boolean isAceptada() { return CLAVES_ESTADO[0].equals(claveEstado); }
+    public boolean isRechazada() { return CLAVES_ESTADO[1].equals(claveEstado); }
+
+    /**
+     * Estado final en el idioma del documento.
+     * @return El texto, o null si no se conoce
+     */
+    public String getEstado(ResourceBundle bundle) {
+        return claveEstado != null ? bundle.getString(claveEstado) : null;
+    }
+
+    // Tabla predictiva
+    public int getNumFilasTabla() { return tabla != null ? tabla.getNumFilas() : 0; }
+    public int getNumTerminalesTabla() { return tabla != null ? tabla.getNumTerminales() : 0; }
+    public String getTerminalTabla(int t) { return tabla.getTerminal(t); }
+    public String getSimboloTabla(int f) { return tabla.getSimbolo(f); }
+    public String getCeldaTabla(int f, int t) { return tabla.getCelda(f, t); }
+    byte getTipoCeldaTabla(int f, int t) { return tabla.getTipo(f, t); }
+    public int getCeldasOcupadasTabla() { return celdasOcupadas; }
+    public String getHuellaTabla() { return huellaTabla; }
+
+    // Historial de la simulación
+    public int getNumPasos() { return historial.size(); }
+    public String getPaso(int i) { return historial.get(i).getPaso(); }
+    public String getPila(int i) { return pilas != null ? pilas[i] : historial.get(i).getPila(); }
+    public String getEntrada(int i) { return entradas != null ? entradas[i] : historial.get(i).getEntrada(); }
+    public AccionSimulacion getCodigoAccion(int i) { return historial.get(i).getCodigoAccion(); }
+    public String getAccion(int i, ResourceBundle bundle) { return historial.get(i).getAccion(bundle); }
+
+    /**
+     * Dibujo del árbol con su disposición calculada, que se crea la primera vez
+     * que lo pide un documento y se reutiliza en los demás.
+     * @return El dibujo, o null si el árbol no tiene más que la raíz
+     */
+    public DibujoArbolInforme getDibujoArbol() throws DocumentException, IOException {
+        if (arbol == null || arbol.getNumNodos() <= 1) return null;
+        if (dibujoArbol == null) {
+            synchronized (this) {
+                if (dibujoArbol == null) {
+                    dibujoArbol = new DibujoArbolInforme(arbol, this::esTerminal, EstilosInforme.getFuenteBase());
+                }
+            }
+        }
+        return dibujoArbol;
+    }
+}
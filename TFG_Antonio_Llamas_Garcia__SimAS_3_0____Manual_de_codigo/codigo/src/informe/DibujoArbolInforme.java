@@ -0,0 +1,203 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfTemplate;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+import simulador.DisposicionArbol;
+
+/**
+ * Dibujo vectorial del árbol sintáctico en los informes PDF.
+ *
+ * Usa la misma disposición que el lienzo del simulador ({@link DisposicionArbol})
+ * y dibuja cajas, etiquetas y aristas directamente como gráficos PDF, sin
+ * Graphviz ni imágenes intermedias. El árbol se reduce hasta que cabe a lo ancho
+ * de la página, sin bajar de {@link #ESCALA_MINIMA}; si aun así no cabe se divide
+ * en bandas verticales. Cada banda se reparte por páginas cortando entre dos
+ * niveles, de modo que ninguna caja queda partida en vertical.
+ */
+public final class DibujoArbolInforme {
+
+    /** Escala mínima antes de dividir el árbol en bandas (etiquetas de unos 6,5 pt). */
+    public static final float ESCALA_MINIMA = 0.5f;
+
+    // Mismas medidas y colores que el lienzo del simulador
+    private static final float TAMANO_FUENTE = 13;
+    private static final double SEPARACION_HORIZONTAL = 14;
+    private static final double SEPARACION_VERTICAL = 36;
+    private static final double MARGEN = 10;
+    private static final float RADIO_CAJA = 5;
+    private static final BaseColor COLOR_NO_TERMINAL = EstilosInforme.COLOR_PRIMARIO;
+    private static final BaseColor COLOR_TERMINAL = EstilosInforme.color(44, 62, 80);
+    private static final BaseColor COLOR_EPSILON = EstilosInforme.COLOR_NEUTRO;
+    private static final BaseColor COLOR_ARISTA = EstilosInforme.color(127, 140, 141);
+
+    private final ArbolSintactico arbol;
+    private final Predicate<String> esTerminal;
+    private final BaseFont fuente;
+    private final DisposicionArbol disposicion;
+
+    /**
+     * @param esTerminal Indica si una etiqueta es un símbolo terminal
+     */
+    public DibujoArbolInforme(ArbolSintactico arbol, Predicate<String> esTerminal, BaseFont fuente) {
+        this.arbol = arbol;
+        this.esTerminal = esTerminal;
+        this.fuente = fuente;
+        this.disposicion = new DisposicionArbol(arbol, etiqueta -> fuente.getWidthPoint(etiqueta, TAMANO_FUENTE) + 18,
+                                                SEPARACION_HORIZONTAL, SEPARACION_VERTICAL);
+        this.disposicion.actualizar();
+    }
+
+    /**
+     * Añade el árbol al documento a partir de la posición actual.
+     */
+    public void agregar(Document document, PdfWriter writer) throws DocumentException {
+        float anchoPagina = document.right() - document.left();
+        float altoPagina = document.top() - document.bottom();
+        double altoNivel = DisposicionArbol.ALTO_NODO + SEPARACION_VERTICAL;
+
+        double xMin = disposicion.getMinX() - MARGEN;
+        double anchoTotal = disposicion.getAnchoTotal() + 2 * MARGEN;
+        double altoTotal = disposicion.getAltoTotal() + MARGEN;
+        float escala = (float) Math.max(ESCALA_MINIMA, Math.min(1, anchoPagina / anchoTotal));
+        double anchoBanda = anchoPagina / escala;
+        int numBandas = (int) Math.ceil(anchoTotal / anchoBanda - 1e-9);
+        // Cada trozo ocupa sus niveles más, como mucho, el margen y medio hueco entre niveles
+        double reserva = MARGEN + SEPARACION_VERTICAL / 2;
+        int nivelesPorPagina = Math.max(1, (int) ((altoPagina / escala - reserva) / altoNivel));
+
+        for (int banda = 0; banda < numBandas; banda++) {
+            double x0 = xMin + banda * anchoBanda;
+            double x1 = Math.min(x0 + anchoBanda, xMin + anchoTotal);
+            if (banda > 0) document.newPage();
+
+            int nivel = 0;
+            while (nivel < disposicion.getNumNiveles()) {
+                // Niveles que caben en lo que queda de página; si no cabe ninguno, página nueva
+                float disponible = writer.getVerticalPosition(false) - document.bottom();
+                int niveles = (int) ((disponible / escala - reserva) / altoNivel);
+                if (niveles < 1) {
+                    document.newPage();
+                    niveles = nivelesPorPagina;
+                }
+                int nivelFin = Math.min(disposicion.getNumNiveles(), nivel + niveles);
+
+                // Los cortes quedan en mitad del hueco entre niveles
+                double y0 = nivel == 0 ? -MARGEN : nivel * altoNivel - SEPARACION_VERTICAL / 2;
+                double y1 = nivelFin == disposicion.getNumNiveles() ? altoTotal : nivelFin * altoNivel - SEPARACION_VERTICAL / 2;
+                document.add(crearTrozo(writer, x0, y0, x1, y1, escala));
+                nivel = nivelFin;
+            }
+        }
+    }
+
+    // Dibuja la parte del árbol dentro del rectángulo indicado (coordenadas de la disposición)
+    private Image crearTrozo(PdfWriter writer, double x0, double y0, double x1, double y1, float escala)
+            throws DocumentException {
+        PdfTemplate trozo = writer.getDirectContent().createTemplate((float) ((x1 - x0) * escala), (float) ((y1 - y0) * escala));
+        Lienzo lienzo = new Lienzo(trozo, x0, y1, escala);
+
+        // Aristas primero para que queden bajo las cajas. Se visita un nivel más por
+        // abajo para las que cruzan el corte; las que salen por un lado se dibujan
+        // desde el padre. La caja de la plantilla recorta lo que sobresale.
+        double altoNivel = DisposicionArbol.ALTO_NODO + SEPARACION_VERTICAL;
+        trozo.setColorStroke(COLOR_ARISTA);
+        trozo.setLineWidth(escala);
+        disposicion.visitarVisibles(x0, y0 - altoNivel, x1, y1 + altoNivel, nodo -> {
+            int padre = arbol.getPadre(nodo);
+            if (padre != ArbolSintactico.NINGUNO) {
+                lienzo.linea(disposicion.getX(padre), disposicion.getY(padre) + DisposicionArbol.ALTO_NODO,
+                             disposicion.getX(nodo), disposicion.getY(nodo));
+            }
+            for (int hijo = arbol.getPrimerHijo(nodo); hijo != ArbolSintactico.NINGUNO; hijo = arbol.getSiguienteHermano(hijo)) {
+                if (fueraDeBanda(hijo, x0, x1)) {
+                    lienzo.linea(disposicion.getX(nodo), disposicion.getY(nodo) + DisposicionArbol.ALTO_NODO,
+                                 disposicion.getX(hijo), disposicion.getY(hijo));
+                }
+            }
+        });
+        trozo.stroke();
+
+        disposicion.visitarVisibles(x0, y0, x1, y1, nodo -> dibujarNodo(trozo, lienzo, nodo, escala));
+
+        Image imagen = Image.getInstance(trozo);
+        imagen.setAlignment(Element.ALIGN_CENTER);
+        return imagen;
+    }
+
+    private boolean fueraDeBanda(int nodo, double x0, double x1) {
+        double mitad = disposicion.getAncho(nodo) / 2;
+        return disposicion.getX(nodo) + mitad < x0 || disposicion.getX(nodo) - mitad > x1;
+    }
+
+    private void dibujarNodo(PdfTemplate trozo, Lienzo lienzo, int nodo, float escala) {
+        String etiqueta = arbol.getEtiqueta(nodo);
+        double w = disposicion.getAncho(nodo);
+        double cx = disposicion.getX(nodo);
+        double y = disposicion.getY(nodo);
+
+        BaseColor color;
+        if (etiqueta.equals("ε")) {
+            color = COLOR_EPSILON;
+        } else if (esTerminal.test(etiqueta)) {
+            color = COLOR_TERMINAL;
+        } else {
+            color = COLOR_NO_TERMINAL;
+        }
+
+        trozo.setColorFill(BaseColor.WHITE);
+        trozo.setColorStroke(color);
+        trozo.setLineWidth(escala);
+        trozo.roundRectangle(lienzo.x(cx - w / 2), lienzo.y(y + DisposicionArbol.ALTO_NODO),
+                             (float) (w * escala), (float) (DisposicionArbol.ALTO_NODO * escala), RADIO_CAJA * escala);
+        trozo.fillStroke();
+
+        // Texto centrado en la caja: la línea base baja un tercio del cuerpo de letra
+        float tamano = TAMANO_FUENTE * escala;
+        trozo.beginText();
+        trozo.setFontAndSize(fuente, tamano);
+        trozo.setColorFill(color);
+        trozo.showTextAligned(PdfContentByte.ALIGN_CENTER, etiqueta, lienzo.x(cx),
+                              lienzo.y(y + DisposicionArbol.ALTO_NODO / 2) - tamano / 3, 0);
+        trozo.endText();
+    }
+
+    /**
+     * Paso de coordenadas de la disposición (y hacia abajo) a las de la plantilla
+     * (y hacia arriba, origen en la esquina inferior izquierda del trozo).
+     */
+    private static final class Lienzo {
+        private final PdfTemplate plantilla;
+        private final double x0;
+        private final double y1;
+        private final float escala;
+
+        Lienzo(PdfTemplate plantilla, double x0, double y1, float escala) {
+            this.plantilla = plantilla;
+            this.x0 = x0;
+            this.y1 = y1;
+            this.escala = escala;
+        }
+
+        float x(double x) {
+            return (float) ((x - x0) * escala);
+        }
+
+        float y(double y) {
+            return (float) ((y1 - y) * escala);
+        }
+
+        void linea(double xa, double ya, double xb, double yb) {
+            plantilla.moveTo(x(xa), y(ya));
+            plantilla.lineTo(x(xb), y(yb));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package informe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+
+/**
+ * Informe en CSV: un archivo por tabla.
+ *
+ * Los datos sueltos y las listas de todas las secciones van juntos en la tabla
+ * "datos" (sección, clave, valor; una fila por elemento de lista) y el árbol
+ * sintáctico en una tabla de nodos con su padre. Los valores siguen RFC 4180:
+ * se entrecomillan solo si contienen separador, comillas o saltos de línea.
+ */
+public final class EscritorCsv implements EscritorInforme {
+
+    /**
+     * Abre el destino de cada tabla del informe.
+     */
+    @FunctionalInterface
+    public interface Destinos {
+        Writer abrir(String idTabla) throws IOException;
+    }
+
+    private static final String TABLA_DATOS = "datos";
+    private static final String[] CABECERAS_DATOS = {"seccion", "clave", "valor"};
+    private static final String[] CABECERAS_ARBOL = {"id", "padre", "simbolo", "terminal"};
+
+    private final Destinos destinos;
+    private Writer datos;
+    private Writer tabla;
+    private String seccion = "";
+
+    public EscritorCsv(Destinos destinos) {
+        this.destinos = destinos;
+    }
+
+    @Override
+    public void inicio(String titulo) throws IOException {
+        // El título no tiene lugar en las tablas
+    }
+
+    @Override
+    public void seccion(String id, String titulo) throws IOException {
+        seccion = id;
+    }
+
+    @Override
+    public void campo(String clave, String etiqueta, String valor) throws IOException {
+        filaDatos(clave, valor);
+    }
+
+    @Override
+    public void lista(String clave, String etiqueta, List<String> elementos) throws IOException {
+        for (String elemento : elementos) {
+            filaDatos(clave, elemento);
+        }
+    }
+
+    @Override
+    public void tabla(String id, String titulo, String... cabeceras) throws IOException {
+        tabla = destinos.abrir(id);
+        escribirFila(tabla, cabeceras);
+    }
+
+    @Override
+    public void fila(String... celdas) throws IOException {
+        escribirFila(tabla, celdas);
+    }
+
+    @Override
+    public void finTabla() throws IOException {
+        tabla.close();
+        tabla = null;
+    }
+
+    @Override
+    public void arbol(ArbolSintactico arbol, Predicate<String> esTerminal) throws IOException {
+        if (arbol == null || arbol.getNumNodos() == 0) return;
+        tabla(seccion, null, CABECERAS_ARBOL);
+        for (int nodo = 0; nodo < arbol.getNumNodos(); nodo++) {
+            String etiqueta = arbol.getEtiqueta(nodo);
+            fila(String.valueOf(nodo), String.valueOf(arbol.getPadre(nodo)), etiqueta,
+                 String.valueOf(esTerminal.test(etiqueta)));
+        }
+        finTabla();
+    }
+
+    @Override
+    public void finSeccion() throws IOException {
+        seccion = "";
+    }
+
+    @Override
+    public void fin() throws IOException {
+        if (datos != null) datos.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (tabla != null) tabla.close();
+        } finally {
+            if (datos != null) datos.close();
+        }
+    }
+
+    private void filaDatos(String clave, String valor) throws IOException {
+        if (datos == null) {
+            datos = destinos.abrir(TABLA_DATOS);
+            escribirFila(datos, CABECERAS_DATOS);
+        }
+        escribirFila(datos, seccion, clave, valor);
+    }
+
+    private static void escribirFila(Writer salida, String... celdas) throws IOException {
+        for (int i = 0; i < celdas.length; i++) {
+            if (i > 0) salida.write(',');
+            String celda = celdas[i] != null ? celdas[i] : "";
+            if (celda.indexOf(',') >= 0 || celda.indexOf('"') >= 0 || celda.indexOf('\n') >= 0 || celda.indexOf('\r') >= 0) {
+                salida.write('"');
+                salida.write(celda.replace("\"", "\"\""));
+                salida.write('"');
+            } else {
+                salida.write(celda);
+            }
+        }
+        salida.write("\r\n");
+    }
+}
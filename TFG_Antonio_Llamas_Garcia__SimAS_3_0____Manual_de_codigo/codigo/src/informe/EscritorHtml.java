@@ -0,0 +1,194 @@
+package informe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+import simulador.DisposicionArbol;
+
+/**
+ * Informe en una sola página HTML con el estilo incluido y el árbol sintáctico
+ * como SVG, dibujado con la misma disposición y colores que el simulador.
+ */
+public final class EscritorHtml implements EscritorInforme {
+
+    // Colores de los informes PDF y del lienzo del árbol
+    private static final String ESTILO =
+        "body{font-family:Arial,Helvetica,sans-serif;margin:2em;color:#000}"
+        + "h1{color:#2980b9;border-bottom:3px solid #2980b9}"
+        + "h2{color:#2980b9;border-bottom:1px solid #95a5a6;margin-top:2em}"
+        + "h3{color:#e67e22}"
+        + "table{border-collapse:collapse;margin:.5em 0;font-size:.85em}"
+        + "th{background:#2980b9;color:#fff;padding:6px;border:1px solid #3498db}"
+        + "td{padding:4px 6px;border:1px solid #3498db}"
+        + "tbody tr:nth-child(even){background:#ecf0f1}"
+        + "svg text{font-family:Arial,Helvetica,sans-serif;font-size:13px}";
+    private static final String COLOR_NO_TERMINAL = "#2980b9";
+    private static final String COLOR_TERMINAL = "#2c3e50";
+    private static final String COLOR_EPSILON = "#95a5a6";
+    private static final String COLOR_ARISTA = "#7f8c8d";
+    private static final double MARGEN_ARBOL = 10;
+
+    private final Writer salida;
+
+    public EscritorHtml(Writer salida) {
+        this.salida = salida;
+    }
+
+    @Override
+    public void inicio(String titulo) throws IOException {
+        salida.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>");
+        escapar(titulo);
+        salida.write("</title>\n<style>");
+        salida.write(ESTILO);
+        salida.write("</style>\n</head>\n<body>\n<h1>");
+        escapar(titulo);
+        salida.write("</h1>\n");
+    }
+
+    @Override
+    public void seccion(String id, String titulo) throws IOException {
+        salida.write("<section id=\"");
+        escapar(id);
+        salida.write("\">\n<h2>");
+        escapar(titulo);
+        salida.write("</h2>\n");
+    }
+
+    @Override
+    public void campo(String clave, String etiqueta, String valor) throws IOException {
+        salida.write("<p><strong>");
+        escapar(etiqueta);
+        salida.write(":</strong> ");
+        escapar(valor);
+        salida.write("</p>\n");
+    }
+
+    @Override
+    public void lista(String clave, String etiqueta, List<String> elementos) throws IOException {
+        salida.write("<h3>");
+        escapar(etiqueta);
+        salida.write("</h3>\n<ul>\n");
+        for (String elemento : elementos) {
+            salida.write("<li>");
+            escapar(elemento);
+            salida.write("</li>\n");
+        }
+        salida.write("</ul>\n");
+    }
+
+    @Override
+    public void tabla(String id, String titulo, String... cabeceras) throws IOException {
+        if (titulo != null) {
+            salida.write("<h3>");
+            escapar(titulo);
+            salida.write("</h3>\n");
+        }
+        salida.write("<table id=\"");
+        escapar(id);
+        salida.write("\">\n<thead><tr>");
+        for (String cabecera : cabeceras) {
+            salida.write("<th>");
+            escapar(cabecera);
+            salida.write("</th>");
+        }
+        salida.write("</tr></thead>\n<tbody>\n");
+    }
+
+    @Override
+    public void fila(String... celdas) throws IOException {
+        salida.write("<tr>");
+        for (String celda : celdas) {
+            salida.write("<td>");
+            escapar(celda);
+            salida.write("</td>");
+        }
+        salida.write("</tr>\n");
+    }
+
+    @Override
+    public void finTabla() throws IOException {
+        salida.write("</tbody>\n</table>\n");
+    }
+
+    @Override
+    public void arbol(ArbolSintactico arbol, Predicate<String> esTerminal) throws IOException {
+        if (arbol == null || arbol.getNumNodos() == 0) return;
+        DisposicionArbol disposicion = new DisposicionArbol(arbol);
+        disposicion.actualizar();
+
+        double x0 = disposicion.getMinX() - MARGEN_ARBOL;
+        double ancho = disposicion.getAnchoTotal() + 2 * MARGEN_ARBOL;
+        double alto = disposicion.getAltoTotal() + 2 * MARGEN_ARBOL;
+        salida.write(String.format(Locale.ROOT,
+            "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%.0f\" height=\"%.0f\" viewBox=\"%.1f %.1f %.1f %.1f\">\n",
+            ancho, alto, x0, -MARGEN_ARBOL, ancho, alto));
+
+        // Aristas primero para que queden bajo las cajas
+        salida.write("<g stroke=\"" + COLOR_ARISTA + "\">\n");
+        for (int nodo = 0; nodo < disposicion.getNumNodos(); nodo++) {
+            int padre = arbol.getPadre(nodo);
+            if (padre == ArbolSintactico.NINGUNO) continue;
+            salida.write(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\"/>\n",
+                disposicion.getX(padre), disposicion.getY(padre) + DisposicionArbol.ALTO_NODO,
+                disposicion.getX(nodo), disposicion.getY(nodo)));
+        }
+        salida.write("</g>\n");
+
+        for (int nodo = 0; nodo < disposicion.getNumNodos(); nodo++) {
+            String etiqueta = arbol.getEtiqueta(nodo);
+            String color;
+            if (etiqueta.equals("ε")) {
+                color = COLOR_EPSILON;
+            } else if (esTerminal.test(etiqueta)) {
+                color = COLOR_TERMINAL;
+            } else {
+                color = COLOR_NO_TERMINAL;
+            }
+            double w = disposicion.getAncho(nodo);
+            double cx = disposicion.getX(nodo);
+            double y = disposicion.getY(nodo);
+            salida.write(String.format(Locale.ROOT,
+                "<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%.1f\" rx=\"5\" fill=\"#fff\" stroke=\"%s\"/>",
+                cx - w / 2, y, w, DisposicionArbol.ALTO_NODO, color));
+            salida.write(String.format(Locale.ROOT,
+                "<text x=\"%.1f\" y=\"%.1f\" fill=\"%s\" text-anchor=\"middle\" dominant-baseline=\"central\">",
+                cx, y + DisposicionArbol.ALTO_NODO / 2, color));
+            escapar(etiqueta);
+            salida.write("</text>\n");
+        }
+        salida.write("</svg>\n");
+    }
+
+    @Override
+    public void finSeccion() throws IOException {
+        salida.write("</section>\n");
+    }
+
+    @Override
+    public void fin() throws IOException {
+        salida.write("</body>\n</html>\n");
+        salida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    private void escapar(String texto) throws IOException {
+        if (texto == null) return;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '<': salida.write("&lt;"); break;
+                case '>': salida.write("&gt;"); break;
+                case '&': salida.write("&amp;"); break;
+                case '"': salida.write("&quot;"); break;
+                default: salida.write(c);
+            }
+        }
+    }
+}
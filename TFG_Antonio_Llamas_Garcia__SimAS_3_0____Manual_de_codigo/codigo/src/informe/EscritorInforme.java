@@ -0,0 +1,57 @@
+package informe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+
+/**
+ * Destino de un informe en formato de texto (HTML, Markdown, JSON o CSV).
+ *
+ * El informe se recibe como una secuencia de llamadas y cada escritor lo vuelca
+ * al momento sobre su {@link java.io.Writer}, sin construir el documento en
+ * memoria. Las secciones usan los mismos identificadores que las del informe PDF
+ * ({@link InformePorSecciones}), por ejemplo "simulacion.historial".
+ *
+ * Orden de las llamadas: {@code inicio}, y por cada sección {@code seccion},
+ * su contenido y {@code finSeccion}; al final {@code fin}. Una tabla es
+ * {@code tabla}, sus filas y {@code finTabla}.
+ */
+public interface EscritorInforme extends Closeable {
+
+    void inicio(String titulo) throws IOException;
+
+    void seccion(String id, String titulo) throws IOException;
+
+    /**
+     * Dato suelto de la sección, por ejemplo la cadena de entrada.
+     * @param clave Nombre estable del dato, para los formatos legibles por programas
+     * @param etiqueta Nombre del dato en el idioma del informe
+     */
+    void campo(String clave, String etiqueta, String valor) throws IOException;
+
+    void lista(String clave, String etiqueta, List<String> elementos) throws IOException;
+
+    /**
+     * Comienza una tabla.
+     * @param id Identificador único en todo el informe, por ejemplo "simulacion.historial"
+     */
+    void tabla(String id, String titulo, String... cabeceras) throws IOException;
+
+    void fila(String... celdas) throws IOException;
+
+    void finTabla() throws IOException;
+
+    /**
+     * @param esTerminal Indica si una etiqueta es un símbolo terminal
+     */
+    void arbol(ArbolSintactico arbol, Predicate<String> esTerminal) throws IOException;
+
+    void finSeccion() throws IOException;
+
+    /**
+     * Termina el informe y vacía lo pendiente; después solo queda cerrar.
+     */
+    void fin() throws IOException;
+}
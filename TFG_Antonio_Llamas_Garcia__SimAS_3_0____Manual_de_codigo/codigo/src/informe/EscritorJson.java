@@ -0,0 +1,177 @@
+package informe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+
+/**
+ * Informe en JSON para su tratamiento automático.
+ *
+ * Forma del documento:
+ * <pre>
+ * {"titulo": "...", "secciones": [
+ *   {"id": "simulacion.historial", "titulo": "...", "contenido": [
+ *     {"tipo": "campo", "clave": "...", "etiqueta": "...", "valor": "..."},
+ *     {"tipo": "lista", "clave": "...", "etiqueta": "...", "elementos": ["..."]},
+ *     {"tipo": "tabla", "id": "...", "titulo": "...", "cabeceras": ["..."], "filas": [["..."]]},
+ *     {"tipo": "arbol", "raiz": 0, "nodos": [{"id": 0, "padre": -1, "simbolo": "E", "terminal": false}]}
+ *   ]}
+ * ]}
+ * </pre>
+ * El árbol se da como lista plana de nodos con su padre, de modo que la
+ * profundidad del árbol no afecta ni al escritor ni al lector.
+ */
+public final class EscritorJson implements EscritorInforme {
+
+    private final Writer salida;
+    // Controlan las comas entre los elementos de cada nivel
+    private boolean primeraSeccion = true;
+    private boolean primerContenido = true;
+    private boolean primeraFila = true;
+
+    public EscritorJson(Writer salida) {
+        this.salida = salida;
+    }
+
+    @Override
+    public void inicio(String titulo) throws IOException {
+        salida.write("{\"titulo\":");
+        cadena(titulo);
+        salida.write(",\"secciones\":[");
+    }
+
+    @Override
+    public void seccion(String id, String titulo) throws IOException {
+        if (!primeraSeccion) salida.write(',');
+        primeraSeccion = false;
+        primerContenido = true;
+        salida.write("\n{\"id\":");
+        cadena(id);
+        salida.write(",\"titulo\":");
+        cadena(titulo);
+        salida.write(",\"contenido\":[");
+    }
+
+    @Override
+    public void campo(String clave, String etiqueta, String valor) throws IOException {
+        contenido("campo");
+        salida.write(",\"clave\":");
+        cadena(clave);
+        salida.write(",\"etiqueta\":");
+        cadena(etiqueta);
+        salida.write(",\"valor\":");
+        cadena(valor);
+        salida.write('}');
+    }
+
+    @Override
+    public void lista(String clave, String etiqueta, List<String> elementos) throws IOException {
+        contenido("lista");
+        salida.write(",\"clave\":");
+        cadena(clave);
+        salida.write(",\"etiqueta\":");
+        cadena(etiqueta);
+        salida.write(",\"elementos\":");
+        vector(elementos.toArray(new String[0]));
+        salida.write('}');
+    }
+
+    @Override
+    public void tabla(String id, String titulo, String... cabeceras) throws IOException {
+        contenido("tabla");
+        salida.write(",\"id\":");
+        cadena(id);
+        salida.write(",\"titulo\":");
+        cadena(titulo);
+        salida.write(",\"cabeceras\":");
+        vector(cabeceras);
+        salida.write(",\"filas\":[");
+        primeraFila = true;
+    }
+
+    @Override
+    public void fila(String... celdas) throws IOException {
+        if (!primeraFila) salida.write(',');
+        primeraFila = false;
+        salida.write('\n');
+        vector(celdas);
+    }
+
+    @Override
+    public void finTabla() throws IOException {
+        salida.write("]}");
+    }
+
+    @Override
+    public void arbol(ArbolSintactico arbol, Predicate<String> esTerminal) throws IOException {
+        if (arbol == null || arbol.getNumNodos() == 0) return;
+        contenido("arbol");
+        salida.write(",\"raiz\":" + arbol.getRaiz() + ",\"nodos\":[");
+        for (int nodo = 0; nodo < arbol.getNumNodos(); nodo++) {
+            if (nodo > 0) salida.write(',');
+            String etiqueta = arbol.getEtiqueta(nodo);
+            salida.write("\n{\"id\":" + nodo + ",\"padre\":" + arbol.getPadre(nodo) + ",\"simbolo\":");
+            cadena(etiqueta);
+            salida.write(",\"terminal\":" + esTerminal.test(etiqueta) + "}");
+        }
+        salida.write("]}");
+    }
+
+    @Override
+    public void finSeccion() throws IOException {
+        salida.write("]}");
+    }
+
+    @Override
+    public void fin() throws IOException {
+        salida.write("\n]}\n");
+        salida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    private void contenido(String tipo) throws IOException {
+        if (!primerContenido) salida.write(',');
+        primerContenido = false;
+        salida.write("\n{\"tipo\":\"" + tipo + "\"");
+    }
+
+    private void vector(String[] valores) throws IOException {
+        salida.write('[');
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) salida.write(',');
+            cadena(valores[i]);
+        }
+        salida.write(']');
+    }
+
+    private void cadena(String texto) throws IOException {
+        if (texto == null) {
+            salida.write("null");
+            return;
+        }
+        salida.write('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': salida.write("\\\""); break;
+                case '\\': salida.write("\\\\"); break;
+                case '\n': salida.write("\\n"); break;
+                case '\r': salida.write("\\r"); break;
+                case '\t': salida.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        salida.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        salida.write(c);
+                    }
+            }
+        }
+        salida.write('"');
+    }
+}
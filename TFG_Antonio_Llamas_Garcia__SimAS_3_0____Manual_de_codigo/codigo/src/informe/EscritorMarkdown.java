@@ -0,0 +1,138 @@
+package informe;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+import simulador.ArbolSintactico;
+
+/**
+ * Informe en Markdown: tablas con barras verticales y el árbol sintáctico como
+ * lista anidada, con los no terminales en negrita.
+ */
+public final class EscritorMarkdown implements EscritorInforme {
+
+    private final Writer salida;
+
+    public EscritorMarkdown(Writer salida) {
+        this.salida = salida;
+    }
+
+    @Override
+    public void inicio(String titulo) throws IOException {
+        salida.write("# ");
+        salida.write(enLinea(titulo));
+        salida.write("\n\n");
+    }
+
+    @Override
+    public void seccion(String id, String titulo) throws IOException {
+        salida.write("## ");
+        salida.write(enLinea(titulo));
+        salida.write("\n\n");
+    }
+
+    @Override
+    public void campo(String clave, String etiqueta, String valor) throws IOException {
+        salida.write("**");
+        salida.write(enLinea(etiqueta));
+        salida.write(":** ");
+        salida.write(enLinea(valor));
+        salida.write("\n\n");
+    }
+
+    @Override
+    public void lista(String clave, String etiqueta, List<String> elementos) throws IOException {
+        salida.write("### ");
+        salida.write(enLinea(etiqueta));
+        salida.write("\n\n");
+        for (String elemento : elementos) {
+            salida.write("- ");
+            salida.write(enLinea(elemento));
+            salida.write('\n');
+        }
+        salida.write('\n');
+    }
+
+    @Override
+    public void tabla(String id, String titulo, String... cabeceras) throws IOException {
+        if (titulo != null) {
+            salida.write("### ");
+            salida.write(enLinea(titulo));
+            salida.write("\n\n");
+        }
+        fila(cabeceras);
+        salida.write('|');
+        for (int i = 0; i < cabeceras.length; i++) {
+            salida.write(" --- |");
+        }
+        salida.write('\n');
+    }
+
+    @Override
+    public void fila(String... celdas) throws IOException {
+        salida.write('|');
+        for (String celda : celdas) {
+            salida.write(' ');
+            salida.write(enLinea(celda).replace("|", "\\|"));
+            salida.write(" |");
+        }
+        salida.write('\n');
+    }
+
+    @Override
+    public void finTabla() throws IOException {
+        salida.write('\n');
+    }
+
+    @Override
+    public void arbol(ArbolSintactico arbol, Predicate<String> esTerminal) throws IOException {
+        if (arbol == null || arbol.getNumNodos() == 0) return;
+        // Recorrido en preorden con pila explícita: los árboles de entradas largas
+        // son muy profundos. Cada entrada guarda el nodo y su profundidad.
+        Deque<int[]> pendientes = new ArrayDeque<>();
+        pendientes.push(new int[]{arbol.getRaiz(), 0});
+        while (!pendientes.isEmpty()) {
+            int[] actual = pendientes.pop();
+            int nodo = actual[0];
+            for (int i = 0; i < actual[1]; i++) {
+                salida.write("  ");
+            }
+            String etiqueta = enLinea(arbol.getEtiqueta(nodo));
+            salida.write(esTerminal.test(arbol.getEtiqueta(nodo)) ? "- `" + etiqueta + "`\n" : "- **" + etiqueta + "**\n");
+
+            // Los hijos se apilan en orden inverso para visitarlos de izquierda a derecha
+            Deque<Integer> hijos = new ArrayDeque<>();
+            for (int hijo = arbol.getPrimerHijo(nodo); hijo != ArbolSintactico.NINGUNO; hijo = arbol.getSiguienteHermano(hijo)) {
+                hijos.push(hijo);
+            }
+            while (!hijos.isEmpty()) {
+                pendientes.push(new int[]{hijos.pop(), actual[1] + 1});
+            }
+        }
+        salida.write('\n');
+    }
+
+    @Override
+    public void finSeccion() throws IOException {
+        // Las secciones se separan por su título
+    }
+
+    @Override
+    public void fin() throws IOException {
+        salida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    // Los saltos de línea romperían tablas y listas
+    private static String enLinea(String texto) {
+        if (texto == null) return "";
+        return texto.replace("\r", "").replace('\n', ' ');
+    }
+}
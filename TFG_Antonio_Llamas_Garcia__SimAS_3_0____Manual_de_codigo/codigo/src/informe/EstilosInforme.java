@@ -0,0 +1,217 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.draw.LineSeparator;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro compartido de fuentes, colores y estilos de celda de los informes PDF.
+ *
+ * Las fuentes base se cargan una sola vez por ejecución y las fuentes y estilos
+ * de celda se crean la primera vez que se piden y se reutilizan en todos los
+ * informes. Los objetos devueltos se comparten, así que no deben modificarse:
+ * para una variante se pide otra al registro.
+ *
+ * Los constructores de tablas obtienen sus estilos antes de recorrer las filas;
+ * dentro del bucle cada celda solo crea su texto.
+ */
+public final class EstilosInforme {
+
+    private static final String RUTA_FUENTE = "fonts/arial.ttf";
+
+    // Esquema de colores de los informes
+    public static final BaseColor COLOR_PRIMARIO = new BaseColor(41, 128, 185);       // Azul profesional
+    public static final BaseColor COLOR_SECUNDARIO = new BaseColor(52, 152, 219);     // Azul claro
+    public static final BaseColor COLOR_ACENTO = new BaseColor(230, 126, 34);         // Naranja
+    public static final BaseColor COLOR_EXITO = new BaseColor(46, 204, 113);          // Verde éxito
+    public static final BaseColor COLOR_ERROR = new BaseColor(231, 76, 60);           // Rojo error
+    public static final BaseColor COLOR_NEUTRO = new BaseColor(149, 165, 166);        // Gris neutro
+    public static final BaseColor COLOR_FONDO_CABECERA = new BaseColor(236, 240, 241); // Gris muy claro
+
+    private static volatile BaseFont fuenteBase;
+    private static volatile BaseFont fuenteMono;
+
+    private static final Map<String, Font> FUENTES = new ConcurrentHashMap<>();
+    private static final Map<String, Celda> CELDAS = new ConcurrentHashMap<>();
+    private static final Map<Integer, BaseColor> COLORES = new ConcurrentHashMap<>();
+
+    private EstilosInforme() {
+    }
+
+    /** Fuente base de los informes (Arial con codificación Unicode, incrustada). */
+    public static BaseFont getFuenteBase() throws DocumentException, IOException {
+        if (fuenteBase == null) {
+            synchronized (EstilosInforme.class) {
+                if (fuenteBase == null) {
+                    fuenteBase = BaseFont.createFont(RUTA_FUENTE, BaseFont.IDENTITY_H, BaseFont.EMBEDDED);
+                }
+            }
+        }
+        return fuenteBase;
+    }
+
+    /** Fuente monoespaciada de los informes (Courier). */
+    public static BaseFont getFuenteMono() throws DocumentException, IOException {
+        if (fuenteMono == null) {
+            synchronized (EstilosInforme.class) {
+                if (fuenteMono == null) {
+                    fuenteMono = BaseFont.createFont(BaseFont.COURIER, BaseFont.CP1252, BaseFont.EMBEDDED);
+                }
+            }
+        }
+        return fuenteMono;
+    }
+
+    /**
+     * Color compartido con los componentes indicados.
+     */
+    public static BaseColor color(int rojo, int verde, int azul) {
+        return COLORES.computeIfAbsent((rojo << 16) | (verde << 8) | azul, rgb -> new BaseColor(rojo, verde, azul));
+    }
+
+    /**
+     * Fuente compartida sobre la fuente base.
+     * @param estilo Font.NORMAL, Font.BOLD, Font.ITALIC...
+     */
+    public static Font fuente(float tamano, int estilo, BaseColor color) {
+        return FUENTES.computeIfAbsent(clave("base", tamano, estilo, color), k -> {
+            try {
+                return new Font(getFuenteBase(), tamano, estilo, color);
+            } catch (DocumentException | IOException e) {
+                throw new ExceptionConverter(e);
+            }
+        });
+    }
+
+    /**
+     * Fuente compartida sobre la fuente monoespaciada.
+     */
+    public static Font fuenteMono(float tamano, int estilo, BaseColor color) {
+        return FUENTES.computeIfAbsent(clave("mono", tamano, estilo, color), k -> {
+            try {
+                return new Font(getFuenteMono(), tamano, estilo, color);
+            } catch (DocumentException | IOException e) {
+                throw new ExceptionConverter(e);
+            }
+        });
+    }
+
+    /**
+     * Estilo de celda compartido.
+     * @param fuente Fuente obtenida de este registro
+     * @param alineacion Alineación horizontal (PdfPCell.ALIGN_*)
+     */
+    public static Celda celda(Font fuente, BaseColor fondo, int alineacion, float relleno,
+                              BaseColor colorBorde, float anchoBorde) {
+        String clave = clave(fuente.getFamilyname(), fuente.getSize(), fuente.getStyle(), fuente.getColor())
+            + "|" + rgb(fondo) + "|" + alineacion + "|" + relleno + "|" + rgb(colorBorde) + "|" + anchoBorde;
+        return CELDAS.computeIfAbsent(clave, k -> new Celda(fuente, fondo, alineacion, relleno, colorBorde, anchoBorde));
+    }
+
+    /**
+     * Cabecera de tabla: texto blanco en negrita sobre el color primario.
+     */
+    public static Celda cabeceraTabla() {
+        return celda(fuente(9, Font.BOLD, BaseColor.WHITE), COLOR_PRIMARIO, PdfPCell.ALIGN_CENTER, 8, COLOR_SECUNDARIO, 1);
+    }
+
+    /**
+     * Celda de datos de una tabla con filas alternas.
+     */
+    public static Celda datoTabla(Font fuente, BaseColor fondo, int alineacion) {
+        return celda(fuente, fondo, alineacion, 6, COLOR_SECUNDARIO, 0.5f);
+    }
+
+    /** Título principal de la portada. */
+    public static Font tituloPortada() {
+        return fuente(32, Font.BOLD, COLOR_PRIMARIO);
+    }
+
+    /** Título de cada sección. */
+    public static Font tituloSeccion() {
+        return fuente(18, Font.BOLD, COLOR_PRIMARIO);
+    }
+
+    /** Subtítulos dentro de una sección. */
+    public static Font subtituloSeccion() {
+        return fuente(14, Font.BOLD, COLOR_ACENTO);
+    }
+
+    /** Texto normal del contenido. */
+    public static Font contenido() {
+        return fuente(11, Font.NORMAL, BaseColor.BLACK);
+    }
+
+    /** Texto monoespaciado del contenido, para producciones y derivaciones. */
+    public static Font contenidoMono() {
+        return fuenteMono(10, Font.NORMAL, null);
+    }
+
+    /** Separador grueso bajo el título de la portada y de la conclusión. */
+    public static LineSeparator separadorPrincipal() {
+        LineSeparator separador = new LineSeparator();
+        separador.setLineWidth(3);
+        separador.setLineColor(COLOR_PRIMARIO);
+        return separador;
+    }
+
+    /** Separador fino bajo el título de cada sección. */
+    public static LineSeparator separadorSecundario() {
+        LineSeparator separador = new LineSeparator();
+        separador.setLineWidth(1);
+        separador.setLineColor(COLOR_NEUTRO);
+        return separador;
+    }
+
+    private static String clave(String familia, float tamano, int estilo, BaseColor color) {
+        return familia + "|" + tamano + "|" + estilo + "|" + rgb(color);
+    }
+
+    private static String rgb(BaseColor color) {
+        return color == null ? "-" : Integer.toHexString(color.getRGB());
+    }
+
+    /**
+     * Plantilla inmutable de celda: fuente, fondo, alineación, relleno y borde.
+     */
+    public static final class Celda {
+        private final Font fuente;
+        private final BaseColor fondo;
+        private final int alineacion;
+        private final float relleno;
+        private final BaseColor colorBorde;
+        private final float anchoBorde;
+
+        private Celda(Font fuente, BaseColor fondo, int alineacion, float relleno, BaseColor colorBorde, float anchoBorde) {
+            this.fuente = fuente;
+            this.fondo = fondo;
+            this.alineacion = alineacion;
+            this.relleno = relleno;
+            this.colorBorde = colorBorde;
+            this.anchoBorde = anchoBorde;
+        }
+
+        /** Nueva celda con el texto indicado y este estilo. */
+        public PdfPCell crear(String texto) {
+            PdfPCell celda = new PdfPCell(new Phrase(texto, fuente));
+            celda.setBackgroundColor(fondo);
+            celda.setHorizontalAlignment(alineacion);
+            celda.setPadding(relleno);
+            celda.setBorderColor(colorBorde);
+            celda.setBorderWidth(anchoBorde);
+            return celda;
+        }
+
+        public Font getFuente() {
+            return fuente;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package informe;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formatos de texto en los que se puede exportar un informe, además del PDF.
+ */
+public enum FormatoInforme {
+    HTML("html"),
+    MARKDOWN("md"),
+    JSON("json"),
+    CSV("csv");
+
+    private final String extension;
+
+    FormatoInforme(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Formato que corresponde a la extensión de un archivo.
+     * @return El formato, o null si no es ninguno de estos (por ejemplo, un PDF)
+     */
+    public static FormatoInforme deArchivo(File archivo) {
+        String nombre = archivo.getName().toLowerCase(Locale.ROOT);
+        for (FormatoInforme formato : values()) {
+            if (nombre.endsWith("." + formato.extension)) return formato;
+        }
+        return null;
+    }
+
+    /**
+     * Abre un escritor de este formato sobre el archivo indicado. En CSV cada
+     * tabla va a su propio archivo junto al indicado: "informe-simulacion.historial.csv"
+     * para "informe.csv".
+     * @param creados Recibe cada archivo que se crea, para borrarlos si el informe no se completa
+     */
+    public EscritorInforme abrir(File archivo, List<File> creados) throws IOException {
+        switch (this) {
+            case HTML:
+                return new EscritorHtml(escritor(archivo, creados));
+            case MARKDOWN:
+                return new EscritorMarkdown(escritor(archivo, creados));
+            case JSON:
+                return new EscritorJson(escritor(archivo, creados));
+            default:
+                String nombre = archivo.getName();
+                String base = nombre.toLowerCase(Locale.ROOT).endsWith("." + extension)
+                    ? nombre.substring(0, nombre.length() - extension.length() - 1) : nombre;
+                File directorio = archivo.getAbsoluteFile().getParentFile();
+                return new EscritorCsv(idTabla -> escritor(new File(directorio, base + "-" + idTabla + "." + extension), creados));
+        }
+    }
+
+    private static Writer escritor(File archivo, List<File> creados) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(archivo), StandardCharsets.UTF_8));
+        creados.add(archivo);
+        return escritor;
+    }
+}
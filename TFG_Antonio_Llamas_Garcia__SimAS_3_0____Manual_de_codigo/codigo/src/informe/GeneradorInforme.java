@@ -0,0 +1,158 @@
+package informe;
+
+import com.itextpdf.text.DocumentException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Recorre las secciones de un informe con su contexto y las escribe en PDF o
+ * en un formato de texto.
+ *
+ * El contexto se prepara una vez y se comparte entre documentos; las secciones
+ * solo leen de él, de modo que los documentos de varios idiomas se pueden
+ * escribir a la vez.
+ */
+public final class GeneradorInforme {
+
+    private static final Logger LOGGER = Logger.getLogger(GeneradorInforme.class.getName());
+
+    private GeneradorInforme() {
+    }
+
+    /**
+     * Escribe el informe PDF en un idioma. Cada sección empieza en página nueva
+     * y se genera por separado; la numeración de páginas se añade al unirlas.
+     * @throws CancellationException Si el progreso se cancela; el archivo a medias se borra
+     */
+    public static void generar(String fichero, List<SeccionInforme> secciones, ContextoInforme contexto,
+                               ResourceBundle bundle, ProgresoInforme progreso) throws DocumentException, IOException {
+        InformePorSecciones informe = new InformePorSecciones(bundle, progreso);
+        for (SeccionInforme seccion : secciones) {
+            informe.agregar(seccion.getId(), seccion.getNombre(bundle), seccion.huella(contexto),
+                (document, writer) -> seccion.escribir(document, writer, contexto, bundle, progreso));
+        }
+        informe.generar(fichero);
+    }
+
+    /**
+     * Escribe el informe PDF en varios idiomas a la vez, un documento por idioma
+     * en paralelo; entre ellos solo cambian los textos de messages_*.properties.
+     * @param ficheros Archivo de cada idioma, en el orden en que se avisa el progreso
+     * @return true si se han generado todos los documentos
+     * @throws CancellationException Si el progreso se cancela; los archivos a medias se borran
+     */
+    public static boolean generarMultiidioma(Map<Locale, String> ficheros, List<SeccionInforme> secciones,
+                                             ContextoInforme contexto, ProgresoInforme progreso) {
+        // El progreso suma las secciones de todos los idiomas
+        List<Locale> idiomas = new ArrayList<>(ficheros.keySet());
+        AtomicIntegerArray completadas = new AtomicIntegerArray(idiomas.size());
+        AtomicIntegerArray totales = new AtomicIntegerArray(idiomas.size());
+
+        ExecutorService hilos = Executors.newFixedThreadPool(idiomas.size(), r -> {
+            Thread hilo = new Thread(r, "informe-idioma");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            List<Future<?>> documentos = new ArrayList<>(idiomas.size());
+            for (int i = 0; i < idiomas.size(); i++) {
+                int indice = i;
+                Locale idioma = idiomas.get(i);
+                ResourceBundle bundle = ResourceBundle.getBundle("utils.messages", idioma);
+                ProgresoInforme progresoIdioma = new ProgresoInforme() {
+                    @Override
+                    public void seccion(String seccion, int hechas, int total) {
+                        completadas.set(indice, hechas);
+                        totales.set(indice, total);
+                        int sumaHechas = 0;
+                        int sumaTotal = 0;
+                        for (int k = 0; k < idiomas.size(); k++) {
+                            sumaHechas += completadas.get(k);
+                            sumaTotal += totales.get(k);
+                        }
+                        progreso.seccion(idioma.getLanguage() + ": " + seccion, sumaHechas, sumaTotal);
+                    }
+
+                    @Override
+                    public boolean isCancelado() {
+                        return progreso.isCancelado();
+                    }
+                };
+                documentos.add(hilos.submit(() -> {
+                    generar(ficheros.get(idioma), secciones, contexto, bundle, progresoIdioma);
+                    return null;
+                }));
+            }
+
+            boolean correcto = true;
+            for (Future<?> documento : documentos) {
+                try {
+                    documento.get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof CancellationException) {
+                        // Los demás idiomas ven la misma cancelación y borran sus archivos
+                        for (Future<?> otro : documentos) {
+                            otro.cancel(true);
+                        }
+                        throw (CancellationException) ex.getCause();
+                    }
+                    LOGGER.log(Level.SEVERE, "Error general en generación de PDF", ex.getCause());
+                    correcto = false;
+                }
+            }
+            return correcto;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    /**
+     * Exporta el informe en un formato de texto (HTML, Markdown, JSON o CSV).
+     * Cada dato se escribe según se recorre, sin montar un documento en memoria.
+     * @throws CancellationException Si el progreso se cancela; los archivos a medias se borran
+     */
+    public static void exportar(String fichero, FormatoInforme formato, List<SeccionInforme> secciones,
+                                ContextoInforme contexto, ResourceBundle bundle, ProgresoInforme progreso)
+                                throws IOException {
+        List<File> creados = new ArrayList<>();
+        boolean completado = false;
+        try (EscritorInforme escritor = formato.abrir(new File(fichero), creados)) {
+            escritor.inicio(bundle.getString("informe.profesional.portada.titulo"));
+            for (int i = 0; i < secciones.size(); i++) {
+                SeccionInforme seccion = secciones.get(i);
+                String nombre = seccion.getNombre(bundle);
+                SeccionBase.comprobarCancelacion(progreso, nombre);
+                progreso.seccion(nombre, i, secciones.size());
+                escritor.seccion(seccion.getId(), nombre);
+                seccion.exportar(escritor, contexto, bundle, progreso);
+                escritor.finSeccion();
+            }
+            escritor.fin();
+            completado = true;
+        } finally {
+            if (!completado) {
+                for (File archivo : creados) {
+                    if (!archivo.delete()) {
+                        LOGGER.log(Level.WARNING, "No se pudo borrar el informe incompleto: {0}", archivo);
+                    }
+                }
+            }
+        }
+    }
+}
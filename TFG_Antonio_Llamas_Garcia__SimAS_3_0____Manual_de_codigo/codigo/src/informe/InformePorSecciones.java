@@ -0,0 +1,277 @@
+package informe;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfImportedPage;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Informe PDF formado por secciones que se generan por separado.
+ *
+ * Cada sección empieza en página nueva y se escribe como un PDF propio en un
+ * hilo de trabajo, de modo que las secciones se generan en paralelo. Las que
+ * declaran una huella se guardan en {@link CacheFragmentosInforme} y en el
+ * siguiente informe con los mismos datos se reutilizan sin generarlas. Al final
+ * los fragmentos se unen en orden con {@link PdfSmartCopy}, que comparte los
+ * recursos repetidos, y se numeran las páginas del documento completo.
+ */
+public final class InformePorSecciones {
+
+    private static final Logger LOGGER = Logger.getLogger(InformePorSecciones.class.getName());
+
+    /**
+     * Contenido de una sección; recibe un documento ya abierto y su escritor,
+     * para las secciones que dibujan directamente en la página.
+     */
+    @FunctionalInterface
+    public interface Seccion {
+        void escribir(Document document, PdfWriter writer) throws Exception;
+    }
+
+    // Cambiar si varía el aspecto de las secciones, para no reutilizar fragmentos antiguos
+    private static final String VERSION_FRAGMENTOS = "1";
+
+    private static final Rectangle PAGINA = PageSize.A4;
+    private static final float MARGEN_IZQUIERDO = 50;
+    private static final float MARGEN_DERECHO = 50;
+    private static final float MARGEN_SUPERIOR = 80;
+    private static final float MARGEN_INFERIOR = 50;
+
+    private static final ExecutorService TRABAJADORES = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread hilo = new Thread(r, "informe-seccion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+    private static final class Entrada {
+        final String id;
+        final String nombre;
+        final String huella;
+        final Seccion seccion;
+
+        Entrada(String id, String nombre, String huella, Seccion seccion) {
+            this.id = id;
+            this.nombre = nombre;
+            this.huella = huella;
+            this.seccion = seccion;
+        }
+    }
+
+    /**
+     * Fragmentos que usa un informe: los de la caché, que hay que liberar, y
+     * los temporales de las secciones sin huella, que hay que borrar. Las
+     * secciones que terminan después de que el informe se haya unido o
+     * descartado se encargan del suyo al momento, para que ninguno quede en
+     * uso ni en disco para siempre.
+     */
+    private static final class FragmentosEnUso {
+        private final List<File> enCache = new ArrayList<>();
+        private final List<File> temporales = new ArrayList<>();
+        private boolean cerrado;
+
+        synchronized boolean anadir(File archivo, boolean temporal) {
+            if (cerrado) return false;
+            (temporal ? temporales : enCache).add(archivo);
+            return true;
+        }
+
+        // Después de cerrar ya no se añade nada y las listas se pueden recorrer
+        synchronized void cerrar() {
+            cerrado = true;
+        }
+    }
+
+    private final List<Entrada> secciones = new ArrayList<>();
+    private final ResourceBundle bundle;
+    private final ProgresoInforme progreso;
+    private final CacheFragmentosInforme cache;
+
+    public InformePorSecciones(ResourceBundle bundle, ProgresoInforme progreso) {
+        this(bundle, progreso, CacheFragmentosInforme.getInstancia());
+    }
+
+    public InformePorSecciones(ResourceBundle bundle, ProgresoInforme progreso, CacheFragmentosInforme cache) {
+        this.bundle = bundle;
+        this.progreso = progreso;
+        this.cache = cache;
+    }
+
+    /**
+     * Documento con el tamaño y los márgenes de todos los informes.
+     */
+    public static Document nuevoDocumento() {
+        return new Document(PAGINA, MARGEN_IZQUIERDO, MARGEN_DERECHO, MARGEN_SUPERIOR, MARGEN_INFERIOR);
+    }
+
+    /**
+     * Añade una sección al final del informe.
+     * @param id Identificador estable de la sección, por ejemplo "simulacion.portada"
+     * @param nombre Nombre de la sección en el idioma del informe, para el progreso
+     * @param huella Texto con todos los datos de los que depende la sección, o
+     *        null si se genera siempre (por ejemplo, las que dependen de la traza)
+     */
+    public void agregar(String id, String nombre, String huella, Seccion seccion) {
+        secciones.add(new Entrada(id, nombre, huella, seccion));
+    }
+
+    /**
+     * Genera las secciones en paralelo y escribe el informe completo.
+     * @throws CancellationException Si el progreso se cancela; el archivo a medias se borra
+     */
+    public void generar(String fichero) throws DocumentException, IOException {
+        int total = secciones.size();
+        AtomicInteger completadas = new AtomicInteger();
+        List<Future<File>> fragmentos = new ArrayList<>(total);
+        FragmentosEnUso enUso = new FragmentosEnUso();
+        for (Entrada entrada : secciones) {
+            fragmentos.add(TRABAJADORES.submit(() -> {
+                File fragmento = fragmento(entrada, completadas.get(), total);
+                boolean temporal = entrada.huella == null;
+                if (!enUso.anadir(fragmento, temporal)) {
+                    if (temporal) borrar(fragmento); else cache.liberar(fragmento);
+                }
+                completadas.incrementAndGet();
+                return fragmento;
+            }));
+        }
+
+        Document document = nuevoDocumento();
+        try {
+            PdfSmartCopy copia = new PdfSmartCopy(document, new FileOutputStream(fichero));
+            document.open();
+            Font fuentePie = EstilosInforme.fuente(9, Font.ITALIC, EstilosInforme.COLOR_NEUTRO);
+            String textoPagina = bundle.getString("informe.pagina");
+            float xPie = (document.right() - document.left()) / 2 + document.leftMargin();
+            float yPie = document.bottom() - 15;
+
+            int numeroPagina = 0;
+            for (int i = 0; i < total; i++) {
+                File archivo = esperar(fragmentos.get(i));
+
+                PdfReader lector = new PdfReader(archivo.getAbsolutePath(), null, true);
+                try {
+                    for (int pagina = 1; pagina <= lector.getNumberOfPages(); pagina++) {
+                        PdfImportedPage importada = copia.getImportedPage(lector, pagina);
+                        // Pie de página con numeración del documento completo
+                        PdfCopy.PageStamp sello = copia.createPageStamp(importada);
+                        ColumnText.showTextAligned(sello.getOverContent(), Element.ALIGN_CENTER,
+                            new Phrase(String.format("%s %d", textoPagina, ++numeroPagina), fuentePie), xPie, yPie, 0);
+                        sello.alterContents();
+                        copia.addPage(importada);
+                    }
+                    copia.freeReader(lector);
+                } finally {
+                    lector.close();
+                }
+            }
+            document.close();
+        } catch (DocumentException | IOException | RuntimeException ex) {
+            // Incluye la cancelación: se detienen las secciones pendientes y se borra el archivo
+            for (Future<File> fragmento : fragmentos) {
+                fragmento.cancel(true);
+            }
+            descartar(document, fichero);
+            throw ex;
+        } finally {
+            // Los fragmentos ya están unidos o descartados: la poda puede borrar los
+            // de la caché y los que no tienen huella no se guardan
+            enUso.cerrar();
+            for (File fragmento : enUso.enCache) {
+                cache.liberar(fragmento);
+            }
+            for (File fragmento : enUso.temporales) {
+                borrar(fragmento);
+            }
+        }
+    }
+
+    private static void borrar(File temporal) {
+        if (!temporal.delete()) temporal.deleteOnExit();
+    }
+
+    // Escribe la sección en su propio PDF o la toma de la caché
+    private File fragmento(Entrada entrada, int completadas, int total) throws Exception {
+        if (progreso.isCancelado()) {
+            throw new CancellationException(entrada.nombre);
+        }
+        String huella = entrada.huella != null
+            ? VERSION_FRAGMENTOS + "|" + entrada.id + "|" + bundle.getLocale() + "|" + entrada.huella
+            : null;
+        if (huella != null) {
+            File guardado = cache.buscar(huella);
+            if (guardado != null) return guardado;
+        }
+
+        progreso.seccion(entrada.nombre, completadas, total);
+        File destino = huella != null ? cache.nuevoTemporal() : File.createTempFile("simas-seccion", ".pdf");
+        Document document = nuevoDocumento();
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, new FileOutputStream(destino));
+            document.open();
+            entrada.seccion.escribir(document, writer);
+            document.close();
+        } catch (Exception ex) {
+            descartar(document, destino.getAbsolutePath());
+            throw ex;
+        }
+        return huella != null ? cache.guardar(huella, destino) : destino;
+    }
+
+    private static File esperar(Future<File> fragmento) throws DocumentException, IOException {
+        try {
+            return fragmento.get();
+        } catch (InterruptedException ex) {
+            // La tarea de fondo se ha cancelado mientras esperaba a las secciones
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof CancellationException) throw (CancellationException) causa;
+            if (causa instanceof DocumentException) throw (DocumentException) causa;
+            if (causa instanceof IOException) throw (IOException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new DocumentException((Exception) causa);
+        }
+    }
+
+    /**
+     * Cierra un documento que no se ha completado y borra su archivo.
+     */
+    private static void descartar(Document document, String fichero) {
+        try {
+            if (document.isOpen()) {
+                document.close();
+            }
+        } catch (RuntimeException e) {
+            // Un documento sin páginas no se puede cerrar; el archivo se borra igualmente
+        }
+        if (!new File(fichero).delete()) {
+            LOGGER.log(Level.WARNING, "No se pudo borrar el informe incompleto: {0}", fichero);
+        }
+    }
+}
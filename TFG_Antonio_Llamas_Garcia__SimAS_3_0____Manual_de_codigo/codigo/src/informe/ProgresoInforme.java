@@ -0,0 +1,35 @@
+package informe;
+
+/**
+ * Seguimiento de la generación de un informe.
+ *
+ * {@link GeneradorInforme} lo avisa al empezar cada sección y, si se ha
+ * cancelado, deja de escribir el documento y borra el archivo a medias
+ * lanzando una {@link java.util.concurrent.CancellationException}.
+ */
+public interface ProgresoInforme {
+
+    /** Progreso que no muestra nada y nunca se cancela. */
+    ProgresoInforme NINGUNO = new ProgresoInforme() {
+        @Override
+        public void seccion(String seccion, int completadas, int total) {
+            // Sin seguimiento
+        }
+
+        @Override
+        public boolean isCancelado() {
+            return false;
+        }
+    };
+
+    /**
+     * Se llama al empezar cada sección del informe.
+     * @param seccion Nombre de la sección en el idioma del informe
+     * @param completadas Número de secciones ya escritas
+     * @param total Número total de secciones
+     */
+    void seccion(String seccion, int completadas, int total);
+
+    /** Indica si se ha pedido detener el informe. */
+    boolean isCancelado();
+}
@@ -0,0 +1,76 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.ResourceBundle;
+import simulador.ArbolSintactico;
+
+/**
+ * Árbol sintáctico, dibujado como gráficos vectoriales con la disposición del
+ * simulador. El dibujo lo prepara el contexto una vez para todos los documentos.
+ */
+final class SeccionArbol extends SeccionBase {
+
+    SeccionArbol(String id) {
+        super(id, "informe.profesional.indice.arbol", "informe.profesional.seccion.arbol");
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return null;
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        DibujoArbolInforme dibujo = contexto.getDibujoArbol();
+        if (dibujo != null) {
+            dibujo.agregar(document, writer);
+            return;
+        }
+
+        // Sin más que la raíz no hay nada que dibujar: vista textual
+        document.add(new Paragraph("Árbol Sintáctico (Vista Textual):", EstilosInforme.contenido()));
+        espacio(document, 8);
+        ArbolSintactico arbol = contexto.getArbol();
+        if (arbol != null && arbol.getNumNodos() > 0) {
+            agregarNodoTextual(document, contexto, arbol, arbol.getRaiz(), "");
+        }
+    }
+
+    /**
+     * Agrega representación textual del árbol con colores
+     */
+    private static void agregarNodoTextual(Document document, ContextoInforme contexto, ArbolSintactico arbol,
+                                           int nodo, String prefijo) throws DocumentException {
+        String valor = arbol.getEtiqueta(nodo);
+        // Terminales en negro, no terminales en azul y símbolos especiales en gris
+        BaseColor color = contexto.esTerminal(valor) ? BaseColor.BLACK : EstilosInforme.COLOR_PRIMARIO;
+        String simboloEspecial = "";
+        if (valor.equals("$") || valor.equals("ε") || valor.equals(";")) {
+            color = BaseColor.GRAY;
+            simboloEspecial = " (" + valor + ")";
+        }
+
+        Paragraph nodoPara = new Paragraph(prefijo + "├── " + valor + simboloEspecial,
+                                           EstilosInforme.fuente(10, Font.NORMAL, color));
+        nodoPara.setIndentationLeft(20 + prefijo.length() * 10);
+        document.add(nodoPara);
+
+        for (int hijo = arbol.getPrimerHijo(nodo); hijo != ArbolSintactico.NINGUNO; hijo = arbol.getSiguienteHermano(hijo)) {
+            boolean ultimo = arbol.getSiguienteHermano(hijo) == ArbolSintactico.NINGUNO;
+            agregarNodoTextual(document, contexto, arbol, hijo, prefijo + (ultimo ? "    " : "│   "));
+        }
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        escritor.arbol(contexto.getArbol(), contexto::esTerminal);
+    }
+}
@@ -0,0 +1,140 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.ResourceBundle;
+
+/**
+ * Parte común de las secciones de los informes.
+ *
+ * Escribe el título de la sección con su separador (numerado en el informe
+ * del simulador) y, en la última sección de los informes sin conclusión, los
+ * créditos con la fecha. Las subclases solo escriben su contenido.
+ */
+abstract class SeccionBase implements SeccionInforme {
+
+    /**
+     * Filas que se acumulan en una tabla larga antes de escribirlas en el
+     * documento. Las filas ya escritas se liberan, de modo que la memoria del
+     * historial no crece con el número de pasos.
+     */
+    static final int FILAS_POR_BLOQUE = 200;
+
+    private final String id;
+    private final String claveNombre;
+    private final String claveTitulo;
+    private int numero;
+    private boolean creditos;
+
+    /**
+     * @param claveNombre Clave del nombre para el progreso y el índice
+     * @param claveTitulo Clave del título que encabeza la sección, o null si
+     *        la sección compone el suyo
+     */
+    SeccionBase(String id, String claveNombre, String claveTitulo) {
+        this.id = id;
+        this.claveNombre = claveNombre;
+        this.claveTitulo = claveTitulo;
+    }
+
+    /** Numera el título en mayúsculas: "3. FUNCIONES DE ERROR". */
+    SeccionBase numerada(int numero) {
+        this.numero = numero;
+        return this;
+    }
+
+    /** Cierra el informe con los créditos y la fecha al pie de la sección. */
+    SeccionBase conCreditos() {
+        this.creditos = true;
+        return this;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getNombre(ResourceBundle bundle) {
+        return bundle.getString(claveNombre);
+    }
+
+    /** Clave del nombre, que es también la de su entrada en el índice. */
+    String getClaveNombre() {
+        return claveNombre;
+    }
+
+    @Override
+    public final String huella(ContextoInforme contexto) {
+        String datos = huellaContenido(contexto);
+        if (datos == null) return null;
+        return ContextoInforme.huella(claveTitulo, numero, creditos ? contexto.getFecha() : "", datos);
+    }
+
+    @Override
+    public final void escribir(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                               ProgresoInforme progreso) throws Exception {
+        if (claveTitulo != null) {
+            String titulo = bundle.getString(claveTitulo);
+            if (numero > 0) titulo = numero + ". " + titulo.toUpperCase();
+            document.add(new Paragraph(titulo, EstilosInforme.tituloSeccion()));
+            document.add(new Chunk(EstilosInforme.separadorSecundario()));
+            espacio(document, 10);
+        }
+        escribirContenido(document, writer, contexto, bundle, progreso);
+        if (creditos) {
+            agregarCreditos(document, bundle, contexto.getFecha());
+        }
+    }
+
+    /**
+     * Datos de los que depende el contenido de la sección.
+     * @return La huella, o null si la sección se genera siempre
+     */
+    abstract String huellaContenido(ContextoInforme contexto);
+
+    abstract void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto,
+                                    ResourceBundle bundle, ProgresoInforme progreso) throws Exception;
+
+    /**
+     * Créditos y fecha al final del informe.
+     */
+    static void agregarCreditos(Document document, ResourceBundle bundle, String fecha) throws DocumentException {
+        espacio(document, 25);
+
+        Font infoFont = EstilosInforme.fuente(10, Font.NORMAL, BaseColor.GRAY);
+        Paragraph infoAdicional = new Paragraph(bundle.getString("informe.profesional.conclusion.creditos"), infoFont);
+        infoAdicional.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(infoAdicional);
+
+        Paragraph fechaConclusion = new Paragraph(bundle.getString("informe.profesional.fecha") + " " + fecha, infoFont);
+        fechaConclusion.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(fechaConclusion);
+    }
+
+    /** Línea en blanco de la altura indicada. */
+    static void espacio(Document document, float altura) throws DocumentException {
+        document.add(new Paragraph(" ", EstilosInforme.fuente(altura, Font.NORMAL, null)));
+    }
+
+    /**
+     * Detiene el informe si se ha cancelado. Las secciones largas lo llaman
+     * entre bloques de filas.
+     */
+    static void comprobarCancelacion(ProgresoInforme progreso, String seccion) {
+        if (progreso.isCancelado()) {
+            throw new java.util.concurrent.CancellationException(seccion);
+        }
+    }
+
+    // Las etiquetas del PDF terminan en dos puntos; los escritores ponen los suyos
+    static String etiqueta(ResourceBundle bundle, String clave) {
+        String etiqueta = bundle.getString(clave).trim();
+        return etiqueta.endsWith(":") ? etiqueta.substring(0, etiqueta.length() - 1) : etiqueta;
+    }
+}
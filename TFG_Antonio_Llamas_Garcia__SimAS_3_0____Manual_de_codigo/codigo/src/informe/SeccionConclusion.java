@@ -0,0 +1,71 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.ResourceBundle;
+
+/**
+ * Conclusión automática según el estado final de la simulación, con los créditos.
+ */
+final class SeccionConclusion extends SeccionBase {
+
+    SeccionConclusion(String id) {
+        super(id, "informe.profesional.indice.conclusion", null);
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return ContextoInforme.huella(contexto.getClaveEstado(), contexto.getFecha());
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        Paragraph tituloConclusion = new Paragraph(bundle.getString("informe.profesional.conclusion.titulo"),
+                                                   EstilosInforme.tituloSeccion());
+        tituloConclusion.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(tituloConclusion);
+        document.add(new Chunk(EstilosInforme.separadorPrincipal()));
+        espacio(document, 15);
+
+        // Conclusión automática basada en el estado
+        String conclusion;
+        BaseColor colorConclusion;
+        if (contexto.isAceptada()) {
+            conclusion = bundle.getString("informe.profesional.conclusion.aceptada");
+            colorConclusion = EstilosInforme.COLOR_EXITO;
+        } else if (contexto.isRechazada()) {
+            conclusion = bundle.getString("informe.profesional.conclusion.rechazada");
+            colorConclusion = EstilosInforme.COLOR_ERROR;
+        } else {
+            conclusion = bundle.getString("informe.profesional.conclusion.no.determinado");
+            colorConclusion = BaseColor.GRAY;
+        }
+
+        // Crear tabla para resaltar la conclusión
+        PdfPTable tablaConclusion = new PdfPTable(1);
+        tablaConclusion.setWidthPercentage(85);
+        tablaConclusion.setSpacingBefore(5);
+        tablaConclusion.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
+
+        PdfPCell cellConclusion = new PdfPCell(new Phrase(conclusion, EstilosInforme.fuente(14, Font.BOLD, colorConclusion)));
+        cellConclusion.setBackgroundColor(EstilosInforme.color(250, 250, 250)); // Fondo gris muy claro
+        cellConclusion.setBorderColor(colorConclusion);
+        cellConclusion.setBorderWidth(2);
+        cellConclusion.setPadding(20);
+        cellConclusion.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
+        cellConclusion.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
+
+        tablaConclusion.addCell(cellConclusion);
+        document.add(tablaConclusion);
+
+        agregarCreditos(document, bundle, contexto.getFecha());
+    }
+}
@@ -0,0 +1,104 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import gramatica.NoTerminal;
+import gramatica.Terminal;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import utils.Textos;
+
+/**
+ * Conjuntos PRIMERO y SIGUIENTE de cada no terminal, ya calculados por
+ * generarConjPrim y generarConjSig, ordenados para que la salida sea estable.
+ */
+final class SeccionConjuntos extends SeccionBase {
+
+    SeccionConjuntos(String id) {
+        super(id, "informe.exportar.conjuntos", "informe.exportar.conjuntos");
+    }
+
+    @Override
+    public String getNombre(ResourceBundle bundle) {
+        return Textos.texto(bundle, "informe.exportar.conjuntos", "Conjuntos PRIMERO y SIGUIENTE");
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        StringBuilder sb = new StringBuilder();
+        for (NoTerminal nt : contexto.getGramatica().getNoTerminales()) {
+            sb.append(ContextoInforme.huella(nt.getNombre(), nombresOrdenados(nt.getPrimeros()),
+                                             nombresOrdenados(nt.getSiguientes())));
+        }
+        return sb.toString();
+    }
+
+    private static String[] cabeceras(ResourceBundle bundle) {
+        return new String[]{
+            Textos.texto(bundle, "informe.exportar.no.terminal", "No terminal"),
+            Textos.texto(bundle, "informe.exportar.primeros", "PRIMERO"),
+            Textos.texto(bundle, "informe.exportar.siguientes", "SIGUIENTE")
+        };
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        PdfPTable tabla = new PdfPTable(3);
+        tabla.setWidthPercentage(100);
+        tabla.setSpacingBefore(5);
+        tabla.setWidths(new float[]{1, 2, 2});
+        tabla.setHeaderRows(1);
+
+        EstilosInforme.Celda cabecera = EstilosInforme.cabeceraTabla();
+        for (String texto : cabeceras(bundle)) {
+            tabla.addCell(cabecera.crear(texto));
+        }
+
+        BaseColor[] fondos = {BaseColor.WHITE, EstilosInforme.COLOR_FONDO_CABECERA};
+        EstilosInforme.Celda[] celdaSimbolo = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaConjunto = new EstilosInforme.Celda[2];
+        for (int alterna = 0; alterna < 2; alterna++) {
+            celdaSimbolo[alterna] = EstilosInforme.datoTabla(
+                EstilosInforme.fuente(8, Font.BOLD, EstilosInforme.COLOR_PRIMARIO), fondos[alterna], PdfPCell.ALIGN_CENTER);
+            celdaConjunto[alterna] = EstilosInforme.datoTabla(
+                EstilosInforme.fuente(8, Font.NORMAL, BaseColor.BLACK), fondos[alterna], PdfPCell.ALIGN_LEFT);
+        }
+
+        int alterna = 0;
+        for (NoTerminal nt : contexto.getGramatica().getNoTerminales()) {
+            tabla.addCell(celdaSimbolo[alterna].crear(nt.getNombre()));
+            tabla.addCell(celdaConjunto[alterna].crear(nombresOrdenados(nt.getPrimeros())));
+            tabla.addCell(celdaConjunto[alterna].crear(nombresOrdenados(nt.getSiguientes())));
+            alterna = 1 - alterna;
+        }
+        document.add(tabla);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        escritor.tabla(getId(), null, cabeceras(bundle));
+        for (NoTerminal nt : contexto.getGramatica().getNoTerminales()) {
+            escritor.fila(nt.getNombre(), nombresOrdenados(nt.getPrimeros()), nombresOrdenados(nt.getSiguientes()));
+        }
+        escritor.finTabla();
+    }
+
+    private static String nombresOrdenados(List<Terminal> terminales) {
+        if (terminales == null) return "";
+        List<String> nombres = new ArrayList<>(terminales.size());
+        for (Terminal terminal : terminales) {
+            nombres.add(terminal.getNombre());
+        }
+        Collections.sort(nombres);
+        return String.join(" ", nombres);
+    }
+}
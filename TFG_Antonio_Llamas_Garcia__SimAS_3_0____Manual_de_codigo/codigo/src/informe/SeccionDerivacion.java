@@ -0,0 +1,65 @@
+package informe;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * Derivación paso a paso con formato de código. Depende de la traza, así que
+ * no se guarda en caché.
+ */
+final class SeccionDerivacion extends SeccionBase {
+
+    SeccionDerivacion(String id) {
+        super(id, "informe.profesional.indice.derivacion", "informe.profesional.seccion.derivacion");
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return null;
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        // Cada paso es un bloque propio que se escribe al momento; solo se
+        // preparan una vez el estilo del bloque y el separador
+        EstilosInforme.Celda bloquePaso = EstilosInforme.celda(EstilosInforme.contenidoMono(), EstilosInforme.color(248, 249, 250),
+                                                               PdfPCell.ALIGN_LEFT, 8, EstilosInforme.COLOR_PRIMARIO, 1);
+        Font separadorFont = EstilosInforme.fuenteMono(3, Font.NORMAL, null);
+        String prefijoPaso = bundle.getString("informe.profesional.derivacion.paso") + " ";
+        String nombreSeccion = getNombre(bundle);
+
+        for (int i = 0; i < contexto.getNumPasos(); i++) {
+            if (i % FILAS_POR_BLOQUE == 0) {
+                comprobarCancelacion(progreso, nombreSeccion);
+            }
+            // Convertir flechas Unicode a ASCII para mostrar en el PDF
+            String accionFormateada = contexto.getAccion(i, bundle).replace("→", " -> ");
+
+            PdfPTable tablaPaso = new PdfPTable(1);
+            tablaPaso.setWidthPercentage(95);
+            tablaPaso.addCell(bloquePaso.crear(prefijoPaso + (i + 1) + ": " + accionFormateada));
+            document.add(tablaPaso);
+            document.add(new Paragraph(" ", separadorFont));
+        }
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        String nombreSeccion = getNombre(bundle);
+        escritor.tabla(getId(), null, bundle.getString("informe.profesional.derivacion.paso"),
+                       bundle.getString("informe.simulador.historial.accion"));
+        for (int i = 0; i < contexto.getNumPasos(); i++) {
+            if (i % FILAS_POR_BLOQUE == 0) comprobarCancelacion(progreso, nombreSeccion);
+            escritor.fila(String.valueOf(i + 1), contexto.getAccion(i, bundle));
+        }
+        escritor.finTabla();
+    }
+}
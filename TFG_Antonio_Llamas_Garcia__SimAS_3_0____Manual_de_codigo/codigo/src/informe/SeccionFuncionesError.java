@@ -0,0 +1,146 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import gramatica.FuncionError;
+import gramatica.Terminal;
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * Funciones de error de la tabla predictiva: identificador, acción, símbolo y descripción.
+ */
+final class SeccionFuncionesError extends SeccionBase {
+
+    /**
+     * Cabeceras de la tabla de funciones de error, comunes al PDF y a los formatos de texto.
+     */
+    private static final String[] CABECERAS = {"ID", "Acción", "Símbolo", "Descripción"};
+
+    SeccionFuncionesError(String id, String claveNombre, String claveTitulo) {
+        super(id, claveNombre, claveTitulo);
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        StringBuilder sb = new StringBuilder();
+        for (FuncionError funcion : contexto.getFuncionesError()) {
+            sb.append(ContextoInforme.huella(funcion.getIdentificador(), funcion.getNombreAccion(), funcion.getAccion(),
+                                             funcion.getSimbolo() != null ? funcion.getSimbolo().getNombre() : "-",
+                                             funcion.getMensaje()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        PdfPTable tablaFunciones = new PdfPTable(4);
+        tablaFunciones.setWidthPercentage(100);
+        tablaFunciones.setSpacingBefore(5);
+        tablaFunciones.setWidths(new float[]{1, 2, 2, 4});
+
+        // Estilos compartidos; el índice 0/1 es la fila normal/alterna
+        EstilosInforme.Celda cabecera = EstilosInforme.cabeceraTabla();
+        BaseColor[] fondos = {BaseColor.WHITE, EstilosInforme.COLOR_FONDO_CABECERA};
+        Font dataFont = EstilosInforme.fuente(8, Font.NORMAL, BaseColor.BLACK);
+        Font accionFont = EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.COLOR_ACENTO);
+        Font simboloFont = EstilosInforme.fuente(8, Font.BOLD, BaseColor.BLACK);
+        Font sinSimboloFont = EstilosInforme.fuente(8, Font.BOLD, BaseColor.GRAY);
+        EstilosInforme.Celda[] celdaId = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaAccion = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaSimbolo = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaSinSimbolo = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaDescripcion = new EstilosInforme.Celda[2];
+        for (int alterna = 0; alterna < 2; alterna++) {
+            celdaId[alterna] = EstilosInforme.datoTabla(dataFont, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            celdaAccion[alterna] = EstilosInforme.datoTabla(accionFont, fondos[alterna], PdfPCell.ALIGN_LEFT);
+            celdaSimbolo[alterna] = EstilosInforme.datoTabla(simboloFont, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            celdaSinSimbolo[alterna] = EstilosInforme.datoTabla(sinSimboloFont, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            celdaDescripcion[alterna] = EstilosInforme.datoTabla(dataFont, fondos[alterna], PdfPCell.ALIGN_LEFT);
+        }
+
+        // Encabezados
+        for (String header : CABECERAS) {
+            tablaFunciones.addCell(cabecera.crear(header));
+        }
+
+        // Datos: ID, acción, símbolo y descripción completa
+        int alterna = 0;
+        for (FuncionError funcion : contexto.getFuncionesError()) {
+            String[] celdas = celdas(funcion, bundle);
+            tablaFunciones.addCell(celdaId[alterna].crear(celdas[0]));
+            tablaFunciones.addCell(celdaAccion[alterna].crear(celdas[1]));
+            EstilosInforme.Celda estiloSimbolo = funcion.getSimbolo() != null ? celdaSimbolo[alterna] : celdaSinSimbolo[alterna];
+            tablaFunciones.addCell(estiloSimbolo.crear(celdas[2]));
+            tablaFunciones.addCell(celdaDescripcion[alterna].crear(celdas[3]));
+
+            alterna = 1 - alterna;
+        }
+
+        document.add(tablaFunciones);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        escritor.tabla(getId(), null, CABECERAS);
+        for (FuncionError funcion : contexto.getFuncionesError()) {
+            escritor.fila(celdas(funcion, bundle));
+        }
+        escritor.finTabla();
+    }
+
+    /**
+     * Celdas de una función de error: identificador, acción, símbolo y descripción completa.
+     */
+    private static String[] celdas(FuncionError funcion, ResourceBundle bundle) {
+        String descripcion = descripcion(funcion, bundle);
+        if (funcion.getMensaje() != null && !funcion.getMensaje().isEmpty()) {
+            descripcion += " (" + funcion.getMensaje() + ")";
+        }
+        return new String[]{
+            String.valueOf(funcion.getIdentificador()),
+            bundle.getString(funcion.getNombreAccion()),
+            funcion.getSimbolo() != null ? funcion.getSimbolo().getNombre() : "-",
+            descripcion
+        };
+    }
+
+    /**
+     * Obtiene la descripción de una función de error en el idioma correspondiente.
+     */
+    private static String descripcion(FuncionError fe, ResourceBundle bundle) {
+        if (fe == null) return "";
+
+        int accion = fe.getAccion();
+        Terminal simbolo = fe.getSimbolo();
+
+        switch (accion) {
+            case FuncionError.TERMINAR_ANALISIS:
+                return bundle.getString("funcion.error.terminar");
+            case FuncionError.BORRAR_ENTRADA:
+                return bundle.getString("funcion.error.borrar.entrada");
+            case FuncionError.INSERTAR_ENTRADA:
+                return conSimbolo(bundle.getString("funcion.error.insertar.entrada"), simbolo);
+            case FuncionError.MODIFICAR_ENTRADA:
+                return conSimbolo(bundle.getString("funcion.error.modificar.entrada"), simbolo);
+            case FuncionError.INSERTAR_PILA:
+                return conSimbolo(bundle.getString("funcion.error.insertar.pila"), simbolo);
+            case FuncionError.BORRAR_PILA:
+                return bundle.getString("funcion.error.borrar.pila");
+            case FuncionError.MODIFICAR_PILA:
+                return conSimbolo(bundle.getString("funcion.error.modificar.pila"), simbolo);
+            default:
+                return fe.toString();
+        }
+    }
+
+    private static String conSimbolo(String descripcion, Terminal simbolo) {
+        return simbolo != null ? descripcion + ": " + simbolo.getNombre() : descripcion;
+    }
+}
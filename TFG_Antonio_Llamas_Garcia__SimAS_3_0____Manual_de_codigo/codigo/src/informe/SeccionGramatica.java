@@ -0,0 +1,131 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import gramatica.Gramatica;
+import java.io.IOException;
+import java.util.List;
+import java.util.ResourceBundle;
+import utils.Textos;
+
+/**
+ * Descripción, símbolos y producciones de la gramática original o de la
+ * modificada con la que se simula.
+ */
+final class SeccionGramatica extends SeccionBase {
+
+    private final boolean original;
+
+    /**
+     * @param original Si se muestra la gramática original en lugar de la del contexto
+     */
+    SeccionGramatica(String id, String claveNombre, String claveTitulo, boolean original) {
+        super(id, claveNombre, claveTitulo);
+        this.original = original;
+    }
+
+    private Gramatica gramatica(ContextoInforme contexto) {
+        return original ? contexto.getGramaticaOriginal() : contexto.getGramatica();
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return original ? contexto.getHuellaOriginal() : contexto.getHuellaGramatica();
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        Gramatica gramatica = gramatica(contexto);
+        Font subtituloSeccion = EstilosInforme.subtituloSeccion();
+        Font contenidoNormal = EstilosInforme.contenido();
+
+        // Descripción
+        document.add(new Paragraph(bundle.getString("informe.profesional.descripcion"), subtituloSeccion));
+        Paragraph desc = new Paragraph("    " + gramatica.getDescripcion(), contenidoNormal);
+        desc.setIndentationLeft(20);
+        document.add(desc);
+        espacio(document, 8);
+
+        // Símbolo inicial
+        document.add(new Paragraph(bundle.getString("informe.profesional.simbolo.inicial"), subtituloSeccion));
+        Paragraph simbolo = new Paragraph("    " + gramatica.getSimbInicial(), contenidoNormal);
+        simbolo.setIndentationLeft(20);
+        document.add(simbolo);
+        espacio(document, 8);
+
+        // Símbolos no terminales y terminales
+        agregarLista(document, bundle.getString("informe.profesional.simbolos.no.terminales"),
+                     gramatica.getNoTerminalesModel(), subtituloSeccion, contenidoNormal);
+        agregarLista(document, bundle.getString("informe.profesional.simbolos.terminales"),
+                     gramatica.getTerminalesModel(), subtituloSeccion, contenidoNormal);
+
+        // Producciones
+        document.add(new Paragraph(bundle.getString("informe.profesional.producciones"), subtituloSeccion));
+        espacio(document, 5);
+
+        EstilosInforme.Celda celdaNumero = EstilosInforme.celda(
+            EstilosInforme.fuente(10, Font.BOLD, EstilosInforme.COLOR_PRIMARIO),
+            EstilosInforme.color(240, 248, 255), PdfPCell.ALIGN_CENTER, 8, EstilosInforme.COLOR_PRIMARIO, 1); // Azul muy claro
+        EstilosInforme.Celda celdaProduccion = EstilosInforme.celda(
+            EstilosInforme.fuenteMono(10, Font.NORMAL, BaseColor.BLACK),
+            EstilosInforme.color(248, 249, 250), PdfPCell.ALIGN_LEFT, 8, EstilosInforme.COLOR_SECUNDARIO, 1); // Gris muy claro
+
+        int index = 1;
+        for (String produccion : gramatica.getProduccionesModel()) {
+            // Tabla para cada producción: número y producción completa
+            PdfPTable tablaProd = new PdfPTable(2);
+            tablaProd.setWidthPercentage(95);
+            tablaProd.setWidths(new float[]{0.15f, 0.85f});
+
+            PdfPCell cellNumero = celdaNumero.crear(String.valueOf(index));
+            cellNumero.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
+            tablaProd.addCell(cellNumero);
+
+            // Convertir la flecha Unicode a ASCII solo para el PDF
+            PdfPCell cellProd = celdaProduccion.crear(produccion.replace("→", " -> "));
+            cellProd.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
+            tablaProd.addCell(cellProd);
+
+            document.add(tablaProd);
+            espacio(document, 5);
+            index++;
+        }
+    }
+
+    private static void agregarLista(Document document, String titulo, List<String> elementos,
+                                     Font subtituloSeccion, Font contenidoNormal) throws Exception {
+        document.add(new Paragraph(titulo, subtituloSeccion));
+        for (String elemento : elementos) {
+            Paragraph parrafo = new Paragraph("    • " + elemento, contenidoNormal);
+            parrafo.setIndentationLeft(20);
+            document.add(parrafo);
+        }
+        espacio(document, 8);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        Gramatica gramatica = gramatica(contexto);
+        escritor.campo("descripcion", etiqueta(bundle, "informe.profesional.descripcion"), gramatica.getDescripcion());
+        escritor.campo("simbolo.inicial", etiqueta(bundle, "informe.profesional.simbolo.inicial"), gramatica.getSimbInicial());
+        escritor.lista("no.terminales", etiqueta(bundle, "informe.profesional.simbolos.no.terminales"),
+                       gramatica.getNoTerminalesModel());
+        escritor.lista("terminales", etiqueta(bundle, "informe.profesional.simbolos.terminales"),
+                       gramatica.getTerminalesModel());
+        escritor.tabla(getId() + ".producciones", etiqueta(bundle, "informe.profesional.producciones"),
+                       Textos.texto(bundle, "informe.exportar.numero", "Nº"),
+                       Textos.texto(bundle, "informe.exportar.produccion", "Producción"));
+        int index = 1;
+        for (String produccion : gramatica.getProduccionesModel()) {
+            escritor.fila(String.valueOf(index++), produccion);
+        }
+        escritor.finTabla();
+    }
+}
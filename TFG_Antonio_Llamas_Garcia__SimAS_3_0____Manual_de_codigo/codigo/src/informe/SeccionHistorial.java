@@ -0,0 +1,136 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.ResourceBundle;
+import simulador.AccionSimulacion;
+
+/**
+ * Historial de pasos de la simulación: paso, pila, entrada y acción.
+ *
+ * La tabla se escribe por bloques de {@link #FILAS_POR_BLOQUE} filas como
+ * tabla incompleta: cada bloque se vuelca al documento y se descarta, y la
+ * cabecera se repite al principio de cada página. Depende de la traza, así que
+ * no se guarda en caché.
+ */
+final class SeccionHistorial extends SeccionBase {
+
+    SeccionHistorial(String id) {
+        super(id, "informe.profesional.indice.historial", "informe.profesional.seccion.historial");
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return null;
+    }
+
+    private static String[] cabeceras(ResourceBundle bundle) {
+        return new String[]{
+            bundle.getString("informe.simulador.historial.paso"),
+            bundle.getString("informe.simulador.historial.pila"),
+            bundle.getString("informe.simulador.historial.entrada"),
+            bundle.getString("informe.simulador.historial.accion")
+        };
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        PdfPTable tablaHistorial = new PdfPTable(4);
+        tablaHistorial.setWidthPercentage(100);
+        tablaHistorial.setSpacingBefore(5);
+        tablaHistorial.setWidths(new float[]{1, 2, 2, 3});
+        tablaHistorial.setHeaderRows(1);
+        tablaHistorial.setComplete(false);
+
+        // Estilos compartidos, obtenidos una vez por tabla; el índice 0/1 es la fila normal/alterna
+        EstilosInforme.Celda cabecera = EstilosInforme.cabeceraTabla();
+        BaseColor[] fondos = {BaseColor.WHITE, EstilosInforme.COLOR_FONDO_CABECERA};
+        Font dataFont = EstilosInforme.fuente(8, Font.NORMAL, BaseColor.BLACK);
+        EstilosInforme.Celda[] celdaPaso = new EstilosInforme.Celda[2];
+        EstilosInforme.Celda[] celdaTexto = new EstilosInforme.Celda[2];
+        for (int alterna = 0; alterna < 2; alterna++) {
+            celdaPaso[alterna] = EstilosInforme.datoTabla(dataFont, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            celdaTexto[alterna] = EstilosInforme.datoTabla(dataFont, fondos[alterna], PdfPCell.ALIGN_LEFT);
+        }
+        // Acción con colores diferenciados según su código, no según el texto traducido
+        EstilosInforme.Celda[][] celdaAccion = new EstilosInforme.Celda[AccionSimulacion.values().length][2];
+        for (AccionSimulacion codigo : AccionSimulacion.values()) {
+            for (int alterna = 0; alterna < 2; alterna++) {
+                celdaAccion[codigo.ordinal()][alterna] = estiloAccion(codigo, celdaTexto[alterna]);
+            }
+        }
+
+        for (String header : cabeceras(bundle)) {
+            tablaHistorial.addCell(cabecera.crear(header));
+        }
+
+        int alterna = 0;
+        int filasPendientes = 0;
+        String nombreSeccion = getNombre(bundle);
+        for (int i = 0; i < contexto.getNumPasos(); i++) {
+            tablaHistorial.addCell(celdaPaso[alterna].crear(contexto.getPaso(i)));
+            tablaHistorial.addCell(celdaTexto[alterna].crear(contexto.getPila(i)));
+            tablaHistorial.addCell(celdaTexto[alterna].crear(contexto.getEntrada(i)));
+
+            // Convertir flechas Unicode a ASCII para mostrar en el PDF
+            String accion = contexto.getAccion(i, bundle).replace("→", " -> ");
+            tablaHistorial.addCell(celdaAccion[contexto.getCodigoAccion(i).ordinal()][alterna].crear(accion));
+
+            alterna = 1 - alterna;
+            if (++filasPendientes == FILAS_POR_BLOQUE) {
+                // Escribe las filas del bloque; el espacio previo solo va delante del primero
+                comprobarCancelacion(progreso, nombreSeccion);
+                document.add(tablaHistorial);
+                tablaHistorial.setSpacingBefore(0);
+                filasPendientes = 0;
+            }
+        }
+
+        tablaHistorial.setComplete(true);
+        document.add(tablaHistorial);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        String nombreSeccion = getNombre(bundle);
+        escritor.tabla(getId(), null, cabeceras(bundle));
+        for (int i = 0; i < contexto.getNumPasos(); i++) {
+            if (i % FILAS_POR_BLOQUE == 0) comprobarCancelacion(progreso, nombreSeccion);
+            escritor.fila(contexto.getPaso(i), contexto.getPila(i), contexto.getEntrada(i), contexto.getAccion(i, bundle));
+        }
+        escritor.finTabla();
+    }
+
+    /**
+     * Estilo de la celda de acción según su código.
+     * @param normal Estilo de las acciones sin color propio en la fila
+     */
+    private static EstilosInforme.Celda estiloAccion(AccionSimulacion codigo, EstilosInforme.Celda normal) {
+        switch (codigo) {
+            case EMPAREJAR:
+                return EstilosInforme.datoTabla(EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.COLOR_SECUNDARIO),
+                                                EstilosInforme.color(240, 248, 255), PdfPCell.ALIGN_LEFT);  // Azul para emparejar
+            case PRODUCCION:
+                return EstilosInforme.datoTabla(EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.COLOR_EXITO),
+                                                EstilosInforme.color(240, 255, 240), PdfPCell.ALIGN_LEFT);  // Verde para derivaciones
+            case ERROR:
+            case FIN_CON_ERRORES:
+            case FUNCION_ERROR:
+            case FIN_FUNCION_ERROR:
+                return EstilosInforme.datoTabla(EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.COLOR_ERROR),
+                                                EstilosInforme.color(255, 240, 240), PdfPCell.ALIGN_LEFT);  // Rojo para errores
+            case ACEPTAR:
+                return EstilosInforme.datoTabla(EstilosInforme.fuente(8, Font.BOLD, EstilosInforme.COLOR_ACENTO),
+                                                EstilosInforme.color(255, 248, 240), PdfPCell.ALIGN_LEFT);  // Naranja para aceptar
+            default:
+                return normal;
+        }
+    }
+}
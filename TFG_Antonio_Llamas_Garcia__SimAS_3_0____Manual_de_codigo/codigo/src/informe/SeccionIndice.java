@@ -0,0 +1,48 @@
+package informe;
+
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * Índice del informe: las entradas indicadas, numeradas desde 1.
+ */
+final class SeccionIndice extends SeccionBase {
+
+    private final List<String> claves;
+
+    /**
+     * @param claves Claves de los nombres de las entradas, en orden
+     */
+    SeccionIndice(String id, List<String> claves) {
+        super(id, "informe.profesional.indice.titulo", null);
+        this.claves = claves;
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return String.join("|", claves);
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        Paragraph tituloIndice = new Paragraph(bundle.getString("informe.profesional.indice.titulo"),
+                                               EstilosInforme.tituloSeccion());
+        tituloIndice.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(tituloIndice);
+        document.add(new Chunk(EstilosInforme.separadorSecundario()));
+        espacio(document, 15);
+
+        for (int i = 0; i < claves.size(); i++) {
+            String entrada = String.format("%d. %s", i + 1, bundle.getString(claves.get(i)));
+            Paragraph itemIndice = new Paragraph(entrada, EstilosInforme.contenido());
+            itemIndice.setIndentationLeft(50);
+            document.add(itemIndice);
+            espacio(document, 5);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * Cadena de entrada y estado final de la simulación.
+ */
+final class SeccionInformacionSimulacion extends SeccionBase {
+
+    SeccionInformacionSimulacion(String id) {
+        super(id, "informe.profesional.indice.simulacion", "informe.profesional.seccion.simulacion");
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return ContextoInforme.huella(contexto.getCadenaEntrada(), contexto.getClaveEstado());
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        Font subtituloSeccion = EstilosInforme.subtituloSeccion();
+
+        // Cadena de entrada
+        document.add(new Paragraph(bundle.getString("informe.profesional.cadena.entrada"), subtituloSeccion));
+        String cadenaEntrada = contexto.getCadenaEntrada();
+        Paragraph cadena = new Paragraph("    " + (cadenaEntrada != null ? cadenaEntrada
+            : bundle.getString("informe.profesional.no.especificada")), EstilosInforme.fuente(12, Font.BOLD, BaseColor.BLACK));
+        cadena.setIndentationLeft(20);
+        document.add(cadena);
+        espacio(document, 10);
+
+        // Estado final destacado
+        document.add(new Paragraph(bundle.getString("informe.profesional.resultado.final"), subtituloSeccion));
+        BaseColor colorEstado = contexto.isAceptada() ? EstilosInforme.COLOR_EXITO : EstilosInforme.COLOR_ERROR;
+        String estadoSimulacion = contexto.getEstado(bundle);
+        Paragraph estado = new Paragraph("    " + (estadoSimulacion != null ? estadoSimulacion
+            : bundle.getString("informe.profesional.no.especificado")), EstilosInforme.fuente(16, Font.BOLD, colorEstado));
+        estado.setAlignment(Paragraph.ALIGN_CENTER);
+        estado.setIndentationLeft(20);
+        document.add(estado);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        String cadenaEntrada = contexto.getCadenaEntrada();
+        String estado = contexto.getEstado(bundle);
+        escritor.campo("cadena", etiqueta(bundle, "informe.profesional.cadena.entrada"),
+            cadenaEntrada != null ? cadenaEntrada : bundle.getString("informe.profesional.no.especificada"));
+        escritor.campo("resultado", etiqueta(bundle, "informe.profesional.resultado.final"),
+            estado != null ? estado : bundle.getString("informe.profesional.no.especificado"));
+        escritor.campo("pasos", etiqueta(bundle, "informe.profesional.numero.pasos"),
+            String.valueOf(contexto.getNumPasos()));
+    }
+}
@@ -0,0 +1,47 @@
+package informe;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * Sección de un informe.
+ *
+ * Cada tipo de informe es una lista de secciones que {@link GeneradorInforme}
+ * recorre con el mismo {@link ContextoInforme}: en PDF cada una se escribe en
+ * su propio documento (en paralelo y, si declara huella, guardada en caché) y
+ * en los formatos de texto se exportan una tras otra. Las secciones no guardan
+ * estado entre documentos, así que la misma lista sirve para varios idiomas a la vez.
+ */
+public interface SeccionInforme {
+
+    /** Identificador estable de la sección, por ejemplo "simulacion.historial". */
+    String getId();
+
+    /** Nombre de la sección en el idioma del informe, para el progreso y el índice. */
+    String getNombre(ResourceBundle bundle);
+
+    /**
+     * Texto con todos los datos de los que depende la sección, para reutilizar
+     * su PDF de la caché; el idioma ya forma parte de la clave.
+     * @return La huella, o null si la sección se genera siempre
+     */
+    String huella(ContextoInforme contexto);
+
+    /**
+     * Escribe la sección en un documento PDF ya abierto, en página nueva.
+     * @throws java.util.concurrent.CancellationException Si el progreso se cancela
+     */
+    void escribir(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                  ProgresoInforme progreso) throws Exception;
+
+    /**
+     * Exporta el contenido de la sección a un formato de texto. Las secciones
+     * sin datos propios (portada, índice, conclusión) no escriben nada.
+     */
+    default void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                          ProgresoInforme progreso) throws IOException {
+        // Sin contenido exportable
+    }
+}
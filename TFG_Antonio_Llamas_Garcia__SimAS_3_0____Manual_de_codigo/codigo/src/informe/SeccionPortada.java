@@ -0,0 +1,76 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+/**
+ * Portada de los informes: logo, título, nombre de la gramática y fecha.
+ */
+final class SeccionPortada extends SeccionBase {
+
+    SeccionPortada() {
+        super("portada", "informe.profesional.portada.titulo", null);
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return ContextoInforme.huella(contexto.getGramatica().getNombre(), contexto.getFecha());
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        // Logo de la aplicación
+        try {
+            Image logo = Image.getInstance(Objects.requireNonNull(getClass().getResource("/resources/logo2Antes.png")).toExternalForm());
+            logo.setAlignment(Image.ALIGN_CENTER);
+            logo.scalePercent(40);
+            document.add(logo);
+        } catch (Exception e) {
+            // Si no hay logo, continuar sin él
+        }
+
+        // Espacios
+        espacio(document, 30);
+        espacio(document, 20);
+
+        // Título principal grande
+        Paragraph tituloPrincipal = new Paragraph(bundle.getString("informe.profesional.portada.titulo"),
+                                                  EstilosInforme.tituloPortada());
+        tituloPrincipal.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(tituloPrincipal);
+
+        espacio(document, 15);
+
+        // Subtítulo con nombre de la gramática
+        Font subtituloGramatica = EstilosInforme.fuente(22, Font.BOLD, EstilosInforme.COLOR_SECUNDARIO);
+        Paragraph subtitulo = new Paragraph(contexto.getGramatica().getNombre(), subtituloGramatica);
+        subtitulo.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(subtitulo);
+
+        espacio(document, 25);
+        document.add(new Chunk(EstilosInforme.separadorPrincipal()));
+        espacio(document, 20);
+
+        // Información adicional
+        Font infoFont = EstilosInforme.fuente(14, Font.NORMAL, EstilosInforme.COLOR_PRIMARIO);
+        Paragraph appInfo = new Paragraph(bundle.getString("informe.profesional.portada.app.nombre"), infoFont);
+        appInfo.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(appInfo);
+
+        espacio(document, 10);
+
+        // Fecha de generación
+        Font fechaFont = EstilosInforme.fuente(12, Font.NORMAL, BaseColor.GRAY);
+        Paragraph fecha = new Paragraph(bundle.getString("informe.profesional.generado") + " " + contexto.getFecha(), fechaFont);
+        fecha.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(fecha);
+    }
+}
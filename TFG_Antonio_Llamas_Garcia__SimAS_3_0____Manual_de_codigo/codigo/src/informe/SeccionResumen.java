@@ -0,0 +1,84 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.util.ResourceBundle;
+
+/**
+ * Resumen ejecutivo de la simulación: cadena, resultado destacado y número de pasos.
+ */
+final class SeccionResumen extends SeccionBase {
+
+    SeccionResumen(String id) {
+        super(id, "informe.profesional.indice.resumen", null);
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return ContextoInforme.huella(contexto.getCadenaEntrada(), contexto.getClaveEstado(), contexto.getNumPasos());
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        Paragraph tituloResumen = new Paragraph(bundle.getString("informe.profesional.seccion.resumen.ejecutivo"),
+                                                EstilosInforme.tituloSeccion());
+        tituloResumen.setAlignment(Paragraph.ALIGN_CENTER);
+        document.add(tituloResumen);
+        document.add(new Chunk(EstilosInforme.separadorSecundario()));
+        espacio(document, 15);
+
+        // Información clave
+        Font labelFont = EstilosInforme.fuente(12, Font.BOLD, EstilosInforme.COLOR_PRIMARIO);
+        Font valorFont = EstilosInforme.fuente(12, Font.NORMAL, null);
+
+        // Cadena de entrada
+        document.add(new Paragraph(bundle.getString("informe.profesional.cadena.entrada"), labelFont));
+        String cadenaEntrada = contexto.getCadenaEntrada();
+        Paragraph valorCadena = new Paragraph("    " + (cadenaEntrada != null ? cadenaEntrada
+            : bundle.getString("informe.profesional.no.especificada")), valorFont);
+        valorCadena.setIndentationLeft(20);
+        document.add(valorCadena);
+        espacio(document, 10);
+
+        // Resultado final con recuadro destacado
+        document.add(new Paragraph(bundle.getString("informe.profesional.resultado.final"), labelFont));
+        espacio(document, 5);
+
+        BaseColor colorEstado = contexto.isAceptada() ? EstilosInforme.COLOR_EXITO : EstilosInforme.COLOR_ERROR;
+        String estado = contexto.getEstado(bundle);
+        String textoEstado = estado != null ? estado : bundle.getString("informe.profesional.no.especificado");
+
+        // Crear tabla para resaltar el resultado
+        PdfPTable tablaResultado = new PdfPTable(1);
+        tablaResultado.setWidthPercentage(80);
+        tablaResultado.setSpacingBefore(5);
+        tablaResultado.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
+
+        PdfPCell cellResultado = new PdfPCell(new Phrase(textoEstado, EstilosInforme.fuente(16, Font.BOLD, colorEstado)));
+        cellResultado.setBackgroundColor(EstilosInforme.color(250, 250, 250)); // Fondo gris muy claro
+        cellResultado.setBorderColor(colorEstado);
+        cellResultado.setBorderWidth(2);
+        cellResultado.setPadding(15);
+        cellResultado.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
+        cellResultado.setVerticalAlignment(PdfPCell.ALIGN_MIDDLE);
+
+        tablaResultado.addCell(cellResultado);
+        document.add(tablaResultado);
+        espacio(document, 15);
+
+        // Número de pasos
+        document.add(new Paragraph(bundle.getString("informe.profesional.numero.pasos"), labelFont));
+        Paragraph valorPasos = new Paragraph("    " + contexto.getNumPasos() + " "
+            + bundle.getString("informe.profesional.unidad.pasos"), valorFont);
+        valorPasos.setIndentationLeft(20);
+        document.add(valorPasos);
+    }
+}
@@ -0,0 +1,215 @@
+package informe;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.ResourceBundle;
+import utils.Textos;
+
+/**
+ * Tabla predictiva, a partir de la tabla compilada del contexto.
+ *
+ * Con pocos terminales es una sola tabla; con más se parte en bandas de
+ * {@link #TERMINALES_POR_BANDA} columnas y, si hay muchos o casi todas las
+ * celdas están vacías, se listan solo las celdas con entrada. En todos los
+ * casos las filas se escriben por bloques con la cabecera repetida en cada página.
+ */
+final class SeccionTablaPredictiva extends SeccionBase {
+
+    /**
+     * Terminales por banda. Con más terminales la tabla se parte en bandas de
+     * columnas que repiten la columna del símbolo, para que las celdas sigan
+     * siendo legibles en el ancho de la página.
+     */
+    private static final int TERMINALES_POR_BANDA = 12;
+
+    /**
+     * A partir de estos terminales la tabla se da en forma dispersa (solo las
+     * celdas con entrada, agrupadas por símbolo): las bandas serían tantas que
+     * la tabla no se podría seguir.
+     */
+    private static final int MAX_TERMINALES_TABLA_DENSA = 4 * TERMINALES_POR_BANDA;
+
+    /**
+     * Proporción de celdas con entrada por debajo de la cual, si hay más de una
+     * banda, la tabla también se da en forma dispersa.
+     */
+    private static final double MIN_OCUPACION_TABLA_DENSA = 0.15;
+
+    SeccionTablaPredictiva(String id, String claveNombre, String claveTitulo) {
+        super(id, claveNombre, claveTitulo);
+    }
+
+    @Override
+    String huellaContenido(ContextoInforme contexto) {
+        return contexto.getHuellaTabla();
+    }
+
+    @Override
+    void escribirContenido(Document document, PdfWriter writer, ContextoInforme contexto, ResourceBundle bundle,
+                           ProgresoInforme progreso) throws Exception {
+        int numFilas = contexto.getNumFilasTabla();
+        int numTerminales = contexto.getNumTerminalesTabla();
+        if (numFilas == 0 || numTerminales == 0) return;
+
+        // Estilos compartidos, obtenidos una vez por tabla; el índice 0/1 es la fila normal/alterna
+        BaseColor[] fondos = {BaseColor.WHITE, EstilosInforme.COLOR_FONDO_CABECERA};
+        Font fuenteTerminal = EstilosInforme.fuente(8, Font.NORMAL, BaseColor.BLACK);
+        Font fuenteNoTerminal = EstilosInforme.fuente(8, Font.BOLD, EstilosInforme.COLOR_PRIMARIO);
+        // Las filas son los no terminales
+        EstilosInforme.Celda[] simbolo = new EstilosInforme.Celda[2];
+        // [tipo de celda][alterna]; las celdas con color propio no dependen de la fila
+        EstilosInforme.Celda[][] valor = new EstilosInforme.Celda[4][2];
+        for (int alterna = 0; alterna < 2; alterna++) {
+            simbolo[alterna] = EstilosInforme.datoTabla(fuenteNoTerminal, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            valor[ContextoInforme.CELDA_NORMAL][alterna] = EstilosInforme.datoTabla(fuenteTerminal, fondos[alterna], PdfPCell.ALIGN_CENTER);
+            valor[ContextoInforme.CELDA_PRODUCCION][alterna] = EstilosInforme.datoTabla(
+                EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.color(0, 100, 0)),       // Verde para producciones
+                EstilosInforme.color(240, 255, 240), PdfPCell.ALIGN_CENTER);                  // Verde muy claro
+            valor[ContextoInforme.CELDA_EPSILON][alterna] = EstilosInforme.datoTabla(
+                EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.color(255, 140, 0)),     // Naranja para épsilon
+                EstilosInforme.color(255, 248, 240), PdfPCell.ALIGN_CENTER);                  // Naranja muy claro
+            valor[ContextoInforme.CELDA_FUNCION_ERROR][alterna] = EstilosInforme.datoTabla(
+                EstilosInforme.fuente(8, Font.NORMAL, EstilosInforme.color(100, 100, 255)),   // Azul para funciones error
+                EstilosInforme.color(240, 240, 255), PdfPCell.ALIGN_CENTER);                  // Azul muy claro
+        }
+
+        String nombreSeccion = getNombre(bundle);
+        int numBandas = (numTerminales + TERMINALES_POR_BANDA - 1) / TERMINALES_POR_BANDA;
+        double ocupacion = (double) contexto.getCeldasOcupadasTabla() / ((long) numFilas * numTerminales);
+        if (numTerminales > MAX_TERMINALES_TABLA_DENSA || (numBandas > 1 && ocupacion < MIN_OCUPACION_TABLA_DENSA)) {
+            escribirDispersa(document, contexto, bundle, simbolo, valor, nombreSeccion, progreso);
+            return;
+        }
+
+        Font fuenteBanda = EstilosInforme.fuente(9, Font.BOLD, EstilosInforme.COLOR_SECUNDARIO);
+        for (int banda = 0; banda < numBandas; banda++) {
+            int desde = banda * TERMINALES_POR_BANDA;
+            int hasta = Math.min(desde + TERMINALES_POR_BANDA, numTerminales);
+
+            if (numBandas > 1) {
+                Paragraph tituloBanda = new Paragraph(Textos.texto(bundle, "informe.profesional.tabla.predictiva.banda", "Terminales")
+                    + " " + (desde + 1) + "-" + hasta + " / " + numTerminales, fuenteBanda);
+                tituloBanda.setSpacingBefore(banda == 0 ? 0 : 10);
+                document.add(tituloBanda);
+            }
+
+            // La columna del símbolo pesa más que las de los terminales
+            float[] anchos = new float[hasta - desde + 1];
+            Arrays.fill(anchos, 1);
+            anchos[0] = 1.5f;
+            PdfPTable tabla = new PdfPTable(anchos.length);
+            tabla.setWidthPercentage(100);
+            tabla.setWidths(anchos);
+            tabla.setSpacingBefore(5);
+            tabla.setHeaderRows(1);
+            tabla.setComplete(false);
+
+            // Encabezados: símbolo y terminales de la banda
+            EstilosInforme.Celda cabecera = EstilosInforme.cabeceraTabla();
+            tabla.addCell(cabecera.crear(bundle.getString("informe.profesional.tabla.simbolo")));
+            for (int t = desde; t < hasta; t++) {
+                tabla.addCell(cabecera.crear(contexto.getTerminalTabla(t)));
+            }
+
+            // Filas de datos
+            int alterna = 0;
+            int filasPendientes = 0;
+            for (int f = 0; f < numFilas; f++) {
+                tabla.addCell(simbolo[alterna].crear(contexto.getSimboloTabla(f)));
+                for (int t = desde; t < hasta; t++) {
+                    tabla.addCell(valor[contexto.getTipoCeldaTabla(f, t)][alterna].crear(contexto.getCeldaTabla(f, t)));
+                }
+
+                alterna = 1 - alterna;
+                if (++filasPendientes == FILAS_POR_BLOQUE) {
+                    comprobarCancelacion(progreso, nombreSeccion);
+                    document.add(tabla);
+                    tabla.setSpacingBefore(0);
+                    filasPendientes = 0;
+                }
+            }
+
+            tabla.setComplete(true);
+            document.add(tabla);
+            comprobarCancelacion(progreso, nombreSeccion);
+        }
+    }
+
+    /**
+     * Forma dispersa: una fila por celda con entrada (símbolo, terminal,
+     * entrada), con el símbolo solo en la primera de su grupo.
+     */
+    private static void escribirDispersa(Document document, ContextoInforme contexto, ResourceBundle bundle,
+                                         EstilosInforme.Celda[] simbolo, EstilosInforme.Celda[][] valor,
+                                         String nombreSeccion, ProgresoInforme progreso) throws DocumentException {
+        document.add(new Paragraph(Textos.texto(bundle, "informe.profesional.tabla.predictiva.dispersa",
+            "Solo se muestran las celdas con entrada."), EstilosInforme.fuente(9, Font.ITALIC, BaseColor.DARK_GRAY)));
+
+        PdfPTable tabla = new PdfPTable(3);
+        tabla.setWidthPercentage(100);
+        tabla.setWidths(new float[]{2, 2, 5});
+        tabla.setSpacingBefore(5);
+        tabla.setHeaderRows(1);
+        tabla.setComplete(false);
+
+        EstilosInforme.Celda cabecera = EstilosInforme.cabeceraTabla();
+        tabla.addCell(cabecera.crear(bundle.getString("informe.profesional.tabla.simbolo")));
+        tabla.addCell(cabecera.crear(bundle.getString("informe.simulador.tabla.predictiva.columna")));
+        tabla.addCell(cabecera.crear(Textos.texto(bundle, "informe.profesional.tabla.predictiva.entrada", "Entrada")));
+
+        // Los grupos alternan el fondo, no las filas: así se distingue cada símbolo
+        int alterna = 0;
+        int filasPendientes = 0;
+        for (int f = 0; f < contexto.getNumFilasTabla(); f++) {
+            boolean primera = true;
+            for (int t = 0; t < contexto.getNumTerminalesTabla(); t++) {
+                String celda = contexto.getCeldaTabla(f, t);
+                if (celda.isEmpty()) continue;
+                tabla.addCell(simbolo[alterna].crear(primera ? contexto.getSimboloTabla(f) : ""));
+                tabla.addCell(valor[ContextoInforme.CELDA_NORMAL][alterna].crear(contexto.getTerminalTabla(t)));
+                tabla.addCell(valor[contexto.getTipoCeldaTabla(f, t)][alterna].crear(celda));
+                primera = false;
+
+                if (++filasPendientes == FILAS_POR_BLOQUE) {
+                    comprobarCancelacion(progreso, nombreSeccion);
+                    document.add(tabla);
+                    tabla.setSpacingBefore(0);
+                    filasPendientes = 0;
+                }
+            }
+            if (!primera) alterna = 1 - alterna;
+        }
+
+        tabla.setComplete(true);
+        document.add(tabla);
+    }
+
+    @Override
+    public void exportar(EscritorInforme escritor, ContextoInforme contexto, ResourceBundle bundle,
+                         ProgresoInforme progreso) throws IOException {
+        int numTerminales = contexto.getNumTerminalesTabla();
+        String[] cabeceras = new String[numTerminales + 1];
+        cabeceras[0] = bundle.getString("informe.profesional.tabla.simbolo");
+        for (int t = 0; t < numTerminales; t++) {
+            cabeceras[t + 1] = contexto.getTerminalTabla(t);
+        }
+        escritor.tabla(getId(), null, cabeceras);
+        String[] celdas = new String[cabeceras.length];
+        for (int f = 0; f < contexto.getNumFilasTabla(); f++) {
+            celdas[0] = contexto.getSimboloTabla(f);
+            for (int t = 0; t < numTerminales; t++) {
+                celdas[t + 1] = contexto.getCeldaTabla(f, t);
+            }
+            escritor.fila(celdas);
+        }
+        escritor.finTabla();
+    }
+}
@@ -0,0 +1,72 @@
+package informe;
+
+import gramatica.Gramatica;
+import gramatica.Terminal;
+import java.util.ArrayList;
+import java.util.List;
+import simulador.TablaLL1;
+
+/**
+ * Tabla predictiva de un informe, tomada de la {@link TablaLL1} compilada que
+ * usa el motor.
+ *
+ * Las filas son los no terminales y las columnas los terminales, en el orden
+ * de la gramática. Cada celda apunta a una entrada de la tabla compilada, que
+ * ya sabe si es una producción, una producción vacía o una función de error,
+ * así que el informe no vuelve a analizar el texto de las celdas. La tabla
+ * compilada no cambia una vez creada, de modo que el informe se puede escribir
+ * en segundo plano mientras la simulación la sigue usando.
+ */
+public final class TablaInforme {
+
+    private static final String FIN_CADENA = "$";
+
+    private final TablaLL1 tabla;
+    private final String[] simbolos;
+    private final String[] terminales;
+    private final int[][] entradas;
+
+    /**
+     * @param gramatica Gramática de la tabla, que da el orden de filas y columnas
+     */
+    public TablaInforme(TablaLL1 tabla, Gramatica gramatica) {
+        this.tabla = tabla;
+        List<String> filas = new ArrayList<>();
+        for (String noTerminal : gramatica.getNoTerminalesModel()) {
+            if (tabla.esNoTerminal(noTerminal) && !filas.contains(noTerminal)) filas.add(noTerminal);
+        }
+        List<String> columnas = new ArrayList<>();
+        for (Terminal terminal : gramatica.getTerminales()) {
+            if (!columnas.contains(terminal.getNombre())) columnas.add(terminal.getNombre());
+        }
+        if (!columnas.contains(FIN_CADENA)) columnas.add(FIN_CADENA);
+
+        simbolos = filas.toArray(new String[0]);
+        terminales = columnas.toArray(new String[0]);
+        entradas = new int[simbolos.length][terminales.length];
+        for (int f = 0; f < simbolos.length; f++) {
+            for (int t = 0; t < terminales.length; t++) {
+                entradas[f][t] = tabla.buscar(simbolos[f], terminales[t]);
+            }
+        }
+    }
+
+    public int getNumFilas() { return simbolos.length; }
+    public int getNumTerminales() { return terminales.length; }
+    public String getTerminal(int t) { return terminales[t]; }
+    public String getSimbolo(int f) { return simbolos[f]; }
+
+    /** Texto de la celda tal como aparece en el historial, o "" si está vacía. */
+    public String getCelda(int f, int t) {
+        int entrada = entradas[f][t];
+        return entrada != TablaLL1.VACIA ? tabla.getTexto(entrada) : "";
+    }
+
+    /** Tipo de la celda, una de las constantes CELDA_* de {@link ContextoInforme}. */
+    byte getTipo(int f, int t) {
+        int entrada = entradas[f][t];
+        if (entrada == TablaLL1.VACIA) return ContextoInforme.CELDA_NORMAL;
+        if (tabla.esFuncionError(entrada)) return ContextoInforme.CELDA_FUNCION_ERROR;
+        return tabla.getDerecha(entrada).length == 0 ? ContextoInforme.CELDA_EPSILON : ContextoInforme.CELDA_PRODUCCION;
+    }
+}
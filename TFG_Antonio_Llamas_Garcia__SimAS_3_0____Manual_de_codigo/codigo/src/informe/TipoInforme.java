@@ -0,0 +1,136 @@
+package informe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Informes que genera la aplicación, cada uno como lista de secciones.
+ *
+ * Las secciones presentes dependen del contexto: las funciones de error y la
+ * tabla predictiva solo aparecen si existen, y el historial y la derivación
+ * solo si la simulación tiene pasos.
+ */
+public enum TipoInforme {
+
+    /** Informe de la gramática desde el editor. */
+    GRAMATICA {
+        @Override
+        public List<SeccionInforme> secciones(ContextoInforme contexto) {
+            return Arrays.asList(
+                new SeccionPortada(),
+                new SeccionGramatica("editor.gramatica", "informe.editor.gramatica.original",
+                                     "informe.editor.gramatica.original", false).conCreditos());
+        }
+    },
+
+    /** Informe del simulador, sin la simulación: gramáticas, funciones de error y tabla. */
+    SIMULADOR {
+        @Override
+        public List<SeccionInforme> secciones(ContextoInforme contexto) {
+            List<String> indice = new ArrayList<>(Arrays.asList("informe.profesional.indice.gramatica.original",
+                                                                "informe.profesional.indice.gramatica.modificada"));
+            if (contexto.hayFuncionesError()) indice.add("informe.profesional.indice.funciones.error");
+            if (contexto.hayTablaPredictiva()) indice.add("informe.profesional.indice.tabla.predictiva");
+
+            List<SeccionBase> contenido = new ArrayList<>();
+            contenido.add(new SeccionGramatica("simulador.gramatica.original", "informe.simulador.gramatica.original",
+                                               "informe.simulador.gramatica.original", true));
+            contenido.add(new SeccionGramatica("simulador.gramatica.modificada", "informe.simulador.gramatica.modificada",
+                                               "informe.simulador.gramatica.modificada", false));
+            if (contexto.hayFuncionesError()) {
+                contenido.add(new SeccionFuncionesError("simulador.funciones.error", "informe.simulador.funciones.error",
+                                                        "informe.simulador.funciones.error"));
+            }
+            if (contexto.hayTablaPredictiva()) {
+                contenido.add(new SeccionTablaPredictiva("simulador.tabla.predictiva", "informe.simulador.tabla.predictiva",
+                                                         "informe.simulador.tabla.predictiva"));
+            }
+            // Secciones numeradas desde 1; la información final va al pie de la última
+            for (int i = 0; i < contenido.size(); i++) {
+                contenido.get(i).numerada(i + 1);
+            }
+            contenido.get(contenido.size() - 1).conCreditos();
+
+            List<SeccionInforme> secciones = new ArrayList<>();
+            secciones.add(new SeccionPortada());
+            secciones.add(new SeccionIndice("simulador.indice", indice));
+            secciones.addAll(contenido);
+            return secciones;
+        }
+    },
+
+    /** Informe completo de una simulación. */
+    SIMULACION {
+        @Override
+        public List<SeccionInforme> secciones(ContextoInforme contexto) {
+            List<SeccionBase> contenido = new ArrayList<>();
+            contenido.add(new SeccionResumen("simulacion.resumen"));
+            agregarContenidoSimulacion(contenido, contexto, false);
+            contenido.add(new SeccionArbol("simulacion.arbol"));
+            contenido.add(new SeccionConclusion("simulacion.conclusion"));
+
+            // El índice nombra solo las secciones presentes
+            List<String> indice = new ArrayList<>(contenido.size());
+            for (SeccionBase seccion : contenido) {
+                indice.add(seccion.getClaveNombre());
+            }
+
+            List<SeccionInforme> secciones = new ArrayList<>();
+            secciones.add(new SeccionPortada());
+            secciones.add(new SeccionIndice("simulacion.indice", indice));
+            secciones.addAll(contenido);
+            return secciones;
+        }
+
+        /**
+         * Las mismas secciones que el PDF más los conjuntos PRIMERO y SIGUIENTE,
+         * sin portada, índice, resumen ni conclusión.
+         */
+        @Override
+        public List<SeccionInforme> seccionesExportadas(ContextoInforme contexto) {
+            List<SeccionInforme> secciones = new ArrayList<>();
+            agregarContenidoSimulacion(secciones, contexto, true);
+            if (contexto.getArbol() != null) {
+                secciones.add(new SeccionArbol("simulacion.arbol"));
+            }
+            return secciones;
+        }
+    };
+
+    /**
+     * Secciones del informe PDF, en orden.
+     */
+    public abstract List<SeccionInforme> secciones(ContextoInforme contexto);
+
+    /**
+     * Secciones de la exportación a texto (HTML, Markdown, JSON o CSV).
+     */
+    public List<SeccionInforme> seccionesExportadas(ContextoInforme contexto) {
+        return secciones(contexto);
+    }
+
+    private static void agregarContenidoSimulacion(List<? super SeccionBase> secciones, ContextoInforme contexto,
+                                                   boolean conjuntos) {
+        secciones.add(new SeccionGramatica("simulacion.gramatica.original", "informe.profesional.indice.gramatica.original",
+                                           "informe.profesional.seccion.gramatica.original", true));
+        secciones.add(new SeccionGramatica("simulacion.gramatica.modificada", "informe.profesional.indice.gramatica.modificada",
+                                           "informe.profesional.seccion.gramatica.modificada", false));
+        if (conjuntos) {
+            secciones.add(new SeccionConjuntos("simulacion.conjuntos"));
+        }
+        if (contexto.hayFuncionesError()) {
+            secciones.add(new SeccionFuncionesError("simulacion.funciones.error", "informe.profesional.indice.funciones.error",
+                                                    "informe.profesional.seccion.funciones.error"));
+        }
+        if (contexto.hayTablaPredictiva()) {
+            secciones.add(new SeccionTablaPredictiva("simulacion.tabla.predictiva", "informe.profesional.indice.tabla.predictiva",
+                                                     "informe.profesional.seccion.tabla.predictiva"));
+        }
+        secciones.add(new SeccionInformacionSimulacion("simulacion.informacion"));
+        if (contexto.getNumPasos() > 0) {
+            secciones.add(new SeccionHistorial("simulacion.historial"));
+            secciones.add(new SeccionDerivacion("simulacion.derivacion"));
+        }
+    }
+}
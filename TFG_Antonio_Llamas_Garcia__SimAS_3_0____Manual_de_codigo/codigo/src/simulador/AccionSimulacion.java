@@ -0,0 +1,103 @@
+package simulador;
+
+import java.util.ResourceBundle;
+import utils.Textos;
+
+/**
+ * Tipo de acción realizada en un paso de la simulación.
+ *
+ * La traza solo guarda este código y un argumento entero; el texto se genera en
+ * el idioma actual al mostrarlo, de modo que cambiar de idioma no obliga a
+ * recorrer el historial y la lógica de aceptación no depende de las traducciones.
+ * Los datos que se pueden deducir de la traza (tokens descartados, símbolo
+ * extraído o número de errores) no se guardan aparte.
+ */
+public enum AccionSimulacion {
+    /** Cima de la pila igual al símbolo de entrada. El argumento no se usa. */
+    EMPAREJAR("simulacionfinal.accion.emparejar", "Emparejar"),
+    /** Producción aplicada. El argumento es el identificador de su texto en la traza. */
+    PRODUCCION("simulacionfinal.accion.produccion", "Producción"),
+    /**
+     * Función de error aplicada: ha modificado la entrada o la pila y el análisis
+     * continúa. El argumento es el identificador de su texto.
+     */
+    FUNCION_ERROR("simulacionfinal.accion.funcion", "Función de error"),
+    ACEPTAR("simulacionfinal.accion.aceptar", "Aceptar"),
+    ERROR("simulacionfinal.accion.error", "Error"),
+    /** Fin del análisis tras recuperarse de uno o más errores. */
+    FIN_CON_ERRORES("simulacionfinal.accion.fin.errores", "Fin del análisis con errores"),
+    /** Modo pánico: tokens de entrada descartados. */
+    DESCARTAR("simulacionfinal.accion.recuperacion.descartar", "Error: descartar"),
+    /** Modo pánico: símbolo extraído de la pila. */
+    EXTRAER("simulacionfinal.accion.recuperacion.extraer", "Error: extraer"),
+    /** Modo pánico: tokens descartados y, después, símbolo extraído de la pila. */
+    DESCARTAR_Y_EXTRAER(null, null),
+    /**
+     * Función de error que termina el análisis, o que no se puede aplicar. El
+     * argumento es el identificador de su texto.
+     */
+    FIN_FUNCION_ERROR("simulacionfinal.accion.fin.funcion", "Fin por función de error");
+
+    private static final AccionSimulacion[] VALORES = values();
+
+    private final String clave;
+    private final String porDefecto;
+
+    AccionSimulacion(String clave, String porDefecto) {
+        this.clave = clave;
+        this.porDefecto = porDefecto;
+    }
+
+    /**
+     * Acción a partir de su código compacto.
+     */
+    public static AccionSimulacion deCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+
+    /**
+     * Indica si la acción termina la simulación.
+     */
+    public boolean esFinal() {
+        return this == ACEPTAR || this == ERROR || this == FIN_CON_ERRORES || this == FIN_FUNCION_ERROR;
+    }
+
+    /**
+     * Indica si la acción es una función de error de la tabla predictiva.
+     */
+    public boolean esFuncionError() {
+        return this == FUNCION_ERROR || this == FIN_FUNCION_ERROR;
+    }
+
+    /**
+     * Texto de la acción de un paso en el idioma del bundle indicado.
+     * @param bundle Bundle del idioma actual, o null para usar los textos por defecto
+     */
+    public String describir(TrazaSimulacion traza, int paso, ResourceBundle bundle) {
+        switch (this) {
+            case PRODUCCION:
+            case FUNCION_ERROR:
+            case FIN_FUNCION_ERROR:
+                return traza.getTexto(traza.getArgumento(paso));
+            case FIN_CON_ERRORES:
+                return Textos.texto(bundle, clave, porDefecto) + ": " + traza.getErrores(paso);
+            case DESCARTAR:
+                return Textos.texto(bundle, clave, porDefecto) + " " + traza.unirDescartados(paso);
+            case EXTRAER:
+                return Textos.texto(bundle, clave, porDefecto) + " " + traza.getPila(paso - 1).getSimbolo();
+            case DESCARTAR_Y_EXTRAER:
+                return DESCARTAR.describir(traza, paso, bundle) + "; " + EXTRAER.describir(traza, paso, bundle);
+            default:
+                return Textos.texto(bundle, clave, porDefecto);
+        }
+    }
+
+    /**
+     * Nombre de la acción en el idioma del bundle, sin los datos de un paso
+     * concreto (la producción o la función de error aplicada).
+     */
+    public String getNombre(ResourceBundle bundle) {
+        if (this == DESCARTAR_Y_EXTRAER) return DESCARTAR.getNombre(bundle) + "; " + EXTRAER.getNombre(bundle);
+        return Textos.texto(bundle, clave, porDefecto);
+    }
+}
@@ -0,0 +1,116 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gramatica.Gramatica;
+import gramatica.Terminal;
+
+/**
+ * Divide texto real en tokens según los patrones léxicos de los terminales.
+ *
+ * Todos los patrones se compilan en un único {@link AutomataLexico}, de modo que
+ * la entrada se recorre una sola vez. En cada posición se toma el lexema más
+ * largo; si varios terminales reconocen el mismo lexema gana el que no tiene
+ * patrón (las palabras reservadas como "if" se imponen a "id") y, entre iguales,
+ * el declarado antes. Los espacios en blanco separan tokens y se descartan.
+ *
+ * Los terminales sin patrón se reconocen literalmente por su nombre.
+ */
+public class AnalizadorLexico implements Tokenizador {
+
+    private final AutomataLexico automata;
+    // Terminal que devuelve cada expresión del autómata
+    private final String[] terminales;
+
+    /**
+     * @param patrones Terminales en orden de declaración con su patrón, o null
+     *                 si se reconocen por su nombre
+     * @throws IllegalArgumentException Si algún patrón no es una expresión válida
+     */
+    public AnalizadorLexico(Map<String, String> patrones) {
+        List<String> nombres = new ArrayList<>();
+        List<String> expresiones = new ArrayList<>();
+        for (Map.Entry<String, String> p : patrones.entrySet()) {
+            if (p.getValue() == null) {
+                nombres.add(p.getKey());
+                expresiones.add(literal(p.getKey()));
+            }
+        }
+        for (Map.Entry<String, String> p : patrones.entrySet()) {
+            if (p.getValue() != null) {
+                nombres.add(p.getKey());
+                expresiones.add(p.getValue());
+            }
+        }
+        this.terminales = nombres.toArray(new String[0]);
+        this.automata = AutomataLexico.compilar(expresiones);
+    }
+
+    /**
+     * Analizador con los terminales de la gramática y sus patrones.
+     */
+    public static AnalizadorLexico desdeGramatica(Gramatica gramatica) {
+        Map<String, String> patrones = new LinkedHashMap<>();
+        for (Terminal t : gramatica.getTerminales()) {
+            patrones.put(t.getNombre(), gramatica.getPatronTerminal(t.getNombre()));
+        }
+        return new AnalizadorLexico(patrones);
+    }
+
+    @Override
+    public String[] tokenizar(String entrada) {
+        List<String> tokens = new ArrayList<>();
+        dividir(entrada, true, (token, fin) -> tokens.add(token));
+        return tokens.toArray(new String[0]);
+    }
+
+    @Override
+    public int dividir(CharSequence tramo, boolean completo, Receptor receptor) {
+        int longitud = tramo.length();
+        int posicion = 0;
+        while (posicion < longitud) {
+            if (Character.isWhitespace(tramo.charAt(posicion))) {
+                posicion++;
+                continue;
+            }
+
+            // Avanzar por el autómata recordando la última posición de aceptación
+            int estado = automata.getEstadoInicial();
+            int finAceptado = -1;
+            int aceptado = AutomataLexico.NO_ACEPTA;
+            int i = posicion;
+            for (; i < longitud; i++) {
+                estado = automata.transitar(estado, tramo.charAt(i));
+                if (estado == AutomataLexico.SIN_TRANSICION) break;
+                int expresion = automata.getAceptacion(estado);
+                if (expresion != AutomataLexico.NO_ACEPTA) {
+                    aceptado = expresion;
+                    finAceptado = i + 1;
+                }
+            }
+
+            // Un lexema más largo podría seguir tras el tramo
+            if (i == longitud && !completo) return posicion;
+            if (aceptado == AutomataLexico.NO_ACEPTA) {
+                throw new Tokenizador.ErrorLexico(tramo.charAt(posicion), posicion);
+            }
+            receptor.token(terminales[aceptado], finAceptado);
+            posicion = finAceptado;
+        }
+        return posicion;
+    }
+
+    // Expresión que reconoce el texto tal cual
+    private static String literal(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length() * 2);
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if ("\\|()[]*+?.".indexOf(c) >= 0) sb.append('\\');
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
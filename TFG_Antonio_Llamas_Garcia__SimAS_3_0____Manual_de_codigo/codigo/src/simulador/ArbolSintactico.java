@@ -0,0 +1,265 @@
+package simulador;
+
+import java.util.Arrays;
+
+/**
+ * Árbol sintáctico construido de forma incremental durante la simulación.
+ *
+ * Los nodos se guardan en arrays paralelos de enteros (padre, primer hijo,
+ * último hijo y siguiente hermano) y se identifican por su índice; el nodo 0 es
+ * la raíz. Junto al árbol se mantiene una pila de nodos paralela a la pila de
+ * análisis (sin el marcador "$"), de modo que cada expansión crea los hijos del
+ * nodo de la cima en O(k) sin volver a recorrer el historial.
+ *
+ * Cada paso de la simulación registra una entrada en un diario que permite
+ * deshacerlo en O(k), lo que da soporte al retroceso paso a paso.
+ */
+public class ArbolSintactico {
+
+    /** Índice que indica la ausencia de nodo. */
+    public static final int NINGUNO = -1;
+
+    private static final String EPSILON = "ε";
+    private static final int CAPACIDAD_INICIAL = 32;
+
+    // Nodos
+    private String[] etiquetas = new String[CAPACIDAD_INICIAL];
+    private int[] padre = new int[CAPACIDAD_INICIAL];
+    private int[] primerHijo = new int[CAPACIDAD_INICIAL];
+    private int[] ultimoHijo = new int[CAPACIDAD_INICIAL];
+    private int[] siguienteHermano = new int[CAPACIDAD_INICIAL];
+    private long[] sello = new long[CAPACIDAD_INICIAL];
+    private int numNodos = 0;
+
+    // Pila de nodos pendientes de procesar
+    private int[] pilaNodos = new int[CAPACIDAD_INICIAL];
+    private int cimaNodos = 0;
+
+    // Diario de pasos para poder retroceder
+    private int[] diarioNumNodos = new int[CAPACIDAD_INICIAL];
+    private int[] diarioCima = new int[CAPACIDAD_INICIAL];
+    private int[] diarioExtraido = new int[CAPACIDAD_INICIAL];
+    private int numPasos = 0;
+
+    // Se incrementa con cada modificación para invalidar cachés de dibujo
+    private long version = 0;
+
+    /**
+     * Crea un árbol con la raíz indicada como único nodo pendiente.
+     * @param simboloInicial Símbolo inicial de la gramática
+     */
+    public ArbolSintactico(String simboloInicial) {
+        int raiz = nuevoNodo(simboloInicial, NINGUNO);
+        apilar(raiz);
+    }
+
+    /**
+     * Copia independiente del árbol en su estado actual, por ejemplo para
+     * generar un informe en segundo plano mientras la simulación sigue avanzando.
+     */
+    public ArbolSintactico copiar() {
+        ArbolSintactico copia = new ArbolSintactico(etiquetas[0]);
+        copia.etiquetas = Arrays.copyOf(etiquetas, etiquetas.length);
+        copia.padre = Arrays.copyOf(padre, padre.length);
+        copia.primerHijo = Arrays.copyOf(primerHijo, primerHijo.length);
+        copia.ultimoHijo = Arrays.copyOf(ultimoHijo, ultimoHijo.length);
+        copia.siguienteHermano = Arrays.copyOf(siguienteHermano, siguienteHermano.length);
+        copia.sello = Arrays.copyOf(sello, sello.length);
+        copia.numNodos = numNodos;
+        copia.pilaNodos = Arrays.copyOf(pilaNodos, pilaNodos.length);
+        copia.cimaNodos = cimaNodos;
+        copia.diarioNumNodos = Arrays.copyOf(diarioNumNodos, diarioNumNodos.length);
+        copia.diarioCima = Arrays.copyOf(diarioCima, diarioCima.length);
+        copia.diarioExtraido = Arrays.copyOf(diarioExtraido, diarioExtraido.length);
+        copia.numPasos = numPasos;
+        copia.version = version;
+        return copia;
+    }
+
+    /**
+     * Expande el nodo de la cima con la parte derecha de una producción y apila
+     * sus hijos en orden inverso, igual que la pila de análisis. Una parte derecha
+     * vacía o "ε" genera una hoja ε que no se apila.
+     * @return El nodo expandido
+     */
+    public int expandir(String[] simbolos) {
+        registrarPaso();
+        int nodo = extraer();
+        diarioExtraido[numPasos - 1] = nodo;
+        anadirHijos(nodo, simbolos);
+        if (!EPSILON.equals(etiquetas[primerHijo[nodo]])) {
+            for (int hijo = ultimoHijo[nodo]; hijo != NINGUNO; hijo = hermanoAnterior(hijo, nodo)) {
+                apilar(hijo);
+            }
+        }
+        return nodo;
+    }
+
+    /**
+     * Extrae el nodo de la cima sin expandirlo (emparejamiento de un terminal o
+     * descarte durante la recuperación de errores).
+     * @return El nodo extraído
+     */
+    public int consumir() {
+        registrarPaso();
+        int nodo = cimaNodos > 0 ? extraer() : NINGUNO;
+        diarioExtraido[numPasos - 1] = nodo;
+        return nodo;
+    }
+
+    /**
+     * Registra un paso que no modifica la pila (aceptación, errores o tokens descartados).
+     */
+    public void pasoSinCambios() {
+        registrarPaso();
+    }
+
+    /**
+     * Deshace los pasos posteriores al indicado.
+     * @param pasos Número de pasos que deben conservarse
+     */
+    public void truncar(int pasos) {
+        while (numPasos > Math.max(pasos, 0)) {
+            numPasos--;
+            int nodosAntes = diarioNumNodos[numPasos];
+            int extraido = diarioExtraido[numPasos];
+            // Los nodos creados en el paso son todos hijos del nodo expandido
+            if (numNodos > nodosAntes && extraido != NINGUNO) {
+                primerHijo[extraido] = NINGUNO;
+                ultimoHijo[extraido] = NINGUNO;
+            }
+            numNodos = nodosAntes;
+            cimaNodos = diarioCima[numPasos];
+            if (extraido != NINGUNO) {
+                pilaNodos[cimaNodos - 1] = extraido;
+            }
+        }
+        version++;
+    }
+
+    public int getNumPasos() { return numPasos; }
+    public int getNumNodos() { return numNodos; }
+    public int getRaiz() { return 0; }
+    public long getVersion() { return version; }
+    public String getEtiqueta(int nodo) { return etiquetas[nodo]; }
+    public int getPadre(int nodo) { return padre[nodo]; }
+    public int getPrimerHijo(int nodo) { return primerHijo[nodo]; }
+    public int getSiguienteHermano(int nodo) { return siguienteHermano[nodo]; }
+    public boolean esHoja(int nodo) { return primerHijo[nodo] == NINGUNO; }
+
+    /**
+     * Versión del árbol en la que se creó el nodo. Permite detectar que un índice
+     * se ha reutilizado para otro nodo tras retroceder.
+     */
+    public long getSello(int nodo) { return sello[nodo]; }
+
+    /**
+     * Nodo de la cima de la pila de nodos pendientes, o {@link #NINGUNO} si está vacía.
+     */
+    public int getCima() {
+        return cimaNodos > 0 ? pilaNodos[cimaNodos - 1] : NINGUNO;
+    }
+
+    /**
+     * Número de hijos de un nodo.
+     */
+    public int getNumHijos(int nodo) {
+        int n = 0;
+        for (int h = primerHijo[nodo]; h != NINGUNO; h = siguienteHermano[h]) n++;
+        return n;
+    }
+
+    /**
+     * Genera el código DOT del árbol. Los hijos siempre tienen un índice mayor que
+     * su padre y los hermanos son consecutivos, así que un único recorrido por
+     * índice conserva el orden de los hijos sin recursión.
+     */
+    public String generarDot() {
+        StringBuilder sb = new StringBuilder(numNodos * 32 + 96);
+        sb.append("digraph G {\n");
+        sb.append("  node [shape=box, style=rounded, fontname=\"Arial\"];\n");
+        sb.append("  edge [arrowhead=none];\n");
+        for (int i = 0; i < numNodos; i++) {
+            sb.append("n").append(i).append(" [label=\"")
+              .append(etiquetas[i].replace("\"", "\\\"")).append("\"];\n");
+            if (padre[i] != NINGUNO) {
+                sb.append("n").append(padre[i]).append(" -> n").append(i).append(";\n");
+            }
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // ==================== Implementación ====================
+
+    private void registrarPaso() {
+        if (numPasos == diarioNumNodos.length) {
+            int capacidad = numPasos * 2;
+            diarioNumNodos = Arrays.copyOf(diarioNumNodos, capacidad);
+            diarioCima = Arrays.copyOf(diarioCima, capacidad);
+            diarioExtraido = Arrays.copyOf(diarioExtraido, capacidad);
+        }
+        diarioNumNodos[numPasos] = numNodos;
+        diarioCima[numPasos] = cimaNodos;
+        diarioExtraido[numPasos] = NINGUNO;
+        numPasos++;
+        version++;
+    }
+
+    private void anadirHijos(int nodo, String[] simbolos) {
+        boolean vacia = true;
+        for (String simbolo : simbolos) {
+            if (!simbolo.isEmpty()) {
+                nuevoNodo(simbolo, nodo);
+                vacia = false;
+            }
+        }
+        if (vacia) {
+            nuevoNodo(EPSILON, nodo);
+        }
+    }
+
+    private int nuevoNodo(String etiqueta, int nodoPadre) {
+        if (numNodos == etiquetas.length) {
+            int capacidad = numNodos * 2;
+            etiquetas = Arrays.copyOf(etiquetas, capacidad);
+            padre = Arrays.copyOf(padre, capacidad);
+            primerHijo = Arrays.copyOf(primerHijo, capacidad);
+            ultimoHijo = Arrays.copyOf(ultimoHijo, capacidad);
+            siguienteHermano = Arrays.copyOf(siguienteHermano, capacidad);
+            sello = Arrays.copyOf(sello, capacidad);
+        }
+        int nodo = numNodos++;
+        etiquetas[nodo] = etiqueta;
+        padre[nodo] = nodoPadre;
+        primerHijo[nodo] = NINGUNO;
+        ultimoHijo[nodo] = NINGUNO;
+        siguienteHermano[nodo] = NINGUNO;
+        sello[nodo] = version;
+        if (nodoPadre != NINGUNO) {
+            if (ultimoHijo[nodoPadre] == NINGUNO) {
+                primerHijo[nodoPadre] = nodo;
+            } else {
+                siguienteHermano[ultimoHijo[nodoPadre]] = nodo;
+            }
+            ultimoHijo[nodoPadre] = nodo;
+        }
+        return nodo;
+    }
+
+    // Los hermanos se crean consecutivos, así que el anterior es el índice previo
+    private int hermanoAnterior(int hijo, int nodoPadre) {
+        return hijo == primerHijo[nodoPadre] ? NINGUNO : hijo - 1;
+    }
+
+    private void apilar(int nodo) {
+        if (cimaNodos == pilaNodos.length) {
+            pilaNodos = Arrays.copyOf(pilaNodos, cimaNodos * 2);
+        }
+        pilaNodos[cimaNodos++] = nodo;
+    }
+
+    private int extraer() {
+        return pilaNodos[--cimaNodos];
+    }
+}
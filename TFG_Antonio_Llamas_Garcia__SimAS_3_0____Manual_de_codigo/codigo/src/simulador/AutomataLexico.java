@@ -0,0 +1,491 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Autómata finito determinista mínimo que reconoce un conjunto de expresiones
+ * regulares a la vez.
+ *
+ * Las expresiones se traducen a un AFN (construcción de Thompson), que se
+ * convierte en AFD por subconjuntos y se minimiza por refinamiento de
+ * particiones. El resultado es una tabla de transiciones de enteros indexada por
+ * estado y clase de caracteres: dos caracteres pertenecen a la misma clase si
+ * ninguna expresión los distingue, así que la tabla no crece con el tamaño del
+ * alfabeto.
+ *
+ * Sintaxis admitida: literales, ".", clases "[a-z0-9_]" y "[^...]", los atajos
+ * "\d", "\w" y "\s", escapes con "\", grupos "( )", alternativa "|" y los
+ * cuantificadores "*", "+" y "?".
+ */
+final class AutomataLexico {
+
+    /** Estado destino cuando no hay transición. */
+    static final int SIN_TRANSICION = -1;
+    /** Valor de aceptación de un estado que no acepta ninguna expresión. */
+    static final int NO_ACEPTA = -1;
+
+    private static final int MAX_CARACTER = Character.MAX_VALUE;
+
+    // Primer carácter de cada clase, ordenado; la clase k va de limites[k] a limites[k + 1] - 1
+    private final int[] limites;
+    // Clase de los caracteres ASCII, para no buscar en los límites en el caso habitual
+    private final int[] clasesAscii = new int[128];
+    private final int numClases;
+    private final int[] transiciones;
+    private final int[] aceptacion;
+
+    private AutomataLexico(int[] limites, int[] transiciones, int[] aceptacion) {
+        this.limites = limites;
+        this.numClases = limites.length;
+        this.transiciones = transiciones;
+        this.aceptacion = aceptacion;
+        for (char c = 0; c < clasesAscii.length; c++) {
+            clasesAscii[c] = buscarClase(c);
+        }
+    }
+
+    /**
+     * Compila las expresiones en un único autómata.
+     * @param expresiones Expresiones regulares, de mayor a menor prioridad
+     * @throws IllegalArgumentException Si alguna expresión no es válida
+     */
+    static AutomataLexico compilar(List<String> expresiones) {
+        Afn afn = new Afn();
+        int inicio = afn.nuevoEstado();
+        for (int i = 0; i < expresiones.size(); i++) {
+            int[] fragmento = new Analizador(expresiones.get(i), afn).analizar();
+            afn.epsilon(inicio, fragmento[0]);
+            afn.aceptacion.set(fragmento[1], i);
+        }
+        return determinizar(afn, inicio);
+    }
+
+    /** Estado inicial del autómata. */
+    int getEstadoInicial() {
+        return 0;
+    }
+
+    /**
+     * Estado al que se llega desde el indicado con el carácter c, o {@link #SIN_TRANSICION}.
+     */
+    int transitar(int estado, char c) {
+        int clase = c < clasesAscii.length ? clasesAscii[c] : buscarClase(c);
+        return transiciones[estado * numClases + clase];
+    }
+
+    /**
+     * Índice de la expresión que acepta el estado, o {@link #NO_ACEPTA}. Si
+     * varias lo aceptan, gana la de mayor prioridad.
+     */
+    int getAceptacion(int estado) {
+        return aceptacion[estado];
+    }
+
+    int getNumEstados() {
+        return aceptacion.length;
+    }
+
+    int getNumClases() {
+        return numClases;
+    }
+
+    private int buscarClase(char c) {
+        int posicion = Arrays.binarySearch(limites, c);
+        return posicion >= 0 ? posicion : -posicion - 2;
+    }
+
+    // ==================== Construcción del AFD ====================
+
+    private static AutomataLexico determinizar(Afn afn, int inicioAfn) {
+        // Clases de caracteres: cada extremo de un rango abre una clase nueva
+        TreeSet<Integer> cortes = new TreeSet<>();
+        cortes.add(0);
+        for (int[] rango : afn.rangos) {
+            if (rango == null) continue;
+            for (int i = 0; i < rango.length; i += 2) {
+                cortes.add(rango[i]);
+                if (rango[i + 1] < MAX_CARACTER) cortes.add(rango[i + 1] + 1);
+            }
+        }
+        int[] limites = cortes.stream().mapToInt(Integer::intValue).toArray();
+        int numClases = limites.length;
+
+        // Clases que cubre cada transición del AFN
+        BitSet[] clasesTransicion = new BitSet[afn.numEstados()];
+        for (int e = 0; e < afn.numEstados(); e++) {
+            int[] rango = afn.rangos.get(e);
+            if (rango == null) continue;
+            clasesTransicion[e] = new BitSet(numClases);
+            for (int i = 0; i < rango.length; i += 2) {
+                int desde = Arrays.binarySearch(limites, rango[i]);
+                int hasta = rango[i + 1] < MAX_CARACTER ? Arrays.binarySearch(limites, rango[i + 1] + 1) : numClases;
+                clasesTransicion[e].set(desde, hasta);
+            }
+        }
+
+        // Construcción por subconjuntos; la clausura de cada estado del AFN se calcula una vez
+        BitSet[] clausuras = new BitSet[afn.numEstados()];
+        List<BitSet> subconjuntos = new ArrayList<>();
+        Map<BitSet, Integer> ids = new HashMap<>();
+        List<int[]> filas = new ArrayList<>();
+        BitSet inicial = afn.clausura(inicioAfn);
+        subconjuntos.add(inicial);
+        ids.put(inicial, 0);
+        for (int d = 0; d < subconjuntos.size(); d++) {
+            BitSet actual = subconjuntos.get(d);
+            int[] fila = new int[numClases];
+            for (int clase = 0; clase < numClases; clase++) {
+                BitSet siguiente = new BitSet();
+                for (int e = actual.nextSetBit(0); e >= 0; e = actual.nextSetBit(e + 1)) {
+                    if (clasesTransicion[e] != null && clasesTransicion[e].get(clase)) {
+                        int destino = afn.destinos[e];
+                        if (clausuras[destino] == null) clausuras[destino] = afn.clausura(destino);
+                        siguiente.or(clausuras[destino]);
+                    }
+                }
+                if (siguiente.isEmpty()) {
+                    fila[clase] = SIN_TRANSICION;
+                } else {
+                    Integer id = ids.get(siguiente);
+                    if (id == null) {
+                        id = subconjuntos.size();
+                        subconjuntos.add(siguiente);
+                        ids.put(siguiente, id);
+                    }
+                    fila[clase] = id;
+                }
+            }
+            filas.add(fila);
+        }
+
+        int[] aceptacion = new int[subconjuntos.size()];
+        for (int d = 0; d < subconjuntos.size(); d++) {
+            aceptacion[d] = NO_ACEPTA;
+            BitSet estados = subconjuntos.get(d);
+            for (int e = estados.nextSetBit(0); e >= 0; e = estados.nextSetBit(e + 1)) {
+                int expresion = afn.aceptacion.get(e);
+                if (expresion != NO_ACEPTA && (aceptacion[d] == NO_ACEPTA || expresion < aceptacion[d])) {
+                    aceptacion[d] = expresion;
+                }
+            }
+        }
+        return minimizar(limites, filas, aceptacion);
+    }
+
+    /**
+     * Agrupa los estados equivalentes: se parte de los bloques definidos por la
+     * expresión aceptada y se dividen hasta que todos los estados de un bloque
+     * van a los mismos bloques con cada clase de caracteres.
+     */
+    private static AutomataLexico minimizar(int[] limites, List<int[]> filas, int[] aceptacion) {
+        int numEstados = filas.size();
+        int numClases = limites.length;
+        int[] bloque = new int[numEstados];
+        int numBloques = numerarBloques(bloque, e -> Arrays.asList(aceptacion[e]));
+
+        while (true) {
+            int[] anterior = bloque.clone();
+            int nuevos = numerarBloques(bloque, e -> {
+                List<Integer> firma = new ArrayList<>(numClases + 1);
+                firma.add(anterior[e]);
+                for (int destino : filas.get(e)) {
+                    firma.add(destino == SIN_TRANSICION ? SIN_TRANSICION : anterior[destino]);
+                }
+                return firma;
+            });
+            if (nuevos == numBloques) break;
+            numBloques = nuevos;
+        }
+
+        // El bloque del estado inicial es el 0 porque se numeran por orden de aparición
+        int[] transiciones = new int[numBloques * numClases];
+        int[] aceptacionMinima = new int[numBloques];
+        for (int e = 0; e < numEstados; e++) {
+            int b = bloque[e];
+            aceptacionMinima[b] = aceptacion[e];
+            for (int clase = 0; clase < numClases; clase++) {
+                int destino = filas.get(e)[clase];
+                transiciones[b * numClases + clase] = destino == SIN_TRANSICION ? SIN_TRANSICION : bloque[destino];
+            }
+        }
+        return new AutomataLexico(limites, transiciones, aceptacionMinima);
+    }
+
+    private static int numerarBloques(int[] bloque, java.util.function.IntFunction<List<Integer>> firma) {
+        Map<List<Integer>, Integer> numeros = new HashMap<>();
+        for (int e = 0; e < bloque.length; e++) {
+            List<Integer> clave = firma.apply(e);
+            Integer numero = numeros.get(clave);
+            if (numero == null) {
+                numero = numeros.size();
+                numeros.put(clave, numero);
+            }
+            bloque[e] = numero;
+        }
+        return numeros.size();
+    }
+
+    // ==================== AFN de Thompson ====================
+
+    /**
+     * AFN en el que cada estado tiene transiciones vacías y, como mucho, una
+     * transición con un conjunto de rangos de caracteres.
+     */
+    private static final class Afn {
+        final List<List<Integer>> vacias = new ArrayList<>();
+        final List<int[]> rangos = new ArrayList<>();
+        int[] destinos = new int[16];
+        final ListaEnteros aceptacion = new ListaEnteros();
+
+        int numEstados() {
+            return vacias.size();
+        }
+
+        int nuevoEstado() {
+            vacias.add(new ArrayList<>(2));
+            rangos.add(null);
+            aceptacion.add(NO_ACEPTA);
+            return vacias.size() - 1;
+        }
+
+        void epsilon(int desde, int hasta) {
+            vacias.get(desde).add(hasta);
+        }
+
+        void transicion(int desde, int[] rango, int hasta) {
+            rangos.set(desde, rango);
+            if (desde >= destinos.length) destinos = Arrays.copyOf(destinos, Math.max(desde + 1, destinos.length * 2));
+            destinos[desde] = hasta;
+        }
+
+        BitSet clausura(int estado) {
+            BitSet resultado = new BitSet();
+            int[] pendientes = new int[numEstados()];
+            int cima = 0;
+            pendientes[cima++] = estado;
+            resultado.set(estado);
+            while (cima > 0) {
+                int e = pendientes[--cima];
+                for (int siguiente : vacias.get(e)) {
+                    if (!resultado.get(siguiente)) {
+                        resultado.set(siguiente);
+                        pendientes[cima++] = siguiente;
+                    }
+                }
+            }
+            return resultado;
+        }
+    }
+
+    private static final class ListaEnteros {
+        private int[] valores = new int[16];
+        private int tamano;
+
+        void add(int valor) {
+            if (tamano == valores.length) valores = Arrays.copyOf(valores, tamano * 2);
+            valores[tamano++] = valor;
+        }
+
+        int get(int i) {
+            return valores[i];
+        }
+
+        void set(int i, int valor) {
+            valores[i] = valor;
+        }
+    }
+
+    /**
+     * Analizador descendente de una expresión regular. Cada regla devuelve un
+     * fragmento del AFN como par {inicio, fin}.
+     */
+    private static final class Analizador {
+        private final String expresion;
+        private final Afn afn;
+        private int posicion;
+
+        Analizador(String expresion, Afn afn) {
+            this.expresion = expresion;
+            this.afn = afn;
+        }
+
+        int[] analizar() {
+            int[] fragmento = alternativa();
+            if (posicion < expresion.length()) {
+                throw error("carácter inesperado '" + expresion.charAt(posicion) + "'");
+            }
+            return fragmento;
+        }
+
+        private int[] alternativa() {
+            int[] fragmento = secuencia();
+            while (hay('|')) {
+                posicion++;
+                int[] otro = secuencia();
+                int inicio = afn.nuevoEstado();
+                int fin = afn.nuevoEstado();
+                afn.epsilon(inicio, fragmento[0]);
+                afn.epsilon(inicio, otro[0]);
+                afn.epsilon(fragmento[1], fin);
+                afn.epsilon(otro[1], fin);
+                fragmento = new int[]{inicio, fin};
+            }
+            return fragmento;
+        }
+
+        private int[] secuencia() {
+            int inicio = afn.nuevoEstado();
+            int fin = inicio;
+            while (posicion < expresion.length() && !hay('|') && !hay(')')) {
+                int[] siguiente = repeticion();
+                afn.epsilon(fin, siguiente[0]);
+                fin = siguiente[1];
+            }
+            return new int[]{inicio, fin};
+        }
+
+        private int[] repeticion() {
+            int[] fragmento = atomo();
+            while (hay('*') || hay('+') || hay('?')) {
+                char operador = expresion.charAt(posicion++);
+                int inicio = afn.nuevoEstado();
+                int fin = afn.nuevoEstado();
+                afn.epsilon(inicio, fragmento[0]);
+                afn.epsilon(fragmento[1], fin);
+                if (operador != '+') afn.epsilon(inicio, fin);
+                if (operador != '?') afn.epsilon(fragmento[1], fragmento[0]);
+                fragmento = new int[]{inicio, fin};
+            }
+            return fragmento;
+        }
+
+        private int[] atomo() {
+            char c = expresion.charAt(posicion++);
+            int[] rango;
+            switch (c) {
+                case '(':
+                    int[] grupo = alternativa();
+                    if (!hay(')')) throw error("falta ')'");
+                    posicion++;
+                    return grupo;
+                case '[':
+                    rango = clase();
+                    break;
+                case '.':
+                    rango = complementar(new int[]{'\n', '\n'});
+                    break;
+                case '\\':
+                    rango = escape();
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case ')':
+                    throw error("'" + c + "' sin operando");
+                default:
+                    rango = new int[]{c, c};
+                    break;
+            }
+            int inicio = afn.nuevoEstado();
+            int fin = afn.nuevoEstado();
+            afn.transicion(inicio, rango, fin);
+            return new int[]{inicio, fin};
+        }
+
+        private int[] clase() {
+            boolean negada = hay('^');
+            if (negada) posicion++;
+            List<int[]> partes = new ArrayList<>();
+            boolean primero = true;
+            while (posicion < expresion.length() && (primero || !hay(']'))) {
+                primero = false;
+                int[] parte;
+                char c = expresion.charAt(posicion++);
+                if (c == '\\') {
+                    parte = escape();
+                } else if (hay('-') && posicion + 1 < expresion.length() && expresion.charAt(posicion + 1) != ']') {
+                    posicion++;
+                    char hasta = expresion.charAt(posicion++);
+                    if (hasta == '\\') hasta = (char) escape()[0];
+                    if (hasta < c) throw error("rango " + c + "-" + hasta + " vacío");
+                    parte = new int[]{c, hasta};
+                } else {
+                    parte = new int[]{c, c};
+                }
+                partes.add(parte);
+            }
+            if (!hay(']')) throw error("falta ']'");
+            posicion++;
+            int[] union = unir(partes);
+            return negada ? complementar(union) : union;
+        }
+
+        private int[] escape() {
+            if (posicion >= expresion.length()) throw error("'\\' al final de la expresión");
+            char c = expresion.charAt(posicion++);
+            switch (c) {
+                case 'd': return new int[]{'0', '9'};
+                case 'w': return unir(Arrays.asList(new int[]{'0', '9'}, new int[]{'A', 'Z'},
+                                                    new int[]{'_', '_'}, new int[]{'a', 'z'}));
+                case 's': return unir(Arrays.asList(new int[]{'\t', '\r'}, new int[]{' ', ' '}));
+                case 'n': return new int[]{'\n', '\n'};
+                case 't': return new int[]{'\t', '\t'};
+                case 'r': return new int[]{'\r', '\r'};
+                default: return new int[]{c, c};
+            }
+        }
+
+        private boolean hay(char c) {
+            return posicion < expresion.length() && expresion.charAt(posicion) == c;
+        }
+
+        private IllegalArgumentException error(String motivo) {
+            return new IllegalArgumentException("Expresión regular no válida \"" + expresion + "\": " + motivo);
+        }
+    }
+
+    // Une rangos (pares inicio, fin) en una lista ordenada de rangos disjuntos
+    private static int[] unir(List<int[]> partes) {
+        List<int[]> rangos = new ArrayList<>();
+        for (int[] parte : partes) {
+            for (int i = 0; i < parte.length; i += 2) {
+                rangos.add(new int[]{parte[i], parte[i + 1]});
+            }
+        }
+        rangos.sort((a, b) -> Integer.compare(a[0], b[0]));
+        List<Integer> resultado = new ArrayList<>();
+        for (int[] rango : rangos) {
+            int n = resultado.size();
+            if (n > 0 && rango[0] <= resultado.get(n - 1) + 1) {
+                resultado.set(n - 1, Math.max(resultado.get(n - 1), rango[1]));
+            } else {
+                resultado.add(rango[0]);
+                resultado.add(rango[1]);
+            }
+        }
+        return resultado.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] complementar(int[] rangos) {
+        List<Integer> resultado = new ArrayList<>();
+        int siguiente = 0;
+        for (int i = 0; i < rangos.length; i += 2) {
+            if (rangos[i] > siguiente) {
+                resultado.add(siguiente);
+                resultado.add(rangos[i] - 1);
+            }
+            siguiente = rangos[i + 1] + 1;
+        }
+        if (siguiente <= MAX_CARACTER) {
+            resultado.add(siguiente);
+            resultado.add(MAX_CARACTER);
+        }
+        return resultado.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,164 @@
+package simulador;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché de simulaciones terminadas, compartida por todas las ventanas.
+ *
+ * La clave es la huella de la configuración del motor (tabla, símbolo inicial y
+ * conjuntos de sincronización) junto con la secuencia de tokens; el valor es una
+ * copia de la traza completa, de la que se deduce el veredicto. Un
+ * {@link MotorLL1} que encuentra su entrada en la caché reproduce los pasos de la
+ * traza guardada en lugar de volver a calcularlos.
+ *
+ * El tamaño se limita por número de simulaciones y por número total de pasos
+ * guardados; al superarse se expulsan las menos usadas recientemente.
+ */
+public final class CacheSimulaciones {
+
+    public static final int MAX_SIMULACIONES_POR_DEFECTO = 256;
+    public static final long MAX_PASOS_POR_DEFECTO = 2_000_000;
+
+    private static final CacheSimulaciones INSTANCIA =
+        new CacheSimulaciones(MAX_SIMULACIONES_POR_DEFECTO, MAX_PASOS_POR_DEFECTO);
+
+    private final LinkedHashMap<Clave, TrazaSimulacion> trazas = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxSimulaciones;
+    private long maxPasos;
+    private long pasosGuardados;
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+
+    public CacheSimulaciones(int maxSimulaciones, long maxPasos) {
+        this.maxSimulaciones = maxSimulaciones;
+        this.maxPasos = maxPasos;
+    }
+
+    /** Caché compartida por todos los simuladores de la aplicación. */
+    public static CacheSimulaciones getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Cambia los límites de la caché, expulsando lo necesario para cumplirlos.
+     * @param maxSimulaciones Número máximo de simulaciones guardadas (0 desactiva la caché)
+     * @param maxPasos Número máximo de pasos guardados entre todas las trazas
+     */
+    public synchronized void setLimites(int maxSimulaciones, long maxPasos) {
+        this.maxSimulaciones = Math.max(0, maxSimulaciones);
+        this.maxPasos = Math.max(0, maxPasos);
+        expulsarExceso();
+    }
+
+    /**
+     * Traza guardada para la configuración y los tokens indicados, o null.
+     * La traza devuelta no debe modificarse.
+     */
+    public synchronized TrazaSimulacion buscar(String huella, String[] tokens) {
+        TrazaSimulacion traza = trazas.get(new Clave(huella, tokens));
+        if (traza != null) {
+            aciertos++;
+        } else {
+            fallos++;
+        }
+        return traza;
+    }
+
+    /**
+     * Veredicto guardado (acción del último paso) para la configuración y los
+     * tokens indicados, o null si no están en la caché.
+     */
+    public AccionSimulacion buscarVeredicto(String huella, String[] tokens) {
+        TrazaSimulacion traza = buscar(huella, tokens);
+        return traza != null ? traza.getAccion(traza.getNumPasos()) : null;
+    }
+
+    /**
+     * Guarda una simulación terminada.
+     * @param traza Copia de la traza que ya no se va a modificar
+     */
+    public synchronized void guardar(String huella, String[] tokens, TrazaSimulacion traza) {
+        if (traza.getNumPasos() > maxPasos || maxSimulaciones == 0) return;
+        TrazaSimulacion anterior = trazas.put(new Clave(huella, tokens), traza);
+        if (anterior != null) pasosGuardados -= anterior.getNumPasos();
+        pasosGuardados += traza.getNumPasos();
+        expulsarExceso();
+    }
+
+    public synchronized void limpiar() {
+        trazas.clear();
+        pasosGuardados = 0;
+    }
+
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(trazas.size(), pasosGuardados, aciertos, fallos, expulsiones);
+    }
+
+    private void expulsarExceso() {
+        Iterator<Map.Entry<Clave, TrazaSimulacion>> it = trazas.entrySet().iterator();
+        while (it.hasNext() && (trazas.size() > maxSimulaciones || pasosGuardados > maxPasos)) {
+            pasosGuardados -= it.next().getValue().getNumPasos();
+            it.remove();
+            expulsiones++;
+        }
+    }
+
+    private static final class Clave {
+        private final String huella;
+        private final String[] tokens;
+        private final int hash;
+
+        Clave(String huella, String[] tokens) {
+            this.huella = huella;
+            this.tokens = tokens;
+            this.hash = 31 * huella.hashCode() + Arrays.hashCode(tokens);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return hash == otra.hash && huella.equals(otra.huella) && Arrays.equals(tokens, otra.tokens);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Estado de la caché en un momento dado.
+     */
+    public static final class Estadisticas {
+        private final int simulaciones;
+        private final long pasos;
+        private final long aciertos;
+        private final long fallos;
+        private final long expulsiones;
+
+        private Estadisticas(int simulaciones, long pasos, long aciertos, long fallos, long expulsiones) {
+            this.simulaciones = simulaciones;
+            this.pasos = pasos;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.expulsiones = expulsiones;
+        }
+
+        public int getSimulaciones() { return simulaciones; }
+        public long getPasos() { return pasos; }
+        public long getAciertos() { return aciertos; }
+        public long getFallos() { return fallos; }
+        public long getExpulsiones() { return expulsiones; }
+
+        @Override
+        public String toString() {
+            return "simulaciones=" + simulaciones + ", pasos=" + pasos + ", aciertos=" + aciertos
+                + ", fallos=" + fallos + ", expulsiones=" + expulsiones;
+        }
+    }
+}
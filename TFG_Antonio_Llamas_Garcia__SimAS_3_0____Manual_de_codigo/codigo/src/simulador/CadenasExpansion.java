@@ -0,0 +1,128 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cadenas de expansiones precompiladas de una {@link TablaLL1}.
+ *
+ * Con un no terminal en la cima y un token de entrada fijo, las expansiones que
+ * se aplican hasta que aparece un terminal en la cima (por ejemplo E → T E',
+ * T → F T', F → id) solo dependen de ese par. La cadena de cada par se calcula
+ * la primera vez que se necesita y después se aplica de una vez: los modos que
+ * no muestran cada paso (avance hasta el final, flujo, lotes) se ahorran una
+ * consulta a la tabla por expansión. La simulación paso a paso no la usa.
+ *
+ * Las cadenas son inmutables; si dos hilos calculan la misma a la vez, ambos
+ * obtienen el mismo resultado y cualquiera de ellos sirve.
+ */
+public final class CadenasExpansion {
+
+    private final TablaLL1 tabla;
+    private final Cadena[] cadenas;
+
+    CadenasExpansion(TablaLL1 tabla) {
+        this.tabla = tabla;
+        this.cadenas = new Cadena[tabla.getNumNoTerminales() * tabla.getNumTerminales()];
+    }
+
+    /**
+     * Cadena de expansiones para el no terminal de la cima y el token de entrada,
+     * o null si la casilla no tiene producción.
+     */
+    public Cadena obtener(String noTerminal, String token) {
+        int nt = tabla.getIdNoTerminal(noTerminal);
+        int t = tabla.getIdTerminal(token);
+        if (nt < 0 || t < 0) return null;
+        int indice = nt * tabla.getNumTerminales() + t;
+        Cadena cadena = cadenas[indice];
+        if (cadena == null) {
+            cadena = compilar(noTerminal, t);
+            cadenas[indice] = cadena;
+        }
+        return cadena.entradas.length > 0 ? cadena : null;
+    }
+
+    // Expande la cima mientras sea un no terminal con producción para el token.
+    // El número de no terminales es solo una cota contra ciclos: con producciones
+    // vacías una cadena sin recursividad puede ser más larga (S → X X, X → ε da
+    // tres expansiones con dos no terminales). Si se corta, la cima sigue siendo
+    // un no terminal y el resto de expansiones se aplica en la siguiente cadena
+    private Cadena compilar(String noTerminal, int token) {
+        List<Integer> entradas = new ArrayList<>();
+        List<String> expandidos = new ArrayList<>();
+        // Símbolos que sustituyen al no terminal, con la cima al principio
+        List<String> segmento = new ArrayList<>();
+        segmento.add(noTerminal);
+        int crecimientoMaximo = 0;
+
+        while (!segmento.isEmpty() && entradas.size() < tabla.getNumNoTerminales()) {
+            String cima = segmento.get(0);
+            int nt = tabla.getIdNoTerminal(cima);
+            if (nt < 0) break;
+            int entrada = tabla.buscar(nt, token);
+            if (entrada == TablaLL1.VACIA || tabla.esFuncionError(entrada)) break;
+
+            segmento.remove(0);
+            segmento.addAll(0, Arrays.asList(tabla.getDerecha(entrada)));
+            entradas.add(entrada);
+            expandidos.add(cima);
+            crecimientoMaximo = Math.max(crecimientoMaximo, segmento.size() - 1);
+        }
+
+        String[] apilar = new String[segmento.size()];
+        for (int i = 0; i < apilar.length; i++) {
+            apilar[i] = segmento.get(apilar.length - 1 - i);
+        }
+        return new Cadena(entradas.stream().mapToInt(Integer::intValue).toArray(),
+                          expandidos.toArray(new String[0]), apilar, crecimientoMaximo);
+    }
+
+    /**
+     * Expansiones consecutivas que se aplican de una vez.
+     */
+    public static final class Cadena {
+        private final int[] entradas;
+        private final String[] expandidos;
+        private final String[] apilar;
+        private final int crecimientoMaximo;
+
+        private Cadena(int[] entradas, String[] expandidos, String[] apilar, int crecimientoMaximo) {
+            this.entradas = entradas;
+            this.expandidos = expandidos;
+            this.apilar = apilar;
+            this.crecimientoMaximo = crecimientoMaximo;
+        }
+
+        /** Número de expansiones (pasos) de la cadena. */
+        public int getLongitud() {
+            return entradas.length;
+        }
+
+        /** Entrada de la tabla aplicada en la expansión i. */
+        public int getEntrada(int i) {
+            return entradas[i];
+        }
+
+        /** No terminal expandido en la expansión i. */
+        public String getExpandido(int i) {
+            return expandidos[i];
+        }
+
+        /**
+         * Símbolos que sustituyen al no terminal al final de la cadena, en el orden
+         * en que se apilan (el último queda en la cima).
+         */
+        public String[] getApilar() {
+            return apilar;
+        }
+
+        /**
+         * Mayor diferencia de altura de la pila respecto a la inicial durante la cadena.
+         */
+        public int getCrecimientoMaximo() {
+            return crecimientoMaximo;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package simulador;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import gramatica.Gramatica;
+import gramatica.TablaPredictivaPaso5;
+import gramatica.Terminal;
+
+/**
+ * Comprobación diferencial de los simuladores frente al motor.
+ *
+ * Genera cadenas a partir de la propia gramática (válidas y con errores
+ * introducidos al azar) y las ejecuta como lo hace cada vista:
+ * <ul>
+ *   <li>{@link PanelSimulacion}: tabla calculada desde la gramática,
+ *       {@link TokenizadorTrie}, funciones de error y un paso cada vez;</li>
+ *   <li>{@link SimulacionFinal}: tabla predictiva del asistente, su
+ *       tokenizador, avance hasta el final con cadenas de expansiones y, una
+ *       vez de cada dos, cambiando la entrada de la simulación anterior;</li>
+ *   <li>{@link SimulacionEnFlujo}: la misma configuración que la simulación
+ *       final, leyendo el texto como un archivo.</li>
+ * </ul>
+ * Cada una se compara con un {@link MotorLL1} sin caché que avanza paso a paso
+ * sobre los tokens generados y la tabla predictiva, con la misma configuración:
+ * el panel no tiene modo pánico y la simulación final y el modo flujo se prueban
+ * con y sin modo pánico y funciones de error. Las trazas deben ser idénticas y
+ * el modo flujo debe llegar al mismo veredicto con los mismos pasos, errores y
+ * profundidades de la pila. Como la tabla del panel solo tiene producciones, las
+ * casillas con funciones de error de la tabla predictiva aparecen como
+ * diferencias del panel. Devuelve una descripción de cada diferencia
+ * encontrada; una lista vacía indica que todos se comportan igual.
+ */
+public final class ComparacionDiferencial {
+
+    private static final int MAX_TOKENS = 200;
+    private static final int MAX_INTENTOS = 20;
+
+    private ComparacionDiferencial() {
+    }
+
+    /**
+     * Compara los simuladores con el motor sobre cadenas generadas.
+     * @param cantidad Número de cadenas a generar
+     * @param semilla Semilla del generador, para poder repetir una comparación
+     * @return Diferencias encontradas
+     */
+    public static List<String> comparar(Gramatica gramatica, TablaPredictivaPaso5 tablaPredictiva,
+                                        int cantidad, long semilla) {
+        TablaLL1 tablaFinal = TablaLL1.desdeTablaPredictiva(gramatica, tablaPredictiva);
+        TablaLL1 tablaPanel = TablaLL1.desdeGramatica(gramatica);
+        String inicial = gramatica.getSimbInicial();
+        FuncionesErrorLL1 funciones = tablaPredictiva.getFuncionesError() != null
+            ? new FuncionesErrorLL1(tablaPredictiva.getFuncionesError())
+            : null;
+        ConjuntosSincronizacion sincronizacion = new ConjuntosSincronizacion(gramatica, null);
+
+        // Sin espacios la división más larga puede no coincidir con la generada
+        // ("i f" frente a "if"), así que solo se juntan si todos los terminales tienen un carácter
+        boolean terminalesDeUnCaracter = true;
+        for (Terminal t : gramatica.getTerminales()) {
+            if (t.getNombre().codePointCount(0, t.getNombre().length()) != 1) terminalesDeUnCaracter = false;
+        }
+        Tokenizador tokenizadorPanel = TokenizadorTrie.para(gramatica);
+        String separadorPanel = terminalesDeUnCaracter ? "" : " ";
+        // La simulación final separa por espacios salvo que haya patrones léxicos, y las
+        // cadenas se generan con los nombres de los terminales, no con lexemas de los patrones
+        Tokenizador tokenizadorFinal = Tokenizador.ESPACIOS;
+
+        List<String> diferencias = new ArrayList<>();
+        CacheSimulaciones cache = new CacheSimulaciones(CacheSimulaciones.MAX_SIMULACIONES_POR_DEFECTO,
+                                                        CacheSimulaciones.MAX_PASOS_POR_DEFECTO);
+        MotorLL1[] anteriores = new MotorLL1[4];
+        int numero = 0;
+        for (String[] tokens : generarEntradas(tablaFinal, inicial, cantidad, semilla)) {
+            String texto = String.join(" ", tokens);
+
+            // PanelSimulacion: sin modo pánico y con las funciones de error de la tabla
+            String[] tokensPanel;
+            try {
+                tokensPanel = tokenizadorPanel.tokenizar(String.join(separadorPanel, tokens));
+            } catch (Tokenizador.ErrorLexico e) {
+                tokensPanel = null;
+            }
+            if (!Arrays.equals(tokens, tokensPanel)) {
+                diferencias.add("«" + texto + "»: tokens distintos en el panel de simulación");
+            } else {
+                MotorLL1 panel = new MotorLL1(tablaPanel, inicial);
+                panel.setFuncionesError(funciones);
+                panel.setCache(cache);
+                panel.iniciar(tokensPanel);
+                while (panel.avanzar() != null) {
+                    // Cada pulsación de "siguiente paso"
+                }
+                anotar(diferencias, texto, "panel de simulación",
+                       compararTrazas(referencia(tablaFinal, inicial, null, funciones, tokens), panel.getTraza()));
+            }
+
+            String[] tokensFinal;
+            try {
+                tokensFinal = tokenizadorFinal.tokenizar(texto);
+            } catch (Tokenizador.ErrorLexico e) {
+                tokensFinal = null;
+            }
+            if (!Arrays.equals(tokens, tokensFinal)) {
+                diferencias.add("«" + texto + "»: tokens distintos en la simulación final");
+                continue;
+            }
+            for (int configuracion = 0; configuracion < 4; configuracion++) {
+                ConjuntosSincronizacion conjuntos = (configuracion & 1) != 0 ? sincronizacion : null;
+                FuncionesErrorLL1 conFunciones = (configuracion & 2) != 0 ? funciones : null;
+                if ((configuracion & 2) != 0 && funciones == null) continue;
+                String nombre = "configuración " + (conjuntos != null ? "pánico" : "sin pánico")
+                    + (conFunciones != null ? " y funciones" : "");
+                TrazaSimulacion esperada = referencia(tablaFinal, inicial, conjuntos, conFunciones, tokens);
+
+                // SimulacionFinal: una vez de cada dos se edita la entrada de la simulación anterior
+                MotorLL1 simulacion = anteriores[configuracion];
+                if (simulacion == null || numero % 2 == 0) {
+                    simulacion = new MotorLL1(tablaFinal, inicial);
+                    simulacion.setSincronizacion(conjuntos);
+                    simulacion.setFuncionesError(conFunciones);
+                    simulacion.setCache(cache);
+                    simulacion.iniciar(tokensFinal);
+                } else {
+                    simulacion.cambiarEntrada(tokensFinal);
+                }
+                simulacion.ejecutarHastaElFinal();
+                anteriores[configuracion] = simulacion;
+                anotar(diferencias, texto, "simulación final, " + nombre,
+                       compararTrazas(esperada, simulacion.getTraza()));
+
+                SimulacionEnFlujo flujo = new SimulacionEnFlujo(tablaFinal, inicial);
+                flujo.setSincronizacion(conjuntos);
+                flujo.setFuncionesError(conFunciones);
+                try (FuenteTokens fuente = new FuenteTokens(new StringReader(texto), tokenizadorFinal)) {
+                    anotar(diferencias, texto, "modo flujo, " + nombre, compararResultado(esperada, flujo.ejecutar(fuente)));
+                } catch (IOException e) {
+                    anotar(diferencias, texto, "modo flujo, " + nombre, e.toString());
+                }
+            }
+            numero++;
+        }
+        return diferencias;
+    }
+
+    /**
+     * Compara dos trazas paso a paso.
+     * @return Descripción de la primera diferencia, o null si son idénticas
+     */
+    public static String compararTrazas(TrazaSimulacion a, TrazaSimulacion b) {
+        int pasos = Math.min(a.getNumPasos(), b.getNumPasos());
+        for (int paso = 1; paso <= pasos; paso++) {
+            String accionA = a.describirAccion(paso, null);
+            String accionB = b.describirAccion(paso, null);
+            if (a.getAccion(paso) != b.getAccion(paso) || !accionA.equals(accionB)) {
+                return "paso " + paso + ": acción " + accionA + " ≠ " + accionB;
+            }
+            String pilaA = a.formatearPila(paso, Integer.MAX_VALUE);
+            String pilaB = b.formatearPila(paso, Integer.MAX_VALUE);
+            if (!pilaA.equals(pilaB)) {
+                return "paso " + paso + ": pila " + pilaA + " ≠ " + pilaB;
+            }
+            String entradaA = a.formatearEntrada(paso, Integer.MAX_VALUE);
+            String entradaB = b.formatearEntrada(paso, Integer.MAX_VALUE);
+            if (!entradaA.equals(entradaB) || a.getErrores(paso) != b.getErrores(paso)) {
+                return "paso " + paso + ": entrada " + entradaA + " ≠ " + entradaB + " o errores distintos";
+            }
+        }
+        if (a.getNumPasos() != b.getNumPasos()) {
+            return "número de pasos " + a.getNumPasos() + " ≠ " + b.getNumPasos();
+        }
+        return null;
+    }
+
+    /**
+     * Compara el resultado del modo flujo con la traza del motor para la misma entrada.
+     * @return Descripción de la primera diferencia, o null si coinciden
+     */
+    public static String compararResultado(TrazaSimulacion traza, SimulacionEnFlujo.Resultado resultado) {
+        int ultimo = traza.getNumPasos();
+        int profundidadMaxima = 0;
+        for (int paso = 0; paso <= ultimo; paso++) {
+            profundidadMaxima = Math.max(profundidadMaxima, traza.getPila(paso).getProfundidad());
+        }
+        if (resultado.getAccionFinal() != traza.getAccion(ultimo)) {
+            return "veredicto " + traza.getAccion(ultimo) + " ≠ " + resultado.getAccionFinal();
+        }
+        if (resultado.getPasos() != ultimo) {
+            return "número de pasos " + ultimo + " ≠ " + resultado.getPasos();
+        }
+        if (resultado.getErrores() != traza.getErrores(ultimo)) {
+            return "errores " + traza.getErrores(ultimo) + " ≠ " + resultado.getErrores();
+        }
+        if (resultado.getProfundidadFinal() != traza.getPila(ultimo).getProfundidad()
+                || resultado.getProfundidadMaxima() != profundidadMaxima) {
+            return "profundidad de la pila " + traza.getPila(ultimo).getProfundidad() + "/" + profundidadMaxima
+                + " ≠ " + resultado.getProfundidadFinal() + "/" + resultado.getProfundidadMaxima();
+        }
+        return null;
+    }
+
+    /**
+     * Genera cadenas expandiendo producciones al azar desde el símbolo inicial;
+     * aproximadamente la mitad se alteran después con inserciones, borrados o
+     * sustituciones para recorrer también los caminos de error.
+     */
+    public static List<String[]> generarEntradas(TablaLL1 tabla, String simboloInicial, int cantidad, long semilla) {
+        Random azar = new Random(semilla);
+        List<String> terminales = new ArrayList<>();
+        List<String[]> entradas = new ArrayList<>(cantidad);
+
+        for (int i = 0; i < cantidad; i++) {
+            String[] tokens = null;
+            for (int intento = 0; intento < MAX_INTENTOS && tokens == null; intento++) {
+                tokens = derivarAlAzar(tabla, simboloInicial, azar, terminales);
+            }
+            if (tokens == null) continue;
+            if (azar.nextBoolean() && !terminales.isEmpty()) {
+                tokens = alterar(tokens, terminales, azar);
+            }
+            entradas.add(tokens);
+        }
+        return entradas;
+    }
+
+    // ==================== Implementación ====================
+
+    // Motor de referencia: sin caché, un paso cada vez
+    private static TrazaSimulacion referencia(TablaLL1 tabla, String inicial, ConjuntosSincronizacion sincronizacion,
+                                              FuncionesErrorLL1 funciones, String[] tokens) {
+        MotorLL1 motor = new MotorLL1(tabla, inicial);
+        motor.setSincronizacion(sincronizacion);
+        motor.setFuncionesError(funciones);
+        motor.iniciar(tokens);
+        while (motor.avanzar() != null) {
+            // Cada paso queda registrado en la traza
+        }
+        return motor.getTraza();
+    }
+
+    private static void anotar(List<String> diferencias, String texto, String simulador, String diferencia) {
+        if (diferencia != null) {
+            diferencias.add("«" + texto + "» (" + simulador + "): " + diferencia);
+        }
+    }
+
+    // Derivación más a la izquierda con producciones al azar; a partir de la mitad
+    // del presupuesto se eligen las partes derechas más cortas para terminar
+    private static String[] derivarAlAzar(TablaLL1 tabla, String simboloInicial, Random azar, List<String> terminales) {
+        List<String> salida = new ArrayList<>();
+        List<String> pendientes = new ArrayList<>();
+        pendientes.add(simboloInicial);
+        int expansiones = 0;
+
+        while (!pendientes.isEmpty()) {
+            String simbolo = pendientes.remove(pendientes.size() - 1);
+            if (!tabla.esNoTerminal(simbolo)) {
+                salida.add(simbolo);
+                if (!terminales.contains(simbolo)) terminales.add(simbolo);
+                if (salida.size() > MAX_TOKENS) return null;
+                continue;
+            }
+            Set<Integer> producciones = tabla.getProducciones(simbolo);
+            if (producciones.isEmpty() || ++expansiones > MAX_TOKENS * 4) return null;
+
+            List<Integer> candidatas = new ArrayList<>(producciones);
+            int elegida;
+            if (expansiones > MAX_TOKENS) {
+                elegida = candidatas.get(0);
+                for (int p : candidatas) {
+                    if (tabla.getDerecha(p).length < tabla.getDerecha(elegida).length) elegida = p;
+                }
+            } else {
+                elegida = candidatas.get(azar.nextInt(candidatas.size()));
+            }
+            String[] derecha = tabla.getDerecha(elegida);
+            for (int k = derecha.length - 1; k >= 0; k--) {
+                pendientes.add(derecha[k]);
+            }
+        }
+        return salida.toArray(new String[0]);
+    }
+
+    private static String[] alterar(String[] tokens, List<String> terminales, Random azar) {
+        List<String> resultado = new ArrayList<>(Arrays.asList(tokens));
+        int cambios = 1 + azar.nextInt(3);
+        for (int c = 0; c < cambios; c++) {
+            int posicion = resultado.isEmpty() ? 0 : azar.nextInt(resultado.size());
+            String terminal = terminales.get(azar.nextInt(terminales.size()));
+            switch (azar.nextInt(3)) {
+                case 0:
+                    resultado.add(posicion, terminal);
+                    break;
+                case 1:
+                    if (!resultado.isEmpty()) resultado.remove(posicion);
+                    break;
+                default:
+                    if (!resultado.isEmpty()) resultado.set(posicion, terminal);
+                    break;
+            }
+        }
+        return resultado.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,117 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gramatica.Gramatica;
+import gramatica.NoTerminal;
+import gramatica.Terminal;
+import utils.Resumen;
+
+/**
+ * Conjuntos de sincronización para la recuperación de errores en modo pánico.
+ *
+ * Para cada no terminal se precalcula un bitset con sus SIGUIENTES (más los tokens
+ * adicionales configurados) y otro con sus PRIMEROS, de modo que durante la
+ * recuperación cada token descartado cuesta una consulta O(1).
+ */
+public class ConjuntosSincronizacion {
+
+    public static final String FIN_CADENA = "$";
+
+    private final Map<String, Integer> indiceTerminales = new HashMap<>();
+    private final Map<String, BitSet> siguientes = new HashMap<>();
+    private final Map<String, BitSet> primeros = new HashMap<>();
+    private String huella;
+
+    /**
+     * Construye los conjuntos a partir de los SIGUIENTES calculados por {@code generarConjSig}.
+     * @param gramatica Gramática con los conjuntos PRIMERO y SIGUIENTE ya calculados
+     * @param tokensAdicionales Tokens que sincronizan cualquier no terminal (p. ej. ";" o "end")
+     */
+    public ConjuntosSincronizacion(Gramatica gramatica, Collection<String> tokensAdicionales) {
+        indice(FIN_CADENA);
+        for (Terminal t : gramatica.getTerminales()) {
+            indice(t.getNombre());
+        }
+
+        BitSet extra = new BitSet();
+        extra.set(indice(FIN_CADENA));
+        if (tokensAdicionales != null) {
+            for (String token : tokensAdicionales) {
+                extra.set(indice(token));
+            }
+        }
+
+        for (NoTerminal nt : gramatica.getNoTerminales()) {
+            BitSet conjuntoSig = (BitSet) extra.clone();
+            for (Terminal t : nt.getSiguientes()) {
+                conjuntoSig.set(indice(t.getNombre()));
+            }
+            siguientes.put(nt.getNombre(), conjuntoSig);
+
+            BitSet conjuntoPrim = new BitSet();
+            for (Terminal t : nt.getPrimeros()) {
+                if (!t.getNombre().equals("ε")) {
+                    conjuntoPrim.set(indice(t.getNombre()));
+                }
+            }
+            primeros.put(nt.getNombre(), conjuntoPrim);
+        }
+    }
+
+    /**
+     * Indica si el token permite abandonar el no terminal (está en su conjunto de sincronización).
+     */
+    public boolean esSincronizacion(String noTerminal, String token) {
+        return contiene(siguientes.get(noTerminal), token);
+    }
+
+    /**
+     * Indica si el análisis puede reanudarse expandiendo el no terminal con este token.
+     */
+    public boolean permiteReanudar(String noTerminal, String token) {
+        return contiene(primeros.get(noTerminal), token);
+    }
+
+    /**
+     * Resumen de los conjuntos: coincide si y solo si la recuperación se comporta igual.
+     */
+    public String getHuella() {
+        if (huella == null) {
+            List<String> tokens = new ArrayList<>(indiceTerminales.keySet());
+            List<String> noTerminales = new ArrayList<>(siguientes.keySet());
+            Collections.sort(tokens);
+            Collections.sort(noTerminales);
+            StringBuilder contenido = new StringBuilder();
+            for (String nt : noTerminales) {
+                contenido.append(nt).append(':');
+                for (String t : tokens) {
+                    if (esSincronizacion(nt, t)) contenido.append('\u0000').append(t);
+                }
+                contenido.append('|');
+                for (String t : tokens) {
+                    if (permiteReanudar(nt, t)) contenido.append('\u0000').append(t);
+                }
+                contenido.append('\n');
+            }
+            huella = Resumen.sha256(contenido.toString());
+        }
+        return huella;
+    }
+
+    private boolean contiene(BitSet conjunto, String token) {
+        if (conjunto == null) return false;
+        Integer i = indiceTerminales.get(token);
+        return i != null && conjunto.get(i);
+    }
+
+    private int indice(String token) {
+        return indiceTerminales.computeIfAbsent(token, k -> indiceTerminales.size());
+    }
+}
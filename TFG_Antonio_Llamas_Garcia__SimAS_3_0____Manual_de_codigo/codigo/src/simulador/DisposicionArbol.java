@@ -0,0 +1,342 @@
+package simulador;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Disposición ordenada ("tidy tree") de un {@link ArbolSintactico}, independiente de JavaFX.
+ *
+ * Sigue el esquema de Reingold–Tilford: cada subárbol se coloca con su raíz en 0 y
+ * se resume en sus contornos izquierdo y derecho; los hermanos se separan lo mínimo
+ * para que sus contornos no se solapen y el padre se centra sobre sus hijos. Los
+ * contornos son listas enlazadas inmutables codificadas por diferencias, de modo
+ * que al unir dos subárboles solo se recorre la parte común (el menos profundo) y
+ * el resto se comparte, lo que mantiene el coste total lineal.
+ *
+ * Como los contornos de cada subárbol quedan guardados, tras un paso de la
+ * simulación solo se recalculan los nodos cuyo conjunto de hijos ha cambiado y sus
+ * ascendientes; el resto de subárboles se reutiliza tal cual.
+ */
+public class DisposicionArbol {
+
+    /** Altura de la caja de cada nodo. */
+    public static final double ALTO_NODO = 26;
+
+    // Celda de contorno: desplazamiento respecto a la celda del nivel anterior
+    private static final class Contorno {
+        final double dx;
+        final Contorno sig;
+        Contorno(double dx, Contorno sig) { this.dx = dx; this.sig = sig; }
+    }
+
+    private final ArbolSintactico arbol;
+    private final ToDoubleFunction<String> anchoEtiqueta;
+    private final double separacionHorizontal;
+    private final double separacionVertical;
+
+    // Datos por nodo
+    private double[] ancho = new double[0];
+    private double[] desplazamiento = new double[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private int[] profundidad = new int[0];
+    private int[] padreCalculado = new int[0];
+    private long[] selloCalculado = new long[0];
+    private boolean[] sucio = new boolean[0];
+    private Contorno[] contornoIzq = new Contorno[0];
+    private Contorno[] contornoDer = new Contorno[0];
+    private int numCalculados = 0;
+    private long versionCalculada = -1;
+
+    // Nodos de cada nivel ordenados de izquierda a derecha, para recortar por vista
+    private int[][] niveles = new int[0][];
+    private int[] tamNivel = new int[0];
+    private int numNiveles = 0;
+
+    private double minX, maxX, maxY;
+
+    /**
+     * @param arbol Árbol a disponer
+     * @param anchoEtiqueta Función que mide el ancho de la caja de una etiqueta
+     * @param separacionHorizontal Espacio mínimo entre cajas de un mismo nivel
+     * @param separacionVertical Espacio entre niveles
+     */
+    public DisposicionArbol(ArbolSintactico arbol, ToDoubleFunction<String> anchoEtiqueta,
+                            double separacionHorizontal, double separacionVertical) {
+        this.arbol = arbol;
+        this.anchoEtiqueta = anchoEtiqueta;
+        this.separacionHorizontal = separacionHorizontal;
+        this.separacionVertical = separacionVertical;
+    }
+
+    /**
+     * Crea una disposición que estima el ancho de cada etiqueta por su número de caracteres.
+     */
+    public DisposicionArbol(ArbolSintactico arbol) {
+        this(arbol, etiqueta -> 16 + 8 * etiqueta.length(), 14, 36);
+    }
+
+    public ArbolSintactico getArbol() {
+        return arbol;
+    }
+
+    /**
+     * Actualiza la disposición tras los cambios del árbol desde la última llamada.
+     * @return true si ha habido cambios
+     */
+    public boolean actualizar() {
+        if (arbol.getVersion() == versionCalculada) return false;
+        int n = arbol.getNumNodos();
+        asegurarCapacidad(n);
+
+        // Primer nodo que ya no es el que se calculó (retroceso seguido de nuevos pasos)
+        int primerNuevo = primerNodoCambiado(Math.min(n, numCalculados));
+
+        // Nodos eliminados o sustituidos: su antiguo padre cambia de hijos
+        for (int i = primerNuevo; i < numCalculados; i++) {
+            int p = padreCalculado[i];
+            if (p >= 0 && p < primerNuevo) marcarSucio(p);
+        }
+        truncarNiveles(primerNuevo);
+
+        // Nodos nuevos: se calculan desde cero y su padre cambia de hijos
+        for (int i = primerNuevo; i < n; i++) {
+            int p = arbol.getPadre(i);
+            padreCalculado[i] = p;
+            selloCalculado[i] = arbol.getSello(i);
+            ancho[i] = anchoEtiqueta.applyAsDouble(arbol.getEtiqueta(i));
+            profundidad[i] = p == ArbolSintactico.NINGUNO ? 0 : profundidad[p] + 1;
+            anadirANivel(profundidad[i], i);
+            sucio[i] = true;
+            if (p != ArbolSintactico.NINGUNO) marcarSucio(p);
+        }
+        numCalculados = n;
+
+        // Los hijos tienen índice mayor que su padre: recorrer hacia atrás es un postorden
+        for (int i = n - 1; i >= 0; i--) {
+            if (sucio[i]) {
+                calcularSubarbol(i);
+                sucio[i] = false;
+            }
+        }
+
+        calcularPosicionesAbsolutas(n);
+        versionCalculada = arbol.getVersion();
+        return true;
+    }
+
+    public int getNumNodos() { return numCalculados; }
+    public double getX(int nodo) { return x[nodo]; }
+    public double getY(int nodo) { return y[nodo]; }
+    public double getAncho(int nodo) { return ancho[nodo]; }
+    public double getMinX() { return minX; }
+    public double getMaxX() { return maxX; }
+    public double getAnchoTotal() { return maxX - minX; }
+    public double getAltoTotal() { return maxY + ALTO_NODO; }
+    public int getNumNiveles() { return numNiveles; }
+
+    /**
+     * Recorre los nodos cuyas cajas intersectan el rectángulo indicado (en
+     * coordenadas de la disposición). Por cada nivel visible se localiza el primer
+     * nodo mediante búsqueda binaria, así que el coste depende de los nodos visibles
+     * y no del tamaño del árbol.
+     */
+    public void visitarVisibles(double x0, double y0, double x1, double y1, java.util.function.IntConsumer visitante) {
+        double altoNivel = ALTO_NODO + separacionVertical;
+        int nivelIni = Math.max(0, (int) Math.floor((y0 - ALTO_NODO) / altoNivel));
+        int nivelFin = Math.min(numNiveles - 1, (int) Math.ceil(y1 / altoNivel));
+        for (int d = nivelIni; d <= nivelFin; d++) {
+            int[] nivel = niveles[d];
+            int tam = tamNivel[d];
+            // Primer nodo cuyo borde derecho supera x0
+            int lo = 0, hi = tam;
+            while (lo < hi) {
+                int m = (lo + hi) >>> 1;
+                int nodo = nivel[m];
+                if (x[nodo] + ancho[nodo] / 2 < x0) lo = m + 1; else hi = m;
+            }
+            for (int k = lo; k < tam; k++) {
+                int nodo = nivel[k];
+                if (x[nodo] - ancho[nodo] / 2 > x1) break;
+                visitante.accept(nodo);
+            }
+        }
+    }
+
+    /**
+     * Los nodos solo se eliminan por el final, así que los que conservan su sello
+     * forman un prefijo y el primero distinto se localiza por búsqueda binaria.
+     */
+    private int primerNodoCambiado(int limite) {
+        int lo = 0, hi = limite;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (selloCalculado[m] == arbol.getSello(m)) lo = m + 1; else hi = m;
+        }
+        return lo;
+    }
+
+    // ==================== Cálculo de contornos ====================
+
+    private void calcularSubarbol(int v) {
+        double mitad = ancho[v] / 2;
+        int primero = arbol.getPrimerHijo(v);
+        if (primero == ArbolSintactico.NINGUNO) {
+            contornoIzq[v] = new Contorno(-mitad, null);
+            contornoDer[v] = new Contorno(mitad, null);
+            return;
+        }
+
+        // Contornos acumulados con el primer hijo en la posición 0
+        Contorno acumIzq = contornoIzq[primero];
+        Contorno acumDer = contornoDer[primero];
+        desplazamiento[primero] = 0;
+        double ultimaPos = 0;
+
+        for (int h = arbol.getSiguienteHermano(primero); h != ArbolSintactico.NINGUNO; h = arbol.getSiguienteHermano(h)) {
+            double pos = separacionMinima(acumDer, contornoIzq[h]);
+            desplazamiento[h] = pos;
+            ultimaPos = pos;
+            acumIzq = unirIzquierdo(acumIzq, contornoIzq[h], pos);
+            acumDer = unirDerecho(acumDer, contornoDer[h], pos);
+        }
+
+        // Centrar el padre sobre el primer y el último hijo
+        double centro = ultimaPos / 2;
+        for (int h = primero; h != ArbolSintactico.NINGUNO; h = arbol.getSiguienteHermano(h)) {
+            desplazamiento[h] -= centro;
+        }
+        contornoIzq[v] = new Contorno(-mitad, new Contorno(acumIzq.dx - centro + mitad, acumIzq.sig));
+        contornoDer[v] = new Contorno(mitad, new Contorno(acumDer.dx - centro - mitad, acumDer.sig));
+    }
+
+    // Posición mínima del subárbol derecho para que no se solape con el acumulado
+    private double separacionMinima(Contorno derecho, Contorno izquierdo) {
+        double absDer = 0, absIzq = 0, pos = Double.NEGATIVE_INFINITY;
+        while (derecho != null && izquierdo != null) {
+            absDer += derecho.dx;
+            absIzq += izquierdo.dx;
+            pos = Math.max(pos, absDer - absIzq + separacionHorizontal);
+            derecho = derecho.sig;
+            izquierdo = izquierdo.sig;
+        }
+        return pos;
+    }
+
+    // El contorno izquierdo es el acumulado; si el nuevo es más profundo se continúa con el suyo
+    private Contorno unirIzquierdo(Contorno acum, Contorno nuevo, double pos) {
+        return unir(acum, 0, nuevo, pos);
+    }
+
+    // El contorno derecho es el nuevo; si el acumulado es más profundo se continúa con el suyo
+    private Contorno unirDerecho(Contorno acum, Contorno nuevo, double pos) {
+        return unir(nuevo, pos, acum, 0);
+    }
+
+    /**
+     * Une dos contornos: en los niveles comunes manda el principal y por debajo se
+     * comparte la cola del secundario. Solo se copian los niveles comunes.
+     */
+    private Contorno unir(Contorno principal, double despPrincipal, Contorno secundario, double despSecundario) {
+        // Medir la parte común y averiguar qué contorno es más profundo
+        int comunes = 0;
+        Contorno p = principal, s = secundario;
+        double absP = despPrincipal, absS = despSecundario;
+        while (p != null && s != null) {
+            absP += p.dx;
+            absS += s.dx;
+            comunes++;
+            p = p.sig;
+            s = s.sig;
+        }
+
+        if (s == null) {
+            // El principal es al menos igual de profundo: basta con desplazar su cabeza
+            return new Contorno(principal.dx + despPrincipal, principal.sig);
+        }
+
+        // Copiar los niveles comunes del principal y enlazar con la cola del secundario
+        double[] dxs = new double[comunes];
+        p = principal;
+        for (int i = 0; i < comunes; i++) {
+            dxs[i] = i == 0 ? p.dx + despPrincipal : p.dx;
+            p = p.sig;
+        }
+        Contorno cola = new Contorno(s.dx + absS - absP, s.sig);
+        for (int i = comunes - 1; i >= 0; i--) {
+            cola = new Contorno(dxs[i], cola);
+        }
+        return cola;
+    }
+
+    // ==================== Posiciones absolutas ====================
+
+    private void calcularPosicionesAbsolutas(int n) {
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = 0;
+        double altoNivel = ALTO_NODO + separacionVertical;
+        for (int i = 0; i < n; i++) {
+            int p = padreCalculado[i];
+            x[i] = p == ArbolSintactico.NINGUNO ? 0 : x[p] + desplazamiento[i];
+            y[i] = profundidad[i] * altoNivel;
+            minX = Math.min(minX, x[i] - ancho[i] / 2);
+            maxX = Math.max(maxX, x[i] + ancho[i] / 2);
+            maxY = Math.max(maxY, y[i]);
+        }
+        if (n == 0) {
+            minX = maxX = 0;
+        }
+    }
+
+    // ==================== Gestión de memoria ====================
+
+    private void marcarSucio(int nodo) {
+        // Marcar el nodo y sus ascendientes hasta encontrar uno ya marcado
+        while (nodo != ArbolSintactico.NINGUNO && !sucio[nodo]) {
+            sucio[nodo] = true;
+            nodo = padreCalculado[nodo];
+        }
+    }
+
+    private void anadirANivel(int d, int nodo) {
+        if (d == niveles.length) {
+            niveles = Arrays.copyOf(niveles, Math.max(8, d * 2));
+            tamNivel = Arrays.copyOf(tamNivel, niveles.length);
+        }
+        if (niveles[d] == null) {
+            niveles[d] = new int[16];
+        } else if (tamNivel[d] == niveles[d].length) {
+            niveles[d] = Arrays.copyOf(niveles[d], tamNivel[d] * 2);
+        }
+        niveles[d][tamNivel[d]++] = nodo;
+        numNiveles = Math.max(numNiveles, d + 1);
+    }
+
+    // Los nodos de cada nivel se añaden en orden de creación, así que basta recortar la cola
+    private void truncarNiveles(int n) {
+        int nuevosNiveles = 0;
+        for (int d = 0; d < numNiveles; d++) {
+            while (tamNivel[d] > 0 && niveles[d][tamNivel[d] - 1] >= n) {
+                tamNivel[d]--;
+            }
+            if (tamNivel[d] > 0) nuevosNiveles = d + 1;
+        }
+        numNiveles = nuevosNiveles;
+    }
+
+    private void asegurarCapacidad(int n) {
+        if (n <= ancho.length) return;
+        int capacidad = Math.max(n, ancho.length * 2);
+        ancho = Arrays.copyOf(ancho, capacidad);
+        desplazamiento = Arrays.copyOf(desplazamiento, capacidad);
+        x = Arrays.copyOf(x, capacidad);
+        y = Arrays.copyOf(y, capacidad);
+        profundidad = Arrays.copyOf(profundidad, capacidad);
+        padreCalculado = Arrays.copyOf(padreCalculado, capacidad);
+        selloCalculado = Arrays.copyOf(selloCalculado, capacidad);
+        sucio = Arrays.copyOf(sucio, capacidad);
+        contornoIzq = Arrays.copyOf(contornoIzq, capacidad);
+        contornoDer = Arrays.copyOf(contornoDer, capacidad);
+    }
+}
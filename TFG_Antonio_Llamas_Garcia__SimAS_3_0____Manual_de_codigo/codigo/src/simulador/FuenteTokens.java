@@ -0,0 +1,160 @@
+package simulador;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Lee los tokens de un texto a medida que se piden, sin cargar el texto
+ * completo en memoria. El texto se lee en un búfer de tamaño fijo que se divide
+ * con {@link Tokenizador#dividir}; el token que queda a medias al final del
+ * búfer se conserva y se completa con la lectura siguiente. La memoria depende
+ * así del tamaño del búfer y del token más largo, no de la longitud de las líneas.
+ */
+public class FuenteTokens implements Closeable {
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final Reader lector;
+    private final Tokenizador tokenizador;
+
+    private char[] buffer = new char[TAMANO_BUFFER];
+    private int lleno;
+    private boolean finTexto;
+
+    // Tokens del último tramo dividido y línea en que termina cada uno
+    private String[] tokens = new String[256];
+    private long[] lineas = new long[256];
+    private int numTokens;
+    private int siguienteToken;
+    private Tokenizador.ErrorLexico errorPendiente;
+    private long lineaError;
+
+    // Saltos de línea contados hasta la posición del búfer posicionLineas
+    private int posicionLineas;
+    private long lineaContada = 1;
+    // Último salto de línea del búfer, o -1, y columna del primer carácter del búfer
+    private int ultimoSalto = -1;
+    private long columnaInicial;
+
+    private long linea;
+    private long tokensLeidos;
+
+    public FuenteTokens(Reader lector, Tokenizador tokenizador) {
+        this.lector = lector;
+        this.tokenizador = tokenizador;
+    }
+
+    /**
+     * Fuente que lee un archivo de texto en UTF-8.
+     */
+    public static FuenteTokens desdeArchivo(Path archivo, Tokenizador tokenizador) throws IOException {
+        return new FuenteTokens(Files.newBufferedReader(archivo, StandardCharsets.UTF_8), tokenizador);
+    }
+
+    /**
+     * Siguiente token, o null si no quedan más.
+     * @throws Tokenizador.ErrorLexico Si el texto contiene caracteres que no forman ningún
+     *         token; la posición del error es la columna dentro de su línea
+     */
+    public String siguiente() throws IOException {
+        while (siguienteToken >= numTokens) {
+            if (errorPendiente != null) {
+                linea = lineaError;
+                throw errorPendiente;
+            }
+            if (!dividirTramo()) return null;
+        }
+        linea = lineas[siguienteToken];
+        tokensLeidos++;
+        String token = tokens[siguienteToken];
+        tokens[siguienteToken++] = null;
+        return token;
+    }
+
+    /** Línea (desde 1) del último token leído, o del error léxico. */
+    public long getLinea() {
+        return linea;
+    }
+
+    public long getTokensLeidos() {
+        return tokensLeidos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+
+    // ==================== Implementación ====================
+
+    /**
+     * Llena el búfer y divide lo que contiene. Devuelve false si no queda texto.
+     */
+    private boolean dividirTramo() throws IOException {
+        if (finTexto && lleno == 0) return false;
+        // Un token pendiente que ocupa todo el búfer necesita más espacio
+        if (lleno == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        while (!finTexto && lleno < buffer.length) {
+            int leidos = lector.read(buffer, lleno, buffer.length - lleno);
+            if (leidos < 0) {
+                finTexto = true;
+            } else {
+                lleno += leidos;
+            }
+        }
+
+        numTokens = 0;
+        siguienteToken = 0;
+        int continuar;
+        try {
+            continuar = tokenizador.dividir(CharBuffer.wrap(buffer, 0, lleno), finTexto, this::anadirToken);
+        } catch (Tokenizador.ErrorLexico e) {
+            // Los tokens anteriores al error se entregan antes de avisar
+            int posicion = e.getPosicion();
+            lineaError = lineaEn(posicion);
+            long columna = ultimoSalto >= 0 ? posicion - ultimoSalto - 1 : columnaInicial + posicion;
+            errorPendiente = new Tokenizador.ErrorLexico(buffer[posicion], (int) Math.min(columna, Integer.MAX_VALUE));
+            lleno = 0;
+            finTexto = true;
+            return true;
+        }
+
+        // Pasar al principio el token a medias para completarlo con la siguiente lectura
+        lineaEn(continuar);
+        columnaInicial = ultimoSalto >= 0 ? continuar - ultimoSalto - 1 : columnaInicial + continuar;
+        ultimoSalto = -1;
+        posicionLineas = 0;
+        System.arraycopy(buffer, continuar, buffer, 0, lleno - continuar);
+        lleno -= continuar;
+        return true;
+    }
+
+    private void anadirToken(String token, int fin) {
+        if (numTokens == tokens.length) {
+            tokens = Arrays.copyOf(tokens, numTokens * 2);
+            lineas = Arrays.copyOf(lineas, numTokens * 2);
+        }
+        tokens[numTokens] = token;
+        lineas[numTokens] = lineaEn(fin);
+        numTokens++;
+    }
+
+    // Línea de la posición indicada del búfer; las posiciones se piden en orden creciente
+    private long lineaEn(int posicion) {
+        for (; posicionLineas < posicion; posicionLineas++) {
+            if (buffer[posicionLineas] == '\n') {
+                lineaContada++;
+                ultimoSalto = posicionLineas;
+            }
+        }
+        return lineaContada;
+    }
+}
@@ -0,0 +1,92 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gramatica.FuncionError;
+
+/**
+ * Funciones de error de la tabla predictiva preparadas para la simulación.
+ *
+ * Cada función se localiza en O(1) por el texto con que aparece en la tabla
+ * ("E1") y, para las casillas vacías, por el token de entrada, igual que hacía
+ * el panel de simulación: la primera función que termina el análisis o, si no
+ * hay ninguna, la primera cuyo símbolo es el token.
+ */
+public final class FuncionesErrorLL1 {
+
+    /** Índice que indica que no hay función aplicable. */
+    public static final int NINGUNA = -1;
+
+    private final List<String> textos = new ArrayList<>();
+    private final List<String> mensajes = new ArrayList<>();
+    private final int[] acciones;
+    private final String[] simbolos;
+    private final Map<String, Integer> porTexto = new HashMap<>();
+    private final Map<String, Integer> porToken = new HashMap<>();
+    private int terminar = NINGUNA;
+    private final String huella;
+
+    public FuncionesErrorLL1(List<FuncionError> funciones) {
+        acciones = new int[funciones.size()];
+        simbolos = new String[funciones.size()];
+        StringBuilder contenido = new StringBuilder();
+        for (int i = 0; i < funciones.size(); i++) {
+            FuncionError funcion = funciones.get(i);
+            String identificador = String.valueOf(funcion.getIdentificador());
+            String texto = identificador.startsWith("E") ? identificador : "E" + identificador;
+            textos.add(texto);
+            mensajes.add(funcion.getMensaje());
+            acciones[i] = funcion.getAccion();
+            simbolos[i] = funcion.getSimbolo() != null ? funcion.getSimbolo().getNombre() : null;
+
+            porTexto.putIfAbsent(texto, i);
+            porTexto.putIfAbsent(identificador, i);
+            if (acciones[i] == FuncionError.TERMINAR_ANALISIS && terminar == NINGUNA) terminar = i;
+            if (simbolos[i] != null) porToken.putIfAbsent(simbolos[i], i);
+            contenido.append(texto).append('\u0000').append(acciones[i]).append('\u0000')
+                     .append(simbolos[i]).append('\n');
+        }
+        huella = utils.Resumen.sha256(contenido.toString());
+    }
+
+    /**
+     * Función con el texto de una casilla de la tabla, o {@link #NINGUNA}.
+     */
+    public int buscar(String textoCasilla) {
+        Integer funcion = porTexto.get(textoCasilla);
+        return funcion != null ? funcion : NINGUNA;
+    }
+
+    /**
+     * Función que se aplica en una casilla vacía con el token indicado, o {@link #NINGUNA}.
+     */
+    public int buscarPorToken(String token) {
+        if (terminar != NINGUNA) return terminar;
+        Integer funcion = porToken.get(token);
+        return funcion != null ? funcion : NINGUNA;
+    }
+
+    /** Acción de la función, una de las constantes de {@link FuncionError}. */
+    public int getAccion(int funcion) { return acciones[funcion]; }
+
+    /** Símbolo que inserta o con el que sustituye la función, o null. */
+    public String getSimbolo(int funcion) { return simbolos[funcion]; }
+
+    /** Texto de la función tal como aparece en la tabla y en el historial. */
+    public String getTexto(int funcion) { return textos.get(funcion); }
+
+    /**
+     * Mensaje de la función con el texto indicado, o uno genérico si no tiene.
+     */
+    public String getMensaje(String texto) {
+        int funcion = buscar(texto);
+        String mensaje = funcion != NINGUNA ? mensajes.get(funcion) : null;
+        return mensaje != null && !mensaje.isEmpty() ? mensaje : "Aplicando función de error " + texto;
+    }
+
+    /** Resumen de las funciones, para la caché de simulaciones. */
+    public String getHuella() { return huella; }
+}
@@ -0,0 +1,239 @@
+package simulador;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Dibuja un {@link ArbolSintactico} sobre un {@link Canvas} del tamaño de la vista.
+ *
+ * La disposición se calcula con {@link DisposicionArbol} y solo se recalcula la
+ * parte afectada por cada paso. Al dibujar se recorren únicamente los nodos que
+ * caen dentro de la vista, de modo que el coste por fotograma no depende del
+ * tamaño total del árbol. El desplazamiento se hace arrastrando con el ratón y el
+ * zoom con la rueda o con {@link #setEscala(double)}.
+ */
+public class LienzoArbol extends Pane {
+
+    private static final double MARGEN = 20;
+    private static final double SEPARACION_HORIZONTAL = 14;
+    private static final double SEPARACION_VERTICAL = 36;
+    private static final Font FUENTE = Font.font("Arial", 13);
+    private static final Color COLOR_NO_TERMINAL = Color.rgb(41, 128, 185);
+    private static final Color COLOR_TERMINAL = Color.rgb(44, 62, 80);
+    private static final Color COLOR_EPSILON = Color.rgb(149, 165, 166);
+    private static final Color COLOR_CIMA = Color.rgb(230, 126, 34);
+    private static final Color COLOR_ARISTA = Color.rgb(127, 140, 141);
+    private static final Color COLOR_FONDO_NODO = Color.WHITE;
+
+    private final Canvas canvas = new Canvas();
+    private final Map<String, Double> anchosEtiqueta = new HashMap<>();
+    private final Text medidor = new Text();
+
+    private ArbolSintactico arbol;
+    private DisposicionArbol disposicion;
+    private java.util.function.Predicate<String> esTerminal = simbolo -> false;
+
+    // Vista: desplazamiento en coordenadas de la disposición y escala
+    private double origenX = 0;
+    private double origenY = 0;
+    private double escala = 1;
+    private boolean seguirCima = true;
+
+    private double arrastreX, arrastreY;
+    private boolean dibujoPendiente = false;
+
+    public LienzoArbol() {
+        getChildren().add(canvas);
+        medidor.setFont(FUENTE);
+        setMinSize(0, 0);
+        getStyleClass().add("arbol-lienzo");
+
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener((obs, o, n) -> solicitarDibujo());
+        canvas.heightProperty().addListener((obs, o, n) -> solicitarDibujo());
+
+        setOnMousePressed(e -> {
+            arrastreX = e.getX();
+            arrastreY = e.getY();
+        });
+        setOnMouseDragged(e -> {
+            origenX -= (e.getX() - arrastreX) / escala;
+            origenY -= (e.getY() - arrastreY) / escala;
+            arrastreX = e.getX();
+            arrastreY = e.getY();
+            // El usuario ha movido la vista: dejar de seguir la cima
+            seguirCima = false;
+            solicitarDibujo();
+        });
+        setOnScroll(e -> {
+            if (e.getDeltaY() == 0) return;
+            double factor = e.getDeltaY() > 0 ? 1.1 : 1 / 1.1;
+            // Mantener fijo el punto bajo el cursor
+            double px = origenX + e.getX() / escala;
+            double py = origenY + e.getY() / escala;
+            escala = limitarEscala(escala * factor);
+            origenX = px - e.getX() / escala;
+            origenY = py - e.getY() / escala;
+            solicitarDibujo();
+        });
+    }
+
+    /**
+     * Asigna el árbol a dibujar. Si es el mismo que ya se muestra solo se actualiza
+     * la disposición de la parte que ha cambiado.
+     */
+    public void setArbol(ArbolSintactico arbol) {
+        if (arbol != this.arbol) {
+            this.arbol = arbol;
+            this.disposicion = arbol != null
+                ? new DisposicionArbol(arbol, this::medirEtiqueta, SEPARACION_HORIZONTAL, SEPARACION_VERTICAL)
+                : null;
+            seguirCima = true;
+        }
+        actualizar();
+    }
+
+    /**
+     * Indica cómo distinguir terminales de no terminales para colorear los nodos.
+     */
+    public void setEsTerminal(java.util.function.Predicate<String> esTerminal) {
+        this.esTerminal = esTerminal;
+        solicitarDibujo();
+    }
+
+    /**
+     * Recalcula la disposición tras un paso de la simulación y vuelve a dibujar.
+     */
+    public void actualizar() {
+        if (disposicion != null && disposicion.actualizar() && seguirCima) {
+            centrarEnCima();
+        }
+        solicitarDibujo();
+    }
+
+    public void setEscala(double escala) {
+        // Escalar respecto al centro de la vista
+        double cx = origenX + getWidth() / 2 / this.escala;
+        double cy = origenY + getHeight() / 2 / this.escala;
+        this.escala = limitarEscala(escala);
+        origenX = cx - getWidth() / 2 / this.escala;
+        origenY = cy - getHeight() / 2 / this.escala;
+        solicitarDibujo();
+    }
+
+    public double getEscala() {
+        return escala;
+    }
+
+    /**
+     * Vuelve a centrar la vista en el nodo pendiente de expandir y la mantiene
+     * siguiéndolo en los pasos siguientes.
+     */
+    public void centrarEnCima() {
+        seguirCima = true;
+        if (disposicion == null || disposicion.getNumNodos() == 0) return;
+        int nodo = arbol.getCima();
+        if (nodo == ArbolSintactico.NINGUNO || nodo >= disposicion.getNumNodos()) {
+            nodo = disposicion.getNumNodos() - 1;
+        }
+        double ancho = getWidth() > 0 ? getWidth() : 800;
+        double alto = getHeight() > 0 ? getHeight() : 500;
+        origenX = disposicion.getX(nodo) - ancho / 2 / escala;
+        // La raíz queda arriba mientras el árbol quepa en la vista
+        origenY = Math.max(-MARGEN, disposicion.getY(nodo) + DisposicionArbol.ALTO_NODO - alto / escala + MARGEN);
+    }
+
+    // ==================== Dibujo ====================
+
+    // Agrupa varias peticiones de dibujo en un único repintado por pulso
+    private void solicitarDibujo() {
+        if (dibujoPendiente) return;
+        dibujoPendiente = true;
+        Platform.runLater(() -> {
+            dibujoPendiente = false;
+            dibujar();
+        });
+    }
+
+    private void dibujar() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double ancho = canvas.getWidth();
+        double alto = canvas.getHeight();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, ancho, alto);
+        if (disposicion == null || disposicion.getNumNodos() == 0) return;
+
+        gc.setTransform(escala, 0, 0, escala, -origenX * escala, -origenY * escala);
+        gc.setFont(FUENTE);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setLineWidth(1);
+
+        double x0 = origenX;
+        double y0 = origenY;
+        double x1 = origenX + ancho / escala;
+        double y1 = origenY + alto / escala;
+        int cima = arbol.getCima();
+
+        // Primero las aristas hacia el padre para que queden por debajo de las cajas;
+        // se incluye un nivel más para las que salen de la vista por abajo
+        gc.setStroke(COLOR_ARISTA);
+        double y1Aristas = y1 + DisposicionArbol.ALTO_NODO + SEPARACION_VERTICAL;
+        disposicion.visitarVisibles(x0, y0, x1, y1Aristas, nodo -> {
+            int padre = arbol.getPadre(nodo);
+            if (padre != ArbolSintactico.NINGUNO) {
+                gc.strokeLine(disposicion.getX(padre), disposicion.getY(padre) + DisposicionArbol.ALTO_NODO,
+                              disposicion.getX(nodo), disposicion.getY(nodo));
+            }
+        });
+        disposicion.visitarVisibles(x0, y0, x1, y1, nodo -> dibujarNodo(gc, nodo, nodo == cima));
+    }
+
+    private void dibujarNodo(GraphicsContext gc, int nodo, boolean esCima) {
+        String etiqueta = arbol.getEtiqueta(nodo);
+        double w = disposicion.getAncho(nodo);
+        double cx = disposicion.getX(nodo);
+        double y = disposicion.getY(nodo);
+
+        Color color;
+        if (etiqueta.equals("ε")) {
+            color = COLOR_EPSILON;
+        } else if (esTerminal.test(etiqueta)) {
+            color = COLOR_TERMINAL;
+        } else {
+            color = COLOR_NO_TERMINAL;
+        }
+
+        gc.setFill(COLOR_FONDO_NODO);
+        gc.fillRoundRect(cx - w / 2, y, w, DisposicionArbol.ALTO_NODO, 10, 10);
+        gc.setStroke(esCima ? COLOR_CIMA : color);
+        gc.setLineWidth(esCima ? 2 : 1);
+        gc.strokeRoundRect(cx - w / 2, y, w, DisposicionArbol.ALTO_NODO, 10, 10);
+        gc.setLineWidth(1);
+        gc.setFill(color);
+        gc.fillText(etiqueta, cx, y + DisposicionArbol.ALTO_NODO / 2);
+    }
+
+    // Los símbolos de una gramática son pocos: se mide cada etiqueta una sola vez
+    private double medirEtiqueta(String etiqueta) {
+        return anchosEtiqueta.computeIfAbsent(etiqueta, e -> {
+            medidor.setText(e);
+            return Math.ceil(medidor.getLayoutBounds().getWidth()) + 18;
+        });
+    }
+
+    private static double limitarEscala(double escala) {
+        return Math.max(0.1, Math.min(escala, 4));
+    }
+}
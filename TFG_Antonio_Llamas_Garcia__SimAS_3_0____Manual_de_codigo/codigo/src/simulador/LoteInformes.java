@@ -0,0 +1,485 @@
+package simulador;
+
+import gramatica.Gramatica;
+import informe.FormatoInforme;
+import informe.ProgresoInforme;
+import informe.TablaInforme;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import simulador.SimulacionFinal.HistorialPaso;
+
+/**
+ * Generación de informes por lotes sobre una carpeta de gramáticas.
+ *
+ * Cada gramática "nombre.xml" se carga, se valida, se transforma (recursividad
+ * por la izquierda y factorización), se calculan sus conjuntos y su tabla LL(1)
+ * y se simula cada cadena del archivo "nombre.txt" de la misma carpeta, una por
+ * línea (se saltan las vacías y las que empiezan por #). Por cada cadena se
+ * escribe un informe "nombre-001.pdf", "nombre-002.pdf"...; sin archivo de
+ * cadenas se escribe un único informe "nombre.pdf" con la gramática.
+ *
+ * Las gramáticas se preparan y los informes se escriben en un grupo fijo de
+ * hilos. Al terminar se escribe "indice.csv" con el resultado de cada informe,
+ * ordenado por gramática y cadena con independencia del orden en que acaben.
+ */
+public final class LoteInformes {
+
+    private static final Logger LOGGER = Logger.getLogger(LoteInformes.class.getName());
+
+    public static final String ARCHIVO_INDICE = "indice.csv";
+    public static final long MAX_PASOS_POR_DEFECTO = 100_000;
+
+    /** Resultado de un informe del lote. */
+    public enum Estado {
+        ACEPTADA,
+        RECHAZADA,
+        /** Solo la gramática, sin archivo de cadenas. */
+        SIN_CADENAS,
+        GRAMATICA_INVALIDA,
+        ERROR_LEXICO,
+        /** La simulación superó el número máximo de pasos. */
+        LIMITE_PASOS,
+        ERROR
+    }
+
+    /**
+     * Fila del índice del lote.
+     */
+    public static final class Resultado {
+        private final String gramatica;
+        private final int linea;
+        private final String cadena;
+        private final Estado estado;
+        private final int pasos;
+        private final int errores;
+        private final File informe;
+        private final String mensaje;
+
+        Resultado(String gramatica, int linea, String cadena, Estado estado, int pasos, int errores,
+                  File informe, String mensaje) {
+            this.gramatica = gramatica;
+            this.linea = linea;
+            this.cadena = cadena;
+            this.estado = estado;
+            this.pasos = pasos;
+            this.errores = errores;
+            this.informe = informe;
+            this.mensaje = mensaje;
+        }
+
+        public String getGramatica() { return gramatica; }
+        /** Línea de la cadena en su archivo, o 0 si no hay cadena. */
+        public int getLinea() { return linea; }
+        public String getCadena() { return cadena; }
+        public Estado getEstado() { return estado; }
+        public int getPasos() { return pasos; }
+        public int getErrores() { return errores; }
+        /** Archivo del informe, o null si no se ha generado. */
+        public File getInforme() { return informe; }
+        public String getMensaje() { return mensaje; }
+    }
+
+    // Gramática ya transformada, con su tabla, lista para simular sus cadenas
+    private static final class Preparada {
+        final String nombre;
+        final Gramatica original;
+        final Gramatica modificada;
+        final TablaLL1 tabla;
+        final TablaInforme tablaInforme;
+        final Tokenizador tokenizador;
+        final List<String> cadenas;
+        final List<Integer> lineas;
+        final Resultado fallo;
+
+        Preparada(String nombre, Gramatica original, Gramatica modificada, TablaLL1 tabla, Tokenizador tokenizador,
+                  List<String> cadenas, List<Integer> lineas) {
+            this.nombre = nombre;
+            this.original = original;
+            this.modificada = modificada;
+            this.tabla = tabla;
+            this.tablaInforme = new TablaInforme(tabla, modificada);
+            this.tokenizador = tokenizador;
+            this.cadenas = cadenas;
+            this.lineas = lineas;
+            this.fallo = null;
+        }
+
+        Preparada(Resultado fallo) {
+            this.nombre = fallo.getGramatica();
+            this.original = null;
+            this.modificada = null;
+            this.tabla = null;
+            this.tablaInforme = null;
+            this.tokenizador = null;
+            this.cadenas = Collections.emptyList();
+            this.lineas = Collections.emptyList();
+            this.fallo = fallo;
+        }
+    }
+
+    private final File directorio;
+    private final File destino;
+    private final ResourceBundle bundle;
+    private FormatoInforme formato;
+    private int hilos = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private long maxPasos = MAX_PASOS_POR_DEFECTO;
+    private List<Locale> idiomas;
+
+    /**
+     * @param directorio Carpeta con las gramáticas y sus archivos de cadenas
+     * @param destino Carpeta donde se escriben los informes y el índice
+     */
+    public LoteInformes(File directorio, File destino, ResourceBundle bundle) {
+        this.directorio = directorio;
+        this.destino = destino;
+        this.bundle = bundle;
+        this.idiomas = Collections.singletonList(bundle.getLocale());
+    }
+
+    /**
+     * Idiomas en los que se escribe cada informe. Con más de uno, los PDF de una
+     * misma cadena se generan a la vez a partir del mismo contenido.
+     */
+    public void setIdiomas(List<Locale> idiomas) {
+        this.idiomas = idiomas.isEmpty() ? Collections.singletonList(bundle.getLocale()) : new ArrayList<>(idiomas);
+    }
+
+    /**
+     * Formato de los informes; null para PDF, que es el valor por defecto.
+     */
+    public void setFormato(FormatoInforme formato) {
+        this.formato = formato;
+    }
+
+    public void setHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * Pasos tras los que se abandona una simulación, para que una entrada que
+     * no termina no bloquee el lote.
+     */
+    public void setMaxPasos(long maxPasos) {
+        this.maxPasos = Math.max(1, maxPasos);
+    }
+
+    /**
+     * Procesa la carpeta y escribe los informes y el índice.
+     * @param progreso Recibe el nombre de cada informe terminado; si se cancela,
+     *        el lote se detiene y el índice no se escribe
+     * @return Los resultados en el orden del índice
+     * @throws CancellationException Si el progreso se cancela
+     */
+    public List<Resultado> ejecutar(ProgresoInforme progreso) throws IOException {
+        File[] archivos = directorio.listFiles((dir, nombre) -> nombre.toLowerCase(Locale.ROOT).endsWith(".xml"));
+        if (archivos == null) {
+            throw new IOException("No se puede leer la carpeta " + directorio);
+        }
+        // Orden por nombre: los informes y el índice no dependen del sistema de archivos
+        Arrays.sort(archivos);
+        Files.createDirectories(destino.toPath());
+
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "lote-informes");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            // Primero se preparan todas las gramáticas; cada una, según termina,
+            // reparte sus cadenas entre los mismos hilos
+            List<Future<Preparada>> preparadas = new ArrayList<>(archivos.length);
+            for (File archivo : archivos) {
+                preparadas.add(trabajadores.submit(() -> preparar(archivo)));
+            }
+
+            List<Future<Resultado>> informes = new ArrayList<>();
+            List<Resultado> fallos = new ArrayList<>();
+            for (Future<Preparada> futura : preparadas) {
+                Preparada preparada = esperar(futura);
+                if (preparada.fallo != null) {
+                    fallos.add(preparada.fallo);
+                } else if (preparada.cadenas.isEmpty()) {
+                    informes.add(trabajadores.submit(() -> informe(preparada, 0, null, progreso)));
+                } else {
+                    for (int i = 0; i < preparada.cadenas.size(); i++) {
+                        int linea = preparada.lineas.get(i);
+                        String cadena = preparada.cadenas.get(i);
+                        informes.add(trabajadores.submit(() -> informe(preparada, linea, cadena, progreso)));
+                    }
+                }
+            }
+
+            int total = informes.size() + fallos.size();
+            int completados = fallos.size();
+            List<Resultado> resultados = new ArrayList<>(fallos);
+            for (Future<Resultado> futura : informes) {
+                if (progreso.isCancelado()) throw new CancellationException();
+                Resultado resultado = esperar(futura);
+                resultados.add(resultado);
+                progreso.seccion(resultado.getInforme() != null ? resultado.getInforme().getName() : resultado.getGramatica(),
+                                 ++completados, total);
+            }
+
+            resultados.sort((a, b) -> a.getGramatica().equals(b.getGramatica())
+                ? Integer.compare(a.getLinea(), b.getLinea())
+                : a.getGramatica().compareTo(b.getGramatica()));
+            escribirIndice(resultados);
+            return resultados;
+        } finally {
+            trabajadores.shutdownNow();
+        }
+    }
+
+    // Un fallo en una gramática queda en el índice sin detener el lote
+    private Preparada preparar(File archivo) {
+        String nombre = archivo.getName().substring(0, archivo.getName().length() - 4);
+        try {
+            return preparar(archivo, nombre);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error al preparar " + archivo.getName(), e);
+            return new Preparada(new Resultado(nombre, 0, null, Estado.ERROR, 0, 0, null, e.toString()));
+        }
+    }
+
+    // Carga → validación → transformación → conjuntos → tabla
+    private Preparada preparar(File archivo, String nombre) throws IOException {
+        Gramatica original = Gramatica.cargarDesdeArchivo(archivo);
+        if (original == null) {
+            return new Preparada(new Resultado(nombre, 0, null, Estado.ERROR, 0, 0, null, "No se pudo leer " + archivo.getName()));
+        }
+        List<String> errores = original.validarGramatica();
+        if (original.getEstado() != 1) {
+            return new Preparada(new Resultado(nombre, 0, null, Estado.GRAMATICA_INVALIDA, 0, 0, null, String.join("; ", errores)));
+        }
+
+        Gramatica modificada = new Gramatica(original);
+        modificada.eliminarRecursividad();
+        modificada.factorizar();
+        modificada.generarConjPrim();
+        modificada.generarConjSig();
+        TablaLL1 tabla = TablaLL1.desdeGramatica(modificada);
+
+        Tokenizador tokenizador = Tokenizador.ESPACIOS;
+        if (modificada.tienePatronesTerminales()) {
+            tokenizador = AnalizadorLexico.desdeGramatica(modificada);
+        }
+
+        List<String> cadenas = new ArrayList<>();
+        List<Integer> lineas = new ArrayList<>();
+        File archivoCadenas = new File(archivo.getParentFile(), nombre + ".txt");
+        if (archivoCadenas.isFile()) {
+            List<String> contenido = Files.readAllLines(archivoCadenas.toPath(), StandardCharsets.UTF_8);
+            for (int i = 0; i < contenido.size(); i++) {
+                String cadena = contenido.get(i).trim();
+                if (cadena.isEmpty() || cadena.startsWith("#")) continue;
+                cadenas.add(cadena);
+                lineas.add(i + 1);
+            }
+        }
+        return new Preparada(nombre, original, modificada, tabla, tokenizador, cadenas, lineas);
+    }
+
+    // Simulación → informe de una cadena, o solo de la gramática si la cadena es null
+    private Resultado informe(Preparada preparada, int linea, String cadena, ProgresoInforme progreso) {
+        String base = cadena != null ? String.format("%s-%03d", preparada.nombre, linea) : preparada.nombre;
+        // Con varios idiomas cada archivo lleva el suyo: "nombre-001_en.pdf"
+        Map<Locale, String> archivos = new LinkedHashMap<>();
+        for (Locale idioma : idiomas) {
+            archivos.put(idioma, new File(destino, base + (idiomas.size() > 1 ? "_" + idioma.getLanguage() : "")
+                + "." + (formato != null ? formato.getExtension() : "pdf")).getAbsolutePath());
+        }
+        File archivo = new File(archivos.values().iterator().next());
+        // El informe solo comprueba la cancelación; el avance lo lleva el lote
+        ProgresoInforme progresoInforme = new ProgresoInforme() {
+            @Override
+            public void seccion(String seccion, int completadas, int total) {
+                // Sin seguimiento por secciones
+            }
+
+            @Override
+            public boolean isCancelado() {
+                return progreso.isCancelado();
+            }
+        };
+
+        try {
+            List<HistorialPaso> historial = new ArrayList<>();
+            ArbolSintactico arbol = null;
+            String claveEstado = "informe.simulador.no.especificado";
+            Estado resultado = Estado.SIN_CADENAS;
+            int errores = 0;
+
+            if (cadena != null) {
+                String[] tokens;
+                try {
+                    tokens = preparada.tokenizador.tokenizar(cadena);
+                } catch (Tokenizador.ErrorLexico e) {
+                    return new Resultado(preparada.nombre, linea, cadena, Estado.ERROR_LEXICO, 0, 0, null, e.getMessage());
+                }
+
+                MotorLL1 motor = new MotorLL1(preparada.tabla, preparada.modificada.getSimbInicial());
+                motor.setCache(CacheSimulaciones.getInstancia());
+                TrazaSimulacion traza = motor.iniciar(tokens);
+                while (motor.getPasoActual() < maxPasos && motor.avanzarCadena() != null) {
+                    // Cada paso queda registrado en la traza
+                }
+                if (!motor.isTerminado()) {
+                    return new Resultado(preparada.nombre, linea, cadena, Estado.LIMITE_PASOS, motor.getPasoActual(),
+                                         motor.getErroresRecuperados(), null, null);
+                }
+
+                for (int paso = 1; paso <= motor.getPasoActual(); paso++) {
+                    historial.add(new HistorialPaso(traza, paso));
+                }
+                arbol = motor.getArbol();
+                errores = motor.getErroresRecuperados();
+
+                // Mismo criterio que el informe de la simulación interactiva
+                AccionSimulacion ultima = traza.getAccion(motor.getPasoActual());
+                if (errores == 0 && ultima == AccionSimulacion.ACEPTAR) {
+                    claveEstado = "informe.simulador.estado.aceptada";
+                    resultado = Estado.ACEPTADA;
+                } else {
+                    claveEstado = "informe.simulador.estado.rechazada";
+                    resultado = Estado.RECHAZADA;
+                }
+            }
+
+            if (formato != null) {
+                // Los formatos de texto se escriben en un momento: un idioma tras otro
+                for (Map.Entry<Locale, String> destinoIdioma : archivos.entrySet()) {
+                    ResourceBundle textos = bundle(destinoIdioma.getKey());
+                    preparada.modificada.exportarInformeSimulacion(destinoIdioma.getValue(), formato, preparada.original,
+                        preparada.tablaInforme, null, textos, cadena, textos.getString(claveEstado), historial, arbol, progresoInforme);
+                }
+            } else if (idiomas.size() > 1) {
+                if (!preparada.modificada.generarInformesSimulacionMultiidioma(archivos, preparada.original,
+                        preparada.tablaInforme, null, cadena, claveEstado, historial, arbol, progresoInforme)) {
+                    return new Resultado(preparada.nombre, linea, cadena, Estado.ERROR, historial.size(), errores,
+                                         null, "No se han generado todos los idiomas");
+                }
+            } else if (!preparada.modificada.generarInformeSimulacionFinalProfesional(archivo.getAbsolutePath(),
+                    preparada.original, preparada.tablaInforme, null, bundle, cadena, bundle.getString(claveEstado),
+                    historial, arbol, progresoInforme) || !archivo.isFile()) {
+                return new Resultado(preparada.nombre, linea, cadena, Estado.ERROR, historial.size(), errores,
+                                     null, "No se ha generado el informe");
+            }
+            return new Resultado(preparada.nombre, linea, cadena, resultado, historial.size(), errores, archivo, null);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error en el informe " + archivo.getName(), e);
+            return new Resultado(preparada.nombre, linea, cadena, Estado.ERROR, 0, 0, null, e.toString());
+        }
+    }
+
+    private ResourceBundle bundle(Locale idioma) {
+        return idioma.equals(bundle.getLocale()) ? bundle : ResourceBundle.getBundle("utils.messages", idioma);
+    }
+
+    private void escribirIndice(List<Resultado> resultados) throws IOException {
+        File indice = new File(destino, ARCHIVO_INDICE);
+        try (Writer salida = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(indice), StandardCharsets.UTF_8))) {
+            salida.write("gramatica,linea,cadena,resultado,pasos,errores,informe,mensaje\r\n");
+            for (Resultado r : resultados) {
+                salida.write(campoCsv(r.getGramatica()) + "," + r.getLinea() + "," + campoCsv(r.getCadena()) + ","
+                    + r.getEstado() + "," + r.getPasos() + "," + r.getErrores() + ","
+                    + campoCsv(r.getInforme() != null ? r.getInforme().getName() : null) + ","
+                    + campoCsv(r.getMensaje()) + "\r\n");
+            }
+        }
+    }
+
+    private static String campoCsv(String texto) {
+        if (texto == null) return "";
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return "\"" + texto.replace("\"", "\"\"") + "\"";
+    }
+
+    private static <T> T esperar(Future<T> futura) throws IOException {
+        try {
+            return futura.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) throw (IOException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new IOException(causa);
+        }
+    }
+
+    /**
+     * Uso: {@code LoteInformes carpeta [destino] [--formato=pdf|html|md|json|csv] [--hilos=N] [--idioma=es,en,de]}.
+     * Sin destino, los informes se escriben en "informes" dentro de la carpeta.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: LoteInformes carpeta [destino] [--formato=pdf|html|md|json|csv] [--hilos=N] [--idioma=es,en,de]");
+            System.exit(2);
+        }
+        File directorio = new File(args[0]);
+        File destino = new File(directorio, "informes");
+        FormatoInforme formato = null;
+        Integer hilos = null;
+        List<Locale> idiomas = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--formato=")) {
+                formato = FormatoInforme.deArchivo(new File("informe." + arg.substring("--formato=".length())));
+            } else if (arg.startsWith("--hilos=")) {
+                hilos = Integer.parseInt(arg.substring("--hilos=".length()));
+            } else if (arg.startsWith("--idioma=")) {
+                // Uno o varios separados por comas: --idioma=es,en,de
+                for (String codigo : arg.substring("--idioma=".length()).split(",")) {
+                    idiomas.add(new Locale(codigo.trim()));
+                }
+            } else {
+                destino = new File(arg);
+            }
+        }
+
+        if (idiomas.isEmpty()) idiomas.add(new Locale("es"));
+        LoteInformes lote = new LoteInformes(directorio, destino, ResourceBundle.getBundle("utils.messages", idiomas.get(0)));
+        lote.setIdiomas(idiomas);
+        lote.setFormato(formato);
+        if (hilos != null) lote.setHilos(hilos);
+        List<Resultado> resultados = lote.ejecutar(new ProgresoInforme() {
+            @Override
+            public void seccion(String seccion, int completadas, int total) {
+                System.out.println("[" + completadas + "/" + total + "] " + seccion);
+            }
+
+            @Override
+            public boolean isCancelado() {
+                return false;
+            }
+        });
+        System.out.println(resultados.size() + " informes; índice en " + new File(destino, ARCHIVO_INDICE).getAbsolutePath());
+    }
+}
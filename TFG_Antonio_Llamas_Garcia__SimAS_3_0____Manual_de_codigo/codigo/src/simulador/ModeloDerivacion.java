@@ -0,0 +1,95 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Modelo de la pestaña de derivación de una simulación.
+ *
+ * Escucha la {@link TrazaSimulacion} y mantiene dos listas de índices de paso:
+ * todos los pasos realizados y los pasos que aplican una producción, cuya forma
+ * sentencial izquierda forma la derivación. Cada paso añadido o descartado
+ * solo añade o quita las filas afectadas, y los pasos que llegan juntos se
+ * añaden de una vez; el texto de cada fila se genera al dibujar la celda a
+ * partir de la traza.
+ */
+public class ModeloDerivacion implements TrazaSimulacion.Oyente {
+
+    private final ObservableList<Integer> pasos = FXCollections.observableArrayList();
+    private final ObservableList<Integer> formas = FXCollections.observableArrayList();
+    private TrazaSimulacion traza;
+
+    /**
+     * Empieza a seguir una nueva traza (por ejemplo, al reiniciar la simulación).
+     */
+    public void setTraza(TrazaSimulacion traza) {
+        if (this.traza != null) {
+            this.traza.removeOyente(this);
+        }
+        this.traza = traza;
+        pasos.clear();
+        formas.clear();
+        if (traza == null) return;
+
+        traza.addOyente(this);
+        formas.add(0);
+        pasosRegistrados(traza, 1, traza.getNumPasos());
+    }
+
+    public TrazaSimulacion getTraza() {
+        return traza;
+    }
+
+    /** Índices de todos los pasos realizados, empezando por el 1. */
+    public ObservableList<Integer> getPasos() {
+        return pasos;
+    }
+
+    /** Índices de los pasos con forma sentencial propia: el inicial y las expansiones. */
+    public ObservableList<Integer> getFormas() {
+        return formas;
+    }
+
+    @Override
+    public void pasoRegistrado(TrazaSimulacion traza, int paso) {
+        anadirPaso(paso);
+    }
+
+    @Override
+    public void pasosRegistrados(TrazaSimulacion traza, int desde, int hasta) {
+        // Un solo cambio por lista, para que la vista se actualice una vez
+        List<Integer> nuevos = new ArrayList<>(Math.max(0, hasta - desde + 1));
+        List<Integer> expansiones = new ArrayList<>();
+        for (int paso = desde; paso <= hasta; paso++) {
+            nuevos.add(paso);
+            if (esExpansion(paso)) expansiones.add(paso);
+        }
+        pasos.addAll(nuevos);
+        formas.addAll(expansiones);
+    }
+
+    @Override
+    public void pasosDescartados(TrazaSimulacion traza, int ultimoPasoConservado) {
+        // Los pasos están ordenados: basta con recortar el final de cada lista
+        pasos.remove(Math.min(ultimoPasoConservado, pasos.size()), pasos.size());
+        int desde = formas.size();
+        while (desde > 0 && formas.get(desde - 1) > ultimoPasoConservado) {
+            desde--;
+        }
+        formas.remove(desde, formas.size());
+    }
+
+    private void anadirPaso(int paso) {
+        pasos.add(paso);
+        if (esExpansion(paso)) {
+            formas.add(paso);
+        }
+    }
+
+    private boolean esExpansion(int paso) {
+        return traza.getAccion(paso) == AccionSimulacion.PRODUCCION;
+    }
+}
@@ -0,0 +1,454 @@
+package simulador;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Núcleo del análisis descendente predictivo compartido por los simuladores.
+ *
+ * Ejecuta los pasos sobre una {@link TablaLL1} compilada, registra cada uno en
+ * una {@link TrazaSimulacion} y mantiene el {@link ArbolSintactico}. Las vistas
+ * solo deciden cómo obtener la tabla y cómo dividir la entrada en tokens
+ * ({@link Tokenizador}), de modo que ambos simuladores producen exactamente la
+ * misma traza para la misma entrada.
+ *
+ * Las reglas de cada paso están en {@link PasoLL1}, que también usa el modo
+ * flujo. Ante un error se recupera en modo pánico ({@link ConjuntosSincronizacion})
+ * o con las funciones de error de la tabla ({@link FuncionesErrorLL1}), que
+ * modifican la entrada o la pila y registran cada aplicación como un paso.
+ */
+public class MotorLL1 {
+
+    private static final String FIN_CADENA = "$";
+
+    private final TablaLL1 tabla;
+    private final String simboloInicial;
+    private ConjuntosSincronizacion sincronizacion;
+    private FuncionesErrorLL1 funciones;
+    private PasoLL1 reglas;
+    private final EstadoMotor estado = new EstadoMotor();
+
+    private TrazaSimulacion traza;
+    private ArbolSintactico arbol;
+    private TrazaSimulacion.NodoPila pila;
+    private TrazaSimulacion.NodoPila prefijo;
+    private TrazaSimulacion.NodoPila insertados;
+    private int cursor;
+    private int errores;
+    private int pasoActual;
+    private boolean terminado = true;
+
+    // Identificador en la traza de cada entrada de la tabla, asignado al usarla
+    private int[] idsEnTraza;
+
+    // Simulaciones terminadas: si la entrada ya está, sus pasos se reproducen de la guía
+    private CacheSimulaciones cache;
+    private TrazaSimulacion guia;
+    private String[] tokensClave;
+
+    public MotorLL1(TablaLL1 tabla, String simboloInicial) {
+        this.tabla = tabla;
+        this.simboloInicial = simboloInicial;
+        this.reglas = new PasoLL1(tabla, null, null);
+    }
+
+    /**
+     * Activa la recuperación en modo pánico con los conjuntos indicados, o la
+     * desactiva si es null. Se aplica a partir del siguiente paso.
+     */
+    public void setSincronizacion(ConjuntosSincronizacion sincronizacion) {
+        this.sincronizacion = sincronizacion;
+        reglas = new PasoLL1(tabla, sincronizacion, funciones);
+        // La simulación guardada se hizo con la configuración anterior
+        guia = null;
+    }
+
+    /**
+     * Funciones de error que se aplican al llegar a una casilla con función de
+     * error y, si no hay modo pánico, a una casilla vacía; o null para terminar
+     * el análisis en ambos casos. Se aplica a partir del siguiente paso.
+     */
+    public void setFuncionesError(FuncionesErrorLL1 funciones) {
+        this.funciones = funciones;
+        reglas = new PasoLL1(tabla, sincronizacion, funciones);
+        guia = null;
+    }
+
+    /**
+     * Caché en la que se guardan las simulaciones terminadas y de la que se
+     * reproducen las que ya se hicieron con la misma configuración y entrada,
+     * o null para no usar caché. Se aplica a partir de la siguiente simulación.
+     */
+    public void setCache(CacheSimulaciones cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Empieza una simulación nueva.
+     * @param tokens Tokens de la entrada, sin el marcador final
+     * @return La traza de la nueva simulación
+     */
+    public TrazaSimulacion iniciar(String[] tokens) {
+        String[] conFin = conFin(tokens);
+
+        pila = TrazaSimulacion.apilar(TrazaSimulacion.apilar(null, FIN_CADENA), simboloInicial);
+        prefijo = null;
+        insertados = null;
+        cursor = 0;
+        errores = 0;
+        pasoActual = 0;
+        terminado = false;
+        idsEnTraza = new int[tabla.getNumEntradas()];
+        Arrays.fill(idsEnTraza, -1);
+
+        traza = new TrazaSimulacion(conFin, pila);
+        arbol = new ArbolSintactico(simboloInicial);
+        tokensClave = conFin;
+        guia = cache != null ? cache.buscar(huella(), conFin) : null;
+        return traza;
+    }
+
+    /**
+     * Ejecuta un paso del análisis y lo registra en la traza.
+     * @return La acción realizada, o null si el análisis ya había terminado
+     */
+    public AccionSimulacion avanzar() {
+        if (terminado) return null;
+        if (guia != null) return reproducir();
+
+        estado.arbolCambiado = false;
+        AccionSimulacion accion = reglas.avanzar(estado);
+        if (!estado.arbolCambiado) arbol.pasoSinCambios();
+        int entrada = reglas.getEntrada();
+        String funcion = reglas.getTextoFuncion();
+        int argumento = entrada != TablaLL1.VACIA ? idEnTraza(entrada)
+            : funcion != null ? traza.idTexto(funcion)
+            : 0;
+
+        terminado = accion.esFinal();
+        pasoActual++;
+        traza.registrar(pila, prefijo, insertados, cursor, errores, accion, argumento);
+        if (terminado && cache != null) {
+            cache.guardar(huella(), tokensClave, traza.copiar());
+        }
+        return accion;
+    }
+
+    /**
+     * Como {@link #avanzar()}, pero si el paso es una expansión aplica de una vez
+     * toda la cadena de expansiones precompilada para el token actual
+     * ({@link CadenasExpansion}). Cada expansión se sigue aplicando a la pila y
+     * registrando como un paso de la traza, porque los puntos de parada y el
+     * retroceso trabajan paso a paso; lo que se ahorra son las consultas a la
+     * tabla. El resultado es el mismo que paso a paso.
+     * @return La última acción realizada, o null si el análisis ya había terminado
+     */
+    public AccionSimulacion avanzarCadena() {
+        if (terminado) return null;
+        if (guia != null) return avanzar();
+        CadenasExpansion.Cadena cadena = tabla.esNoTerminal(pila.getSimbolo())
+            ? tabla.getCadenasExpansion().obtener(pila.getSimbolo(), tokenActual())
+            : null;
+        if (cadena == null) return avanzar();
+
+        for (int i = 0; i < cadena.getLongitud(); i++) {
+            int entrada = cadena.getEntrada(i);
+            expandir(entrada);
+            pasoActual++;
+            traza.registrar(pila, prefijo, insertados, cursor, errores, AccionSimulacion.PRODUCCION, idEnTraza(entrada));
+        }
+        return AccionSimulacion.PRODUCCION;
+    }
+
+    /**
+     * Ejecuta pasos hasta que el análisis termine, aplicando las cadenas de
+     * expansiones de una vez. Los oyentes de la traza reciben un solo aviso al final.
+     */
+    public void ejecutarHastaElFinal() {
+        traza.suspenderAvisos();
+        try {
+            while (avanzarCadena() != null) {
+                // Cada paso queda registrado en la traza
+            }
+        } finally {
+            traza.reanudarAvisos();
+        }
+    }
+
+    /**
+     * Ejecuta pasos hasta que se cumpla alguno de los puntos de parada o termine
+     * el análisis, siempre al menos uno. Las condiciones se evalúan sobre la traza
+     * tras cada paso, incluidos los de las cadenas de expansiones: si una se
+     * cumple a mitad de una cadena, el motor vuelve a ese paso. Los oyentes de
+     * la traza solo reciben un aviso, al detenerse, con los pasos que quedan.
+     * @return El punto de parada que detuvo la ejecución, o null si terminó el análisis
+     */
+    public PuntoParada ejecutarHasta(List<PuntoParada> puntos) {
+        traza.suspenderAvisos();
+        try {
+            int evaluado = pasoActual;
+            while (avanzarCadena() != null) {
+                for (int paso = evaluado + 1; paso <= pasoActual; paso++) {
+                    for (PuntoParada punto : puntos) {
+                        if (punto.seCumple(traza, paso)) {
+                            if (paso < pasoActual) retroceder(paso);
+                            return punto;
+                        }
+                    }
+                }
+                evaluado = pasoActual;
+            }
+            return null;
+        } finally {
+            traza.reanudarAvisos();
+        }
+    }
+
+    /**
+     * Vuelve al estado registrado en un paso anterior, descartando los posteriores.
+     * @param paso Paso al que se vuelve (0 para el estado inicial)
+     */
+    public void retroceder(int paso) {
+        if (traza == null || paso < 0 || paso > pasoActual) return;
+        pasoActual = paso;
+        traza.truncar(paso);
+        arbol.truncar(paso);
+        pila = traza.getPila(paso);
+        prefijo = traza.getPrefijo(paso);
+        insertados = traza.getInsertados(paso);
+        cursor = traza.getCursor(paso);
+        errores = traza.getErrores(paso);
+        terminado = paso > 0 && traza.getAccion(paso).esFinal();
+    }
+
+    /**
+     * Cambia la entrada de la simulación en curso conservando los pasos que no
+     * dependen de la parte modificada, y vuelve al último de ellos.
+     *
+     * Un paso solo lee tokens hasta la posición en que deja el cursor (la
+     * recuperación en modo pánico también los que descarta; los insertados por
+     * funciones de error no son de la entrada), así que siguen
+     * siendo válidos los pasos que dejan el cursor antes del primer token
+     * distinto. Cada paso de la traza sirve como punto de restauración. Si la
+     * nueva entrada ya se simuló, el resto de pasos se reproduce de la caché.
+     * @param tokens Tokens de la nueva entrada, sin el marcador final
+     * @return Último paso conservado
+     */
+    public int cambiarEntrada(String[] tokens) {
+        String[] nuevos = conFin(tokens);
+        int comunes = 0;
+        int maximo = Math.min(nuevos.length, traza.getNumTokens());
+        while (comunes < maximo && nuevos[comunes].equals(traza.getToken(comunes))) {
+            comunes++;
+        }
+
+        // Los cursores no decrecen: búsqueda binaria del último paso con cursor < comunes
+        int conservado = 0;
+        int alto = pasoActual;
+        while (conservado < alto) {
+            int medio = (conservado + alto + 1) >>> 1;
+            if (traza.getCursor(medio) < comunes) {
+                conservado = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+
+        retroceder(conservado);
+        traza.cambiarTokens(nuevos);
+        tokensClave = nuevos;
+        // La simulación guardada es determinista, así que también sirve desde el paso conservado
+        guia = cache != null ? cache.buscar(huella(), nuevos) : null;
+        return conservado;
+    }
+
+    public TrazaSimulacion getTraza() { return traza; }
+    public ArbolSintactico getArbol() { return arbol; }
+    public TablaLL1 getTabla() { return tabla; }
+    public int getPasoActual() { return pasoActual; }
+    public int getErroresRecuperados() { return errores; }
+    public boolean isTerminado() { return terminado; }
+
+    // ==================== Implementación ====================
+
+    // Siguiente token: el último insertado por una función de error o el del cursor
+    private String tokenActual() {
+        return insertados != null ? insertados.getSimbolo() : traza.getToken(cursor);
+    }
+
+    private void consumirToken() {
+        if (insertados != null) {
+            insertados = insertados.getAbajo();
+        } else {
+            cursor++;
+        }
+    }
+
+    /**
+     * Indica si las funciones de error ya han insertado en la posición actual
+     * del cursor tantos tokens como terminales hay: insertar siempre sin leer la
+     * entrada no terminaría nunca.
+     */
+    private boolean demasiadasInserciones() {
+        int inserciones = 0;
+        for (int paso = pasoActual; paso > 0 && traza.getCursor(paso) == cursor; paso--) {
+            TrazaSimulacion.NodoPila antes = traza.getInsertados(paso - 1);
+            TrazaSimulacion.NodoPila despues = traza.getInsertados(paso);
+            if (traza.getAccion(paso) == AccionSimulacion.FUNCION_ERROR && despues != null && despues != antes
+                    && (antes == null || despues.getProfundidad() >= antes.getProfundidad())
+                    && ++inserciones >= tabla.getNumTerminales()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia el siguiente paso de la simulación guardada en lugar de calcularlo.
+     * Estado, acción y árbol quedan igual que si se hubiera calculado.
+     */
+    private AccionSimulacion reproducir() {
+        int paso = pasoActual + 1;
+        AccionSimulacion accion = guia.getAccion(paso);
+        int argumento = 0;
+
+        switch (accion) {
+            case PRODUCCION:
+                // Los símbolos apilados son los de la cima de la pila guardada
+                TrazaSimulacion.NodoPila nodo = guia.getPila(paso);
+                String[] derecha = new String[nodo.getProfundidad() - pila.getProfundidad() + 1];
+                for (int i = 0; i < derecha.length; i++, nodo = nodo.getAbajo()) {
+                    derecha[i] = nodo.getSimbolo();
+                }
+                arbol.expandir(derecha);
+                argumento = traza.idTexto(guia.getTexto(guia.getArgumento(paso)));
+                break;
+            case FUNCION_ERROR:
+            case FIN_FUNCION_ERROR:
+                // La única función que cambia la pila es la que extrae la cima
+                if (guia.getPila(paso).getProfundidad() < pila.getProfundidad()) {
+                    arbol.consumir();
+                } else {
+                    arbol.pasoSinCambios();
+                }
+                argumento = traza.idTexto(guia.getTexto(guia.getArgumento(paso)));
+                break;
+            case EMPAREJAR:
+            case EXTRAER:
+            case DESCARTAR_Y_EXTRAER:
+                arbol.consumir();
+                break;
+            default:
+                arbol.pasoSinCambios();
+                break;
+        }
+
+        pila = guia.getPila(paso);
+        prefijo = guia.getPrefijo(paso);
+        insertados = guia.getInsertados(paso);
+        cursor = guia.getCursor(paso);
+        errores = guia.getErrores(paso);
+        terminado = accion.esFinal();
+        pasoActual = paso;
+        traza.registrar(pila, prefijo, insertados, cursor, errores, accion, argumento);
+        return accion;
+    }
+
+    // Configuración que determina el resultado de una entrada
+    private String huella() {
+        return tabla.getHuella() + "|" + simboloInicial + "|"
+            + (sincronizacion != null ? sincronizacion.getHuella() : "-") + "|"
+            + (funciones != null ? funciones.getHuella() : "-");
+    }
+
+    private static String[] conFin(String[] tokens) {
+        String[] conFin = Arrays.copyOf(tokens, tokens.length + 1);
+        conFin[tokens.length] = FIN_CADENA;
+        return conFin;
+    }
+
+    // Sustituye la cima por la parte derecha de la producción
+    private void expandir(int entrada) {
+        String[] derecha = tabla.getDerecha(entrada);
+        pila = pila.getAbajo();
+        // Apilar de derecha a izquierda
+        for (int i = derecha.length - 1; i >= 0; i--) {
+            pila = TrazaSimulacion.apilar(pila, derecha[i]);
+        }
+        arbol.expandir(derecha);
+    }
+
+    /**
+     * Pila enlazada, entrada y árbol del motor para {@link PasoLL1}. Los pasos
+     * que no extraen ni expanden la cima dejan el árbol sin cambios.
+     */
+    private final class EstadoMotor implements PasoLL1.Estado {
+        private boolean arbolCambiado;
+
+        @Override
+        public String getCima() {
+            return pila.getSimbolo();
+        }
+
+        @Override
+        public String getToken() {
+            return tokenActual();
+        }
+
+        @Override
+        public boolean alFinal() {
+            return insertados == null && traza.getToken(cursor).equals(FIN_CADENA);
+        }
+
+        @Override
+        public boolean demasiadasInserciones() {
+            return MotorLL1.this.demasiadasInserciones();
+        }
+
+        @Override
+        public int getErrores() {
+            return errores;
+        }
+
+        @Override
+        public void contarError() {
+            errores++;
+        }
+
+        @Override
+        public void consumirToken() {
+            MotorLL1.this.consumirToken();
+        }
+
+        @Override
+        public void extraerAnalizado() {
+            prefijo = TrazaSimulacion.apilar(prefijo, pila.getSimbolo());
+            extraer();
+        }
+
+        @Override
+        public void extraer() {
+            pila = pila.getAbajo();
+            arbol.consumir();
+            arbolCambiado = true;
+        }
+
+        @Override
+        public void expandir(int entrada) {
+            MotorLL1.this.expandir(entrada);
+            arbolCambiado = true;
+        }
+
+        @Override
+        public void insertarToken(String token) {
+            insertados = TrazaSimulacion.apilar(insertados, token);
+        }
+    }
+
+    private int idEnTraza(int entrada) {
+        if (idsEnTraza[entrada] < 0) {
+            idsEnTraza[entrada] = traza.idTexto(tabla.getTexto(entrada));
+        }
+        return idsEnTraza[entrada];
+    }
+}
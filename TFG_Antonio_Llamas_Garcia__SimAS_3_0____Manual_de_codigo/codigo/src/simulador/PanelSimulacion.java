@@ -26,8 +26,6 @@ public class PanelSimulacion extends VBox {
     @FXML private Label estadoLabel;
     
     private Gramatica gramatica;
-    private TablaPredictivaPaso5 tablaPredictiva;
-    private List<FuncionError> funcionesError;
     private String entrada;
     
     // Componentes de la UI
@@ -41,10 +39,12 @@ public class PanelSimulacion extends VBox {
     private Button buttonReiniciar;
     private Label labelEstado;
     
-    // Estado de la simulación
-    private Stack<String> pila;
-    private List<String> entradaActual;
-    private int posicionEntrada;
+    // Estado de la simulación: el motor compartido con SimulacionFinal. La tabla
+    // se calcula una vez a partir de la gramática y la entrada se divide tomando
+    // el nombre de terminal más largo en cada posición
+    private MotorLL1 motor;
+    private FuncionesErrorLL1 funcionesError;
+    private Tokenizador tokenizador;
     private boolean simulacionEnCurso;
     
 
@@ -56,8 +56,15 @@ public class PanelSimulacion extends VBox {
     public PanelSimulacion(Gramatica gramatica, ResourceBundle bundle) {
         this.gramatica = gramatica;
         this.bundle = bundle;
-        this.tablaPredictiva = (TablaPredictivaPaso5) gramatica.getTPredictiva();
-        this.funcionesError = tablaPredictiva.getFuncionesError();
+        this.motor = new MotorLL1(TablaLL1.desdeGramatica(gramatica), gramatica.getSimbInicial());
+        this.motor.setCache(CacheSimulaciones.getInstancia());
+        // Ante un error el motor aplica las funciones de error de la tabla predictiva
+        TablaPredictivaPaso5 tablaPredictiva = (TablaPredictivaPaso5) gramatica.getTPredictiva();
+        if (tablaPredictiva != null && tablaPredictiva.getFuncionesError() != null) {
+            this.funcionesError = new FuncionesErrorLL1(tablaPredictiva.getFuncionesError());
+            this.motor.setFuncionesError(funcionesError);
+        }
+        this.tokenizador = TokenizadorTrie.para(gramatica);
         this.pilaList = FXCollections.observableArrayList();
         this.entradaList = FXCollections.observableArrayList();
         
@@ -151,14 +158,12 @@ public class PanelSimulacion extends VBox {
         }
 
         // Inicializar estado de la simulación
-        pila = new Stack<>();
-        pila.push("$");
-        pila.push(gramatica.getSimbInicial());
-        
-        entradaActual = new ArrayList<>(Arrays.asList(entrada.split("")));
-        entradaActual.add("$");
-        posicionEntrada = 0;
-        
+        try {
+            motor.iniciar(tokenizador.tokenizar(entrada));
+        } catch (Tokenizador.ErrorLexico e) {
+            mostrarError("Error", e.getMessage());
+            return;
+        }
         simulacionEnCurso = true;
 
         // Actualizar UI
@@ -172,102 +177,38 @@ public class PanelSimulacion extends VBox {
     private void siguientePaso() {
         if (!simulacionEnCurso) return;
 
-        String simboloPila = pila.peek();
-        String simboloEntrada = entradaActual.get(posicionEntrada);
+        AccionSimulacion accion = motor.avanzar();
+        if (accion == null) return;
+        String descripcion = motor.getTraza().describirAccion(motor.getPasoActual(), bundle);
 
-        // Si ambos son $, la cadena es aceptada
-        if (simboloPila.equals("$") && simboloEntrada.equals("$")) {
+        if (accion == AccionSimulacion.PRODUCCION) {
+            actualizarArbolDerivacion(descripcion);
+        } else if (accion == AccionSimulacion.ACEPTAR) {
             finalizarSimulacion("Cadena aceptada");
             return;
-        }
-
-        // Si el símbolo de la pila es igual al de entrada, consumir ambos
-        if (simboloPila.equals(simboloEntrada)) {
-            pila.pop();
-            posicionEntrada++;
-            actualizarAreas();
+        } else if (accion == AccionSimulacion.ERROR) {
+            finalizarSimulacion("Error: No hay producción ni función de error aplicable");
             return;
-        }
-
-        // Buscar producción en la tabla predictiva
-        String produccion = buscarProduccion(simboloPila, simboloEntrada);
-        if (produccion == null || produccion.isEmpty()) {
-            // Buscar función de error aplicable
-            FuncionError funcionError = buscarFuncionError(simboloPila, simboloEntrada);
-            if (funcionError != null) {
-                aplicarFuncionError(funcionError);
-            } else {
-                finalizarSimulacion("Error: No hay producción ni función de error aplicable");
+        } else if (accion.esFuncionError()) {
+            String mensaje = funcionesError != null ? funcionesError.getMensaje(descripcion) : descripcion;
+            if (accion.esFinal()) {
+                finalizarSimulacion(mensaje);
                 return;
             }
-        } else {
-            // Aplicar la producción
-            aplicarProduccion(produccion);
+            areaSalida.appendText(mensaje + "\n");
+        } else if (accion.esFinal()) {
+            finalizarSimulacion(descripcion);
+            return;
         }
 
         actualizarAreas();
     }
-    
-    private String buscarProduccion(String noTerminal, String terminal) {
-        NoTerminal nt = new NoTerminal(noTerminal, noTerminal);
-        Terminal t = new Terminal(terminal, terminal);
-        List<String> producciones = gramatica.getProduccionesPorNoTerminalYTerminal(nt, t);
-        return producciones.isEmpty() ? null : producciones.get(0);
-    }
-    
-    private FuncionError buscarFuncionError(String simboloPila, String simboloEntrada) {
-        for (FuncionError funcion : funcionesError) {
-            if (funcion.getAccion() == FuncionError.TERMINAR_ANALISIS) {
-                return funcion;
-            }
-            Terminal simboloFuncion = funcion.getSimbolo();
-            if (simboloFuncion != null && simboloFuncion.getNombre().equals(simboloEntrada)) {
-                return funcion;
-            }
-        }
-        return null;
-    }
-    
-    private void aplicarFuncionError(FuncionError funcion) {
-        String mensaje = funcion.getMensaje();
-        if (mensaje == null || mensaje.isEmpty()) {
-            mensaje = "Aplicando función de error E" + funcion.getIdentificador();
-        }
-        
-        switch (funcion.getAccion()) {
-            case FuncionError.INSERTAR_ENTRADA:
-                if (funcion.getSimbolo() != null) {
-                    entradaActual.add(posicionEntrada, funcion.getSimbolo().getNombre());
-                }
-                break;
-            case FuncionError.BORRAR_ENTRADA:
-                if (posicionEntrada < entradaActual.size()) {
-                    entradaActual.remove(posicionEntrada);
-                }
-                break;
-            case FuncionError.TERMINAR_ANALISIS:
-                finalizarSimulacion(mensaje);
-                return;
-        }
-        
-        areaSalida.appendText(mensaje + "\n");
-    }
-    
-    private void aplicarProduccion(String produccion) {
-        pila.pop(); // Remover el no terminal actual
-        
-        // Separar la producción en símbolos
-        String[] simbolos = produccion.split(" ");
-        
-        // Apilar los símbolos en orden inverso
-        for (int i = simbolos.length - 1; i >= 0; i--) {
-            String simbolo = simbolos[i];
-            if (!simbolo.equals("ε")) { // No apilar épsilon
-                pila.push(simbolo);
-            }
-        }
-        
-        actualizarArbolDerivacion(produccion);
+
+    /**
+     * Cambia la forma de dividir la cadena de entrada en tokens. Se aplica al iniciar la simulación.
+     */
+    public void setTokenizador(Tokenizador tokenizador) {
+        this.tokenizador = tokenizador;
     }
     
     private void actualizarArbolDerivacion(String produccion) {
@@ -276,18 +217,24 @@ public class PanelSimulacion extends VBox {
     }
     
     private void actualizarAreas() {
-        // Actualizar área de entrada
+        TrazaSimulacion traza = motor.getTraza();
+        int paso = motor.getPasoActual();
+
+        // Actualizar área de entrada: los tokens insertados por funciones de error van tras la marca
         StringBuilder entradaStr = new StringBuilder();
-        for (int i = 0; i < entradaActual.size(); i++) {
-            if (i == posicionEntrada) {
+        for (int i = 0; i < traza.getNumTokens(); i++) {
+            if (i == traza.getCursor(paso)) {
                 entradaStr.append("►");
+                for (TrazaSimulacion.NodoPila n = traza.getInsertados(paso); n != null; n = n.getAbajo()) {
+                    entradaStr.append(n.getSimbolo());
+                }
             }
-            entradaStr.append(entradaActual.get(i));
+            entradaStr.append(traza.getToken(i));
         }
         areaEntrada.setText(entradaStr.toString());
 
         // Actualizar área de pila
-        areaPila.setText(String.join(" ", pila));
+        areaPila.setText(traza.formatearPila(paso, TrazaSimulacion.MAX_SIMBOLOS_TEXTO));
     }
     
     private void reiniciarSimulacion() {
@@ -0,0 +1,188 @@
+package simulador;
+
+import gramatica.FuncionError;
+
+/**
+ * Reglas de un paso del análisis descendente predictivo.
+ *
+ * Decide qué hacer con la cima de la pila y el token actual (aceptar, emparejar,
+ * expandir o recuperarse de un error) y lo aplica a través de un {@link Estado},
+ * que es quien guarda la pila y la entrada. Así {@link MotorLL1}, con su pila
+ * enlazada y la traza, y {@link SimulacionEnFlujo}, con una pila en un array y
+ * sin traza, siguen exactamente las mismas reglas.
+ */
+final class PasoLL1 {
+
+    private static final String FIN_CADENA = "$";
+
+    /**
+     * Pila y entrada sobre las que se ejecutan los pasos.
+     */
+    interface Estado {
+        String getCima();
+        /** Siguiente token: el último insertado por una función de error o el de la entrada. */
+        String getToken();
+        /** Indica si no quedan tokens insertados y el de la entrada es el marcador final. */
+        boolean alFinal();
+        /** Extrae la cima, un terminal, y la pasa a la parte ya analizada. */
+        void extraerAnalizado();
+        /** Extrae la cima sin pasarla a la parte analizada. */
+        void extraer();
+        /** Sustituye la cima por la parte derecha de una entrada de la tabla. */
+        void expandir(int entrada);
+        void consumirToken();
+        /** Inserta un token delante del actual. */
+        void insertarToken(String token);
+        /**
+         * Indica si las funciones de error ya han insertado tantos tokens como
+         * terminales hay sin leer la entrada: seguir no terminaría nunca.
+         */
+        boolean demasiadasInserciones();
+        int getErrores();
+        void contarError();
+    }
+
+    private final TablaLL1 tabla;
+    private final ConjuntosSincronizacion sincronizacion;
+    private final FuncionesErrorLL1 funciones;
+
+    // Entrada de la tabla y función de error del último paso
+    private int entrada;
+    private int funcion;
+
+    /**
+     * @param sincronizacion Conjuntos del modo pánico, o null si no se usa
+     * @param funciones Funciones de error de la tabla, o null si no hay
+     */
+    PasoLL1(TablaLL1 tabla, ConjuntosSincronizacion sincronizacion, FuncionesErrorLL1 funciones) {
+        this.tabla = tabla;
+        this.sincronizacion = sincronizacion;
+        this.funciones = funciones;
+    }
+
+    /**
+     * Ejecuta un paso sobre el estado.
+     * @return La acción realizada
+     */
+    AccionSimulacion avanzar(Estado estado) {
+        entrada = TablaLL1.VACIA;
+        funcion = FuncionesErrorLL1.NINGUNA;
+        String cima = estado.getCima();
+        String token = estado.getToken();
+
+        if (cima.equals(FIN_CADENA) && token.equals(FIN_CADENA)) {
+            // Tras recuperarse de uno o más errores la cadena no es válida
+            return estado.getErrores() > 0 ? AccionSimulacion.FIN_CON_ERRORES : AccionSimulacion.ACEPTAR;
+        }
+        if (cima.equals(token)) {
+            estado.extraerAnalizado();
+            estado.consumirToken();
+            return AccionSimulacion.EMPAREJAR;
+        }
+        if (!tabla.esNoTerminal(cima) && !cima.equals(FIN_CADENA)) {
+            if (sincronizacion != null) {
+                // Modo pánico: se asume que faltaba el terminal y se extrae de la pila
+                estado.extraerAnalizado();
+                estado.contarError();
+                return AccionSimulacion.EXTRAER;
+            }
+            // Terminal en la pila distinto del de la entrada
+            return funcionPorToken(estado, token);
+        }
+
+        entrada = tabla.buscar(cima, token);
+        if (entrada == TablaLL1.VACIA && sincronizacion != null) {
+            return recuperarModoPanico(estado, cima);
+        }
+        if (entrada == TablaLL1.VACIA) {
+            return funcionPorToken(estado, token);
+        }
+        if (tabla.esFuncionError(entrada)) {
+            funcion = funciones != null ? funciones.buscar(tabla.getTexto(entrada)) : FuncionesErrorLL1.NINGUNA;
+            if (funcion == FuncionesErrorLL1.NINGUNA) {
+                // Sin la definición de la función no hay forma de recuperarse
+                estado.contarError();
+                return AccionSimulacion.FIN_FUNCION_ERROR;
+            }
+            return aplicarFuncionError(estado);
+        }
+        estado.expandir(entrada);
+        return AccionSimulacion.PRODUCCION;
+    }
+
+    /** Entrada de la tabla consultada en el último paso, o {@link TablaLL1#VACIA}. */
+    int getEntrada() {
+        return entrada;
+    }
+
+    /** Texto de la función de error del último paso, o null si no se usó ninguna. */
+    String getTextoFuncion() {
+        return funcion != FuncionesErrorLL1.NINGUNA ? funciones.getTexto(funcion) : null;
+    }
+
+    // Función que se aplica en una casilla vacía, como hacía el panel de simulación
+    private AccionSimulacion funcionPorToken(Estado estado, String token) {
+        funcion = funciones != null ? funciones.buscarPorToken(token) : FuncionesErrorLL1.NINGUNA;
+        return funcion != FuncionesErrorLL1.NINGUNA ? aplicarFuncionError(estado) : AccionSimulacion.ERROR;
+    }
+
+    /**
+     * Aplica una función de error: las de la entrada insertan el símbolo delante
+     * del token actual, lo borran o lo sustituyen, y BORRAR_PILA extrae la cima.
+     * Terminan el análisis TERMINAR_ANALISIS, las que apilarían un símbolo sin
+     * nodo en el árbol (INSERTAR_PILA y MODIFICAR_PILA) y las que no cambiarían
+     * nada, pues repetir el paso no avanzaría.
+     */
+    private AccionSimulacion aplicarFuncionError(Estado estado) {
+        estado.contarError();
+        String simbolo = funciones.getSimbolo(funcion);
+        switch (funciones.getAccion(funcion)) {
+            case FuncionError.INSERTAR_ENTRADA:
+                if (simbolo == null || estado.demasiadasInserciones()) break;
+                estado.insertarToken(simbolo);
+                return AccionSimulacion.FUNCION_ERROR;
+            case FuncionError.BORRAR_ENTRADA:
+                if (estado.alFinal()) break;
+                estado.consumirToken();
+                return AccionSimulacion.FUNCION_ERROR;
+            case FuncionError.MODIFICAR_ENTRADA:
+                if (simbolo == null || estado.alFinal() || estado.demasiadasInserciones()) break;
+                estado.consumirToken();
+                estado.insertarToken(simbolo);
+                return AccionSimulacion.FUNCION_ERROR;
+            case FuncionError.BORRAR_PILA:
+                if (estado.getCima().equals(FIN_CADENA)) break;
+                estado.extraer();
+                return AccionSimulacion.FUNCION_ERROR;
+            default:
+                break;
+        }
+        return AccionSimulacion.FIN_FUNCION_ERROR;
+    }
+
+    /**
+     * Recuperación en modo pánico ante una casilla vacía de la tabla: descarta
+     * tokens de entrada hasta encontrar uno de sincronización del no terminal
+     * de la cima y, si no es posible reanudar con él, lo extrae de la pila.
+     */
+    private AccionSimulacion recuperarModoPanico(Estado estado, String cima) {
+        estado.contarError();
+
+        int descartados = 0;
+        String token = estado.getToken();
+        while (!token.equals(FIN_CADENA)
+                && !sincronizacion.esSincronizacion(cima, token)
+                && !(descartados > 0 && sincronizacion.permiteReanudar(cima, token))) {
+            estado.consumirToken();
+            token = estado.getToken();
+            descartados++;
+        }
+
+        boolean reanudar = descartados > 0 && sincronizacion.permiteReanudar(cima, token);
+        if (!reanudar && !cima.equals(FIN_CADENA)) {
+            estado.extraer();
+            return descartados > 0 ? AccionSimulacion.DESCARTAR_Y_EXTRAER : AccionSimulacion.EXTRAER;
+        }
+        return AccionSimulacion.DESCARTAR;
+    }
+}
@@ -0,0 +1,118 @@
+package simulador;
+
+import java.util.ResourceBundle;
+import utils.Textos;
+
+/**
+ * Condición que detiene la ejecución de {@link MotorLL1#ejecutarHasta}.
+ *
+ * Se evalúa sobre el estado que la traza registra tras cada paso, sin pasar por
+ * la interfaz. Las condiciones sobre la cima, la producción aplicada y la
+ * función de error se cumplen en cada paso que las satisface; las de umbral
+ * (posición de la entrada y profundidad de la pila) solo en el paso en que se
+ * alcanza el umbral, para que al continuar no se detenga en todos los pasos
+ * siguientes.
+ */
+public final class PuntoParada {
+
+    public enum Tipo {
+        /** Símbolo de la cima de la pila igual al valor. */
+        CIMA("simulacionfinal.parada.cima", "Cima de la pila igual a"),
+        /** Producción aplicada: número ("3") o texto completo de la producción. */
+        PRODUCCION("simulacionfinal.parada.produccion", "Producción aplicada"),
+        /** La posición de la entrada llega al token indicado (desde 1). */
+        CURSOR("simulacionfinal.parada.cursor", "Entrada alcanza el token"),
+        /** La pila pasa a tener más símbolos que el valor. */
+        PROFUNDIDAD("simulacionfinal.parada.profundidad", "Profundidad de la pila mayor que"),
+        /** Se llega a una función de error de la tabla. El valor no se usa. */
+        FUNCION_ERROR("simulacionfinal.parada.funcion.error", "Función de error");
+
+        private final String clave;
+        private final String porDefecto;
+
+        Tipo(String clave, String porDefecto) {
+            this.clave = clave;
+            this.porDefecto = porDefecto;
+        }
+
+        /** Indica si la condición necesita un valor. */
+        public boolean tieneValor() {
+            return this != FUNCION_ERROR;
+        }
+
+        /** Indica si el valor es un número entero. */
+        public boolean esNumerico() {
+            return this == CURSOR || this == PROFUNDIDAD;
+        }
+
+        public String getNombre(ResourceBundle bundle) {
+            return Textos.texto(bundle, clave, porDefecto);
+        }
+    }
+
+    private final Tipo tipo;
+    private final String valor;
+    private final int numero;
+
+    /**
+     * @param valor Valor de la condición; se ignora si el tipo no lo usa
+     * @throws IllegalArgumentException Si el tipo necesita un valor y falta, o
+     *         si necesita un número y el valor no lo es
+     */
+    public PuntoParada(Tipo tipo, String valor) {
+        this.tipo = tipo;
+        this.valor = tipo.tieneValor() && valor != null ? valor.trim() : "";
+        if (tipo.tieneValor() && this.valor.isEmpty()) {
+            throw new IllegalArgumentException("Valor vacío para " + tipo);
+        }
+        this.numero = tipo.esNumerico() ? Integer.parseInt(this.valor) : 0;
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public String getValor() { return valor; }
+
+    /**
+     * Indica si la condición se cumple tras el paso indicado de la traza.
+     * @param paso Paso ya registrado, mayor que 0
+     */
+    public boolean seCumple(TrazaSimulacion traza, int paso) {
+        switch (tipo) {
+            case CIMA:
+                return valor.equals(traza.getPila(paso).getSimbolo());
+            case PRODUCCION:
+                return traza.getAccion(paso) == AccionSimulacion.PRODUCCION
+                    && coincideProduccion(traza.getTexto(traza.getArgumento(paso)));
+            case CURSOR:
+                // El valor cuenta desde 1 y el cursor desde 0
+                return traza.getCursor(paso) >= numero - 1 && traza.getCursor(paso - 1) < numero - 1;
+            case PROFUNDIDAD:
+                return traza.getPila(paso).getProfundidad() > numero
+                    && traza.getPila(paso - 1).getProfundidad() <= numero;
+            case FUNCION_ERROR:
+                return traza.getAccion(paso).esFuncionError();
+            default:
+                return false;
+        }
+    }
+
+    // Las producciones de la tabla tienen la forma "3. A → b C" y las vacías
+    // abreviadas "A → ε": se reconocen por número o por texto, con o sin número
+    private boolean coincideProduccion(String texto) {
+        if (texto.equals(valor)) return true;
+        int punto = texto.indexOf('.');
+        if (punto <= 0 || punto > texto.indexOf('→')) return false;
+        return texto.substring(0, punto).trim().equals(valor) || texto.substring(punto + 1).trim().equals(valor);
+    }
+
+    /**
+     * Texto de la condición en el idioma del bundle, por ejemplo "Cima de la pila igual a: E".
+     */
+    public String describir(ResourceBundle bundle) {
+        return tipo.tieneValor() ? tipo.getNombre(bundle) + ": " + valor : tipo.getNombre(bundle);
+    }
+
+    @Override
+    public String toString() {
+        return describir(null);
+    }
+}
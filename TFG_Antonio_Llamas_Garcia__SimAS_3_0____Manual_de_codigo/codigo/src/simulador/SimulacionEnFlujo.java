@@ -0,0 +1,326 @@
+package simulador;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Simulación en modo flujo para entradas muy grandes.
+ *
+ * Analiza los tokens de una {@link FuenteTokens} en una sola pasada con la misma
+ * tabla y las mismas reglas ({@link PasoLL1}) que {@link MotorLL1}, incluidas
+ * las funciones de error, pero sin traza ni árbol: solo conserva la pila y
+ * estadísticas agregadas (pasos, profundidad máxima de la pila, errores y usos
+ * de cada producción). Opcionalmente guarda los últimos pasos en un búfer
+ * circular para poder ver qué ocurrió antes del error.
+ *
+ * Las cadenas de expansiones con el mismo token se aplican de una vez con
+ * {@link CadenasExpansion}; las estadísticas cuentan cada expansión como un paso.
+ */
+public class SimulacionEnFlujo {
+
+    private static final String FIN_CADENA = "$";
+
+    private final TablaLL1 tabla;
+    private final String simboloInicial;
+    private ConjuntosSincronizacion sincronizacion;
+    private FuncionesErrorLL1 funciones;
+    private int pasosRecientes;
+    private volatile boolean cancelada;
+
+    public SimulacionEnFlujo(TablaLL1 tabla, String simboloInicial) {
+        this.tabla = tabla;
+        this.simboloInicial = simboloInicial;
+    }
+
+    /**
+     * Activa la recuperación en modo pánico con los conjuntos indicados, o la desactiva si es null.
+     */
+    public void setSincronizacion(ConjuntosSincronizacion sincronizacion) {
+        this.sincronizacion = sincronizacion;
+    }
+
+    /**
+     * Funciones de error que se aplican igual que en {@link MotorLL1#setFuncionesError}, o null.
+     */
+    public void setFuncionesError(FuncionesErrorLL1 funciones) {
+        this.funciones = funciones;
+    }
+
+    /**
+     * Número de pasos finales que se conservan en el resultado (0 para ninguno).
+     */
+    public void setPasosRecientes(int pasosRecientes) {
+        this.pasosRecientes = Math.max(0, pasosRecientes);
+    }
+
+    /**
+     * Detiene desde otro hilo la ejecución en curso, o la siguiente si aún no ha
+     * empezado. El resultado queda sin acción final.
+     */
+    public void cancelar() {
+        cancelada = true;
+    }
+
+    /**
+     * Analiza todos los tokens de la fuente.
+     * @throws Tokenizador.ErrorLexico Si la fuente encuentra texto que no forma ningún token
+     */
+    public Resultado ejecutar(FuenteTokens fuente) throws IOException {
+        Resultado r = new Resultado(tabla, pasosRecientes);
+        PasoLL1 reglas = new PasoLL1(tabla, sincronizacion, funciones);
+        CadenasExpansion cadenas = tabla.getCadenasExpansion();
+        EstadoFlujo estado;
+        AccionSimulacion accion = null;
+
+        try {
+            estado = new EstadoFlujo(fuente, r);
+            r.profundidadMaxima = estado.cima;
+            while (!cancelada && (accion == null || !accion.esFinal())) {
+                String simbolo = estado.getCima();
+                String token = estado.getToken();
+
+                CadenasExpansion.Cadena cadena = cadenas.obtener(simbolo, token);
+                if (cadena != null) {
+                    r.profundidadMaxima = Math.max(r.profundidadMaxima, estado.cima + cadena.getCrecimientoMaximo());
+                    estado.sustituirCima(cadena.getApilar());
+                    for (int i = 0; i < cadena.getLongitud(); i++) {
+                        r.usosEntrada[cadena.getEntrada(i)]++;
+                        r.pasos++;
+                        r.registrarReciente(cadena.getExpandido(i), token, AccionSimulacion.PRODUCCION,
+                                            cadena.getEntrada(i), null);
+                    }
+                    accion = AccionSimulacion.PRODUCCION;
+                    continue;
+                }
+
+                // Casillas vacías, funciones de error y cadenas cortadas: un paso del motor
+                accion = reglas.avanzar(estado);
+                r.pasos++;
+                r.profundidadMaxima = Math.max(r.profundidadMaxima, estado.cima);
+                r.registrarReciente(simbolo, token, accion, reglas.getEntrada(), reglas.getTextoFuncion());
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        r.accionFinal = cancelada ? null : accion;
+        if (r.accionFinal == AccionSimulacion.FIN_FUNCION_ERROR) {
+            r.funcionFinal = reglas.getEntrada() != TablaLL1.VACIA ? tabla.getTexto(reglas.getEntrada())
+                : reglas.getTextoFuncion();
+        }
+        cancelada = false;
+        r.tokensLeidos = fuente.getTokensLeidos();
+        r.linea = fuente.getLinea();
+        r.profundidadFinal = estado.cima;
+        return r;
+    }
+
+    /**
+     * Pila en un array y entrada del análisis para {@link PasoLL1}. Los tokens
+     * insertados por funciones de error se leen antes que el siguiente de la
+     * fuente, igual que en la traza de {@link MotorLL1}, y los descartados por
+     * el modo pánico se consumen de la fuente.
+     */
+    private final class EstadoFlujo implements PasoLL1.Estado {
+        private final FuenteTokens fuente;
+        private final Resultado resultado;
+        private String[] pila = new String[64];
+        private int cima;
+        private final Deque<String> insertados = new ArrayDeque<>();
+        private String siguiente;
+        // Inserciones desde que se leyó el último token de la fuente
+        private int inserciones;
+
+        private EstadoFlujo(FuenteTokens fuente, Resultado resultado) {
+            this.fuente = fuente;
+            this.resultado = resultado;
+            pila[cima++] = FIN_CADENA;
+            pila[cima++] = simboloInicial;
+            siguiente = leer();
+        }
+
+        @Override
+        public String getCima() {
+            return pila[cima - 1];
+        }
+
+        @Override
+        public String getToken() {
+            return insertados.isEmpty() ? siguiente : insertados.peek();
+        }
+
+        @Override
+        public boolean alFinal() {
+            return insertados.isEmpty() && siguiente.equals(FIN_CADENA);
+        }
+
+        @Override
+        public void extraerAnalizado() {
+            cima--;
+        }
+
+        @Override
+        public void extraer() {
+            cima--;
+        }
+
+        @Override
+        public void expandir(int entrada) {
+            String[] derecha = tabla.getDerecha(entrada);
+            String[] apilar = new String[derecha.length];
+            for (int i = 0; i < derecha.length; i++) {
+                apilar[i] = derecha[derecha.length - 1 - i];
+            }
+            sustituirCima(apilar);
+            resultado.usosEntrada[entrada]++;
+        }
+
+        @Override
+        public void consumirToken() {
+            if (!insertados.isEmpty()) {
+                insertados.pop();
+            } else {
+                siguiente = leer();
+                inserciones = 0;
+            }
+        }
+
+        @Override
+        public void insertarToken(String token) {
+            insertados.push(token);
+            inserciones++;
+        }
+
+        @Override
+        public boolean demasiadasInserciones() {
+            return inserciones >= tabla.getNumTerminales();
+        }
+
+        @Override
+        public int getErrores() {
+            return resultado.errores;
+        }
+
+        @Override
+        public void contarError() {
+            resultado.errores++;
+        }
+
+        /** Sustituye la cima por los símbolos indicados, en el orden en que se apilan. */
+        private void sustituirCima(String[] apilar) {
+            cima--;
+            if (cima + apilar.length > pila.length) {
+                pila = Arrays.copyOf(pila, Math.max(pila.length * 2, cima + apilar.length));
+            }
+            System.arraycopy(apilar, 0, pila, cima, apilar.length);
+            cima += apilar.length;
+        }
+
+        // PasoLL1 no declara excepciones: los errores de lectura se sacan envueltos
+        private String leer() {
+            try {
+                String token = fuente.siguiente();
+                return token != null ? token : FIN_CADENA;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Estadísticas de una simulación en modo flujo.
+     */
+    public static class Resultado {
+        private final TablaLL1 tabla;
+        private AccionSimulacion accionFinal;
+        private String funcionFinal;
+        private long pasos;
+        private long tokensLeidos;
+        private long linea;
+        private int profundidadMaxima;
+        private int profundidadFinal;
+        private int errores;
+        private final long[] usosEntrada;
+
+        // Búfer circular con los últimos pasos
+        private final String[] cimas;
+        private final String[] tokens;
+        private final AccionSimulacion[] acciones;
+        private final int[] entradas;
+        private final String[] textosFuncion;
+
+        private Resultado(TablaLL1 tabla, int pasosRecientes) {
+            this.tabla = tabla;
+            this.usosEntrada = new long[tabla.getNumEntradas()];
+            this.cimas = new String[pasosRecientes];
+            this.tokens = new String[pasosRecientes];
+            this.acciones = new AccionSimulacion[pasosRecientes];
+            this.entradas = new int[pasosRecientes];
+            this.textosFuncion = new String[pasosRecientes];
+        }
+
+        private void registrarReciente(String cima, String token, AccionSimulacion accion, int entrada,
+                                       String textoFuncion) {
+            if (cimas.length == 0) return;
+            int i = (int) ((pasos - 1) % cimas.length);
+            cimas[i] = cima;
+            tokens[i] = token;
+            acciones[i] = accion;
+            entradas[i] = entrada;
+            textosFuncion[i] = textoFuncion;
+        }
+
+        /** Acción con la que terminó el análisis, o null si se canceló. */
+        public AccionSimulacion getAccionFinal() { return accionFinal; }
+        /** Función de error con la que terminó el análisis ("E1"), o null si no terminó así. */
+        public String getFuncionFinal() { return funcionFinal; }
+        public boolean isAceptada() { return accionFinal == AccionSimulacion.ACEPTAR; }
+        public long getPasos() { return pasos; }
+        public long getTokensLeidos() { return tokensLeidos; }
+        /** Línea del último token leído. */
+        public long getLinea() { return linea; }
+        public int getProfundidadMaxima() { return profundidadMaxima; }
+        public int getProfundidadFinal() { return profundidadFinal; }
+        public int getErrores() { return errores; }
+
+        /**
+         * Número de veces que se aplicó cada producción, de más a menos usada.
+         */
+        public Map<String, Long> getUsosProducciones() {
+            List<Integer> usadas = new ArrayList<>();
+            for (int e = 0; e < usosEntrada.length; e++) {
+                if (usosEntrada[e] > 0) usadas.add(e);
+            }
+            usadas.sort((a, b) -> Long.compare(usosEntrada[b], usosEntrada[a]));
+            Map<String, Long> usos = new LinkedHashMap<>();
+            for (int e : usadas) {
+                usos.put(tabla.getTexto(e), usosEntrada[e]);
+            }
+            return usos;
+        }
+
+        /**
+         * Últimos pasos, del más antiguo al más reciente, como "paso: cima / token → acción".
+         */
+        public List<String> getPasosRecientes(ResourceBundle bundle) {
+            int guardados = (int) Math.min(pasos, cimas.length);
+            List<String> lineas = new ArrayList<>(guardados);
+            for (long p = pasos - guardados + 1; p <= pasos; p++) {
+                int i = (int) ((p - 1) % cimas.length);
+                String accion = entradas[i] != TablaLL1.VACIA ? tabla.getTexto(entradas[i])
+                    : textosFuncion[i] != null ? textosFuncion[i]
+                    : acciones[i].getNombre(bundle);
+                lineas.add(p + ": " + cimas[i] + " / " + tokens[i] + " → " + accion);
+            }
+            return lineas;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package simulador;
 import gramatica.Gramatica;
 import gramatica.TablaPredictivaPaso5;
 import gramatica.FuncionError;
+import informe.FormatoInforme;
+import informe.TablaInforme;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -21,8 +23,6 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import java.util.Stack;
-import java.util.Arrays;
 import java.util.List;
 import javafx.beans.property.SimpleStringProperty;
 import java.util.ArrayList;
@@ -31,11 +31,20 @@ import javafx.scene.control.TabPane;
 import java.io.File;
 import utils.ActualizableTextos;
 import utils.TabManager;
+import utils.ServicioRenderizadoDot;
+import utils.TareaInforme;
+import utils.Textos;
 import java.util.ResourceBundle;
 import javafx.application.Platform;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.Set;
 import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
 
 public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     @FXML private TextField campoEntrada;
@@ -67,14 +76,12 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     // Variables para el informe PDF (copiadas del paso 6)
     private List<FuncionError> funcionesError;
 
-    // Estado de la simulación
-    private Stack<String> pilaSimulacion;
-    private List<String> entradaSimulacion;
-    private int pasoActual;
+    // Estado de la simulación: el motor compartido con PanelSimulacion y su traza
+    private MotorLL1 motor;
+    private TrazaSimulacion trazaSimulacion;
+    private Tokenizador tokenizador = Tokenizador.ESPACIOS;
     private boolean simulacionEnCurso = false;
     private ObservableList<HistorialPaso> historialObservable = FXCollections.observableArrayList();
-    // Lista para almacenar los estados anteriores
-    private List<EstadoSimulacion> estadosAnteriores = new ArrayList<>();
     // Flag para saber si ya se ha realizado al menos un paso
     private boolean seHaRealizadoAlMenosUnPaso = false;
     // Flag para saber si estamos en un estado final (aceptación o error)
@@ -90,24 +97,36 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     private Tab derivacionTab;
     private Tab arbolTab;
 
-    // Clase para almacenar el estado de la simulación
-    private static class EstadoSimulacion {
-        Stack<String> pila;
-        List<String> entrada;
-        
-        public EstadoSimulacion(Stack<String> pila, List<String> entrada, String accion) {
-            this.pila = new Stack<>();
-            this.pila.addAll(pila);
-            this.entrada = new ArrayList<>(entrada);
-        }
-    }
-
-    // Nodo para el árbol sintáctico
-    private static class NodoArbol {
-        String valor;
-        List<NodoArbol> hijos = new ArrayList<>();
-        NodoArbol(String valor) { this.valor = valor; }
-    }
+    // Filas de la pestaña de derivación, actualizadas a partir de la traza
+    private final ModeloDerivacion modeloDerivacion = new ModeloDerivacion();
+
+    // Recuperación de errores en modo pánico
+    private boolean recuperacionPanico = false;
+    private final Set<String> tokensSincronizacion = new LinkedHashSet<>();
+    private CheckBox chkRecuperacionPanico;
+    private TextField campoTokensSincronizacion;
+
+    // Modo flujo: archivos grandes analizados sin historial
+    private static final int PASOS_RECIENTES_FLUJO = 50;
+    private static final int MAX_PRODUCCIONES_RESUMEN = 20;
+    private Button btnSimularArchivo;
+    // Simulación de archivo en curso, que el mismo botón permite cancelar
+    private SimulacionEnFlujo simulacionArchivo;
+
+    // Puntos de parada: el motor ejecuta hasta que se cumple alguno sin actualizar la vista
+    private final ObservableList<PuntoParada> puntosParada = FXCollections.observableArrayList();
+    private Button btnPuntosParada;
+    private Button btnEjecutarHasta;
+    private Label lblPuntoParada;
+
+    // Árbol sintáctico construido a medida que avanza la simulación
+    private ArbolSintactico arbolSintactico;
+
+    // Vistas de la pestaña del árbol: lienzo propio o imagen opcional de Graphviz
+    private LienzoArbol lienzoArbol;
+    private ScrollPane panelGraphviz;
+    private javafx.scene.image.ImageView imagenGraphviz;
+    private CheckBox chkGraphviz;
 
     public SimulacionFinal(Gramatica gramatica, TablaPredictivaPaso5 tablaPredictiva, TabPane tabPane, ResourceBundle bundle) {
         this.gramatica = gramatica;
@@ -119,6 +138,15 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         if (tablaPredictiva != null) {
             this.funcionesError = tablaPredictiva.getFuncionesError();
         }
+        // Si algún terminal tiene patrón léxico la entrada se analiza como texto real
+        if (gramatica.tienePatronesTerminales()) {
+            try {
+                this.tokenizador = AnalizadorLexico.desdeGramatica(gramatica);
+            } catch (IllegalArgumentException e) {
+                // Patrón no válido: se mantiene la entrada separada por espacios
+                e.printStackTrace();
+            }
+        }
         // El simulacionId se asignará desde fuera (PanelNuevaSimDescPaso6)
         this.simulacionId = null; // Se asignará después
         
@@ -355,11 +383,15 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         
         // Las áreas de texto individuales se han eliminado, ahora solo usamos la tabla de historial
         
-        // Inicializar tabla de historial
+        // Inicializar tabla de historial. La tabla solo crea celdas para las filas
+        // visibles, así que el texto de la pila y la entrada se genera bajo demanda
         colPaso.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getPaso()));
-        colPila.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getPila()));
-        colEntrada.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getEntrada()));
-        colAccion.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getAccion()));
+        colPila.setCellValueFactory(data -> new SimpleStringProperty(
+            data.getValue().getPila(TrazaSimulacion.MAX_SIMBOLOS_CELDA)));
+        colEntrada.setCellValueFactory(data -> new SimpleStringProperty(
+            data.getValue().getEntrada(TrazaSimulacion.MAX_SIMBOLOS_CELDA)));
+        // La acción se traduce al mostrarla: cambiar de idioma solo requiere refrescar la tabla
+        colAccion.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getAccion(bundle)));
         tablaHistorial.setItems(historialObservable);
         tablaHistorial.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         // No mostrar mensaje de tabla vacía
@@ -372,10 +404,99 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         btnInicio.setDisable(true);
         btnGenerarInforme.setDisable(true);
 
+        // Casilla para activar la recuperación en modo pánico junto a los botones de control
+        chkRecuperacionPanico = new CheckBox(Textos.texto(bundle, "simulacionfinal.chk.recuperacion", "Recuperación en modo pánico"));
+        chkRecuperacionPanico.setSelected(recuperacionPanico);
+        chkRecuperacionPanico.selectedProperty().addListener((obs, anterior, nuevo) -> recuperacionPanico = nuevo);
+        // Tokens que sincronizan cualquier no terminal, separados por espacios; solo cuentan en modo pánico
+        campoTokensSincronizacion = new TextField(String.join(" ", tokensSincronizacion));
+        campoTokensSincronizacion.setPromptText(Textos.texto(bundle, "simulacionfinal.campo.sincronizacion", "Tokens de sincronización (; end)"));
+        campoTokensSincronizacion.setPrefColumnCount(12);
+        campoTokensSincronizacion.disableProperty().bind(chkRecuperacionPanico.selectedProperty().not());
+        campoTokensSincronizacion.textProperty().addListener((obs, anterior, nuevo) -> {
+            tokensSincronizacion.clear();
+            for (String token : nuevo.trim().split("\\s+")) {
+                if (!token.isEmpty()) tokensSincronizacion.add(token);
+            }
+        });
+        if (btnIniciar.getParent() instanceof Pane) {
+            ((Pane) btnIniciar.getParent()).getChildren().addAll(chkRecuperacionPanico, campoTokensSincronizacion);
+        }
+
+        // Botón del modo flujo para simular archivos grandes
+        btnSimularArchivo = new Button(textoBotonArchivo());
+        btnSimularArchivo.setOnAction(e -> {
+            if (simulacionArchivo != null) {
+                simulacionArchivo.cancelar();
+            } else {
+                simularArchivo();
+            }
+        });
+        if (btnIniciar.getParent() instanceof Pane) {
+            ((Pane) btnIniciar.getParent()).getChildren().add(btnSimularArchivo);
+        }
+
+        // Puntos de parada y ejecución hasta el primero que se cumpla
+        btnPuntosParada = new Button(Textos.texto(bundle, "simulacionfinal.btn.puntos.parada", "Puntos de parada…"));
+        btnPuntosParada.setOnAction(e -> mostrarDialogoPuntosParada());
+        btnEjecutarHasta = new Button(Textos.texto(bundle, "simulacionfinal.btn.ejecutar.hasta", "Ejecutar hasta parada"));
+        btnEjecutarHasta.setOnAction(e -> ejecutarHastaParada());
+        // Se puede ejecutar hasta una parada siempre que se pueda avanzar un paso
+        btnEjecutarHasta.disableProperty().bind(btnPaso.disableProperty());
+        lblPuntoParada = new Label();
+        if (btnIniciar.getParent() instanceof Pane) {
+            ((Pane) btnIniciar.getParent()).getChildren().addAll(btnPuntosParada, btnEjecutarHasta, lblPuntoParada);
+        }
+
         // Configurar lógica de habilitación de botones de navegación
         configurarLogicaBotones();
     }
 
+    /**
+     * Activa o desactiva la recuperación de errores en modo pánico.
+     * El cambio se aplica al iniciar la siguiente simulación.
+     */
+    public void setRecuperacionPanico(boolean activa) {
+        this.recuperacionPanico = activa;
+        if (chkRecuperacionPanico != null) {
+            chkRecuperacionPanico.setSelected(activa);
+        }
+    }
+
+    public boolean isRecuperacionPanico() {
+        return recuperacionPanico;
+    }
+
+    /**
+     * Establece los tokens adicionales que sincronizan cualquier no terminal
+     * (además de sus SIGUIENTES), por ejemplo ";" o "end". También se pueden
+     * escribir en el campo junto a la casilla del modo pánico.
+     */
+    public void setTokensSincronizacion(Collection<String> tokens) {
+        tokensSincronizacion.clear();
+        if (tokens != null) {
+            tokensSincronizacion.addAll(tokens);
+        }
+        if (campoTokensSincronizacion != null) {
+            // El oyente del campo vuelve a leer los mismos tokens
+            campoTokensSincronizacion.setText(String.join(" ", tokensSincronizacion));
+        }
+    }
+
+    /**
+     * Devuelve el número de errores de los que se ha recuperado la simulación en curso.
+     */
+    public int getErroresRecuperados() {
+        return motor != null ? motor.getErroresRecuperados() : 0;
+    }
+
+    /**
+     * Cambia la forma de dividir la cadena de entrada en tokens. Se aplica al iniciar la simulación.
+     */
+    public void setTokenizador(Tokenizador tokenizador) {
+        this.tokenizador = tokenizador;
+    }
+
     /**
      * Configura la lógica de habilitación/deshabilitación de los botones según el estado de la simulación
      */
@@ -478,6 +599,10 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         btnAceptar.setOnAction(ev -> {
             campoEntrada.setText(campoCadena.getText());
             dialog.close();
+            // Con una simulación en marcha solo se repite lo que depende de la parte modificada
+            if (motor != null && trazaSimulacion != null) {
+                resimularConEntradaEditada();
+            }
         });
 
         // Botón cancelar
@@ -534,35 +659,43 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     }
 
     private void iniciarSimulacionFinal() {
-        // Limpiar el historial y estados anteriores
-        historialObservable.clear();
-        estadosAnteriores.clear();
-        pasoActual = 0;
-        seHaRealizadoAlMenosUnPaso = false;
-        estadoFinalAlcanzado = false;
-
-        // Limpiar el historial (las áreas de texto individuales se han eliminado)
-
-        // Inicializar la pila con el símbolo inicial y el marcador de fin
-        pilaSimulacion = new Stack<>();
-        pilaSimulacion.push("$");
-        pilaSimulacion.push(gramatica.getSimbInicial());
-
         // Preparar la entrada
         String entrada = campoEntrada.getText().trim();
         if (entrada.isEmpty()) {
             mostrarAlertaCadenaVacia();
             return;
         }
+        // Se divide antes de tocar el estado para poder cancelar ante un error léxico
+        String[] tokens;
+        try {
+            tokens = tokenizador.tokenizar(entrada);
+        } catch (Tokenizador.ErrorLexico e) {
+            mostrarAlertaErrorLexico(e);
+            return;
+        }
 
-        // Convertir la entrada en una lista de símbolos y añadir el marcador de fin
-        entradaSimulacion = Arrays.asList(entrada.split("\\s+"));
-        List<String> entradaConFin = new ArrayList<>(entradaSimulacion);
-        entradaConFin.add("$");
-        entradaSimulacion = entradaConFin;
-
-        // Guardar el estado inicial antes de comenzar la simulación
-        estadosAnteriores.add(new EstadoSimulacion(pilaSimulacion, entradaSimulacion, bundle.getString("simulacionfinal.accion.inicio")));
+        // Limpiar el historial
+        historialObservable.clear();
+        seHaRealizadoAlMenosUnPaso = false;
+        estadoFinalAlcanzado = false;
+        lblPuntoParada.setText("");
+
+        // La tabla se compila una vez por simulación y el motor ejecuta los pasos
+        motor = new MotorLL1(TablaLL1.desdeTablaPredictiva(gramatica, tablaPredictiva), gramatica.getSimbInicial());
+        // Los conjuntos de sincronización se precalculan una vez por simulación
+        motor.setSincronizacion(recuperacionPanico
+            ? new ConjuntosSincronizacion(gramatica, tokensSincronizacion)
+            : null);
+        motor.setFuncionesError(funcionesError != null ? new FuncionesErrorLL1(funcionesError) : null);
+        // Las simulaciones terminadas se comparten entre ventanas y se reproducen si se repiten
+        motor.setCache(CacheSimulaciones.getInstancia());
+
+        // La traza guarda el estado inicial y una referencia a la pila por cada paso;
+        // el árbol crece con cada expansión y se trunca al retroceder
+        trazaSimulacion = motor.iniciar(tokens);
+        arbolSintactico = motor.getArbol();
+        // La pestaña de derivación pasa a seguir la nueva traza
+        modeloDerivacion.setTraza(trazaSimulacion);
 
         // Iniciar la simulación
         simulacionEnCurso = true;
@@ -581,224 +714,354 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         // Actualizar la vista
         actualizarVista();
 
-        // Resetear las pestañas hijas al estado inicial si están activas
-        if (derivacionTab != null && tabPane.getTabs().contains(derivacionTab)) {
-            VBox mainContainer = (VBox) derivacionTab.getContent();
-            VBox contentContainer = (VBox) mainContainer.getChildren().get(1); // El segundo elemento es el contentContainer
-            ListView<String> listaDerivacion = null;
-            if (contentContainer.getChildren().get(1) instanceof ListView) {
-                @SuppressWarnings("unchecked")
-                ListView<String> tempList = (ListView<String>) contentContainer.getChildren().get(1);
-                listaDerivacion = tempList;
-            }
-
-            if (listaDerivacion != null) {
-                // Resetear la lista con solo el símbolo inicial
-                ObservableList<String> itemsDerivacion = FXCollections.observableArrayList();
-                itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.iniciar"));
-                listaDerivacion.setItems(itemsDerivacion);
-            }
+        // La pestaña de derivación ya se ha vaciado al cambiar de traza
+        if (arbolTab != null && tabPane.getTabs().contains(arbolTab)) {
+            // Mostrar el árbol nuevo, que solo contiene el nodo inicial
+            actualizarContenidoArbol(arbolTab);
         }
+    }
 
-        if (arbolTab != null && tabPane.getTabs().contains(arbolTab)) {
-            // Crear árbol con solo el nodo inicial
-            NodoArbol raiz = new NodoArbol(gramatica.getSimbInicial());
-            
-            // Generar el código DOT para Graphviz
-            String dotCode = generarDotDesdeArbol(raiz);
-            
-            try {
-                // Crear un archivo temporal para el código DOT
-                java.nio.file.Path dotFile = java.nio.file.Files.createTempFile("arbol_", ".dot");
-                java.nio.file.Files.write(dotFile, dotCode.getBytes());
-                
-                // Crear un archivo temporal para la imagen
-                java.nio.file.Path imgFile = java.nio.file.Files.createTempFile("arbol_", ".png");
-                
-                // Ejecutar Graphviz para generar la imagen
-                ProcessBuilder pb = new ProcessBuilder("dot", "-Tpng", dotFile.toString(), "-o", imgFile.toString());
-                Process process = pb.start();
-                process.waitFor();
-                
-                // Cargar la imagen en un ImageView
-                javafx.scene.image.Image imagen = new javafx.scene.image.Image(imgFile.toUri().toString());
-                javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(imagen);
-                imageView.setPreserveRatio(true);
-                imageView.setFitWidth(800);
-                
-                // Obtener el contenedor VBox existente y navegar a través de la jerarquía
-                VBox mainContainer = (VBox) arbolTab.getContent();
+    private void mostrarAlertaCadenaVacia() {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(bundle != null ? bundle.getString("simulacionfinal.alert.cadena.vacia.titulo") : "Cadena de entrada vacía");
+        alert.setHeaderText(null);
+        alert.setContentText(bundle != null ? bundle.getString("simulacionfinal.alert.cadena.vacia.mensaje") : "Introduce una cadena de entrada válida antes de iniciar la simulación.");
+        
+        // Aplicar estilos modernos al diálogo
+        DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.getStylesheets().add(getClass().getResource("/vistas/styles2.css").toExternalForm());
+        dialogPane.getStyleClass().add("wizard-step");
+        
+        alert.showAndWait();
+    }
 
-                // La estructura es: mainContainer -> [headerLabel, contentContainer]
-                // contentContainer -> [descriptionLabel, scrollPane, controlsContainer]
-                if (mainContainer.getChildren().size() > 1) {
-                    VBox contentContainer = (VBox) mainContainer.getChildren().get(1); // contentContainer
+    /**
+     * Modo flujo: analiza un archivo de tokens de cualquier tamaño en segundo
+     * plano, sin historial ni árbol, y muestra las estadísticas al terminar.
+     */
+    private void simularArchivo() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(Textos.texto(bundle, "simulacionfinal.flujo.titulo", "Simular archivo"));
+        File archivo = fileChooser.showOpenDialog(this.getScene().getWindow());
+        if (archivo == null) return;
+
+        SimulacionEnFlujo simulacion = new SimulacionEnFlujo(
+            TablaLL1.desdeTablaPredictiva(gramatica, tablaPredictiva), gramatica.getSimbInicial());
+        simulacion.setSincronizacion(recuperacionPanico
+            ? new ConjuntosSincronizacion(gramatica, tokensSincronizacion)
+            : null);
+        simulacion.setFuncionesError(funcionesError != null ? new FuncionesErrorLL1(funcionesError) : null);
+        simulacion.setPasosRecientes(PASOS_RECIENTES_FLUJO);
+        Tokenizador tokenizadorArchivo = tokenizador;
+
+        // Mientras dura, el botón cancela la simulación
+        simulacionArchivo = simulacion;
+        btnSimularArchivo.setText(textoBotonArchivo());
+        Thread hilo = new Thread(() -> {
+            String resumen;
+            try (FuenteTokens fuente = FuenteTokens.desdeArchivo(archivo.toPath(), tokenizadorArchivo)) {
+                try {
+                    resumen = resumirSimulacionEnFlujo(simulacion.ejecutar(fuente));
+                } catch (Tokenizador.ErrorLexico e) {
+                    resumen = Textos.texto(bundle, "simulacionfinal.flujo.linea", "Línea") + " " + fuente.getLinea() + ": " + e.getMessage();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                resumen = e.getMessage();
+            }
+            String texto = resumen;
+            Platform.runLater(() -> {
+                simulacionArchivo = null;
+                btnSimularArchivo.setText(textoBotonArchivo());
+                mostrarResultadoFlujo(archivo.getName(), texto);
+            });
+        }, "simulacion-flujo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
 
-                    if (contentContainer.getChildren().size() > 1) {
-                        ScrollPane scrollPane = (ScrollPane) contentContainer.getChildren().get(1); // scrollPane
+    private String textoBotonArchivo() {
+        return simulacionArchivo != null
+            ? Textos.texto(bundle, "simulacionfinal.btn.archivo.cancelar", "Cancelar simulación de archivo")
+            : Textos.texto(bundle, "simulacionfinal.btn.archivo", "Simular archivo…");
+    }
 
-                        // Actualizar el contenido del ScrollPane
-                        scrollPane.setContent(imageView);
+    private String resumirSimulacionEnFlujo(SimulacionEnFlujo.Resultado r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.resultado", "Resultado")).append(": ")
+          .append(r.getAccionFinal() != null ? r.getAccionFinal().getNombre(bundle)
+                                             : Textos.texto(bundle, "simulacionfinal.flujo.cancelada", "Cancelada"));
+        if (r.getFuncionFinal() != null) sb.append(" (").append(r.getFuncionFinal()).append(')');
+        sb.append('\n');
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.pasos", "Pasos")).append(": ").append(r.getPasos()).append('\n');
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.tokens", "Tokens leídos")).append(": ").append(r.getTokensLeidos()).append('\n');
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.linea", "Línea")).append(": ").append(r.getLinea()).append('\n');
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.profundidad", "Profundidad máxima de la pila")).append(": ")
+          .append(r.getProfundidadMaxima()).append('\n');
+        sb.append(Textos.texto(bundle, "simulacionfinal.flujo.errores", "Errores recuperados")).append(": ").append(r.getErrores()).append('\n');
+
+        sb.append('\n').append(Textos.texto(bundle, "simulacionfinal.flujo.producciones", "Producciones aplicadas")).append(":\n");
+        int mostradas = 0;
+        for (Map.Entry<String, Long> uso : r.getUsosProducciones().entrySet()) {
+            if (mostradas++ == MAX_PRODUCCIONES_RESUMEN) {
+                sb.append("  …\n");
+                break;
+            }
+            sb.append("  ").append(uso.getValue()).append("  ").append(uso.getKey()).append('\n');
+        }
 
-                        // Limpiar archivos temporales
-                        java.nio.file.Files.deleteIfExists(dotFile);
-                        java.nio.file.Files.deleteIfExists(imgFile);
-                    } else {
-                        System.err.println("Error: No se encontró el ScrollPane en la estructura esperada");
-                    }
-                } else {
-                    System.err.println("Error: Estructura del contenedor no es la esperada");
-                }
-                
-            } catch (Exception e) {
-                e.printStackTrace();
+        List<String> recientes = r.getPasosRecientes(bundle);
+        if (!r.isAceptada() && !recientes.isEmpty()) {
+            sb.append('\n').append(Textos.texto(bundle, "simulacionfinal.flujo.recientes", "Últimos pasos")).append(":\n");
+            for (String paso : recientes) {
+                sb.append("  ").append(paso).append('\n');
             }
         }
+        return sb.toString();
     }
 
-    private void mostrarAlertaCadenaVacia() {
+    private void mostrarResultadoFlujo(String nombreArchivo, String resumen) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(Textos.texto(bundle, "simulacionfinal.flujo.titulo", "Simular archivo"));
+        alert.setHeaderText(nombreArchivo);
+        TextArea area = new TextArea(resumen);
+        area.setEditable(false);
+        area.setWrapText(false);
+        area.setPrefRowCount(20);
+        alert.getDialogPane().setContent(area);
+
+        // Aplicar estilos modernos al diálogo
+        DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.getStylesheets().add(getClass().getResource("/vistas/styles2.css").toExternalForm());
+        dialogPane.getStyleClass().add("wizard-step");
+
+        alert.showAndWait();
+    }
+
+    private void mostrarAlertaErrorLexico(Tokenizador.ErrorLexico error) {
         Alert alert = new Alert(Alert.AlertType.WARNING);
-        alert.setTitle(bundle != null ? bundle.getString("simulacionfinal.alert.cadena.vacia.titulo") : "Cadena de entrada vacía");
+        alert.setTitle(Textos.texto(bundle, "simulacionfinal.alert.lexico.titulo", "Error léxico"));
         alert.setHeaderText(null);
-        alert.setContentText(bundle != null ? bundle.getString("simulacionfinal.alert.cadena.vacia.mensaje") : "Introduce una cadena de entrada válida antes de iniciar la simulación.");
-        
+        alert.setContentText(String.format(
+            Textos.texto(bundle, "simulacionfinal.alert.lexico.mensaje", "Ningún terminal reconoce el carácter de la posición %d."),
+            error.getPosicion() + 1));
+
         // Aplicar estilos modernos al diálogo
         DialogPane dialogPane = alert.getDialogPane();
         dialogPane.getStylesheets().add(getClass().getResource("/vistas/styles2.css").toExternalForm());
         dialogPane.getStyleClass().add("wizard-step");
-        
+
         alert.showAndWait();
     }
 
     private void avanzarPaso() {
-        if (!simulacionEnCurso) return;
-        if (pilaSimulacion.isEmpty() || entradaSimulacion.isEmpty()) return;
-
-        // Guardar estado actual antes de modificarlo
-        estadosAnteriores.add(new EstadoSimulacion(pilaSimulacion, entradaSimulacion, ""));
+        if (!simulacionEnCurso || motor == null) return;
 
         // Marcar que se ha realizado al menos un paso
         seHaRealizadoAlMenosUnPaso = true;
 
-        // Actualizar estado de botones de navegación después de guardar el estado
+        // Actualizar estado de botones de navegación
         actualizarEstadoBotonesNavegacion();
 
-        String cimaPila = pilaSimulacion.peek();
-        String simboloEntrada = entradaSimulacion.get(0);
-        String accionRealizada = "";
+        // El motor ejecuta el paso y lo registra en la traza; la fila solo apunta a él
+        if (motor.avanzar() == null) return;
+        historialObservable.add(new HistorialPaso(trazaSimulacion, motor.getPasoActual()));
 
-        // Caso de aceptación
-        if (cimaPila.equals("$") && simboloEntrada.equals("$")) {
-            accionRealizada = bundle.getString("simulacionfinal.accion.aceptar");
+        if (motor.isTerminado()) {
+            // Aceptación, error o fin del análisis con errores recuperados
             simulacionEnCurso = false;
             estadoFinalAlcanzado = true;
             btnPaso.setDisable(true);
             btnFinal.setDisable(true);
             actualizarEstadoBotonInforme(); // Actualizar botón de informe
-            pasoActual++;
-            agregarPasoHistorial(accionRealizada);
-            actualizarVista();
-            actualizarPestañasHijas();
+        }
+        actualizarVista();
+        actualizarPestañasHijas();
+    }
+
+    private void avanzarAlFinal() {
+        if (!simulacionEnCurso || motor == null) return;
+        seHaRealizadoAlMenosUnPaso = true;
+
+        // El motor aplica las cadenas de expansiones de una vez y la interfaz se
+        // actualiza una sola vez al final, no en cada paso
+        int primerPaso = motor.getPasoActual() + 1;
+        motor.ejecutarHastaElFinal();
+        anadirFilasHistorial(primerPaso);
+
+        simulacionEnCurso = false;
+        estadoFinalAlcanzado = true;
+        btnPaso.setDisable(true);
+        btnFinal.setDisable(true);
+        actualizarEstadoBotonesNavegacion();
+        actualizarEstadoBotonInforme();
+        actualizarVista();
+        actualizarPestañasHijas();
+    }
+
+    /**
+     * Ejecuta la simulación hasta el primer paso que cumple algún punto de
+     * parada. Las condiciones se evalúan en el motor y la vista se actualiza una
+     * sola vez, al detenerse.
+     */
+    private void ejecutarHastaParada() {
+        if (!simulacionEnCurso || motor == null) return;
+        if (puntosParada.isEmpty()) {
+            mostrarDialogoPuntosParada();
             return;
         }
+        seHaRealizadoAlMenosUnPaso = true;
+
+        int primerPaso = motor.getPasoActual() + 1;
+        PuntoParada alcanzado = motor.ejecutarHasta(puntosParada);
+        anadirFilasHistorial(primerPaso);
 
-        // Si son iguales y terminales, consumir
-        if (cimaPila.equals(simboloEntrada)) {
-            pilaSimulacion.pop();
-            entradaSimulacion.remove(0);
-            accionRealizada = bundle.getString("simulacionfinal.accion.emparejar");
-        } else if (esTerminal(cimaPila)) {
-            // Error: terminal en pila distinto de entrada
-            accionRealizada = bundle.getString("simulacionfinal.accion.error");
+        if (motor.isTerminado()) {
             simulacionEnCurso = false;
             estadoFinalAlcanzado = true;
             btnPaso.setDisable(true);
             btnFinal.setDisable(true);
-            actualizarEstadoBotonInforme(); // Actualizar botón de informe
-            pasoActual++;
-            agregarPasoHistorial(accionRealizada);
-            actualizarVista();
-            actualizarPestañasHijas();
-            return;
-        } else {
-            // Buscar producción o función de error en la tabla predictiva
-            String accion = buscarAccionTabla(cimaPila, simboloEntrada);
-            if (accion == null || accion.isEmpty()) {
-                accionRealizada = bundle.getString("simulacionfinal.accion.error");
-                simulacionEnCurso = false;
-                estadoFinalAlcanzado = true;
-                btnPaso.setDisable(true);
-                btnFinal.setDisable(true);
-                actualizarEstadoBotonInforme(); // Actualizar botón de informe
-                pasoActual++;
-                agregarPasoHistorial(accionRealizada);
-                actualizarVista();
-                actualizarPestañasHijas();
-                return;
-            }
-            if (accion.startsWith("E")) {
-                accionRealizada = accion;
-            } else if (accion.equals("ε") || accion.equals("ε_")) {
-                pilaSimulacion.pop();
-                accionRealizada = cimaPila + " → ε";
-            } else {
-                // Es una producción, ejemplo: "3. D → T L;"
-                String produccion = accion;
-                pilaSimulacion.pop();
-                // Extraer la parte derecha de la producción
-                String[] partes = produccion.split("→");
-                if (partes.length == 2) {
-                    String derecha = partes[1].trim();
-                    if (!derecha.equals("ε")) {
-                        String[] simbolos = derecha.split(" ");
-                        // Apilar de derecha a izquierda
-                        for (int i = simbolos.length - 1; i >= 0; i--) {
-                            if (!simbolos[i].isEmpty()) pilaSimulacion.push(simbolos[i]);
-                        }
-                    }
-                    accionRealizada = produccion.trim();
-                } else {
-                    accionRealizada = bundle.getString("simulacionfinal.accion.error");
-                }
-            }
         }
-        pasoActual++;
-        agregarPasoHistorial(accionRealizada);
+        lblPuntoParada.setText(alcanzado != null
+            ? String.format(Textos.texto(bundle, "simulacionfinal.parada.detenido", "Detenido en el paso %d: %s"),
+                            motor.getPasoActual(), alcanzado.describir(bundle))
+            : "");
+        // Mostrar el paso en el que se ha detenido
+        tablaHistorial.getSelectionModel().selectLast();
+        tablaHistorial.scrollTo(historialObservable.size() - 1);
+
+        actualizarEstadoBotonesNavegacion();
+        actualizarEstadoBotonInforme();
         actualizarVista();
         actualizarPestañasHijas();
     }
 
-    private void avanzarAlFinal() {
-        while (simulacionEnCurso) {
-            avanzarPaso();
+    // Añade de una vez las filas de los pasos ejecutados desde primerPaso
+    private void anadirFilasHistorial(int primerPaso) {
+        List<HistorialPaso> filas = new ArrayList<>(Math.max(0, motor.getPasoActual() - primerPaso + 1));
+        for (int paso = primerPaso; paso <= motor.getPasoActual(); paso++) {
+            filas.add(new HistorialPaso(trazaSimulacion, paso));
         }
-        actualizarPestañasHijas();
+        historialObservable.addAll(filas);
+    }
+
+    private void mostrarDialogoPuntosParada() {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle(Textos.texto(bundle, "simulacionfinal.dialog.parada.titulo", "Puntos de parada"));
+
+        VBox mainContainer = new VBox(15);
+        mainContainer.setAlignment(Pos.CENTER);
+        mainContainer.setPadding(new Insets(20));
+        mainContainer.getStyleClass().add("dialog-container");
+
+        Label headerLabel = new Label(Textos.texto(bundle, "simulacionfinal.dialog.parada.instruccion",
+            "La simulación se detiene en el primer paso que cumple alguna de estas condiciones:"));
+        headerLabel.getStyleClass().add("dialog-header");
+        headerLabel.setWrapText(true);
+
+        ListView<PuntoParada> lista = new ListView<>(puntosParada);
+        lista.setPrefHeight(160);
+        lista.setCellFactory(v -> new ListCell<PuntoParada>() {
+            @Override
+            protected void updateItem(PuntoParada punto, boolean vacia) {
+                super.updateItem(punto, vacia);
+                setText(vacia || punto == null ? null : punto.describir(bundle));
+            }
+        });
+
+        // Nueva condición: tipo y valor
+        ComboBox<PuntoParada.Tipo> comboTipo = new ComboBox<>(FXCollections.observableArrayList(PuntoParada.Tipo.values()));
+        comboTipo.setConverter(new javafx.util.StringConverter<PuntoParada.Tipo>() {
+            @Override
+            public String toString(PuntoParada.Tipo tipo) {
+                return tipo != null ? tipo.getNombre(bundle) : "";
+            }
+
+            @Override
+            public PuntoParada.Tipo fromString(String texto) {
+                return null;
+            }
+        });
+        comboTipo.getSelectionModel().selectFirst();
+        TextField campoValor = new TextField();
+        campoValor.setPrefWidth(160);
+        campoValor.getStyleClass().add("dialog-field");
+        comboTipo.valueProperty().addListener((obs, anterior, nuevo) -> campoValor.setDisable(!nuevo.tieneValor()));
+
+        Button btnAnadir = new Button(Textos.texto(bundle, "simulacionfinal.btn.anadir", "Añadir"));
+        btnAnadir.getStyleClass().add("dialog-button");
+        btnAnadir.setOnAction(ev -> {
+            try {
+                puntosParada.add(new PuntoParada(comboTipo.getValue(), campoValor.getText()));
+                campoValor.clear();
+            } catch (IllegalArgumentException ex) {
+                mostrarAlertaValorParada();
+            }
+        });
+        HBox nuevaCondicion = new HBox(8, comboTipo, campoValor, btnAnadir);
+        nuevaCondicion.setAlignment(Pos.CENTER);
+
+        Button btnEliminar = new Button(Textos.texto(bundle, "simulacionfinal.btn.eliminar", "Eliminar"));
+        btnEliminar.getStyleClass().add("button-cancel");
+        btnEliminar.setMinWidth(120);
+        btnEliminar.setPrefWidth(120);
+        btnEliminar.setOnAction(ev -> {
+            PuntoParada seleccionado = lista.getSelectionModel().getSelectedItem();
+            if (seleccionado != null) puntosParada.remove(seleccionado);
+        });
+
+        Button btnAceptar = new Button(Textos.texto(bundle, "button.aceptar", "Aceptar"));
+        btnAceptar.getStyleClass().add("button-finish");
+        btnAceptar.setMinWidth(120);
+        btnAceptar.setPrefWidth(120);
+        btnAceptar.setOnAction(ev -> dialog.close());
+
+        HBox acciones = new HBox(15);
+        acciones.setAlignment(Pos.CENTER);
+        acciones.setPadding(new Insets(15, 0, 0, 0));
+        acciones.getStyleClass().add("dialog-actions");
+        acciones.getChildren().addAll(btnEliminar, btnAceptar);
+
+        mainContainer.getChildren().addAll(headerLabel, lista, nuevaCondicion, acciones);
+
+        Scene scene = new Scene(mainContainer);
+        scene.getStylesheets().add(getClass().getResource("/vistas/styles2.css").toExternalForm());
+        dialog.setScene(scene);
+        dialog.setResizable(false);
+        dialog.initOwner(this.getScene().getWindow());
+        dialog.showAndWait();
+    }
+
+    private void mostrarAlertaValorParada() {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(Textos.texto(bundle, "simulacionfinal.dialog.parada.titulo", "Puntos de parada"));
+        alert.setHeaderText(null);
+        alert.setContentText(Textos.texto(bundle, "simulacionfinal.alert.parada.valor",
+            "El valor no es válido para esta condición. La entrada y la profundidad necesitan un número."));
+
+        // Aplicar estilos modernos al diálogo
+        DialogPane dialogPane = alert.getDialogPane();
+        dialogPane.getStylesheets().add(getClass().getResource("/vistas/styles2.css").toExternalForm());
+        dialogPane.getStyleClass().add("wizard-step");
+
+        alert.showAndWait();
     }
 
     private void retrocederAlInicio() {
-        if (!seHaRealizadoAlMenosUnPaso || estadosAnteriores.size() < 1) {
+        if (!seHaRealizadoAlMenosUnPaso || motor == null) {
             // Ya estamos en el inicio
             return;
         }
 
-        // Mantener solo el estado inicial
-        EstadoSimulacion estadoInicial = estadosAnteriores.get(0);
-        estadosAnteriores.clear();
-        estadosAnteriores.add(estadoInicial);
-
-        // Restaurar el estado inicial
-        pilaSimulacion.clear();
-        pilaSimulacion.addAll(estadoInicial.pila);
-
-        entradaSimulacion.clear();
-        entradaSimulacion.addAll(estadoInicial.entrada);
+        // Mantener solo el estado inicial de la traza y del árbol
+        motor.retroceder(0);
 
         // Actualizar la vista (solo la tabla de historial)
         actualizarVista();
 
         // Limpiar el historial
         historialObservable.clear();
-        pasoActual = 0;
 
         // Marcar que ya no se ha realizado ningún paso
         seHaRealizadoAlMenosUnPaso = false;
@@ -819,31 +1082,72 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         actualizarPestañasHijas();
     }
 
+    /**
+     * Aplica la entrada editada a la simulación en curso. Se conservan el
+     * historial y el árbol de los pasos que no han leído la parte modificada y
+     * desde ahí se vuelve a ejecutar hasta el paso en que estaba el usuario (o
+     * hasta el final, si ya había terminado).
+     */
+    private void resimularConEntradaEditada() {
+        String entrada = campoEntrada.getText().trim();
+        if (entrada.isEmpty()) {
+            mostrarAlertaCadenaVacia();
+            return;
+        }
+        String[] tokens;
+        try {
+            tokens = tokenizador.tokenizar(entrada);
+        } catch (Tokenizador.ErrorLexico e) {
+            mostrarAlertaErrorLexico(e);
+            return;
+        }
+
+        int pasoObjetivo = motor.getPasoActual();
+        boolean hastaElFinal = estadoFinalAlcanzado;
+        int conservado = motor.cambiarEntrada(tokens);
+        historialObservable.remove(conservado, historialObservable.size());
+
+        // Volver a ejecutar solo los pasos descartados
+        while (!motor.isTerminado() && (hastaElFinal || motor.getPasoActual() < pasoObjetivo)) {
+            if (hastaElFinal) {
+                motor.avanzarCadena();
+            } else {
+                motor.avanzar();
+            }
+        }
+        List<HistorialPaso> filas = new ArrayList<>();
+        for (int paso = conservado + 1; paso <= motor.getPasoActual(); paso++) {
+            filas.add(new HistorialPaso(trazaSimulacion, paso));
+        }
+        historialObservable.addAll(filas);
+        // Las filas conservadas muestran la entrada restante, que ha cambiado
+        tablaHistorial.refresh();
+
+        seHaRealizadoAlMenosUnPaso = motor.getPasoActual() > 0;
+        estadoFinalAlcanzado = motor.isTerminado();
+        simulacionEnCurso = !motor.isTerminado();
+        btnPaso.setDisable(!simulacionEnCurso);
+        btnFinal.setDisable(!simulacionEnCurso);
+        actualizarEstadoBotonesNavegacion();
+        actualizarEstadoBotonInforme();
+        actualizarVista();
+        actualizarPestañasHijas();
+    }
+
     private void retrocederPaso() {
-        if (!seHaRealizadoAlMenosUnPaso || estadosAnteriores.size() < 1) {
+        if (!seHaRealizadoAlMenosUnPaso || motor == null || motor.getPasoActual() < 1) {
             // No hay pasos anteriores para retroceder
             return;
         }
 
-        // Eliminar el estado actual
-        estadosAnteriores.remove(estadosAnteriores.size() - 1);
-        
-        // Obtener el estado anterior
-        EstadoSimulacion estadoAnterior = estadosAnteriores.get(estadosAnteriores.size() - 1);
-        
-        // Restaurar el estado
-        pilaSimulacion.clear();
-        pilaSimulacion.addAll(estadoAnterior.pila);
-        
-        entradaSimulacion.clear();
-        entradaSimulacion.addAll(estadoAnterior.entrada);
+        // Deshacer el último paso restaurando el estado registrado en el paso previo
+        motor.retroceder(motor.getPasoActual() - 1);
         
         // Actualizar la vista (solo la tabla de historial)
         actualizarVista();
         
         // Actualizar el historial
         historialObservable.remove(historialObservable.size() - 1);
-        pasoActual--;
 
         // Al retroceder, ya no estamos en un estado final
         estadoFinalAlcanzado = false;
@@ -856,7 +1160,7 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         btnFinal.setDisable(false);
 
         // Si después de retroceder solo queda el estado inicial, marcar que no se ha realizado ningún paso
-        if (estadosAnteriores.size() == 1) {
+        if (motor.getPasoActual() == 0) {
             seHaRealizadoAlMenosUnPaso = false;
         }
 
@@ -894,26 +1198,6 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         }
     }
 
-    private boolean esTerminal(String simbolo) {
-        return gramatica.getTerminales().stream().anyMatch(t -> t.getNombre().equals(simbolo));
-    }
-
-    private String buscarAccionTabla(String noTerminal, String terminal) {
-        // Buscar la acción en la tabla predictiva extendida
-        for (var fila : tablaPredictiva.getTablaPredictiva().getItems()) {
-            if (fila.getSimbolo().equals(noTerminal)) {
-                return fila.getValor(terminal).get();
-            }
-        }
-        return null;
-    }
-
-    private void agregarPasoHistorial(String accion) {
-        String pilaStr = String.join(" ", pilaSimulacion);
-        String entradaStr = String.join(" ", entradaSimulacion);
-        historialObservable.add(new HistorialPaso(String.valueOf(pasoActual), pilaStr, entradaStr, accion));
-    }
-
     /**
      * Crea una pestaña de derivación usando TabManager para gestión correcta de grupos.
      */
@@ -948,26 +1232,17 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         descriptionLabel.getStyleClass().add("wizard-section-header");
         descriptionLabel.setAlignment(Pos.CENTER);
         
-        // Lista de derivación con estilo moderno
-        ListView<String> listaDerivacion = new ListView<>();
-        listaDerivacion.getStyleClass().add("derivacion-list");
-        listaDerivacion.setEditable(false);
-        VBox.setVgrow(listaDerivacion, Priority.ALWAYS);
+        // Lista de pasos: sus filas siguen a la traza, sin reconstruirse en cada paso
+        ListView<Integer> listaDerivacion = crearListaDerivacion(modeloDerivacion.getPasos(), this::textoPasoDerivacion);
         
-        // Generar la derivación como lista
-        ObservableList<String> itemsDerivacion = FXCollections.observableArrayList();
-        if (historialObservable.isEmpty()) {
-            itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.iniciar"));
-        } else {
-            for (int i = 0; i < historialObservable.size(); i++) {
-                HistorialPaso paso = historialObservable.get(i);
-                itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.paso") + " " + (i + 1) + ": " + paso.getAccion());
-            }
-        }
-        listaDerivacion.setItems(itemsDerivacion);
+        // Formas sentenciales izquierdas de la derivación
+        Label formasLabel = new Label(Textos.texto(bundle, "simulacionfinal.derivacion.formas", "Formas sentenciales izquierdas:"));
+        formasLabel.getStyleClass().add("wizard-section-header");
+        formasLabel.setAlignment(Pos.CENTER);
+        ListView<Integer> listaFormas = crearListaDerivacion(modeloDerivacion.getFormas(), this::textoFormaSentencial);
         
         // Agregar elementos al contenedor de contenido
-        contentContainer.getChildren().addAll(descriptionLabel, listaDerivacion);
+        contentContainer.getChildren().addAll(descriptionLabel, listaDerivacion, formasLabel, listaFormas);
         
         // Agregar elementos al contenedor principal
         mainContainer.getChildren().addAll(headerLabel, contentContainer);
@@ -1019,95 +1294,76 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         descriptionLabel.getStyleClass().add("wizard-section-header");
         descriptionLabel.setAlignment(Pos.CENTER);
         
-        // Crear el árbol con al menos el nodo inicial
-        NodoArbol raiz;
-        if (historialObservable.isEmpty()) {
-            raiz = new NodoArbol(gramatica.getSimbInicial());
-        } else {
-            raiz = construirArbolDesdeHistorial();
-        }
+        // Lienzo con el árbol, que contiene al menos el nodo inicial
+        LienzoArbol lienzo = new LienzoArbol();
+        lienzoArbol = lienzo;
+        Set<String> nombresTerminales = new HashSet<>();
+        gramatica.getTerminales().forEach(t -> nombresTerminales.add(t.getNombre()));
+        lienzo.setEsTerminal(nombresTerminales::contains);
+        lienzo.setArbol(obtenerArbolActual());
+
+        // Vista alternativa con la imagen de Graphviz, generada en segundo plano
+        imagenGraphviz = new javafx.scene.image.ImageView();
+        imagenGraphviz.setPreserveRatio(true);
+        panelGraphviz = new ScrollPane(imagenGraphviz);
+        panelGraphviz.getStyleClass().add("arbol-scroll-pane");
+        panelGraphviz.setVisible(false);
+
+        StackPane panelArbol = new StackPane(lienzo, panelGraphviz);
+        panelArbol.getStyleClass().add("arbol-scroll-pane");
+        VBox.setVgrow(panelArbol, Priority.ALWAYS);
+        
+        // Contenedor para controles de zoom
+        VBox controlsContainer = new VBox(10);
+        controlsContainer.getStyleClass().add("arbol-controls");
+        controlsContainer.setAlignment(Pos.CENTER);
+        
+        // Label para el slider
+        Label zoomLabel = new Label(bundle.getString("simulacionfinal.arbol.zoom"));
+        zoomLabel.getStyleClass().add("wizard-field-label");
+        zoomLabel.setAlignment(Pos.CENTER);
+        
+        // Añadir controles de zoom
+        Slider zoomSlider = new Slider(0.5, 2, 1);
+        zoomSlider.setShowTickLabels(true);
+        zoomSlider.setShowTickMarks(true);
+        zoomSlider.getStyleClass().add("arbol-zoom-slider");
+        
+        // Vincular el zoom del slider con la escala del lienzo
+        zoomSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            lienzo.setEscala(newVal.doubleValue());
+            imagenGraphviz.setScaleX(newVal.doubleValue());
+            imagenGraphviz.setScaleY(newVal.doubleValue());
+        });
+
+        // Casilla para mostrar el árbol renderizado con Graphviz, si está instalado
+        chkGraphviz = new CheckBox(Textos.texto(bundle, "simulacionfinal.arbol.graphviz", "Vista Graphviz"));
+        chkGraphviz.selectedProperty().addListener((obs, anterior, activo) -> {
+            panelGraphviz.setVisible(activo);
+            lienzo.setVisible(!activo);
+            if (activo) solicitarImagenGraphviz();
+        });
         
-        // Generar el código DOT para Graphviz
-        String dotCode = generarDotDesdeArbol(raiz);
+        // Agregar controles al contenedor
+        controlsContainer.getChildren().addAll(zoomLabel, zoomSlider, chkGraphviz);
         
-        try {
-            // Crear un archivo temporal para el código DOT
-            java.nio.file.Path dotFile = java.nio.file.Files.createTempFile("arbol_", ".dot");
-            java.nio.file.Files.write(dotFile, dotCode.getBytes());
-            
-            // Crear un archivo temporal para la imagen
-            java.nio.file.Path imgFile = java.nio.file.Files.createTempFile("arbol_", ".png");
-            
-            // Ejecutar Graphviz para generar la imagen
-            ProcessBuilder pb = new ProcessBuilder("dot", "-Tpng", dotFile.toString(), "-o", imgFile.toString());
-            Process process = pb.start();
-            process.waitFor();
-            
-            // Cargar la imagen en un ImageView
-            javafx.scene.image.Image imagen = new javafx.scene.image.Image(imgFile.toUri().toString());
-            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(imagen);
-            imageView.setPreserveRatio(true);
-            imageView.setFitWidth(800);
-            
-            // Crear un ScrollPane para permitir zoom y scroll
-            ScrollPane scrollPane = new ScrollPane();
-            scrollPane.setContent(imageView);
-            scrollPane.setFitToWidth(true);
-            scrollPane.setFitToHeight(true);
-            scrollPane.getStyleClass().add("arbol-scroll-pane");
-            VBox.setVgrow(scrollPane, Priority.ALWAYS);
-            
-            // Contenedor para controles de zoom
-            VBox controlsContainer = new VBox(10);
-            controlsContainer.getStyleClass().add("arbol-controls");
-            controlsContainer.setAlignment(Pos.CENTER);
-            
-            // Label para el slider
-            Label zoomLabel = new Label(bundle.getString("simulacionfinal.arbol.zoom"));
-            zoomLabel.getStyleClass().add("wizard-field-label");
-            zoomLabel.setAlignment(Pos.CENTER);
-            
-            // Añadir controles de zoom
-            Slider zoomSlider = new Slider(0.5, 2, 1);
-            zoomSlider.setShowTickLabels(true);
-            zoomSlider.setShowTickMarks(true);
-            zoomSlider.getStyleClass().add("arbol-zoom-slider");
-            
-            // Vincular el zoom del slider con la escala de la imagen
-            zoomSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-                imageView.setScaleX(newVal.doubleValue());
-                imageView.setScaleY(newVal.doubleValue());
-            });
-            
-            // Agregar controles al contenedor
-            controlsContainer.getChildren().addAll(zoomLabel, zoomSlider);
-            
-            // Agregar elementos al contenedor de contenido
-            contentContainer.getChildren().addAll(descriptionLabel, scrollPane, controlsContainer);
-            
-            // Agregar elementos al contenedor principal
-            mainContainer.getChildren().addAll(headerLabel, contentContainer);
-            
-            // Usar TabManager para crear la pestaña como hija de la simulación
-            Tab nuevaPestana = TabManager.getOrCreateTab(
-                tabPane,
-                VBox.class, // Usar VBox como tipo de contenido
-                tituloBase,
-                mainContainer,
-                simulacionId, // parentId es el ID de la simulación
-                childId
-            );
-            
-            // Limpiar archivos temporales
-            java.nio.file.Files.deleteIfExists(dotFile);
-            java.nio.file.Files.deleteIfExists(imgFile);
-            
-            return nuevaPestana;
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+        // Agregar elementos al contenedor de contenido
+        contentContainer.getChildren().addAll(descriptionLabel, panelArbol, controlsContainer);
+        
+        // Agregar elementos al contenedor principal
+        mainContainer.getChildren().addAll(headerLabel, contentContainer);
+        
+        // Usar TabManager para crear la pestaña como hija de la simulación
+        Tab nuevaPestana = TabManager.getOrCreateTab(
+            tabPane,
+            VBox.class, // Usar VBox como tipo de contenido
+            tituloBase,
+            mainContainer,
+            simulacionId, // parentId es el ID de la simulación
+            childId
+        );
+        
+        return nuevaPestana;
     }
 
     /**
@@ -1139,31 +1395,8 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
             if (derivacionTab != null) {
                 derivacionTab.setOnClosed(e -> derivacionTab = null);
             }
-        } else {
-            // Si ya existe, actualizar su contenido
-            VBox mainContainer = (VBox) derivacionTab.getContent();
-            VBox contentContainer = (VBox) mainContainer.getChildren().get(1); // El segundo elemento es el contentContainer
-            ListView<String> listaDerivacion = null;
-            if (contentContainer.getChildren().get(1) instanceof ListView) {
-                @SuppressWarnings("unchecked")
-                ListView<String> tempList = (ListView<String>) contentContainer.getChildren().get(1);
-                listaDerivacion = tempList;
-            }
-
-            if (listaDerivacion != null) {
-                // Generar la derivación como lista
-                ObservableList<String> itemsDerivacion = FXCollections.observableArrayList();
-                                        if (historialObservable.isEmpty()) {
-                            itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.iniciar"));
-                        } else {
-                                                for (int i = 0; i < historialObservable.size(); i++) {
-                                HistorialPaso paso = historialObservable.get(i);
-                                itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.paso") + " " + (i + 1) + ": " + paso.getAccion());
-                            }
-                }
-                listaDerivacion.setItems(itemsDerivacion);
-            }
         }
+        // Si ya existe, sus listas están enlazadas al modelo y no hay que regenerarlas
         
         // Seleccionar la pestaña
         if (derivacionTab != null) {
@@ -1214,108 +1447,76 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
      * Actualiza el contenido de una pestaña de árbol existente.
      */
     private void actualizarContenidoArbol(Tab arbolTab) {
-        // Construir el nuevo árbol
-        NodoArbol raiz;
-        if (historialObservable.isEmpty()) {
-            raiz = new NodoArbol(gramatica.getSimbInicial());
-        } else {
-            raiz = construirArbolDesdeHistorial();
+        if (lienzoArbol == null) {
+            System.err.println("Error: No se encontró el lienzo del árbol");
+            return;
         }
-
-        // Generar el código DOT para Graphviz
-        String dotCode = generarDotDesdeArbol(raiz);
-        
-        try {
-            // Crear un archivo temporal para el código DOT
-            java.nio.file.Path dotFile = java.nio.file.Files.createTempFile("arbol_", ".dot");
-            java.nio.file.Files.write(dotFile, dotCode.getBytes());
-            
-            // Crear un archivo temporal para la imagen
-            java.nio.file.Path imgFile = java.nio.file.Files.createTempFile("arbol_", ".png");
-            
-            // Ejecutar Graphviz para generar la imagen
-            ProcessBuilder pb = new ProcessBuilder("dot", "-Tpng", dotFile.toString(), "-o", imgFile.toString());
-            Process process = pb.start();
-            process.waitFor();
-            
-            // Cargar la imagen en un ImageView
-            javafx.scene.image.Image imagen = new javafx.scene.image.Image(imgFile.toUri().toString());
-            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(imagen);
-            imageView.setPreserveRatio(true);
-            imageView.setFitWidth(800);
-            
-            // Obtener el contenedor VBox existente y navegar a través de la jerarquía
-            VBox mainContainer = (VBox) arbolTab.getContent();
-
-            // La estructura es: mainContainer -> [headerLabel, contentContainer]
-            // contentContainer -> [descriptionLabel, scrollPane, controlsContainer]
-            if (mainContainer.getChildren().size() > 1) {
-                VBox contentContainer = (VBox) mainContainer.getChildren().get(1); // contentContainer
-
-                if (contentContainer.getChildren().size() > 1) {
-                    ScrollPane scrollPane = (ScrollPane) contentContainer.getChildren().get(1); // scrollPane
-
-                    // Actualizar el contenido del ScrollPane
-                    scrollPane.setContent(imageView);
-
-                    // Limpiar archivos temporales
-                    java.nio.file.Files.deleteIfExists(dotFile);
-                    java.nio.file.Files.deleteIfExists(imgFile);
-                } else {
-                    System.err.println("Error: No se encontró el ScrollPane en la estructura esperada");
-                }
-            } else {
-                System.err.println("Error: Estructura del contenedor no es la esperada");
-            }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Solo se recoloca la parte del árbol que ha cambiado desde el último paso
+        lienzoArbol.setArbol(obtenerArbolActual());
+        if (chkGraphviz != null && chkGraphviz.isSelected()) {
+            solicitarImagenGraphviz();
         }
     }
 
-    private String generarDotDesdeArbol(NodoArbol raiz) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("digraph G {\n");
-        sb.append("  node [shape=box, style=rounded, fontname=\"Arial\"];\n");
-        sb.append("  edge [arrowhead=none];\n");
-        
-        // Usar un contador para generar IDs únicos de nodos
-        int[] idCounter = {0};
-        generarDotRec(raiz, sb, idCounter, null);
-        
-        sb.append("}\n");
-        return sb.toString();
+    /**
+     * Pide al servicio de Graphviz la imagen del árbol actual. Las peticiones de
+     * pasos rápidos se agrupan y los pasos ya visitados se sirven desde la caché.
+     */
+    private void solicitarImagenGraphviz() {
+        String canal = simulacionId != null ? simulacionId : String.valueOf(System.identityHashCode(this));
+        ServicioRenderizadoDot.getInstancia().solicitar(canal, obtenerArbolActual().generarDot(), png ->
+            Platform.runLater(() -> {
+                if (png != null) {
+                    imagenGraphviz.setImage(new javafx.scene.image.Image(new java.io.ByteArrayInputStream(png)));
+                } else if (chkGraphviz != null) {
+                    // Graphviz no disponible o demasiado lento: volver al lienzo
+                    chkGraphviz.setSelected(false);
+                }
+            }));
     }
 
-    private void generarDotRec(NodoArbol nodo, StringBuilder sb, int[] id, String parentId) {
-        String myId = "n" + id[0]++;
-        sb.append(myId + " [label=\"" + nodo.valor.replace("\"", "\\\"") + "\"];\n");
-        if (parentId != null) {
-            sb.append(parentId + " -> " + myId + ";\n");
-        }
-        for (NodoArbol hijo : nodo.hijos) {
-            generarDotRec(hijo, sb, id, myId);
-        }
+    /**
+     * Devuelve el árbol de la simulación en curso o, si aún no se ha iniciado,
+     * un árbol con solo el símbolo inicial.
+     */
+    private ArbolSintactico obtenerArbolActual() {
+        return arbolSintactico != null ? arbolSintactico : new ArbolSintactico(gramatica.getSimbInicial());
     }
 
-    // Modelo para la tabla de historial
+    /**
+     * Fila del historial: solo referencia un paso de la traza y genera el texto
+     * de la pila y la entrada cuando se solicita.
+     */
     public static class HistorialPaso {
-        private final String paso;
-        private final String pila;
-        private final String entrada;
-        private final String accion;
+        private final TrazaSimulacion traza;
+        private final int indice;
         
-        public HistorialPaso(String paso, String pila, String entrada, String accion) {
-            this.paso = paso;
-            this.pila = pila;
-            this.entrada = entrada;
-            this.accion = accion;
+        public HistorialPaso(TrazaSimulacion traza, int indice) {
+            this.traza = traza;
+            this.indice = indice;
         }
         
-        public String getPaso() { return paso; }
-        public String getPila() { return pila; }
-        public String getEntrada() { return entrada; }
-        public String getAccion() { return accion; }
+        public String getPaso() { return String.valueOf(indice); }
+        public String getPila() { return getPila(TrazaSimulacion.MAX_SIMBOLOS_TEXTO); }
+        public String getEntrada() { return getEntrada(TrazaSimulacion.MAX_SIMBOLOS_TEXTO); }
+        public String getPila(int maxSimbolos) { return traza.formatearPila(indice, maxSimbolos); }
+        public String getEntrada(int maxSimbolos) { return traza.formatearEntrada(indice, maxSimbolos); }
+        public AccionSimulacion getCodigoAccion() { return traza.getAccion(indice); }
+        public String getAccion(ResourceBundle bundle) { return traza.describirAccion(indice, bundle); }
+        
+        /**
+         * Texto de la producción aplicada en el paso, o null si el paso no aplica ninguna.
+         */
+        public String getProduccion() {
+            return getCodigoAccion() == AccionSimulacion.PRODUCCION ? traza.getTexto(traza.getArgumento(indice)) : null;
+        }
+
+        /**
+         * La misma fila sobre otra traza, por ejemplo una copia que ya no cambia.
+         */
+        public HistorialPaso sobre(TrazaSimulacion otraTraza) {
+            return new HistorialPaso(otraTraza, indice);
+        }
     }
 
     @Override
@@ -1361,6 +1562,17 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         if (btnGenerarInforme != null) {
             btnGenerarInforme.setText(bundle.getString("simulacionfinal.btn.informe.pdf"));
         }
+        if (chkRecuperacionPanico != null) {
+            chkRecuperacionPanico.setText(Textos.texto(bundle, "simulacionfinal.chk.recuperacion", "Recuperación en modo pánico"));
+            campoTokensSincronizacion.setPromptText(Textos.texto(bundle, "simulacionfinal.campo.sincronizacion", "Tokens de sincronización (; end)"));
+        }
+        if (btnSimularArchivo != null) {
+            btnSimularArchivo.setText(textoBotonArchivo());
+        }
+        if (btnPuntosParada != null) {
+            btnPuntosParada.setText(Textos.texto(bundle, "simulacionfinal.btn.puntos.parada", "Puntos de parada…"));
+            btnEjecutarHasta.setText(Textos.texto(bundle, "simulacionfinal.btn.ejecutar.hasta", "Ejecutar hasta parada"));
+        }
         
         // Actualizar encabezados de las columnas de la tabla
         if (colPaso != null) {
@@ -1414,60 +1626,8 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     private void actualizarTablaHistorial() {
         if (tablaHistorial == null || bundle == null) return;
         
-        // Guardar una copia de los datos originales
-        List<HistorialPaso> datosOriginales = new ArrayList<>(historialObservable);
-        
-        // Limpiar la lista observable
-        historialObservable.clear();
-        
-        // Recrear los pasos con las acciones traducidas
-        for (HistorialPaso pasoOriginal : datosOriginales) {
-            HistorialPaso pasoActualizado = new HistorialPaso(
-                pasoOriginal.getPaso(),
-                pasoOriginal.getPila(),
-                pasoOriginal.getEntrada(),
-                traducirAccion(pasoOriginal.getAccion())
-            );
-            historialObservable.add(pasoActualizado);
-        }
-    }
-    
-    /**
-     * Traduce una acción del historial al idioma actual.
-     */
-    private String traducirAccion(String accion) {
-        if (bundle == null) return accion;
-        
-        // Traducir las acciones conocidas - verificar en todos los idiomas posibles
-        String[] accionesEspanol = {"Aceptar", "Emparejar", "Error", "Inicio"};
-        String[] accionesIngles = {"Accept", "Match", "Error", "Start"};
-        String[] accionesFrances = {"Accepter", "Associer", "Erreur", "Début"};
-        String[] accionesAleman = {"Akzeptieren", "Abgleichen", "Fehler", "Start"};
-        String[] accionesPortugues = {"Aceitar", "Emparelhar", "Erro", "Início"};
-        String[] accionesJapones = {"受理", "一致", "エラー", "開始"};
-        
-        String[][] todasLasAcciones = {
-            accionesEspanol, accionesIngles, accionesFrances, 
-            accionesAleman, accionesPortugues, accionesJapones
-        };
-        
-        // Buscar la acción en todos los idiomas
-        for (String[] acciones : todasLasAcciones) {
-            for (int i = 0; i < acciones.length; i++) {
-                if (accion.equals(acciones[i])) {
-                    // Encontrar la clave correspondiente
-                    switch (i) {
-                        case 0: return bundle.getString("simulacionfinal.accion.aceptar");
-                        case 1: return bundle.getString("simulacionfinal.accion.emparejar");
-                        case 2: return bundle.getString("simulacionfinal.accion.error");
-                        case 3: return bundle.getString("simulacionfinal.accion.inicio");
-                    }
-                }
-            }
-        }
-        
-        // Si no es una acción conocida, devolver la original
-        return accion;
+        // Las filas guardan códigos de acción: basta con volver a dibujar las celdas
+        tablaHistorial.refresh();
     }
 
     /**
@@ -1491,11 +1651,17 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
                     descriptionLabel.setText(bundle.getString("simulacionfinal.derivacion.descripcion"));
                 }
                 
-                // Actualizar lista de derivación
-                if (contentContainer.getChildren().size() > 1 && contentContainer.getChildren().get(1) instanceof ListView) {
-                    @SuppressWarnings("unchecked")
-                    ListView<String> listaDerivacion = (ListView<String>) contentContainer.getChildren().get(1);
-                    actualizarListaDerivacion(listaDerivacion);
+                // Actualizar el título de las formas sentenciales
+                if (contentContainer.getChildren().size() > 2 && contentContainer.getChildren().get(2) instanceof Label) {
+                    Label formasLabel = (Label) contentContainer.getChildren().get(2);
+                    formasLabel.setText(Textos.texto(bundle, "simulacionfinal.derivacion.formas", "Formas sentenciales izquierdas:"));
+                }
+                
+                // Actualizar las listas de derivación: basta con volver a dibujar las celdas
+                for (javafx.scene.Node nodo : contentContainer.getChildren()) {
+                    if (nodo instanceof ListView) {
+                        actualizarListaDerivacion((ListView<?>) nodo);
+                    }
                 }
             }
         }
@@ -1524,6 +1690,9 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
                 
                 // Buscar y actualizar el label de zoom
                 actualizarLabelZoom(contentContainer);
+                if (chkGraphviz != null) {
+                    chkGraphviz.setText(Textos.texto(bundle, "simulacionfinal.arbol.graphviz", "Vista Graphviz"));
+                }
             }
         }
     }
@@ -1561,20 +1730,41 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
     /**
      * Actualiza la lista de derivación con textos internacionalizados.
      */
-    private void actualizarListaDerivacion(ListView<String> listaDerivacion) {
-        ObservableList<String> itemsDerivacion = FXCollections.observableArrayList();
-        
-        if (historialObservable.isEmpty()) {
-            itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.iniciar"));
-        } else {
-            for (int i = 0; i < historialObservable.size(); i++) {
-                HistorialPaso paso = historialObservable.get(i);
-                String pasoText = bundle.getString("simulacionfinal.derivacion.paso") + " " + (i + 1) + ": " + paso.getAccion();
-                itemsDerivacion.add(pasoText);
+    private void actualizarListaDerivacion(ListView<?> listaDerivacion) {
+        listaDerivacion.setPlaceholder(new Label(bundle.getString("simulacionfinal.derivacion.iniciar")));
+        listaDerivacion.refresh();
+    }
+
+    /**
+     * Crea una lista de la pestaña de derivación cuyos elementos son índices de
+     * paso de la traza. Solo se genera el texto de las celdas visibles.
+     */
+    private ListView<Integer> crearListaDerivacion(ObservableList<Integer> pasos,
+                                                   java.util.function.IntFunction<String> textoPaso) {
+        ListView<Integer> lista = new ListView<>(pasos);
+        lista.getStyleClass().add("derivacion-list");
+        lista.setEditable(false);
+        lista.setPlaceholder(new Label(bundle.getString("simulacionfinal.derivacion.iniciar")));
+        lista.setCellFactory(lv -> new ListCell<Integer>() {
+            @Override
+            protected void updateItem(Integer paso, boolean vacia) {
+                super.updateItem(paso, vacia);
+                setText(vacia || paso == null || modeloDerivacion.getTraza() == null ? null : textoPaso.apply(paso));
             }
-        }
-        
-        listaDerivacion.setItems(itemsDerivacion);
+        });
+        VBox.setVgrow(lista, Priority.ALWAYS);
+        return lista;
+    }
+
+    private String textoPasoDerivacion(int paso) {
+        return bundle.getString("simulacionfinal.derivacion.paso") + " " + paso + ": "
+            + modeloDerivacion.getTraza().describirAccion(paso, bundle);
+    }
+
+    private String textoFormaSentencial(int paso) {
+        String forma = modeloDerivacion.getTraza().formatearFormaSentencial(paso, TrazaSimulacion.MAX_SIMBOLOS_TEXTO);
+        if (forma.isEmpty()) forma = "ε";
+        return paso == 0 ? forma : "⇒ " + forma;
     }
 
     /**
@@ -1649,65 +1839,6 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         return numeroInstancia;
     }
 
-    // Construir el árbol sintáctico a partir del historial de pasos
-    private NodoArbol construirArbolDesdeHistorial() {
-        // Creamos la raíz con el símbolo inicial
-        NodoArbol raiz = new NodoArbol(gramatica.getSimbInicial());
-        
-        // Crear una copia del historial para no modificar el original
-        List<HistorialPaso> historialCopia = new ArrayList<>(historialObservable);
-        construirRecursivo(raiz, historialCopia);
-        
-        return raiz;
-    }
-
-    // Recursivo: expande el primer no terminal de cada producción
-    private void construirRecursivo(NodoArbol nodo, List<HistorialPaso> pasos) {
-        if (pasos.isEmpty()) {
-            return;
-        }
-        
-        // Buscar la producción que expande este nodo
-        for (int i = 0; i < pasos.size(); i++) {
-            HistorialPaso paso = pasos.get(i);
-            String accion = paso.getAccion();
-            
-            // Si es una producción (contiene una flecha)
-            if (accion.contains("→")) {
-                // Eliminar el número de producción si existe
-                String accionLimpia = accion.replaceAll("^\\d+\\.\\s*", "").trim();
-                String[] partes = accionLimpia.split("→");
-                String izquierda = partes[0].trim();
-                String derecha = partes[1].trim();
-                
-                // Si esta producción corresponde al nodo actual
-                if (izquierda.equals(nodo.valor)) {
-                    // Dividir la parte derecha en símbolos
-                    String[] simbolos = derecha.split("\\s+");
-                    
-                    // Crear nodos hijos para cada símbolo
-                    for (String simbolo : simbolos) {
-                        if (!simbolo.isEmpty()) {
-                            NodoArbol hijo = new NodoArbol(simbolo);
-                            nodo.hijos.add(hijo);
-                            
-                            // Si el hijo es no terminal, procesarlo recursivamente
-                            if (!esTerminal(simbolo)) {
-                                // Crear una nueva lista con los pasos restantes
-                                List<HistorialPaso> pasosRestantes = new ArrayList<>(pasos.subList(i + 1, pasos.size()));
-                                construirRecursivo(hijo, pasosRestantes);
-                            }
-                        }
-                    }
-                    
-                    // Remover esta producción para no reutilizarla
-                    pasos.remove(i);
-                    return;
-                }
-            }
-        }
-    }
-
     /**
      * Actualiza el contenido de las pestañas hijas activas (derivación y árbol).
      */
@@ -1721,34 +1852,9 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
             if (tab.getUserData() != null) {
                 String userData = tab.getUserData().toString();
                 
-                // Actualizar pestaña de derivación si está activa
-                if (userData.equals("derivacion_" + simulacionId)) {
-                    VBox mainContainer = (VBox) tab.getContent();
-                    VBox contentContainer = (VBox) mainContainer.getChildren().get(1); // El segundo elemento es el contentContainer
-                    ListView<String> listaDerivacion = null;
-                    if (contentContainer.getChildren().get(1) instanceof ListView) {
-                        @SuppressWarnings("unchecked")
-                        ListView<String> tempList = (ListView<String>) contentContainer.getChildren().get(1);
-                        listaDerivacion = tempList;
-                    }
-
-                    if (listaDerivacion != null) {
-                        // Generar la derivación como lista
-                        ObservableList<String> itemsDerivacion = FXCollections.observableArrayList();
-                        if (historialObservable.isEmpty()) {
-                            itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.iniciar"));
-                        } else {
-                            for (int i = 0; i < historialObservable.size(); i++) {
-                                HistorialPaso paso = historialObservable.get(i);
-                                itemsDerivacion.add(bundle.getString("simulacionfinal.derivacion.paso") + " " + (i + 1) + ": " + paso.getAccion());
-                            }
-                        }
-                        listaDerivacion.setItems(itemsDerivacion);
-                    }
-                }
-                
-                // Actualizar pestaña de árbol si está activa
-                else if (userData.equals("arbol_" + simulacionId)) {
+                // La pestaña de derivación se actualiza sola a partir de la traza;
+                // solo la del árbol necesita recalcular su disposición
+                if (userData.equals("arbol_" + simulacionId)) {
                     actualizarContenidoArbol(tab);
                 }
             }
@@ -1769,8 +1875,12 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         // Crear y configurar el FileChooser
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(bundle.getString("editor.informe.guardar.titulo"));
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("Documentos PDF", "*.pdf")
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter(Textos.texto(bundle, "editor.informe.filtro.pdf", "Documentos PDF"), "*.pdf"),
+            new FileChooser.ExtensionFilter(Textos.texto(bundle, "editor.informe.filtro.html", "Páginas HTML"), "*.html"),
+            new FileChooser.ExtensionFilter("Markdown", "*.md"),
+            new FileChooser.ExtensionFilter("JSON", "*.json"),
+            new FileChooser.ExtensionFilter(Textos.texto(bundle, "editor.informe.filtro.csv", "CSV (un archivo por tabla)"), "*.csv")
         );
         
         // Sugerir nombre de archivo basado en el nombre del archivo fuente
@@ -1778,58 +1888,91 @@ public class SimulacionFinal extends BorderPane implements ActualizableTextos {
         fileChooser.setInitialFileName(nombreArchivo);
 
         // Mostrar diálogo de guardado
-        File archivo = fileChooser.showSaveDialog(this.getScene().getWindow());
-        if (archivo == null) {
+        File elegido = fileChooser.showSaveDialog(this.getScene().getWindow());
+        if (elegido == null) {
             return; // Usuario canceló
         }
-
-        try {
-            // Usar la gramática actual para generar el informe
-            Gramatica gramaticaOriginal = this.gramatica;
-            
-            // Determinar el estado de la simulación
-            String estadoSimulacion = bundle.getString("informe.simulador.no.especificado");
-            if (historialObservable.size() > 0) {
-                HistorialPaso ultimoPaso = historialObservable.get(historialObservable.size() - 1);
-                if (ultimoPaso.getAccion().equals(bundle.getString("simulacionfinal.accion.aceptar"))) {
-                    estadoSimulacion = bundle.getString("informe.simulador.estado.aceptada");
-                } else if (ultimoPaso.getAccion().equals(bundle.getString("simulacionfinal.accion.error"))) {
-                    estadoSimulacion = bundle.getString("informe.simulador.estado.rechazada");
-                }
+        File archivo = conExtensionDelFiltro(elegido, fileChooser.getSelectedExtensionFilter());
+
+        // Determinar el estado de la simulación
+        String estadoSimulacion = bundle.getString("informe.simulador.no.especificado");
+        if (historialObservable.size() > 0) {
+            AccionSimulacion ultimaAccion = historialObservable.get(historialObservable.size() - 1).getCodigoAccion();
+            if (getErroresRecuperados() > 0) {
+                estadoSimulacion = bundle.getString("informe.simulador.estado.rechazada");
+            } else if (ultimaAccion == AccionSimulacion.ACEPTAR) {
+                estadoSimulacion = bundle.getString("informe.simulador.estado.aceptada");
+            } else if (ultimaAccion != null && ultimaAccion.esFinal()) {
+                estadoSimulacion = bundle.getString("informe.simulador.estado.rechazada");
             }
-            
-            // Generar el informe del simulador con formato profesional
-            boolean exito = this.gramatica.generarInformeSimulacionFinalProfesional(
-                archivo.getAbsolutePath(),
-                gramaticaOriginal,
-                this.tablaPredictiva,
-                this.funcionesError,
-                bundle,
-                campoEntrada.getText(),
-                estadoSimulacion,
-                new ArrayList<>(historialObservable)
-            );
-            
-            if (exito) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle(bundle.getString("editor.informe.exito.titulo"));
-                alert.setHeaderText(null);
-                alert.setContentText(bundle.getString("editor.informe.exito.mensaje") + "\n" + archivo.getAbsolutePath());
-                alert.showAndWait();
-            } else {
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle(bundle.getString("editor.informe.error.titulo"));
-                alert.setHeaderText(null);
-                alert.setContentText(bundle.getString("editor.informe.error.generacion"));
-                alert.showAndWait();
+        }
+
+        // El informe se genera en segundo plano sobre copias que ya no cambian:
+        // la simulación puede seguir avanzando o retrocediendo mientras tanto
+        Gramatica copiaGramatica = new Gramatica(this.gramatica);
+        List<FuncionError> copiaFunciones = funcionesError != null ? new ArrayList<>(funcionesError) : null;
+        List<HistorialPaso> copiaHistorial = new ArrayList<>(historialObservable.size());
+        if (trazaSimulacion != null) {
+            TrazaSimulacion copiaTraza = trazaSimulacion.copiar();
+            for (HistorialPaso fila : historialObservable) {
+                copiaHistorial.add(fila.sobre(copiaTraza));
             }
-        } catch (Exception e) {
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle(bundle.getString("editor.informe.error.titulo"));
-            alert.setHeaderText(null);
-            alert.setContentText(bundle.getString("editor.informe.error.generacion") + "\n" + e.getMessage());
-            alert.showAndWait();
-            e.printStackTrace();
         }
+        ArbolSintactico copiaArbol = obtenerArbolActual().copiar();
+        // La tabla del informe es la compilada con la que ha simulado el motor
+        TablaInforme copiaTabla = tablaPredictiva != null
+            ? new TablaInforme(motor != null ? motor.getTabla() : TablaLL1.desdeTablaPredictiva(gramatica, tablaPredictiva),
+                               copiaGramatica)
+            : null;
+        String cadenaEntrada = campoEntrada.getText();
+        String estado = estadoSimulacion;
+        ResourceBundle bundleInforme = bundle;
+
+        // Los formatos de texto se escriben directamente, sin pasar por el PDF
+        FormatoInforme formato = FormatoInforme.deArchivo(archivo);
+        if (formato != null) {
+            TareaInforme.lanzar(this.getScene().getWindow(), archivo, bundleInforme,
+                bundleInforme.getString("editor.informe.error.generacion"),
+                progreso -> copiaGramatica.exportarInformeSimulacion(
+                    archivo.getAbsolutePath(),
+                    formato,
+                    copiaGramatica,
+                    copiaTabla,
+                    copiaFunciones,
+                    bundleInforme,
+                    cadenaEntrada,
+                    estado,
+                    copiaHistorial,
+                    copiaArbol,
+                    progreso));
+            return;
+        }
+
+        TareaInforme.lanzar(this.getScene().getWindow(), archivo, bundleInforme,
+            bundleInforme.getString("editor.informe.error.generacion"),
+            progreso -> copiaGramatica.generarInformeSimulacionFinalProfesional(
+                archivo.getAbsolutePath(),
+                copiaGramatica,
+                copiaTabla,
+                copiaFunciones,
+                bundleInforme,
+                cadenaEntrada,
+                estado,
+                copiaHistorial,
+                copiaArbol,
+                progreso));
+    }
+
+    /**
+     * El nombre propuesto termina en .pdf; si se elige otro formato en el filtro,
+     * el archivo toma su extensión.
+     */
+    private static File conExtensionDelFiltro(File archivo, FileChooser.ExtensionFilter filtro) {
+        if (filtro == null || filtro.getExtensions().isEmpty()) return archivo;
+        String extension = filtro.getExtensions().get(0).substring(1); // "*.html" -> ".html"
+        String nombre = archivo.getName();
+        if (nombre.toLowerCase().endsWith(extension)) return archivo;
+        if (nombre.toLowerCase().endsWith(".pdf")) nombre = nombre.substring(0, nombre.length() - 4);
+        return new File(archivo.getParentFile(), nombre + extension);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,284 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import gramatica.FilaTablaPredictiva;
+import gramatica.Gramatica;
+import gramatica.NoTerminal;
+import gramatica.Terminal;
+import gramatica.TablaPredictivaPaso5;
+import utils.Resumen;
+
+/**
+ * Tabla predictiva LL(1) compilada para la simulación.
+ *
+ * Los no terminales y terminales se numeran una sola vez y cada casilla es un
+ * entero que apunta a una entrada ya analizada: el texto a mostrar y, para las
+ * producciones, la parte derecha separada en símbolos. Durante la simulación
+ * cada consulta cuesta dos búsquedas en tablas hash y un acceso a array, sin
+ * recorrer filas ni volver a partir el texto de la producción.
+ *
+ * Se puede construir a partir de la tabla predictiva que ve el usuario o
+ * directamente a partir de la gramática; ambas vías deben dar el mismo resultado
+ * (véase {@link ComparacionDiferencial}).
+ */
+public final class TablaLL1 {
+
+    /** Valor de una casilla sin producción ni función de error. */
+    public static final int VACIA = -1;
+
+    private static final String EPSILON = "ε";
+    private static final String FIN_CADENA = "$";
+
+    private final Map<String, Integer> idsNoTerminales = new HashMap<>();
+    private final Map<String, Integer> idsTerminales = new HashMap<>();
+    private final int[] celdas;
+
+    // Entradas distintas de la tabla
+    private final List<String> textos = new ArrayList<>();
+    private final List<String[]> derechas = new ArrayList<>();
+    private final Map<String, Integer> idsEntradas = new HashMap<>();
+
+    private CadenasExpansion cadenasExpansion;
+    private String huella;
+
+    /**
+     * @param noTerminales Nombres de los no terminales
+     * @param terminales Nombres de los terminales; se añade "$" si no está
+     * @param celda Valor de cada casilla tal como se muestra en la tabla predictiva
+     *              ("3. A → b C", "ε", "E1"...), o null o vacío si no tiene
+     */
+    public TablaLL1(List<String> noTerminales, List<String> terminales, BiFunction<String, String, String> celda) {
+        for (String nt : noTerminales) {
+            idsNoTerminales.putIfAbsent(nt, idsNoTerminales.size());
+        }
+        for (String t : terminales) {
+            idsTerminales.putIfAbsent(t, idsTerminales.size());
+        }
+        idsTerminales.putIfAbsent(FIN_CADENA, idsTerminales.size());
+
+        celdas = new int[idsNoTerminales.size() * idsTerminales.size()];
+        Arrays.fill(celdas, VACIA);
+        for (Map.Entry<String, Integer> nt : idsNoTerminales.entrySet()) {
+            for (Map.Entry<String, Integer> t : idsTerminales.entrySet()) {
+                String valor = celda.apply(nt.getKey(), t.getKey());
+                if (valor != null && !valor.trim().isEmpty()) {
+                    celdas[nt.getValue() * idsTerminales.size() + t.getValue()] = registrarEntrada(nt.getKey(), valor.trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compila la tabla predictiva construida en el asistente.
+     */
+    public static TablaLL1 desdeTablaPredictiva(Gramatica gramatica, TablaPredictivaPaso5 tablaPredictiva) {
+        Map<String, Map<String, String>> filas = new HashMap<>();
+        List<String> terminales = nombresTerminales(gramatica);
+        for (var fila : tablaPredictiva.getTablaPredictiva().getItems()) {
+            Map<String, String> valores = new HashMap<>();
+            for (String t : terminales) {
+                valores.put(t, fila.getValor(t).get());
+            }
+            filas.putIfAbsent(fila.getSimbolo(), valores);
+        }
+        return new TablaLL1(new ArrayList<>(gramatica.getNoTerminalesModel()), terminales,
+            (nt, t) -> filas.containsKey(nt) ? filas.get(nt).get(t) : null);
+    }
+
+    /**
+     * Compila una tabla predictiva a partir de sus filas.
+     */
+    public static TablaLL1 desdeFilas(Gramatica gramatica, List<FilaTablaPredictiva> filasTabla) {
+        Map<String, Map<String, String>> filas = new HashMap<>();
+        List<String> terminales = nombresTerminales(gramatica);
+        for (FilaTablaPredictiva fila : filasTabla) {
+            Map<String, String> valores = new HashMap<>();
+            for (String t : terminales) {
+                valores.put(t, fila.getValor(t).get());
+            }
+            filas.putIfAbsent(fila.getSimbolo(), valores);
+        }
+        return new TablaLL1(new ArrayList<>(gramatica.getNoTerminalesModel()), terminales,
+            (nt, t) -> filas.containsKey(nt) ? filas.get(nt).get(t) : null);
+    }
+
+    /**
+     * Calcula la tabla directamente a partir de la gramática y sus conjuntos
+     * PRIMERO y SIGUIENTE. Cada casilla se calcula una sola vez.
+     */
+    public static TablaLL1 desdeGramatica(Gramatica gramatica) {
+        Map<String, NoTerminal> noTerminales = new HashMap<>();
+        for (NoTerminal nt : gramatica.getNoTerminales()) {
+            noTerminales.put(nt.getNombre(), nt);
+        }
+        Map<String, Terminal> terminales = new HashMap<>();
+        for (Terminal t : gramatica.getTerminales()) {
+            terminales.put(t.getNombre(), t);
+        }
+        terminales.putIfAbsent(FIN_CADENA, new Terminal(FIN_CADENA, FIN_CADENA));
+
+        return new TablaLL1(new ArrayList<>(noTerminales.keySet()), new ArrayList<>(terminales.keySet()), (nt, t) -> {
+            List<String> producciones = gramatica.getProduccionesPorNoTerminalYTerminal(noTerminales.get(nt), terminales.get(t));
+            return producciones.isEmpty() ? null : producciones.get(0);
+        });
+    }
+
+    /**
+     * Entrada de la casilla [noTerminal, terminal], o {@link #VACIA}.
+     */
+    public int buscar(String noTerminal, String terminal) {
+        Integer nt = idsNoTerminales.get(noTerminal);
+        Integer t = idsTerminales.get(terminal);
+        if (nt == null || t == null) return VACIA;
+        return celdas[nt * idsTerminales.size() + t];
+    }
+
+    /**
+     * Entrada de la casilla indicada por identificadores, o {@link #VACIA}.
+     */
+    public int buscar(int noTerminal, int terminal) {
+        return celdas[noTerminal * idsTerminales.size() + terminal];
+    }
+
+    /** Identificador del no terminal, o -1 si no lo es. */
+    public int getIdNoTerminal(String simbolo) {
+        Integer id = idsNoTerminales.get(simbolo);
+        return id != null ? id : -1;
+    }
+
+    /** Identificador del terminal, o -1 si no lo es. */
+    public int getIdTerminal(String simbolo) {
+        Integer id = idsTerminales.get(simbolo);
+        return id != null ? id : -1;
+    }
+
+    public int getNumNoTerminales() {
+        return idsNoTerminales.size();
+    }
+
+    public int getNumTerminales() {
+        return idsTerminales.size();
+    }
+
+    /**
+     * Resumen del contenido de la tabla: dos tablas con las mismas casillas tienen
+     * la misma huella aunque se hayan construido por caminos distintos.
+     */
+    public String getHuella() {
+        if (huella == null) {
+            List<String> noTerminales = new ArrayList<>(idsNoTerminales.keySet());
+            List<String> terminales = new ArrayList<>(idsTerminales.keySet());
+            Collections.sort(noTerminales);
+            Collections.sort(terminales);
+            StringBuilder contenido = new StringBuilder();
+            for (String nt : noTerminales) {
+                for (String t : terminales) {
+                    int entrada = buscar(nt, t);
+                    if (entrada != VACIA) {
+                        contenido.append(nt).append('\u0000').append(t).append('\u0000')
+                                 .append(getTexto(entrada)).append('\n');
+                    }
+                }
+            }
+            huella = Resumen.sha256(contenido.toString());
+        }
+        return huella;
+    }
+
+    /**
+     * Cadenas de expansiones precompiladas de esta tabla, creadas al pedirlas por primera vez.
+     */
+    public CadenasExpansion getCadenasExpansion() {
+        if (cadenasExpansion == null) cadenasExpansion = new CadenasExpansion(this);
+        return cadenasExpansion;
+    }
+
+    public boolean esNoTerminal(String simbolo) {
+        return idsNoTerminales.containsKey(simbolo);
+    }
+
+    public boolean esTerminal(String simbolo) {
+        return idsTerminales.containsKey(simbolo);
+    }
+
+    /** Número de entradas distintas de la tabla. */
+    public int getNumEntradas() {
+        return textos.size();
+    }
+
+    /** Texto de una entrada tal como se muestra en el historial. */
+    public String getTexto(int entrada) {
+        return textos.get(entrada);
+    }
+
+    /**
+     * Parte derecha de una producción, vacía para ε, o null si la entrada es una función de error.
+     */
+    public String[] getDerecha(int entrada) {
+        return derechas.get(entrada);
+    }
+
+    public boolean esFuncionError(int entrada) {
+        return derechas.get(entrada) == null;
+    }
+
+    /**
+     * Entradas de una fila que aplican una producción, sin repetir.
+     */
+    public Set<Integer> getProducciones(String noTerminal) {
+        Set<Integer> producciones = new LinkedHashSet<>();
+        Integer nt = idsNoTerminales.get(noTerminal);
+        if (nt == null) return producciones;
+        for (int t = 0; t < idsTerminales.size(); t++) {
+            int entrada = celdas[nt * idsTerminales.size() + t];
+            if (entrada != VACIA && !esFuncionError(entrada)) producciones.add(entrada);
+        }
+        return producciones;
+    }
+
+    // ==================== Implementación ====================
+
+    private static List<String> nombresTerminales(Gramatica gramatica) {
+        List<String> terminales = new ArrayList<>();
+        for (Terminal t : gramatica.getTerminales()) {
+            terminales.add(t.getNombre());
+        }
+        if (!terminales.contains(FIN_CADENA)) terminales.add(FIN_CADENA);
+        return terminales;
+    }
+
+    private int registrarEntrada(String noTerminal, String valor) {
+        String texto;
+        String[] derecha;
+        if (valor.equals(EPSILON) || valor.equals(EPSILON + "_")) {
+            // La tabla abrevia las producciones vacías
+            texto = noTerminal + " → " + EPSILON;
+            derecha = new String[0];
+        } else if (valor.contains("→")) {
+            // Producción, por ejemplo "3. D → T L;"
+            texto = valor;
+            String parteDerecha = valor.substring(valor.indexOf('→') + 1).trim();
+            derecha = parteDerecha.equals(EPSILON) || parteDerecha.isEmpty()
+                ? new String[0]
+                : Arrays.stream(parteDerecha.split(" ")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        } else {
+            // Función de error, por ejemplo "E1"
+            texto = valor;
+            derecha = null;
+        }
+        return idsEntradas.computeIfAbsent(texto, clave -> {
+            textos.add(texto);
+            derechas.add(derecha);
+            return textos.size() - 1;
+        });
+    }
+}
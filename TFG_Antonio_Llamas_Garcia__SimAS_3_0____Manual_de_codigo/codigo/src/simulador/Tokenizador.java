@@ -0,0 +1,97 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estrategia para dividir la cadena de entrada de una simulación en tokens.
+ */
+@FunctionalInterface
+public interface Tokenizador {
+
+    /**
+     * Divide la entrada en tokens, sin añadir el marcador final "$".
+     */
+    String[] tokenizar(String entrada);
+
+    /**
+     * Recibe los tokens de {@link #dividir} con la posición en que termina cada uno.
+     */
+    @FunctionalInterface
+    interface Receptor {
+        void token(String token, int fin);
+    }
+
+    /**
+     * Divide un tramo de un texto más largo que se lee por partes. Si el tramo
+     * no llega al final del texto se detiene antes del primer token que podría
+     * continuar tras él y devuelve su posición, para reanudar desde ahí cuando
+     * haya más caracteres. Por defecto divide el tramo línea a línea con
+     * {@link #tokenizar} y, si no es el final, no pasa del último espacio en
+     * blanco, pues sin más información un token no puede contener espacios.
+     * @param completo Indica si el tramo llega al final del texto
+     * @return Posición desde la que continuar
+     * @throws ErrorLexico Con la posición en el tramo del primer carácter no reconocido
+     */
+    default int dividir(CharSequence tramo, boolean completo, Receptor receptor) {
+        int fin = tramo.length();
+        if (!completo) {
+            while (fin > 0 && !Character.isWhitespace(tramo.charAt(fin - 1))) fin--;
+        }
+        int inicio = 0;
+        while (inicio < fin) {
+            int finLinea = inicio;
+            while (finLinea < fin && tramo.charAt(finLinea) != '\n') finLinea++;
+            String[] tokens;
+            try {
+                tokens = tokenizar(tramo.subSequence(inicio, finLinea).toString());
+            } catch (ErrorLexico e) {
+                int posicion = inicio + e.getPosicion();
+                throw new ErrorLexico(tramo.charAt(posicion), posicion);
+            }
+            for (String token : tokens) {
+                receptor.token(token, finLinea);
+            }
+            inicio = finLinea + 1;
+        }
+        return fin;
+    }
+
+    /** Tokens separados por espacios en blanco, como se escriben en la simulación. */
+    Tokenizador ESPACIOS = entrada -> {
+        String texto = entrada.trim();
+        return texto.isEmpty() ? new String[0] : texto.split("\\s+");
+    };
+
+    /** Cada carácter que no sea un espacio es un token. */
+    Tokenizador CARACTERES = entrada -> {
+        List<String> tokens = new ArrayList<>(entrada.length());
+        entrada.codePoints()
+            .filter(c -> !Character.isWhitespace(c))
+            .forEach(c -> tokens.add(new String(Character.toChars(c))));
+        return tokens.toArray(new String[0]);
+    };
+
+    /**
+     * Fragmento de la entrada que ningún terminal reconoce.
+     */
+    class ErrorLexico extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        private final int posicion;
+
+        public ErrorLexico(String entrada, int posicion) {
+            this(entrada.charAt(posicion), posicion);
+        }
+
+        public ErrorLexico(char caracter, int posicion) {
+            super("Carácter no reconocido '" + caracter + "' en la posición " + (posicion + 1));
+            this.posicion = posicion;
+        }
+
+        /** Posición (desde 0) del primer carácter no reconocido. */
+        public int getPosicion() {
+            return posicion;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import gramatica.Gramatica;
+import gramatica.Terminal;
+
+/**
+ * Divide la entrada tomando en cada posición el nombre de terminal más largo
+ * que aparece en ella, de modo que "x:=y" se divide en "x", ":=" e "y" aunque
+ * no haya espacios. Los espacios en blanco separan tokens y se descartan.
+ *
+ * Los nombres se guardan en un trie compacto: los hijos de cada nodo ocupan
+ * posiciones consecutivas de unos arrays ordenados por carácter, así que cada
+ * paso es una búsqueda binaria sin objetos intermedios. Los trie se guardan en
+ * una caché indexada por el conjunto de nombres para no reconstruirlos en cada
+ * simulación.
+ */
+public final class TokenizadorTrie implements Tokenizador {
+
+    private static final int MAX_CACHE = 32;
+    private static final Map<String, TokenizadorTrie> CACHE = new LinkedHashMap<String, TokenizadorTrie>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenizadorTrie> mayor) {
+            return size() > MAX_CACHE;
+        }
+    };
+
+    // Hijos del nodo n: posiciones primerHijo[n] .. primerHijo[n + 1] - 1 de caracteres e hijos
+    private final int[] primerHijo;
+    private final char[] caracteres;
+    private final int[] hijos;
+    // Terminal que termina en cada nodo, o null
+    private final String[] terminales;
+
+    private TokenizadorTrie(List<String> nombres) {
+        // Construcción por niveles sobre los nombres ordenados: los hijos de cada
+        // nodo son un rango contiguo de nombres con el mismo prefijo
+        List<int[]> nodos = new ArrayList<>();   // {desde, hasta, profundidad} de cada nodo
+        nodos.add(new int[]{0, nombres.size(), 0});
+        List<Integer> inicios = new ArrayList<>();
+        StringBuilder etiquetas = new StringBuilder();
+        List<Integer> destinos = new ArrayList<>();
+        List<String> finales = new ArrayList<>();
+
+        for (int n = 0; n < nodos.size(); n++) {
+            int desde = nodos.get(n)[0];
+            int hasta = nodos.get(n)[1];
+            int profundidad = nodos.get(n)[2];
+            inicios.add(etiquetas.length());
+            String fin = null;
+            int i = desde;
+            while (i < hasta) {
+                String nombre = nombres.get(i);
+                if (nombre.length() == profundidad) {
+                    fin = nombre;
+                    i++;
+                    continue;
+                }
+                char c = nombre.charAt(profundidad);
+                int j = i;
+                while (j < hasta && nombres.get(j).length() > profundidad && nombres.get(j).charAt(profundidad) == c) {
+                    j++;
+                }
+                etiquetas.append(c);
+                destinos.add(nodos.size());
+                nodos.add(new int[]{i, j, profundidad + 1});
+                i = j;
+            }
+            finales.add(fin);
+        }
+        inicios.add(etiquetas.length());
+
+        this.primerHijo = inicios.stream().mapToInt(Integer::intValue).toArray();
+        this.caracteres = etiquetas.toString().toCharArray();
+        this.hijos = destinos.stream().mapToInt(Integer::intValue).toArray();
+        this.terminales = finales.toArray(new String[0]);
+    }
+
+    /**
+     * Tokenizador para los terminales de la gramática, reutilizado si ya se
+     * construyó uno con los mismos nombres.
+     */
+    public static TokenizadorTrie para(Gramatica gramatica) {
+        List<String> nombres = new ArrayList<>();
+        for (Terminal t : gramatica.getTerminales()) {
+            nombres.add(t.getNombre());
+        }
+        return para(nombres);
+    }
+
+    /**
+     * Tokenizador para los nombres indicados, reutilizado si ya se construyó uno
+     * con los mismos nombres.
+     */
+    public static TokenizadorTrie para(Collection<String> nombresTerminales) {
+        TreeSet<String> ordenados = new TreeSet<>();
+        for (String nombre : nombresTerminales) {
+            if (nombre != null && !nombre.isEmpty() && !nombre.equals("$")) ordenados.add(nombre);
+        }
+        // La huella es la lista ordenada de nombres, que no contienen el separador
+        String huella = String.join("\u0000", ordenados);
+        synchronized (CACHE) {
+            TokenizadorTrie trie = CACHE.get(huella);
+            if (trie == null) {
+                trie = new TokenizadorTrie(new ArrayList<>(ordenados));
+                CACHE.put(huella, trie);
+            }
+            return trie;
+        }
+    }
+
+    @Override
+    public String[] tokenizar(String entrada) {
+        List<String> tokens = new ArrayList<>();
+        dividir(entrada, true, (token, fin) -> tokens.add(token));
+        return tokens.toArray(new String[0]);
+    }
+
+    @Override
+    public int dividir(CharSequence tramo, boolean completo, Receptor receptor) {
+        int longitud = tramo.length();
+        int posicion = 0;
+        while (posicion < longitud) {
+            if (Character.isWhitespace(tramo.charAt(posicion))) {
+                posicion++;
+                continue;
+            }
+
+            // Bajar por el trie recordando el último nombre completo encontrado
+            int nodo = 0;
+            String reconocido = null;
+            int finReconocido = posicion;
+            int i = posicion;
+            for (; i < longitud; i++) {
+                nodo = hijo(nodo, tramo.charAt(i));
+                if (nodo < 0) break;
+                if (terminales[nodo] != null) {
+                    reconocido = terminales[nodo];
+                    finReconocido = i + 1;
+                }
+            }
+
+            // Un nombre más largo podría seguir tras el tramo
+            if (i == longitud && !completo) return posicion;
+            if (reconocido == null) {
+                throw new ErrorLexico(tramo.charAt(posicion), posicion);
+            }
+            receptor.token(reconocido, finReconocido);
+            posicion = finReconocido;
+        }
+        return posicion;
+    }
+
+    private int hijo(int nodo, char c) {
+        int posicion = Arrays.binarySearch(caracteres, primerHijo[nodo], primerHijo[nodo + 1], c);
+        return posicion >= 0 ? hijos[posicion] : -1;
+    }
+}
@@ -0,0 +1,383 @@
+package simulador;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Traza compacta de una simulación paso a paso.
+ *
+ * La pila de análisis es persistente (cada nodo apunta al de debajo), así que
+ * apilar o desapilar no copia nada y cada paso solo guarda una referencia a la
+ * cima. La entrada se representa con un cursor sobre el array de tokens y,
+ * delante de él, los tokens que han insertado las funciones de error, guardados
+ * también en una pila persistente. La memoria de la traza es por tanto
+ * proporcional al número de pasos y no al producto de pasos por profundidad de
+ * pila; el texto de la pila y de la entrada se genera bajo demanda, recortado
+ * si es muy largo.
+ *
+ * Los terminales ya extraídos de la pila se guardan también en una pila
+ * persistente (el prefijo derivado), de modo que la forma sentencial izquierda
+ * de cada paso, prefijo seguido de la pila, comparte toda su estructura con la
+ * del paso anterior. La acción de cada paso es un {@link AccionSimulacion}
+ * más un argumento entero; los textos de producciones y funciones de error se
+ * guardan una sola vez y los pasos los referencian por su identificador.
+ * Quien necesite reaccionar a los cambios puede registrarse como
+ * {@link Oyente} y recibir solo los pasos añadidos o descartados; al ejecutar
+ * muchos pasos seguidos los avisos se agrupan en uno.
+ *
+ * El índice 0 es el estado inicial; los pasos de la simulación van del 1 en adelante.
+ */
+public class TrazaSimulacion {
+
+    /** Número de símbolos a partir del cual el texto de la pila o la entrada se recorta. */
+    public static final int MAX_SIMBOLOS_TEXTO = 200;
+    /** Recorte más agresivo para las celdas de la tabla de historial. */
+    public static final int MAX_SIMBOLOS_CELDA = 40;
+
+    private static final String ELIPSIS = "…";
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    /**
+     * Nodo inmutable de la pila persistente.
+     */
+    public static final class NodoPila {
+        private final String simbolo;
+        private final NodoPila abajo;
+        private final int profundidad;
+
+        private NodoPila(String simbolo, NodoPila abajo) {
+            this.simbolo = simbolo;
+            this.abajo = abajo;
+            this.profundidad = abajo == null ? 1 : abajo.profundidad + 1;
+        }
+
+        public String getSimbolo() { return simbolo; }
+        public NodoPila getAbajo() { return abajo; }
+        public int getProfundidad() { return profundidad; }
+    }
+
+    /**
+     * Recibe los cambios de la traza.
+     */
+    public interface Oyente {
+        /** Se ha añadido el paso indicado al final de la traza. */
+        void pasoRegistrado(TrazaSimulacion traza, int paso);
+
+        /** Se han descartado los pasos posteriores al indicado. */
+        void pasosDescartados(TrazaSimulacion traza, int ultimoPasoConservado);
+
+        /**
+         * Se han añadido de una vez los pasos {@code desde}..{@code hasta}. Por
+         * defecto se avisa de cada paso con {@link #pasoRegistrado}.
+         */
+        default void pasosRegistrados(TrazaSimulacion traza, int desde, int hasta) {
+            for (int paso = desde; paso <= hasta; paso++) {
+                pasoRegistrado(traza, paso);
+            }
+        }
+    }
+
+    private String[] tokens;
+    private final List<Oyente> oyentes = new ArrayList<>();
+    // Mientras los avisos están suspendidos: último paso avisado y el más bajo conservado al truncar
+    private boolean avisosSuspendidos;
+    private int ultimoAvisado;
+    private int minimoConservado;
+
+    // Textos de producciones y funciones de error, referenciados por identificador
+    private final List<String> textos = new ArrayList<>();
+    private final Map<String, Integer> idsTextos = new HashMap<>();
+
+    private NodoPila[] pilas = new NodoPila[CAPACIDAD_INICIAL];
+    private NodoPila[] prefijos = new NodoPila[CAPACIDAD_INICIAL];
+    private NodoPila[] insertados = new NodoPila[CAPACIDAD_INICIAL];
+    private int[] cursores = new int[CAPACIDAD_INICIAL];
+    private int[] errores = new int[CAPACIDAD_INICIAL];
+    private byte[] codigos = new byte[CAPACIDAD_INICIAL];
+    private int[] argumentos = new int[CAPACIDAD_INICIAL];
+    private int numEstados = 0;
+
+    /**
+     * @param tokens Tokens de la cadena de entrada, incluido el marcador final "$"
+     * @param pilaInicial Pila al comenzar la simulación
+     */
+    public TrazaSimulacion(String[] tokens, NodoPila pilaInicial) {
+        this.tokens = tokens;
+        anadir(pilaInicial, null, null, 0, 0, null, 0);
+    }
+
+    /**
+     * Copia independiente de la traza, sin oyentes. Las pilas no se copian porque
+     * son inmutables; solo se duplican los arrays de pasos, ajustados a su tamaño.
+     */
+    public TrazaSimulacion copiar() {
+        TrazaSimulacion copia = new TrazaSimulacion(tokens, pilas[0]);
+        copia.textos.addAll(textos);
+        copia.idsTextos.putAll(idsTextos);
+        copia.pilas = Arrays.copyOf(pilas, numEstados);
+        copia.prefijos = Arrays.copyOf(prefijos, numEstados);
+        copia.insertados = Arrays.copyOf(insertados, numEstados);
+        copia.cursores = Arrays.copyOf(cursores, numEstados);
+        copia.errores = Arrays.copyOf(errores, numEstados);
+        copia.codigos = Arrays.copyOf(codigos, numEstados);
+        copia.argumentos = Arrays.copyOf(argumentos, numEstados);
+        copia.numEstados = numEstados;
+        return copia;
+    }
+
+    public void addOyente(Oyente oyente) {
+        oyentes.add(oyente);
+    }
+
+    public void removeOyente(Oyente oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Deja de avisar a los oyentes de cada paso hasta {@link #reanudarAvisos()},
+     * que resume en un solo aviso todos los cambios. Sirve para ejecutar muchos
+     * pasos seguidos sin que la interfaz trabaje en cada uno.
+     */
+    void suspenderAvisos() {
+        if (avisosSuspendidos) return;
+        avisosSuspendidos = true;
+        ultimoAvisado = numEstados - 1;
+        minimoConservado = ultimoAvisado;
+    }
+
+    /**
+     * Vuelve a avisar a los oyentes: primero de los pasos avisados que se han
+     * descartado, si los hay, y después de todos los añadidos como un rango.
+     */
+    void reanudarAvisos() {
+        if (!avisosSuspendidos) return;
+        avisosSuspendidos = false;
+        int ultimo = numEstados - 1;
+        for (Oyente oyente : oyentes) {
+            if (minimoConservado < ultimoAvisado) {
+                oyente.pasosDescartados(this, minimoConservado);
+            }
+            if (ultimo > minimoConservado) {
+                oyente.pasosRegistrados(this, minimoConservado + 1, ultimo);
+            }
+        }
+    }
+
+    /**
+     * Devuelve una pila nueva con el símbolo encima de la indicada, sin modificarla.
+     */
+    public static NodoPila apilar(NodoPila pila, String simbolo) {
+        return new NodoPila(simbolo, pila);
+    }
+
+    /**
+     * Registra el estado resultante de un paso.
+     * @param pila Cima de la pila tras el paso
+     * @param prefijo Último terminal extraído de la pila hasta este paso (encadenado con los anteriores)
+     * @param insertado Tokens insertados por funciones de error pendientes de leer, el siguiente en la cima, o null
+     * @param cursor Posición del siguiente token de entrada
+     * @param erroresAcumulados Errores recuperados hasta este paso
+     * @param accion Acción realizada en el paso
+     * @param argumento Argumento de la acción (identificador de texto para producciones y funciones de error)
+     */
+    public void registrar(NodoPila pila, NodoPila prefijo, NodoPila insertado, int cursor, int erroresAcumulados,
+                          AccionSimulacion accion, int argumento) {
+        anadir(pila, prefijo, insertado, cursor, erroresAcumulados, accion, argumento);
+        if (avisosSuspendidos) return;
+        int paso = numEstados - 1;
+        for (Oyente oyente : oyentes) {
+            oyente.pasoRegistrado(this, paso);
+        }
+    }
+
+    /**
+     * Descarta los pasos posteriores al indicado.
+     * @param paso Último paso que se conserva (0 para volver al estado inicial)
+     */
+    public void truncar(int paso) {
+        int nuevoTam = Math.max(1, Math.min(numEstados, paso + 1));
+        if (nuevoTam == numEstados) return;
+        // Liberar las referencias para que el recolector pueda reclamar las pilas
+        Arrays.fill(pilas, nuevoTam, numEstados, null);
+        Arrays.fill(prefijos, nuevoTam, numEstados, null);
+        Arrays.fill(insertados, nuevoTam, numEstados, null);
+        numEstados = nuevoTam;
+        if (avisosSuspendidos) {
+            minimoConservado = Math.min(minimoConservado, nuevoTam - 1);
+            return;
+        }
+        for (Oyente oyente : oyentes) {
+            oyente.pasosDescartados(this, nuevoTam - 1);
+        }
+    }
+
+    /** Número de pasos registrados, sin contar el estado inicial. */
+    public int getNumPasos() { return numEstados - 1; }
+
+    public NodoPila getPila(int paso) { return pilas[paso]; }
+    public NodoPila getPrefijo(int paso) { return prefijos[paso]; }
+    /** Tokens insertados por funciones de error que quedan por leer en un paso, o null. */
+    public NodoPila getInsertados(int paso) { return insertados[paso]; }
+    public int getCursor(int paso) { return cursores[paso]; }
+    public int getErrores(int paso) { return errores[paso]; }
+    public int getArgumento(int paso) { return argumentos[paso]; }
+
+    /**
+     * Acción realizada en un paso, o null para el estado inicial.
+     */
+    public AccionSimulacion getAccion(int paso) {
+        return paso == 0 ? null : AccionSimulacion.deCodigo(codigos[paso]);
+    }
+
+    /**
+     * Texto de la acción de un paso en el idioma del bundle indicado.
+     */
+    public String describirAccion(int paso, ResourceBundle bundle) {
+        return paso == 0 ? "" : getAccion(paso).describir(this, paso, bundle);
+    }
+
+    /**
+     * Devuelve el identificador de un texto de producción o función de error,
+     * registrándolo si es la primera vez que aparece.
+     */
+    public int idTexto(String texto) {
+        return idsTextos.computeIfAbsent(texto, t -> {
+            textos.add(t);
+            return textos.size() - 1;
+        });
+    }
+
+    public String getTexto(int id) { return textos.get(id); }
+
+    /**
+     * Sustituye los tokens de la entrada. Solo es correcto si ningún paso
+     * registrado ha leído un token que cambie (véase {@link MotorLL1#cambiarEntrada}).
+     * @param tokens Tokens de la nueva entrada, incluido el marcador final "$"
+     */
+    void cambiarTokens(String[] tokens) {
+        this.tokens = tokens;
+    }
+
+    public int getNumTokens() { return tokens.length; }
+    public String getToken(int posicion) { return tokens[posicion]; }
+
+    /**
+     * Siguiente token de entrada en un paso: el último insertado por una función
+     * de error que aún no se ha leído o, si no hay, el del cursor.
+     */
+    public String getTokenActual(int paso) {
+        return insertados[paso] != null ? insertados[paso].simbolo : tokens[cursores[paso]];
+    }
+
+    /**
+     * Une los tokens de un tramo de la entrada separados por espacios.
+     */
+    public String unirTokens(int desde, int hasta) {
+        return String.join(" ", Arrays.asList(tokens).subList(desde, hasta));
+    }
+
+    /**
+     * Tokens que se leyeron sin emparejar en un paso (los descartados en modo
+     * pánico), separados por espacios: primero los insertados que dejaron de
+     * estar pendientes y después los de la entrada que saltó el cursor.
+     */
+    public String unirDescartados(int paso) {
+        StringBuilder sb = new StringBuilder();
+        for (NodoPila nodo = insertados[paso - 1]; nodo != insertados[paso]; nodo = nodo.abajo) {
+            sb.append(nodo.simbolo).append(' ');
+        }
+        return sb.append(unirTokens(cursores[paso - 1], cursores[paso])).toString().trim();
+    }
+
+    /**
+     * Texto de la pila en un paso, desde el fondo hasta la cima. Si tiene más de
+     * {@code maxSimbolos} símbolos solo se muestran los más cercanos a la cima.
+     */
+    public String formatearPila(int paso, int maxSimbolos) {
+        NodoPila cima = pilas[paso];
+        if (cima == null) return "";
+        int mostrados = Math.min(cima.profundidad, maxSimbolos);
+        String[] simbolos = new String[mostrados];
+        NodoPila nodo = cima;
+        for (int i = mostrados - 1; i >= 0; i--) {
+            simbolos[i] = nodo.simbolo;
+            nodo = nodo.abajo;
+        }
+        String texto = String.join(" ", simbolos);
+        return cima.profundidad > mostrados ? ELIPSIS + " " + texto : texto;
+    }
+
+    /**
+     * Texto de la entrada pendiente en un paso, empezando por los tokens
+     * insertados por funciones de error. Si tiene más de {@code maxSimbolos}
+     * tokens se recorta por el final.
+     */
+    public String formatearEntrada(int paso, int maxSimbolos) {
+        StringBuilder sb = new StringBuilder();
+        NodoPila nodo = insertados[paso];
+        for (; nodo != null && maxSimbolos > 0; nodo = nodo.abajo, maxSimbolos--) {
+            sb.append(nodo.simbolo).append(' ');
+        }
+        int desde = cursores[paso];
+        int hasta = desde + Math.min(tokens.length - desde, maxSimbolos);
+        sb.append(unirTokens(desde, hasta));
+        return nodo != null || hasta < tokens.length ? sb.toString().trim() + " " + ELIPSIS : sb.toString();
+    }
+
+    /**
+     * Forma sentencial izquierda en un paso: el prefijo derivado seguido de la pila
+     * desde la cima, sin el marcador "$". Si es muy larga se muestran los últimos
+     * símbolos del prefijo y los primeros de la pila, que es donde cambia la forma.
+     */
+    public String formatearFormaSentencial(int paso, int maxSimbolos) {
+        NodoPila prefijo = prefijos[paso];
+        NodoPila pila = pilas[paso];
+        int enPila = pila == null ? 0 : pila.profundidad - 1;
+        int enPrefijo = prefijo == null ? 0 : prefijo.profundidad;
+        int maxPila = Math.min(enPila, Math.max(maxSimbolos / 2, maxSimbolos - enPrefijo));
+        int maxPrefijo = Math.min(enPrefijo, maxSimbolos - maxPila);
+
+        String[] simbolos = new String[maxPrefijo + maxPila];
+        NodoPila nodo = prefijo;
+        for (int i = maxPrefijo - 1; i >= 0; i--) {
+            simbolos[i] = nodo.simbolo;
+            nodo = nodo.abajo;
+        }
+        nodo = pila;
+        for (int i = maxPrefijo; i < simbolos.length; i++) {
+            simbolos[i] = nodo.simbolo;
+            nodo = nodo.abajo;
+        }
+        StringBuilder sb = new StringBuilder();
+        if (maxPrefijo < enPrefijo) sb.append(ELIPSIS).append(' ');
+        sb.append(String.join(" ", simbolos));
+        if (maxPila < enPila) sb.append(' ').append(ELIPSIS);
+        return sb.toString();
+    }
+
+    private void anadir(NodoPila pila, NodoPila prefijo, NodoPila insertado, int cursor, int erroresAcumulados,
+                        AccionSimulacion accion, int argumento) {
+        if (numEstados == pilas.length) {
+            int capacidad = numEstados * 2;
+            pilas = Arrays.copyOf(pilas, capacidad);
+            prefijos = Arrays.copyOf(prefijos, capacidad);
+            insertados = Arrays.copyOf(insertados, capacidad);
+            cursores = Arrays.copyOf(cursores, capacidad);
+            errores = Arrays.copyOf(errores, capacidad);
+            codigos = Arrays.copyOf(codigos, capacidad);
+            argumentos = Arrays.copyOf(argumentos, capacidad);
+        }
+        pilas[numEstados] = pila;
+        prefijos[numEstados] = prefijo;
+        insertados[numEstados] = insertado;
+        cursores[numEstados] = cursor;
+        errores[numEstados] = erroresAcumulados;
+        codigos[numEstados] = accion == null ? 0 : (byte) accion.ordinal();
+        argumentos[numEstados] = argumento;
+        numEstados++;
+    }
+}
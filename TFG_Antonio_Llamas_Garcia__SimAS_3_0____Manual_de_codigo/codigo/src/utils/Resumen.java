@@ -0,0 +1,32 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Resúmenes de texto para las cachés (tabla LL(1), imágenes del árbol y
+ * fragmentos de informe).
+ */
+public final class Resumen {
+
+    private Resumen() {
+    }
+
+    /**
+     * Resumen SHA-256 en hexadecimal de un texto.
+     */
+    public static String sha256(String texto) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(texto.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(resumen.length * 2);
+            for (byte b : resumen) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Todas las plataformas Java incluyen SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servicio compartido para renderizar código DOT a PNG con Graphviz.
+ *
+ * El proceso {@code dot} se ejecuta en hilos de fondo, recibe el código por su
+ * entrada estándar (sin ficheros temporales) y se mata si supera el tiempo
+ * máximo. Las imágenes se guardan en una caché LRU indexada por el resumen
+ * SHA-256 del código DOT, de modo que volver a un paso ya visto no relanza
+ * Graphviz. Las peticiones de un mismo canal se agrupan: si llegan varias
+ * mientras se renderiza una, solo se atiende la última.
+ */
+public class ServicioRenderizadoDot {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioRenderizadoDot.class.getName());
+
+    /** Tiempo máximo por defecto para una ejecución de Graphviz. */
+    public static final long TIMEOUT_POR_DEFECTO_MS = 10_000;
+    private static final int CAPACIDAD_CACHE = 64;
+
+    private static final ServicioRenderizadoDot INSTANCIA = new ServicioRenderizadoDot();
+
+    private final ExecutorService ejecutor = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "graphviz-dot");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Caché LRU: LinkedHashMap en orden de acceso
+    private final Map<String, byte[]> cache = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> mayor) {
+            return size() > CAPACIDAD_CACHE;
+        }
+    };
+
+    // Estado de agrupación por canal; la secuencia descarta resultados ya superados
+    private final Map<String, String> pendientes = new HashMap<>();
+    private final Map<String, Consumer<byte[]>> receptores = new HashMap<>();
+    private final Map<String, Long> secuencias = new HashMap<>();
+    private final Map<String, Boolean> enCurso = new HashMap<>();
+
+    private volatile long timeoutMs = TIMEOUT_POR_DEFECTO_MS;
+    private volatile Boolean disponible;
+
+    private ServicioRenderizadoDot() {
+    }
+
+    public static ServicioRenderizadoDot getInstancia() {
+        return INSTANCIA;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Indica si Graphviz está instalado. Se comprueba una sola vez.
+     */
+    public boolean isDisponible() {
+        if (disponible == null) {
+            try {
+                Process p = new ProcessBuilder("dot", "-V")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+                disponible = p.waitFor(timeoutMs, TimeUnit.MILLISECONDS) && p.exitValue() == 0;
+                if (!disponible) p.destroyForcibly();
+            } catch (IOException e) {
+                disponible = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return disponible;
+    }
+
+    /**
+     * Renderiza el código DOT en segundo plano.
+     * @return Futuro con la imagen PNG, o con {@code null} si Graphviz falla o excede el tiempo
+     */
+    public CompletableFuture<byte[]> renderizar(String dot) {
+        byte[] enCache = buscarEnCache(dot);
+        if (enCache != null) {
+            return CompletableFuture.completedFuture(enCache);
+        }
+        return CompletableFuture.supplyAsync(() -> ejecutarDot(dot), ejecutor);
+    }
+
+    /**
+     * Renderiza el código DOT esperando como mucho el tiempo máximo configurado.
+     * Pensado para la generación de informes, que ya se ejecuta fuera del hilo de la interfaz.
+     * @return La imagen PNG o {@code null} si no se pudo generar
+     */
+    public byte[] renderizarSincrono(String dot) {
+        byte[] enCache = buscarEnCache(dot);
+        return enCache != null ? enCache : ejecutarDot(dot);
+    }
+
+    /**
+     * Solicita el renderizado de la última versión de un árbol. Si ya hay uno en
+     * curso para el mismo canal, la petición sustituye a la pendiente y solo se
+     * renderiza la más reciente cuando termine. El receptor se invoca desde un
+     * hilo de fondo (o desde el llamante si la imagen estaba en caché) y recibe
+     * {@code null} si no se pudo generar la imagen.
+     * @param canal Identificador de quien solicita (p. ej. la simulación)
+     */
+    public void solicitar(String canal, String dot, Consumer<byte[]> receptor) {
+        byte[] enCache = buscarEnCache(dot);
+        synchronized (this) {
+            secuencias.merge(canal, 1L, Long::sum);
+            if (enCache != null) {
+                // La petición más reciente ya está resuelta: descartar la pendiente
+                pendientes.remove(canal);
+                if (!Boolean.TRUE.equals(enCurso.get(canal))) {
+                    // Sin renderizado en curso no hay imagen que invalidar
+                    secuencias.remove(canal);
+                }
+            } else {
+                pendientes.put(canal, dot);
+                receptores.put(canal, receptor);
+                if (!Boolean.TRUE.equals(enCurso.get(canal))) {
+                    enCurso.put(canal, true);
+                    ejecutor.execute(() -> atenderCanal(canal));
+                }
+                return;
+            }
+        }
+        receptor.accept(enCache);
+    }
+
+    /**
+     * Vacía la caché de imágenes.
+     */
+    public synchronized void limpiarCache() {
+        cache.clear();
+    }
+
+    // ==================== Implementación ====================
+
+    private void atenderCanal(String canal) {
+        while (true) {
+            String dot;
+            Consumer<byte[]> receptor;
+            long secuencia;
+            synchronized (this) {
+                dot = pendientes.remove(canal);
+                receptor = receptores.get(canal);
+                secuencia = secuencias.getOrDefault(canal, 0L);
+                if (dot == null) {
+                    enCurso.remove(canal);
+                    receptores.remove(canal);
+                    secuencias.remove(canal);
+                    return;
+                }
+            }
+            byte[] imagen = renderizarSincrono(dot);
+            boolean vigente;
+            synchronized (this) {
+                // Si mientras tanto llegó otra petición, esta imagen ya no interesa
+                vigente = secuencias.getOrDefault(canal, 0L) == secuencia;
+            }
+            if (vigente) {
+                receptor.accept(imagen);
+            }
+        }
+    }
+
+    private byte[] ejecutarDot(String dot) {
+        Process proceso = null;
+        try {
+            proceso = new ProcessBuilder("dot", "-Tpng")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+            // Leer la salida en paralelo para que dot no se bloquee al llenar su buffer
+            InputStream salida = proceso.getInputStream();
+            Future<byte[]> lectura = ejecutor.submit(salida::readAllBytes);
+
+            try (OutputStream entrada = proceso.getOutputStream()) {
+                entrada.write(dot.getBytes(StandardCharsets.UTF_8));
+            }
+
+            byte[] imagen = lectura.get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (!proceso.waitFor(timeoutMs, TimeUnit.MILLISECONDS) || proceso.exitValue() != 0 || imagen.length == 0) {
+                return null;
+            }
+            guardarEnCache(dot, imagen);
+            return imagen;
+        } catch (TimeoutException e) {
+            LOGGER.log(Level.WARNING, "Graphviz superó el tiempo máximo de {0} ms", timeoutMs);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            // Graphviz no instalado o fallo al ejecutarlo
+            LOGGER.log(Level.WARNING, "No se pudo ejecutar Graphviz: {0}", e.getMessage());
+            return null;
+        } finally {
+            if (proceso != null && proceso.isAlive()) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+
+    private byte[] buscarEnCache(String dot) {
+        String clave = Resumen.sha256(dot);
+        synchronized (this) {
+            return cache.get(clave);
+        }
+    }
+
+    private void guardarEnCache(String dot, byte[] imagen) {
+        String clave = Resumen.sha256(dot);
+        synchronized (this) {
+            cache.put(clave, imagen);
+        }
+    }
+}
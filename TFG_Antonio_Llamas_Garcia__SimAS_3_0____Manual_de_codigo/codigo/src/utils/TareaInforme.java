@@ -0,0 +1,157 @@
+package utils;
+
+import informe.ProgresoInforme;
+import java.io.File;
+import java.util.ResourceBundle;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * Generación de un informe PDF en segundo plano.
+ *
+ * El generador recibe datos ya copiados (gramática, tabla e historial), de modo
+ * que el usuario puede seguir trabajando mientras se escribe el documento. Una
+ * ventana no modal muestra la sección en curso y permite cancelar; al terminar
+ * la misma ventana indica el resultado.
+ */
+public class TareaInforme extends Task<Boolean> implements ProgresoInforme {
+
+    /**
+     * Escribe el informe avisando del progreso. Devuelve false si no se pudo
+     * generar por un motivo esperado (por ejemplo, una gramática sin validar).
+     */
+    @FunctionalInterface
+    public interface Generador {
+        Boolean generar(ProgresoInforme progreso) throws Exception;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(TareaInforme.class.getName());
+
+    private final Generador generador;
+
+    public TareaInforme(Generador generador) {
+        this.generador = generador;
+    }
+
+    @Override
+    protected Boolean call() throws Exception {
+        return generador.generar(this);
+    }
+
+    @Override
+    public void seccion(String seccion, int completadas, int total) {
+        updateMessage(seccion);
+        updateProgress(completadas, total);
+    }
+
+    @Override
+    public boolean isCancelado() {
+        return isCancelled();
+    }
+
+    /**
+     * Lanza la generación en un hilo de fondo y muestra su progreso en una
+     * ventana no modal.
+     * @param propietario Ventana sobre la que se muestra el progreso
+     * @param archivo Archivo que se está generando
+     * @param mensajeFallo Mensaje si el generador devuelve false
+     */
+    public static TareaInforme lanzar(Window propietario, File archivo, ResourceBundle bundle,
+                                      String mensajeFallo, Generador generador) {
+        TareaInforme tarea = new TareaInforme(generador);
+
+        Stage ventana = new Stage();
+        ventana.initOwner(propietario);
+        ventana.initModality(Modality.NONE);
+        ventana.setTitle(Textos.texto(bundle, "editor.informe.tarea.titulo", "Generando informe"));
+
+        Label lblArchivo = new Label(archivo.getName());
+        lblArchivo.getStyleClass().add("dialog-header");
+        Label lblSeccion = new Label();
+        lblSeccion.setWrapText(true);
+        lblSeccion.textProperty().bind(tarea.messageProperty());
+        ProgressBar barra = new ProgressBar();
+        barra.setPrefWidth(320);
+        barra.progressProperty().bind(tarea.progressProperty());
+
+        Button btnCancelar = new Button(Textos.texto(bundle, "button.cancelar", "Cancelar"));
+        btnCancelar.getStyleClass().add("button-cancel");
+        btnCancelar.setMinWidth(120);
+        btnCancelar.setOnAction(e -> tarea.cancel());
+
+        HBox acciones = new HBox(15, btnCancelar);
+        acciones.setAlignment(Pos.CENTER);
+        acciones.getStyleClass().add("dialog-actions");
+
+        VBox contenedor = new VBox(12, lblArchivo, lblSeccion, barra, acciones);
+        contenedor.setAlignment(Pos.CENTER);
+        contenedor.setPadding(new Insets(20));
+        contenedor.getStyleClass().add("dialog-container");
+
+        Scene scene = new Scene(contenedor);
+        scene.getStylesheets().add(TareaInforme.class.getResource("/vistas/styles2.css").toExternalForm());
+        ventana.setScene(scene);
+        ventana.setResizable(false);
+
+        // Al terminar, la misma ventana muestra el resultado y el botón pasa a cerrarla
+        Runnable terminar = () -> {
+            lblSeccion.textProperty().unbind();
+            barra.progressProperty().unbind();
+            btnCancelar.setText(Textos.texto(bundle, "button.aceptar", "Aceptar"));
+            btnCancelar.getStyleClass().setAll("button", "button-finish");
+            btnCancelar.setOnAction(e -> ventana.close());
+        };
+        tarea.setOnSucceeded(e -> {
+            terminar.run();
+            barra.setProgress(1);
+            lblSeccion.setText(Boolean.TRUE.equals(tarea.getValue())
+                ? Textos.texto(bundle, "editor.informe.exito.mensaje", "Informe generado correctamente") + "\n" + archivo.getAbsolutePath()
+                : mensajeFallo);
+        });
+        tarea.setOnFailed(e -> {
+            terminar.run();
+            barra.setProgress(0);
+            Throwable error = tarea.getException();
+            if (error != null) LOGGER.log(Level.SEVERE, "Error al generar el informe " + archivo, error);
+            lblSeccion.setText(Textos.texto(bundle, "editor.informe.error.generacion", "Error al generar el informe")
+                + (error != null && error.getMessage() != null ? "\n" + error.getMessage() : ""));
+        });
+        // La cancelación se pide al momento, pero el generador la ve al empezar la
+        // sección o el bloque siguiente y solo entonces borra el archivo a medias
+        tarea.setOnCancelled(e -> {
+            lblSeccion.textProperty().unbind();
+            lblSeccion.setText(Textos.texto(bundle, "editor.informe.tarea.cancelando", "Cancelando el informe..."));
+            btnCancelar.setDisable(true);
+        });
+
+        ventana.show();
+
+        Thread hilo = new Thread(() -> {
+            tarea.run();
+            if (!tarea.isCancelled()) return;
+            Platform.runLater(() -> {
+                terminar.run();
+                barra.setProgress(0);
+                btnCancelar.setDisable(false);
+                lblSeccion.setText(Textos.texto(bundle, "editor.informe.tarea.cancelado",
+                    "Informe cancelado. Se ha borrado el archivo incompleto."));
+            });
+        }, "informe-pdf");
+        hilo.setDaemon(true);
+        hilo.start();
+        return tarea;
+    }
+}
@@ -0,0 +1,20 @@
+package utils;
+
+import java.util.ResourceBundle;
+
+/**
+ * Lectura de textos de messages_*.properties con un valor por defecto.
+ */
+public final class Textos {
+
+    private Textos() {
+    }
+
+    /**
+     * Texto de una clave, o el valor por defecto si no hay bundle o la clave no está definida.
+     */
+    public static String texto(ResourceBundle bundle, String clave, String porDefecto) {
+        if (bundle == null || !bundle.containsKey(clave)) return porDefecto;
+        return bundle.getString(clave);
+    }
+}